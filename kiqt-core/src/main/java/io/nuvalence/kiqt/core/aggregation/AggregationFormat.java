@@ -0,0 +1,87 @@
+package io.nuvalence.kiqt.core.aggregation;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Constants and protobuf primitives for the KPL aggregated record format:
+ * a 4 byte magic prefix, a protobuf encoded {@code AggregatedRecord} message,
+ * and the MD5 digest of that message.
+ */
+final class AggregationFormat {
+    static final byte[] MAGIC = {(byte) 0xF3, (byte) 0x89, (byte) 0x9A, (byte) 0xC2};
+    static final int DIGEST_LENGTH = 16;
+
+    // AggregatedRecord fields
+    static final int PARTITION_KEY_TABLE = 1;
+    static final int EXPLICIT_HASH_KEY_TABLE = 2;
+    static final int RECORDS = 3;
+
+    // Record fields
+    static final int PARTITION_KEY_INDEX = 1;
+    static final int EXPLICIT_HASH_KEY_INDEX = 2;
+    static final int DATA = 3;
+
+    static final int WIRE_TYPE_VARINT = 0;
+    static final int WIRE_TYPE_LENGTH_DELIMITED = 2;
+
+    private AggregationFormat() {
+    }
+
+    static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is required to be supported by every JVM", e);
+        }
+    }
+
+    static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static int tag(int field, int wireType) {
+        return (field << 3) | wireType;
+    }
+
+    static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Size of a length delimited field: its tag, length and payload.
+     */
+    static int lengthDelimitedSize(int length) {
+        return 1 + varintSize(length) + length;
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static void writeLengthDelimited(ByteArrayOutputStream out, int field, byte[] value) {
+        writeLengthDelimitedHeader(out, field, value.length);
+        out.write(value, 0, value.length);
+    }
+
+    static void writeLengthDelimitedHeader(ByteArrayOutputStream out, int field, int length) {
+        writeVarint(out, tag(field, WIRE_TYPE_LENGTH_DELIMITED));
+        writeVarint(out, length);
+    }
+
+    static void writeVarintField(ByteArrayOutputStream out, int field, long value) {
+        writeVarint(out, tag(field, WIRE_TYPE_VARINT));
+        writeVarint(out, value);
+    }
+}
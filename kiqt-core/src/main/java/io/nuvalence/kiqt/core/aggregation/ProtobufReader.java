@@ -0,0 +1,97 @@
+package io.nuvalence.kiqt.core.aggregation;
+
+import java.util.Arrays;
+
+/**
+ * Reads the protobuf wire format from a region of a byte array, supporting just
+ * enough of the format to decode KPL aggregated records.
+ */
+class ProtobufReader {
+    private static final int WIRE_TYPE_FIXED64 = 1;
+    private static final int WIRE_TYPE_FIXED32 = 5;
+
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    ProtobufReader(byte[] buffer, int offset, int limit) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = limit;
+    }
+
+    boolean hasRemaining() {
+        return position < limit;
+    }
+
+    int readTag() {
+        return (int) readVarint();
+    }
+
+    long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint");
+    }
+
+    byte[] readBytes() {
+        int length = readLength();
+        byte[] value = Arrays.copyOfRange(buffer, position, position + length);
+        position += length;
+        return value;
+    }
+
+    ProtobufReader readMessage() {
+        int length = readLength();
+        ProtobufReader message = new ProtobufReader(buffer, position, position + length);
+        position += length;
+        return message;
+    }
+
+    void skip(int tag) {
+        switch (tag & 0x7) {
+            case AggregationFormat.WIRE_TYPE_VARINT:
+                readVarint();
+                break;
+            case WIRE_TYPE_FIXED64:
+                advance(8);
+                break;
+            case AggregationFormat.WIRE_TYPE_LENGTH_DELIMITED:
+                advance(readLength());
+                break;
+            case WIRE_TYPE_FIXED32:
+                advance(4);
+                break;
+            default:
+                throw new IllegalArgumentException("unsupported wire type in tag " + tag);
+        }
+    }
+
+    private int readLength() {
+        long length = readVarint();
+        if (length < 0 || length > limit - position) {
+            throw new IllegalArgumentException("length " + length + " exceeds remaining message");
+        }
+        return (int) length;
+    }
+
+    private byte readByte() {
+        if (position >= limit) {
+            throw new IllegalArgumentException("unexpected end of message");
+        }
+        return buffer[position++];
+    }
+
+    private void advance(int count) {
+        if (count > limit - position) {
+            throw new IllegalArgumentException("unexpected end of message");
+        }
+        position += count;
+    }
+}
@@ -0,0 +1,214 @@
+package io.nuvalence.kiqt.core.aggregation;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Packs user records into a single Kinesis record using the KPL aggregation format, so
+ * that consumers that deaggregate (such as the KCL) see each user record individually.
+ *
+ * <p>The aggregated record is routed using the partition key and explicit hash key of the
+ * first user record it contains. Callers wanting strict per-key shard affinity should only
+ * aggregate records that route to the same shard.</p>
+ */
+public class RecordAggregator {
+    /**
+     * Maximum size of a Kinesis record, counting its data and partition key.
+     */
+    public static final int MAX_RECORD_SIZE = 1024 * 1024;
+
+    private static final int OVERHEAD = AggregationFormat.MAGIC.length + AggregationFormat.DIGEST_LENGTH;
+
+    private final int maxRecordSize;
+    private final Map<String, Integer> partitionKeys = new LinkedHashMap<>();
+    private final Map<String, Integer> explicitHashKeys = new LinkedHashMap<>();
+    private final List<PendingRecord> records = new ArrayList<>();
+    private int messageSize;
+    private String partitionKey;
+    private String explicitHashKey;
+    private int partitionKeySize;
+
+    /**
+     * Creates an aggregator producing records up to the Kinesis record size limit.
+     */
+    public RecordAggregator() {
+        this(MAX_RECORD_SIZE);
+    }
+
+    /**
+     * Creates an aggregator producing records up to the specified size.
+     *
+     * @param maxRecordSize maximum size of an aggregated record, counting its data and partition key
+     */
+    public RecordAggregator(int maxRecordSize) {
+        this.maxRecordSize = maxRecordSize;
+    }
+
+    /**
+     * Adds a user record if the aggregated record would stay within the size limit. The
+     * first record is always accepted, so that records too large to aggregate are passed
+     * through to Kinesis as is.
+     *
+     * @param partitionKey    partition key of the user record
+     * @param explicitHashKey explicit hash key of the user record, or null
+     * @param data            data of the user record
+     * @return true if the record was added, false if the aggregator is full
+     */
+    public boolean add(String partitionKey, String explicitHashKey, byte[] data) {
+        byte[] partitionKeyBytes = AggregationFormat.utf8(partitionKey);
+        int added = 0;
+
+        Integer partitionKeyIndex = partitionKeys.get(partitionKey);
+        if (partitionKeyIndex == null) {
+            partitionKeyIndex = partitionKeys.size();
+            added += AggregationFormat.lengthDelimitedSize(partitionKeyBytes.length);
+        }
+
+        Integer explicitHashKeyIndex = null;
+        if (explicitHashKey != null) {
+            explicitHashKeyIndex = explicitHashKeys.get(explicitHashKey);
+            if (explicitHashKeyIndex == null) {
+                explicitHashKeyIndex = explicitHashKeys.size();
+                added += AggregationFormat.lengthDelimitedSize(AggregationFormat.utf8(explicitHashKey).length);
+            }
+        }
+
+        PendingRecord record = new PendingRecord(partitionKeyIndex, explicitHashKeyIndex, data);
+        added += AggregationFormat.lengthDelimitedSize(record.size());
+
+        int outerPartitionKeySize = records.isEmpty() ? partitionKeyBytes.length : partitionKeySize;
+        if (!records.isEmpty() && OVERHEAD + messageSize + added + outerPartitionKeySize > maxRecordSize) {
+            return false;
+        }
+
+        if (records.isEmpty()) {
+            this.partitionKey = partitionKey;
+            this.explicitHashKey = explicitHashKey;
+            this.partitionKeySize = partitionKeyBytes.length;
+        }
+        partitionKeys.putIfAbsent(partitionKey, partitionKeyIndex);
+        if (explicitHashKey != null) {
+            explicitHashKeys.putIfAbsent(explicitHashKey, explicitHashKeyIndex);
+        }
+        records.add(record);
+        messageSize += added;
+        return true;
+    }
+
+    /**
+     * Gets the number of user records added since the aggregator was last cleared.
+     *
+     * @return number of user records
+     */
+    public int getRecordCount() {
+        return records.size();
+    }
+
+    /**
+     * Gets the size of the aggregated record, counting its data and partition key.
+     *
+     * @return size in bytes
+     */
+    public int getSizeBytes() {
+        if (records.size() == 1) {
+            return records.get(0).data.length + partitionKeySize;
+        }
+        return records.isEmpty() ? 0 : OVERHEAD + messageSize + partitionKeySize;
+    }
+
+    /**
+     * Builds a put records request entry from the user records added so far. A single user
+     * record is not worth the aggregation overhead and is returned unaggregated.
+     *
+     * @return put records request entry
+     * @throws IllegalStateException if no records have been added
+     */
+    public PutRecordsRequestEntry toEntry() {
+        if (records.isEmpty()) {
+            throw new IllegalStateException("no records to aggregate");
+        }
+
+        PutRecordsRequestEntry.Builder entry = PutRecordsRequestEntry.builder()
+            .partitionKey(partitionKey)
+            .explicitHashKey(explicitHashKey);
+        if (records.size() == 1) {
+            return entry.data(SdkBytes.fromByteArray(records.get(0).data)).build();
+        }
+
+        ByteArrayOutputStream message = new ByteArrayOutputStream(messageSize);
+        for (String key : partitionKeys.keySet()) {
+            AggregationFormat.writeLengthDelimited(
+                message, AggregationFormat.PARTITION_KEY_TABLE, AggregationFormat.utf8(key)
+            );
+        }
+        for (String key : explicitHashKeys.keySet()) {
+            AggregationFormat.writeLengthDelimited(
+                message, AggregationFormat.EXPLICIT_HASH_KEY_TABLE, AggregationFormat.utf8(key)
+            );
+        }
+        for (PendingRecord record : records) {
+            AggregationFormat.writeLengthDelimitedHeader(message, AggregationFormat.RECORDS, record.size());
+            record.writeTo(message);
+        }
+        byte[] messageBytes = message.toByteArray();
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream(OVERHEAD + messageBytes.length);
+        data.write(AggregationFormat.MAGIC, 0, AggregationFormat.MAGIC.length);
+        data.write(messageBytes, 0, messageBytes.length);
+        byte[] digest = AggregationFormat.md5().digest(messageBytes);
+        data.write(digest, 0, digest.length);
+        return entry.data(SdkBytes.fromByteArray(data.toByteArray())).build();
+    }
+
+    /**
+     * Removes all user records, so the aggregator can be reused for the next aggregated record.
+     */
+    public void clear() {
+        partitionKeys.clear();
+        explicitHashKeys.clear();
+        records.clear();
+        messageSize = 0;
+        partitionKey = null;
+        explicitHashKey = null;
+        partitionKeySize = 0;
+    }
+
+    /**
+     * A user record within an aggregated record, referencing its keys by index into the key tables.
+     */
+    private static class PendingRecord {
+        private final int partitionKeyIndex;
+        private final Integer explicitHashKeyIndex;
+        private final byte[] data;
+
+        PendingRecord(int partitionKeyIndex, Integer explicitHashKeyIndex, byte[] data) {
+            this.partitionKeyIndex = partitionKeyIndex;
+            this.explicitHashKeyIndex = explicitHashKeyIndex;
+            this.data = data;
+        }
+
+        int size() {
+            int size = 1 + AggregationFormat.varintSize(partitionKeyIndex);
+            if (explicitHashKeyIndex != null) {
+                size += 1 + AggregationFormat.varintSize(explicitHashKeyIndex);
+            }
+            return size + AggregationFormat.lengthDelimitedSize(data.length);
+        }
+
+        void writeTo(ByteArrayOutputStream out) {
+            AggregationFormat.writeVarintField(out, AggregationFormat.PARTITION_KEY_INDEX, partitionKeyIndex);
+            if (explicitHashKeyIndex != null) {
+                AggregationFormat.writeVarintField(
+                    out, AggregationFormat.EXPLICIT_HASH_KEY_INDEX, explicitHashKeyIndex
+                );
+            }
+            AggregationFormat.writeLengthDelimited(out, AggregationFormat.DATA, data);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package io.nuvalence.kiqt.core.aggregation;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.Record;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unpacks KPL aggregated records into the user records they contain. Records that are not
+ * aggregated, or whose digest does not match, are passed through unchanged, the same way
+ * the KCL treats them.
+ */
+public final class RecordDeaggregator {
+    private static final int PARTITION_KEY_TABLE_TAG =
+        AggregationFormat.tag(AggregationFormat.PARTITION_KEY_TABLE, AggregationFormat.WIRE_TYPE_LENGTH_DELIMITED);
+    private static final int EXPLICIT_HASH_KEY_TABLE_TAG =
+        AggregationFormat.tag(AggregationFormat.EXPLICIT_HASH_KEY_TABLE, AggregationFormat.WIRE_TYPE_LENGTH_DELIMITED);
+    private static final int RECORDS_TAG =
+        AggregationFormat.tag(AggregationFormat.RECORDS, AggregationFormat.WIRE_TYPE_LENGTH_DELIMITED);
+    private static final int PARTITION_KEY_INDEX_TAG =
+        AggregationFormat.tag(AggregationFormat.PARTITION_KEY_INDEX, AggregationFormat.WIRE_TYPE_VARINT);
+    private static final int EXPLICIT_HASH_KEY_INDEX_TAG =
+        AggregationFormat.tag(AggregationFormat.EXPLICIT_HASH_KEY_INDEX, AggregationFormat.WIRE_TYPE_VARINT);
+    private static final int DATA_TAG =
+        AggregationFormat.tag(AggregationFormat.DATA, AggregationFormat.WIRE_TYPE_LENGTH_DELIMITED);
+
+    private RecordDeaggregator() {
+    }
+
+    /**
+     * Unpacks a list of records, preserving order.
+     *
+     * @param records kinesis records
+     * @return user records
+     */
+    public static List<UserRecord> deaggregate(List<Record> records) {
+        List<UserRecord> result = new ArrayList<>();
+        if (records != null) {
+            for (Record record : records) {
+                result.addAll(deaggregate(record));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Unpacks a single record.
+     *
+     * @param record kinesis record
+     * @return user records in the order they were aggregated, or the record itself if it is not aggregated
+     */
+    public static List<UserRecord> deaggregate(Record record) {
+        byte[] data = record.data().asByteArray();
+        if (!isAggregated(data)) {
+            return Collections.singletonList(UserRecord.of(record));
+        }
+        try {
+            return decode(record, data);
+        } catch (IllegalArgumentException e) {
+            return Collections.singletonList(UserRecord.of(record));
+        }
+    }
+
+    /**
+     * Checks whether a record is a KPL aggregated record, verifying its magic prefix and digest.
+     *
+     * @param record kinesis record
+     * @return true if the record is aggregated
+     */
+    public static boolean isAggregated(Record record) {
+        return isAggregated(record.data().asByteArray());
+    }
+
+    private static boolean isAggregated(byte[] data) {
+        int messageLength = data.length - AggregationFormat.MAGIC.length - AggregationFormat.DIGEST_LENGTH;
+        if (messageLength < 0) {
+            return false;
+        }
+        for (int i = 0; i < AggregationFormat.MAGIC.length; i++) {
+            if (data[i] != AggregationFormat.MAGIC[i]) {
+                return false;
+            }
+        }
+        MessageDigest md5 = AggregationFormat.md5();
+        md5.update(data, AggregationFormat.MAGIC.length, messageLength);
+        return Arrays.equals(
+            md5.digest(),
+            Arrays.copyOfRange(data, data.length - AggregationFormat.DIGEST_LENGTH, data.length)
+        );
+    }
+
+    private static List<UserRecord> decode(Record record, byte[] data) {
+        List<String> partitionKeys = new ArrayList<>();
+        List<String> explicitHashKeys = new ArrayList<>();
+        List<ProtobufReader> records = new ArrayList<>();
+
+        ProtobufReader message = new ProtobufReader(
+            data, AggregationFormat.MAGIC.length, data.length - AggregationFormat.DIGEST_LENGTH
+        );
+        while (message.hasRemaining()) {
+            int tag = message.readTag();
+            if (tag == PARTITION_KEY_TABLE_TAG) {
+                partitionKeys.add(new String(message.readBytes(), StandardCharsets.UTF_8));
+            } else if (tag == EXPLICIT_HASH_KEY_TABLE_TAG) {
+                explicitHashKeys.add(new String(message.readBytes(), StandardCharsets.UTF_8));
+            } else if (tag == RECORDS_TAG) {
+                records.add(message.readMessage());
+            } else {
+                message.skip(tag);
+            }
+        }
+
+        List<UserRecord> result = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            result.add(decodeRecord(record, records.get(i), i, partitionKeys, explicitHashKeys));
+        }
+        return result;
+    }
+
+    private static UserRecord decodeRecord(Record aggregate,
+                                           ProtobufReader message,
+                                           long subSequenceNumber,
+                                           List<String> partitionKeys,
+                                           List<String> explicitHashKeys) {
+        Long partitionKeyIndex = null;
+        Long explicitHashKeyIndex = null;
+        byte[] data = null;
+        while (message.hasRemaining()) {
+            int tag = message.readTag();
+            if (tag == PARTITION_KEY_INDEX_TAG) {
+                partitionKeyIndex = message.readVarint();
+            } else if (tag == EXPLICIT_HASH_KEY_INDEX_TAG) {
+                explicitHashKeyIndex = message.readVarint();
+            } else if (tag == DATA_TAG) {
+                data = message.readBytes();
+            } else {
+                message.skip(tag);
+            }
+        }
+        if (partitionKeyIndex == null || data == null) {
+            throw new IllegalArgumentException("aggregated record is missing a partition key or data");
+        }
+
+        Record record = aggregate.toBuilder()
+            .partitionKey(lookup(partitionKeys, partitionKeyIndex))
+            .data(SdkBytes.fromByteArray(data))
+            .build();
+        String explicitHashKey = explicitHashKeyIndex == null ? null : lookup(explicitHashKeys, explicitHashKeyIndex);
+        return new UserRecord(record, explicitHashKey, subSequenceNumber, true);
+    }
+
+    private static String lookup(List<String> table, long index) {
+        if (index < 0 || index >= table.size()) {
+            throw new IllegalArgumentException("key index " + index + " out of range");
+        }
+        return table.get((int) index);
+    }
+}
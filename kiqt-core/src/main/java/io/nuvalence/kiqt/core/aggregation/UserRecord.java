@@ -0,0 +1,78 @@
+package io.nuvalence.kiqt.core.aggregation;
+
+import software.amazon.awssdk.services.kinesis.model.Record;
+
+/**
+ * A record as written by a producer, which may have been packed together with other
+ * user records into a single aggregated Kinesis record.
+ */
+public class UserRecord {
+    private final Record record;
+    private final String explicitHashKey;
+    private final long subSequenceNumber;
+    private final boolean aggregated;
+
+    /**
+     * Creates a user record.
+     *
+     * @param record            kinesis record carrying the user record's partition key and data, and the sequence
+     *                          number of the aggregated record it was read from
+     * @param explicitHashKey   explicit hash key the user record was written with, or null
+     * @param subSequenceNumber position of the user record within the aggregated record
+     * @param aggregated        whether the user record was read from an aggregated record
+     */
+    public UserRecord(Record record, String explicitHashKey, long subSequenceNumber, boolean aggregated) {
+        this.record = record;
+        this.explicitHashKey = explicitHashKey;
+        this.subSequenceNumber = subSequenceNumber;
+        this.aggregated = aggregated;
+    }
+
+    /**
+     * Wraps a record that was not aggregated.
+     *
+     * @param record kinesis record
+     * @return user record
+     */
+    public static UserRecord of(Record record) {
+        return new UserRecord(record, null, 0, false);
+    }
+
+    /**
+     * Gets the user record as a kinesis record, sharing the sequence number, arrival
+     * timestamp and encryption type of the aggregated record it was read from.
+     *
+     * @return kinesis record
+     */
+    public Record getRecord() {
+        return record;
+    }
+
+    /**
+     * Gets the explicit hash key the user record was written with.
+     *
+     * @return explicit hash key, or null
+     */
+    public String getExplicitHashKey() {
+        return explicitHashKey;
+    }
+
+    /**
+     * Gets the position of the user record within its aggregated record. Together with
+     * the sequence number, this uniquely identifies and orders user records in a shard.
+     *
+     * @return sub-sequence number, zero if the record was not aggregated
+     */
+    public long getSubSequenceNumber() {
+        return subSequenceNumber;
+    }
+
+    /**
+     * Gets whether the user record was read from an aggregated record.
+     *
+     * @return true if aggregated
+     */
+    public boolean isAggregated() {
+        return aggregated;
+    }
+}
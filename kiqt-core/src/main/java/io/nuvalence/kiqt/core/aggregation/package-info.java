@@ -0,0 +1,5 @@
+/**
+ * Pack and unpack user records using the Kinesis Producer Library aggregation format.
+ */
+
+package io.nuvalence.kiqt.core.aggregation;
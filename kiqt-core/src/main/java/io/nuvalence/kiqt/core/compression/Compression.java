@@ -0,0 +1,167 @@
+package io.nuvalence.kiqt.core.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+/**
+ * Compression codecs for record data. Each codec writes its standard framed format, which
+ * starts with a magic number, so compressed records can be told apart from uncompressed
+ * ones and decompressed by producers and consumers using the usual libraries.
+ */
+public enum Compression {
+    /**
+     * Leaves data as is.
+     */
+    NONE(new byte[0]) {
+        @Override
+        OutputStream compressing(OutputStream out) {
+            return out;
+        }
+
+        @Override
+        InputStream decompressing(InputStream in) {
+            return in;
+        }
+    },
+
+    /**
+     * Gzip format.
+     */
+    GZIP(new byte[] {(byte) 0x1F, (byte) 0x8B}) {
+        @Override
+        OutputStream compressing(OutputStream out) throws IOException {
+            return new GZIPOutputStream(out);
+        }
+
+        @Override
+        InputStream decompressing(InputStream in) throws IOException {
+            return new GZIPInputStream(in);
+        }
+    },
+
+    /**
+     * Zstandard frame format.
+     */
+    ZSTD(new byte[] {(byte) 0x28, (byte) 0xB5, (byte) 0x2F, (byte) 0xFD}) {
+        @Override
+        OutputStream compressing(OutputStream out) throws IOException {
+            return new ZstdOutputStream(out);
+        }
+
+        @Override
+        InputStream decompressing(InputStream in) throws IOException {
+            return new ZstdInputStream(in);
+        }
+    },
+
+    /**
+     * LZ4 frame format.
+     */
+    LZ4(new byte[] {(byte) 0x04, (byte) 0x22, (byte) 0x4D, (byte) 0x18}) {
+        @Override
+        OutputStream compressing(OutputStream out) throws IOException {
+            return new LZ4FrameOutputStream(out);
+        }
+
+        @Override
+        InputStream decompressing(InputStream in) throws IOException {
+            return new LZ4FrameInputStream(in);
+        }
+    };
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final byte[] magic;
+
+    Compression(byte[] magic) {
+        this.magic = magic;
+    }
+
+    /**
+     * Detects the compression of data from its leading magic number. Uncompressed data may
+     * start with a magic number by chance, so detected compression can fail to decompress.
+     *
+     * @param data record data
+     * @return compression of the data, or {@link #NONE} if it is not recognized
+     */
+    public static Compression detect(byte[] data) {
+        for (Compression compression : values()) {
+            if (compression != NONE && compression.matches(data)) {
+                return compression;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Checks whether data starts with the magic number of this compression.
+     *
+     * @param data record data
+     * @return true if the data may have been compressed with this compression
+     */
+    public boolean matches(byte[] data) {
+        if (data == null || data.length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (data[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compresses data.
+     *
+     * @param data uncompressed data
+     * @return compressed data
+     * @throws IOException if the data cannot be compressed
+     */
+    public byte[] compress(byte[] data) throws IOException {
+        if (this == NONE) {
+            return data;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(32, data.length / 2));
+        try (OutputStream out = compressing(buffer)) {
+            out.write(data);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Decompresses data.
+     *
+     * @param data compressed data
+     * @return uncompressed data
+     * @throws IOException if the data is not valid for this compression
+     */
+    public byte[] decompress(byte[] data) throws IOException {
+        if (this == NONE) {
+            return data;
+        }
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length * 4);
+        try (InputStream in = decompressing(new ByteArrayInputStream(data))) {
+            byte[] chunk = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                buffer.write(chunk, 0, read);
+            }
+        }
+        return buffer.toByteArray();
+    }
+
+    abstract OutputStream compressing(OutputStream out) throws IOException;
+
+    abstract InputStream decompressing(InputStream in) throws IOException;
+}
@@ -0,0 +1,5 @@
+/**
+ * Compress and decompress record data.
+ */
+
+package io.nuvalence.kiqt.core.compression;
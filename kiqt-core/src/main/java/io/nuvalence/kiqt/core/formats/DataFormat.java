@@ -0,0 +1,185 @@
+package io.nuvalence.kiqt.core.formats;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.FormatSchema;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.avro.AvroMapper;
+import com.fasterxml.jackson.dataformat.avro.AvroSchema;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.protobuf.ProtobufMapper;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchema;
+import com.fasterxml.jackson.dataformat.protobuf.schema.ProtobufSchemaLoader;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.apache.avro.Schema;
+
+/**
+ * Encoding of record data, pairing an object mapper for the format with the schema it
+ * requires, if any. Schemaless formats (JSON, Smile and CBOR) serialize any object, while
+ * Avro and Protobuf map objects field by field against their schema, so the same record
+ * classes can be used with every format.
+ */
+public final class DataFormat {
+    private final String name;
+    private final ObjectMapper mapper;
+    private final FormatSchema schema;
+
+    private DataFormat(String name, ObjectMapper mapper, FormatSchema schema) {
+        this.name = name;
+        this.mapper = mapper;
+        this.schema = schema;
+    }
+
+    /**
+     * Creates a JSON format using a default object mapper.
+     *
+     * @return JSON format
+     */
+    public static DataFormat json() {
+        return json(new ObjectMapper());
+    }
+
+    /**
+     * Creates a JSON format using the specified object mapper.
+     *
+     * @param mapper object mapper used to serialize and deserialize records
+     * @return JSON format
+     */
+    public static DataFormat json(ObjectMapper mapper) {
+        return new DataFormat("json", mapper, null);
+    }
+
+    /**
+     * Creates a Smile format, the binary equivalent of JSON.
+     *
+     * @return Smile format
+     */
+    public static DataFormat smile() {
+        return new DataFormat("smile", new ObjectMapper(new SmileFactory()), null);
+    }
+
+    /**
+     * Creates a CBOR format.
+     *
+     * @return CBOR format
+     */
+    public static DataFormat cbor() {
+        return new DataFormat("cbor", new ObjectMapper(new CBORFactory()), null);
+    }
+
+    /**
+     * Creates an Avro format writing and reading records with the specified schema.
+     *
+     * @param schemaDefinition Avro schema, as JSON
+     * @return Avro format
+     */
+    public static DataFormat avro(String schemaDefinition) {
+        return new DataFormat("avro", new AvroMapper(), new AvroSchema(new Schema.Parser().parse(schemaDefinition)));
+    }
+
+    /**
+     * Creates an Avro format with a schema generated from the specified record class.
+     *
+     * @param recordType record class
+     * @return Avro format
+     * @throws JsonMappingException if a schema cannot be generated for the class
+     */
+    public static DataFormat avro(Class<?> recordType) throws JsonMappingException {
+        AvroMapper mapper = new AvroMapper();
+        return new DataFormat("avro", mapper, mapper.schemaFor(recordType));
+    }
+
+    /**
+     * Creates a Protobuf format writing and reading records as the first message type
+     * declared in the specified schema.
+     *
+     * @param protoDefinition contents of a .proto file
+     * @return Protobuf format
+     * @throws IOException if the definition cannot be parsed
+     */
+    public static DataFormat protobuf(String protoDefinition) throws IOException {
+        return new DataFormat("protobuf", new ProtobufMapper(), ProtobufSchemaLoader.std.parse(protoDefinition));
+    }
+
+    /**
+     * Creates a Protobuf format with a schema generated from the specified record class.
+     *
+     * @param recordType record class
+     * @return Protobuf format
+     * @throws JsonMappingException if a schema cannot be generated for the class
+     */
+    public static DataFormat protobuf(Class<?> recordType) throws JsonMappingException {
+        ProtobufMapper mapper = new ProtobufMapper();
+        ProtobufSchema schema = mapper.generateSchemaFor(recordType);
+        return new DataFormat("protobuf", mapper, schema);
+    }
+
+    /**
+     * Creates a custom format, for any other Jackson data format module.
+     *
+     * @param name   name of the format
+     * @param mapper object mapper for the format
+     * @param schema schema required by the format, or null
+     * @return custom format
+     */
+    public static DataFormat of(String name, ObjectMapper mapper, FormatSchema schema) {
+        return new DataFormat(name, mapper, schema);
+    }
+
+    /**
+     * Gets a writer serializing objects of the specified class in this format.
+     *
+     * @param type record class
+     * @return object writer
+     */
+    public ObjectWriter writerFor(Class<?> type) {
+        ObjectWriter writer = mapper.writerFor(type);
+        return schema == null ? writer : writer.with(schema);
+    }
+
+    /**
+     * Gets a reader deserializing objects of the specified class from this format.
+     *
+     * @param type record class
+     * @return object reader
+     */
+    public ObjectReader readerFor(Class<?> type) {
+        ObjectReader reader = mapper.readerFor(type);
+        return schema == null ? reader : reader.with(schema);
+    }
+
+    /**
+     * Gets the name of the format.
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the object mapper for the format.
+     *
+     * @return object mapper
+     */
+    public ObjectMapper getObjectMapper() {
+        return mapper;
+    }
+
+    /**
+     * Gets the schema required by the format.
+     *
+     * @return schema, or null for schemaless formats
+     */
+    public FormatSchema getSchema() {
+        return schema;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
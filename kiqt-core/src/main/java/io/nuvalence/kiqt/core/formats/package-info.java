@@ -0,0 +1,5 @@
+/**
+ * Data formats used to encode records written to and read from Kinesis.
+ */
+
+package io.nuvalence.kiqt.core.formats;
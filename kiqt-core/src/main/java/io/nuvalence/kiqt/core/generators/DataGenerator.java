@@ -0,0 +1,169 @@
+package io.nuvalence.kiqt.core.generators;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Seeded generator of synthetic records. Each record is created from its own random number
+ * generator, seeded by mixing the generator's seed with the record's position the way
+ * SplitMix64 does, so records can be produced lazily, in any order and on any number of
+ * threads, and the same seed always yields the same sequence.
+ *
+ * <p>An observer, such as {@link ExpectedOutputs}, may be given to see each record as it is
+ * produced, so that expected results are computed in the same pass that generates the input.</p>
+ *
+ * @param <T> record type
+ */
+public class DataGenerator<T> {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long seed;
+    private final RecordFactory<T> factory;
+
+    /**
+     * Creates a generator.
+     *
+     * @param seed    seed from which every record is derived
+     * @param factory creates each record
+     */
+    public DataGenerator(long seed, RecordFactory<T> factory) {
+        this.seed = seed;
+        this.factory = factory;
+    }
+
+    /**
+     * Gets the seed from which every record is derived, eg: to log it so a failing run can be repeated.
+     *
+     * @return seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Creates the record at the specified position.
+     *
+     * @param index position of the record
+     * @return record
+     */
+    public T get(long index) {
+        return factory.create(index, new SplittableRandom(seedFor(index)));
+    }
+
+    /**
+     * Creates a UUID derived from the seed and a key, such as the index of a device shared by
+     * several records, that is unique across keys but stable across runs with the same seed.
+     *
+     * @param key identifies the entity
+     * @return uuid
+     */
+    public UUID uuid(long key) {
+        return uuid(seed, key);
+    }
+
+    /**
+     * Creates a UUID derived from a seed and a key, eg: to identify entities before the
+     * generator that creates their records exists.
+     *
+     * @param seed seed of the generator
+     * @param key  identifies the entity
+     * @return uuid
+     * @see #uuid(long)
+     */
+    public static UUID uuid(long seed, long key) {
+        long high = mix(seed ^ mix(key + GOLDEN_GAMMA));
+        return new UUID(high, mix(high + GOLDEN_GAMMA));
+    }
+
+    /**
+     * Lazily creates the records at positions {@code 0} to {@code count - 1}.
+     *
+     * @param count number of records
+     * @return iterator of records
+     */
+    public Iterator<T> iterator(long count) {
+        return iterator(count, record -> { });
+    }
+
+    /**
+     * Lazily creates the records at positions {@code 0} to {@code count - 1}, handing each
+     * to the observer as it is produced.
+     *
+     * @param count    number of records
+     * @param observer sees every record produced
+     * @return iterator of records
+     */
+    public Iterator<T> iterator(long count, Consumer<? super T> observer) {
+        return new Iterator<T>() {
+            private long next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public T next() {
+                if (next >= count) {
+                    throw new NoSuchElementException();
+                }
+                T record = get(next++);
+                observer.accept(record);
+                return record;
+            }
+        };
+    }
+
+    /**
+     * Lazily creates the records at positions {@code 0} to {@code count - 1}. The stream may
+     * be made parallel without changing the records it contains.
+     *
+     * @param count number of records
+     * @return stream of records
+     */
+    public Stream<T> stream(long count) {
+        return LongStream.range(0, count).mapToObj(this::get);
+    }
+
+    /**
+     * Lazily creates the records at positions {@code 0} to {@code count - 1}, handing each to
+     * the observer as it is produced. The observer must be thread-safe if the stream is made parallel.
+     *
+     * @param count    number of records
+     * @param observer sees every record produced
+     * @return stream of records
+     */
+    public Stream<T> stream(long count, Consumer<? super T> observer) {
+        return stream(count).peek(observer);
+    }
+
+    /**
+     * Creates the records at positions {@code 0} to {@code count - 1} in memory.
+     *
+     * @param count    number of records
+     * @param observer sees every record produced
+     * @return list of records
+     */
+    public List<T> list(int count, Consumer<? super T> observer) {
+        List<T> records = new ArrayList<>(count);
+        iterator(count, observer).forEachRemaining(records::add);
+        return records;
+    }
+
+    private long seedFor(long index) {
+        return mix(seed + (index + 1) * GOLDEN_GAMMA);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,119 @@
+package io.nuvalence.kiqt.core.generators;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * Computes the outputs an application is expected to produce from generated records, one
+ * record at a time as they are generated, by grouping records by key and accumulating each
+ * group with a {@link Collector}. Records may be accepted from multiple threads.
+ *
+ * @param <T> input record type
+ * @param <K> group key type
+ * @param <R> expected output type
+ */
+public class ExpectedOutputs<T, K, R> implements Consumer<T> {
+    private final Function<? super T, ? extends K> classifier;
+    private final Supplier<Object> supplier;
+    private final BiConsumer<Object, ? super T> accumulator;
+    private final Function<Object, R> finisher;
+    private final Map<K, Object> groups = new ConcurrentHashMap<>();
+    private final LongAdder recordCount = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    private <A> ExpectedOutputs(Function<? super T, ? extends K> classifier, Collector<? super T, A, R> collector) {
+        this.classifier = classifier;
+        this.supplier = (Supplier<Object>) collector.supplier();
+        this.accumulator = (BiConsumer<Object, ? super T>) collector.accumulator();
+        this.finisher = (Function<Object, R>) collector.finisher();
+    }
+
+    /**
+     * Creates expected outputs grouping records by key.
+     *
+     * @param classifier gets the group key of a record
+     * @param collector  accumulates the records of a group into its expected output
+     * @param <T>        input record type
+     * @param <K>        group key type
+     * @param <A>        accumulation type
+     * @param <R>        expected output type
+     * @return expected outputs
+     */
+    public static <T, K, A, R> ExpectedOutputs<T, K, R> groupingBy(Function<? super T, ? extends K> classifier,
+                                                                  Collector<? super T, A, R> collector) {
+        return new ExpectedOutputs<>(classifier, collector);
+    }
+
+    /**
+     * Accumulates a record into its group.
+     *
+     * @param record generated record
+     */
+    @Override
+    public void accept(T record) {
+        Object group = groups.computeIfAbsent(classifier.apply(record), key -> supplier.get());
+        synchronized (group) {
+            accumulator.accept(group, record);
+        }
+        recordCount.increment();
+    }
+
+    /**
+     * Gets the number of records accumulated.
+     *
+     * @return record count
+     */
+    public long getRecordCount() {
+        return recordCount.sum();
+    }
+
+    /**
+     * Gets the expected output of a group. Outputs should be read once generation is complete.
+     *
+     * @param key group key
+     * @return expected output, or null if no record belongs to the group
+     */
+    public R get(K key) {
+        Object group = key == null ? null : groups.get(key);
+        if (group == null) {
+            return null;
+        }
+        synchronized (group) {
+            return finisher.apply(group);
+        }
+    }
+
+    /**
+     * Gets the expected output of every group. Outputs should be read once generation is complete.
+     *
+     * @return expected outputs by group key
+     */
+    public Map<K, R> getOutputs() {
+        Map<K, R> outputs = new HashMap<>();
+        groups.keySet().forEach(key -> outputs.put(key, get(key)));
+        return outputs;
+    }
+
+    /**
+     * Converts the expected output of every group, eg: into the record type the application emits.
+     *
+     * @param mapper given a group key and its expected output, creates an output record
+     * @param <O>    output record type
+     * @return output records
+     */
+    public <O> List<O> toList(BiFunction<? super K, ? super R, ? extends O> mapper) {
+        List<O> outputs = new ArrayList<>(groups.size());
+        getOutputs().forEach((key, output) -> outputs.add(mapper.apply(key, output)));
+        return outputs;
+    }
+}
@@ -0,0 +1,22 @@
+package io.nuvalence.kiqt.core.generators;
+
+import java.util.SplittableRandom;
+
+/**
+ * Creates a synthetic record.
+ *
+ * @param <T> record type
+ */
+@FunctionalInterface
+public interface RecordFactory<T> {
+    /**
+     * Creates the record at the specified position. Implementations should draw all random
+     * values from the given generator, which is seeded for this position alone, so that the
+     * same record is created however records are partitioned across threads.
+     *
+     * @param index  position of the record in the generated sequence
+     * @param random random number generator for this record
+     * @return record
+     */
+    T create(long index, SplittableRandom random);
+}
@@ -0,0 +1,5 @@
+/**
+ * Generate reproducible synthetic records along with the outputs expected from them.
+ */
+
+package io.nuvalence.kiqt.core.generators;
@@ -3,7 +3,7 @@ package io.nuvalence.kiqt.core.inputs;
 import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
 
 import java.io.IOException;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -31,7 +31,7 @@ public abstract class AbstractPutRecordsRequestTranslator<T> {
      * @throws IOException if an item cannot be translated
      */
     public List<PutRecordsRequestEntry> toEntries(List<T> items) throws IOException {
-        LinkedList<PutRecordsRequestEntry> result = new LinkedList<>();
+        List<PutRecordsRequestEntry> result = new ArrayList<>(items == null ? 0 : items.size());
         if (items != null && !items.isEmpty()) {
             for (T item : items) {
                 result.add(toEntry(item));
@@ -0,0 +1,199 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import io.nuvalence.kiqt.core.shards.ShardStatistics;
+import io.nuvalence.kiqt.core.throughput.AimdController;
+import io.nuvalence.kiqt.core.throughput.TokenBucket;
+
+import software.amazon.awssdk.services.kinesis.KinesisClient;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Ticker;
+
+/**
+ * Shard-aware writer that paces the records it sends to each shard, adapting every shard's
+ * rate to the throttling it meets with an {@link AimdController}: the rate grows steadily
+ * while requests succeed and is cut whenever the shard throttles. Writing for long enough to
+ * throttle every shard finds the capacity of the stream, reported as its maximum sustainable
+ * throughput, instead of searching for it by hand across test runs.
+ *
+ * @param <T> record type
+ */
+public class AdaptiveRateStreamWriter<T> extends ShardRoutingStreamWriter<T> {
+    private static final double BURST_SECONDS = 0.1;
+
+    private final Ticker ticker;
+    private final Map<String, ShardRate> rates = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a writer with the specified stream as a destination using the default configuration.
+     *
+     * @param streamName      name of destination stream
+     * @param entryTranslator translates objects to an entries in a put records request
+     */
+    public AdaptiveRateStreamWriter(String streamName, AbstractPutRecordsRequestTranslator<T> entryTranslator) {
+        this(KinesisClient.create(), streamName, entryTranslator, new WriterConfiguration());
+    }
+
+    /**
+     * Creates a writer with the specified client, destination stream and configuration.
+     *
+     * @param client        client used to list shards and write to destination
+     * @param streamName    name of destination stream
+     * @param translator    maps a record to a {@link PutRecordsRequestEntry}
+     * @param configuration batching, per-shard rate and retry configuration
+     */
+    public AdaptiveRateStreamWriter(KinesisClient client, String streamName,
+                                    AbstractPutRecordsRequestTranslator<T> translator,
+                                    WriterConfiguration configuration) {
+        this(client, streamName, translator, configuration, Ticker.systemTicker());
+    }
+
+    AdaptiveRateStreamWriter(KinesisClient client, String streamName,
+                             AbstractPutRecordsRequestTranslator<T> translator,
+                             WriterConfiguration configuration,
+                             Ticker ticker) {
+        super(client, streamName, translator, configuration, ticker);
+        this.ticker = ticker;
+    }
+
+    /**
+     * Gets the rate, in records per second, each shard written to is currently paced at.
+     *
+     * @return records per second by shard id
+     */
+    public Map<String, Double> getShardRates() {
+        Map<String, Double> shardRates = new LinkedHashMap<>();
+        rates.forEach((shardId, rate) -> shardRates.put(shardId, rate.controller.getRate()));
+        return shardRates;
+    }
+
+    /**
+     * Gets whether every shard written to has throttled, so that the sustainable throughput
+     * measures the capacity of the stream rather than a lower bound of it.
+     *
+     * @return true if every shard has been saturated
+     */
+    public boolean isSaturated() {
+        return !rates.isEmpty() && rates.values().stream().allMatch(rate -> rate.controller.isSaturated());
+    }
+
+    /**
+     * Gets the maximum sustainable throughput of the stream in records per second: the sum,
+     * over the shards written to, of the smoothed rate at which each shard started throttling.
+     *
+     * @return records per second
+     * @see #isSaturated()
+     */
+    public double getSustainableRecordsPerSecond() {
+        return rates.values().stream().mapToDouble(rate -> rate.controller.getSustainableRate()).sum();
+    }
+
+    /**
+     * Gets the maximum sustainable throughput of the stream in bytes per second, assuming the
+     * average size of the records written to each shard so far.
+     *
+     * @return bytes per second
+     * @see #getSustainableRecordsPerSecond()
+     */
+    public double getSustainableBytesPerSecond() {
+        double bytesPerSecond = 0;
+        for (ShardStatistics shard : getShardStatistics()) {
+            ShardRate rate = rates.get(shard.getShardId());
+            if (rate != null && shard.getRecordsSent() > 0) {
+                double averageSize = shard.getBytesSent() / (double) shard.getRecordsSent();
+                bytesPerSecond += rate.controller.getSustainableRate() * averageSize;
+            }
+        }
+        return bytesPerSecond;
+    }
+
+    @Override
+    void beforeBatch(PutRecordsTracker tracker, List<Integer> batch) throws IOException {
+        Map<String, Integer> entriesPerShard = new HashMap<>();
+        for (int index : batch) {
+            entriesPerShard.merge(shardIdFor(tracker.getEntry(index)), 1, Integer::sum);
+        }
+        long waitNanos = 0;
+        for (Map.Entry<String, Integer> shard : entriesPerShard.entrySet()) {
+            waitNanos = Math.max(waitNanos, rateOf(shard.getKey()).bucket.reserve(shard.getValue()));
+        }
+        if (waitNanos > 0) {
+            pause(waitNanos);
+        }
+    }
+
+    @Override
+    void afterBatch(PutRecordsTracker tracker, List<Integer> batch, PutRecordsResponse response) {
+        super.afterBatch(tracker, batch, response);
+        Set<String> sent = new HashSet<>();
+        Set<String> throttled = new HashSet<>();
+        List<PutRecordsResultEntry> results = response.records();
+        for (int i = 0; i < batch.size(); i++) {
+            PutRecordsResultEntry result = results.get(i);
+            String shardId = shardIdOf(tracker.getEntry(batch.get(i)), result);
+            sent.add(shardId);
+            if (THROTTLED.equals(result.errorCode())) {
+                throttled.add(shardId);
+            }
+        }
+        for (String shardId : sent) {
+            ShardRate rate = rateOf(shardId);
+            rate.setRate(throttled.contains(shardId) ? rate.controller.onThrottle() : rate.controller.onSuccess());
+        }
+    }
+
+    private ShardRate rateOf(String shardId) {
+        return rates.computeIfAbsent(shardId, id -> new ShardRate(getConfiguration(), ticker));
+    }
+
+    private static void pause(long nanos) throws InterruptedIOException {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while pacing");
+        }
+    }
+
+    /**
+     * Rate controller and pacing bucket of a single shard.
+     */
+    private static class ShardRate {
+        private final AimdController controller;
+        private final TokenBucket bucket;
+
+        ShardRate(WriterConfiguration configuration, Ticker ticker) {
+            double initialRate = configuration.getInitialShardRate();
+            this.controller = new AimdController(
+                initialRate,
+                configuration.getMinShardRate(),
+                configuration.getMaxShardRate(),
+                configuration.getShardRateIncrease(),
+                configuration.getShardRateDecreaseFactor()
+            );
+            this.bucket = new TokenBucket(initialRate, burst(initialRate), ticker);
+        }
+
+        void setRate(double rate) {
+            bucket.setRate(rate);
+            bucket.setCapacity(burst(rate));
+        }
+
+        private static double burst(double rate) {
+            return Math.max(1, rate * BURST_SECONDS);
+        }
+    }
+}
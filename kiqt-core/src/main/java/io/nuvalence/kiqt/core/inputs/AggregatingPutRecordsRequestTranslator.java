@@ -0,0 +1,139 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import io.nuvalence.kiqt.core.aggregation.RecordAggregator;
+import io.nuvalence.kiqt.core.shards.ShardMap;
+
+import software.amazon.awssdk.services.kinesis.KinesisClient;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Translates objects to put records request entries using a delegate translator, then packs
+ * entries bound for the same shard into KPL aggregated records, each within the Kinesis record
+ * size limit. The delegate translates each batch as a whole, so it may itself translate in parallel.
+ *
+ * <p>An aggregated record is routed by the keys of its first user record, and consumers that
+ * deaggregate (such as the KCL) discard user records whose keys fall outside the hash key range
+ * of the shard they were read from. Like the KPL, this translator therefore keeps one aggregated
+ * record per shard, predicting shards from their hash key ranges. Without a {@link ShardMap},
+ * only user records with the same hash key are aggregated together.</p>
+ *
+ * <p>Entries are no longer mapped 1:1 from the input items, so results in the put records
+ * response correspond to aggregated records rather than individual items.</p>
+ *
+ * @param <T> input type
+ */
+public class AggregatingPutRecordsRequestTranslator<T> extends AbstractPutRecordsRequestTranslator<T> {
+    private AbstractPutRecordsRequestTranslator<T> delegate;
+    private Supplier<ShardMap> shardMap;
+    private int maxRecordSize;
+
+    /**
+     * Creates a translator producing aggregated records up to the Kinesis record size limit,
+     * aggregating only user records with the same hash key.
+     *
+     * @param delegate translates each item to a user record
+     */
+    public AggregatingPutRecordsRequestTranslator(AbstractPutRecordsRequestTranslator<T> delegate) {
+        this(delegate, RecordAggregator.MAX_RECORD_SIZE);
+    }
+
+    /**
+     * Creates a translator producing aggregated records up to the specified size, aggregating
+     * only user records with the same hash key.
+     *
+     * @param delegate      translates each item to a user record
+     * @param maxRecordSize maximum size of an aggregated record, counting its data and partition key
+     */
+    public AggregatingPutRecordsRequestTranslator(AbstractPutRecordsRequestTranslator<T> delegate,
+                                                  int maxRecordSize) {
+        this(delegate, null, maxRecordSize);
+    }
+
+    /**
+     * Creates a translator producing aggregated records up to the Kinesis record size limit,
+     * aggregating user records bound for the same shard of the specified stream. Shards are
+     * listed when the first items are translated, then again periodically to follow resharding.
+     *
+     * @param delegate   translates each item to a user record
+     * @param client     client used to list the stream's shards
+     * @param streamName name of destination stream
+     */
+    public AggregatingPutRecordsRequestTranslator(AbstractPutRecordsRequestTranslator<T> delegate,
+                                                  KinesisClient client, String streamName) {
+        this(delegate, ShardMap.refreshing(client, streamName), RecordAggregator.MAX_RECORD_SIZE);
+    }
+
+    /**
+     * Creates a translator producing aggregated records up to the specified size, aggregating
+     * user records bound for the same shard.
+     *
+     * @param delegate      translates each item to a user record
+     * @param shardMap      supplies the shards records are routed to, or null to aggregate only
+     *                      user records with the same hash key
+     * @param maxRecordSize maximum size of an aggregated record, counting its data and partition key
+     */
+    public AggregatingPutRecordsRequestTranslator(AbstractPutRecordsRequestTranslator<T> delegate,
+                                                  Supplier<ShardMap> shardMap, int maxRecordSize) {
+        this.delegate = delegate;
+        this.shardMap = shardMap;
+        this.maxRecordSize = maxRecordSize;
+    }
+
+    @Override
+    PutRecordsRequestEntry toEntry(T item) throws IOException {
+        return delegate.toEntry(item);
+    }
+
+    /**
+     * Converts a list of objects to aggregated put records request entries.
+     *
+     * @param items input items
+     * @return list of entries, each containing one or more items bound for the same shard, in order
+     * @throws IOException if an item cannot be translated
+     */
+    @Override
+    public List<PutRecordsRequestEntry> toEntries(List<T> items) throws IOException {
+        List<PutRecordsRequestEntry> result = new ArrayList<>();
+        if (items == null || items.isEmpty()) {
+            return result;
+        }
+
+        ShardMap shards = shardMap == null ? null : shardMap.get();
+        Map<String, RecordAggregator> aggregators = new LinkedHashMap<>();
+        for (PutRecordsRequestEntry entry : delegate.toEntries(items)) {
+            RecordAggregator aggregator = aggregators.computeIfAbsent(
+                routeOf(shards, entry), route -> new RecordAggregator(maxRecordSize)
+            );
+            if (!add(aggregator, entry)) {
+                result.add(aggregator.toEntry());
+                aggregator.clear();
+                add(aggregator, entry);
+            }
+        }
+        for (RecordAggregator aggregator : aggregators.values()) {
+            result.add(aggregator.toEntry());
+        }
+        return result;
+    }
+
+    private static String routeOf(ShardMap shards, PutRecordsRequestEntry entry) {
+        if (shards != null) {
+            return shards.shardFor(entry.partitionKey(), entry.explicitHashKey()).shardId();
+        }
+        // records with the same hash key always share a shard, whatever the stream's shards are
+        return entry.explicitHashKey() == null
+            ? "pk:" + entry.partitionKey()
+            : "ehk:" + entry.explicitHashKey();
+    }
+
+    private static boolean add(RecordAggregator aggregator, PutRecordsRequestEntry entry) {
+        return aggregator.add(entry.partitionKey(), entry.explicitHashKey(), entry.data().asByteArray());
+    }
+}
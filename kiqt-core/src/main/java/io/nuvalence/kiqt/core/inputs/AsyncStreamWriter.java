@@ -0,0 +1,171 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import io.nuvalence.kiqt.core.metrics.WriteMetrics;
+
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Pipelined Kinesis stream writer. Records are split into batches the same
+ * way as {@link BatchingStreamWriter}, but requests are sent on a
+ * {@link KinesisAsyncClient} with up to
+ * {@link WriterConfiguration#getMaxRequestsInFlight()} requests outstanding
+ * across all puts on this writer. Throttled entries are resent after a
+ * jittered backoff without blocking a thread.
+ *
+ * @param <T> record type
+ */
+public class AsyncStreamWriter<T> implements AsyncWriter<T, PutRecordsResponse> {
+    // shared by all writers, which are never closed; retries only start requests, so one thread suffices
+    private static final ScheduledExecutorService RETRY_SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("kiqt-async-writer-%d").build()
+    );
+
+    private final Queue<Runnable> queuedRequests = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requestsInFlight = new AtomicInteger();
+    private KinesisAsyncClient client;
+    private String streamName;
+    private AbstractPutRecordsRequestTranslator<T> translator;
+    private WriteMetrics metrics = new WriteMetrics();
+    private WriterConfiguration configuration;
+
+    /**
+     * Creates a writer with the specified stream as a destination using the default configuration.
+     *
+     * @param streamName      name of destination stream
+     * @param entryTranslator translates objects to an entries in a put records request
+     */
+    public AsyncStreamWriter(String streamName, AbstractPutRecordsRequestTranslator<T> entryTranslator) {
+        this(KinesisAsyncClient.create(), streamName, entryTranslator, new WriterConfiguration());
+    }
+
+    /**
+     * Creates a writer with the specified client, destination stream and configuration.
+     *
+     * @param client        asynchronous client used to write to destination
+     * @param streamName    name of destination stream
+     * @param translator    maps a record to a {@link PutRecordsRequestEntry}
+     * @param configuration batching, retry and pipelining configuration
+     */
+    public AsyncStreamWriter(KinesisAsyncClient client, String streamName,
+                             AbstractPutRecordsRequestTranslator<T> translator,
+                             WriterConfiguration configuration) {
+        this.client = client;
+        this.streamName = streamName;
+        this.translator = translator;
+        this.configuration = configuration;
+    }
+
+    @Override
+    public CompletableFuture<PutRecordsResponse> putAsync(List<T> records) {
+        CompletableFuture<PutRecordsResponse> result = new CompletableFuture<>();
+        long start = System.nanoTime();
+        try {
+            PutRecordsTracker tracker = new PutRecordsTracker(translator.toEntries(records));
+            metrics.recordSerialization(System.nanoTime() - start, tracker.getSizeBytes());
+            attempt(tracker, result);
+        } catch (IOException e) {
+            result.completeExceptionally(e);
+        }
+        return result.whenComplete((response, error) -> metrics.recordPut(System.nanoTime() - start));
+    }
+
+    @Override
+    public void setMetrics(WriteMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets the metrics this writer records into.
+     *
+     * @return write metrics
+     */
+    public WriteMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void attempt(PutRecordsTracker tracker, CompletableFuture<PutRecordsResponse> result) {
+        if (!tracker.hasPending()) {
+            result.complete(tracker.toResponse());
+            return;
+        }
+        CompletableFuture<?>[] sends = tracker.nextBatches(configuration).stream()
+            .map(batch -> send(tracker.toRequest(streamName, batch))
+                .thenAccept(response -> tracker.accept(batch, response)))
+            .toArray(CompletableFuture[]::new);
+
+        CompletableFuture.allOf(sends).whenComplete((ignored, error) -> {
+            if (error != null) {
+                result.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+            } else if (tracker.hasPending() && tracker.getAttempts() < configuration.getMaxAttempts()) {
+                RETRY_SCHEDULER.schedule(() -> attempt(tracker, result),
+                    tracker.nextBackoffMillis(configuration), TimeUnit.MILLISECONDS);
+            } else {
+                result.complete(tracker.toResponse());
+            }
+        });
+    }
+
+    private CompletableFuture<PutRecordsResponse> send(PutRecordsRequest request) {
+        CompletableFuture<PutRecordsResponse> future = new CompletableFuture<>();
+        queuedRequests.add(() -> {
+            CompletableFuture<PutRecordsResponse> call;
+            long start = System.nanoTime();
+            try {
+                call = client.putRecords(request);
+            } catch (RuntimeException e) {
+                call = new CompletableFuture<>();
+                call.completeExceptionally(e);
+            }
+            call.whenComplete((response, error) -> {
+                requestsInFlight.decrementAndGet();
+                if (error != null) {
+                    future.completeExceptionally(error);
+                } else {
+                    metrics.recordRequest(System.nanoTime() - start, response);
+                    future.complete(response);
+                }
+                drain();
+            });
+        });
+        drain();
+        return future;
+    }
+
+    /**
+     * Starts queued requests while fewer than the configured maximum are in flight.
+     */
+    private void drain() {
+        while (!queuedRequests.isEmpty()) {
+            int current = requestsInFlight.get();
+            if (current >= configuration.getMaxRequestsInFlight()) {
+                return;
+            }
+            if (!requestsInFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Runnable next = queuedRequests.poll();
+            if (next == null) {
+                // another thread took the last request; release the slot and re-check the queue
+                requestsInFlight.decrementAndGet();
+                continue;
+            }
+            next.run();
+        }
+    }
+}
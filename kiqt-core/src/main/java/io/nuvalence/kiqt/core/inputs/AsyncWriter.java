@@ -0,0 +1,45 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Interface for writing to a destination without blocking the caller.
+ *
+ * @param <TInput>    record type to be written
+ * @param <TResponse> write response type
+ */
+public interface AsyncWriter<TInput, TResponse> extends Writer<TInput, TResponse> {
+    /**
+     * Put a list of records without waiting for the write to complete.
+     *
+     * @param records list of input records
+     * @return future completed with the write response, or exceptionally on error writing records
+     */
+    CompletableFuture<TResponse> putAsync(List<TInput> records);
+
+    /**
+     * Put a list of records, blocking until the write completes.
+     *
+     * @param records list of input records
+     * @return write response
+     * @throws IOException error writing records
+     */
+    @Override
+    default TResponse put(List<TInput> records) throws IOException {
+        try {
+            return putAsync(records).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while awaiting write");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("failed to write records", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import io.nuvalence.kiqt.core.metrics.WriteMetrics;
+
+import software.amazon.awssdk.services.kinesis.KinesisClient;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Kinesis stream writer that splits records into as many PutRecords requests
+ * as needed to stay within the configured count and size limits, resends
+ * entries that fail with a retryable error (eg: throttling) using jittered
+ * exponential backoff, and merges the results into a single response.
+ *
+ * @param <T> record type
+ */
+public class BatchingStreamWriter<T> implements Writer<T, PutRecordsResponse> {
+    private KinesisClient client;
+    private String streamName;
+    private AbstractPutRecordsRequestTranslator<T> translator;
+    private WriteMetrics metrics = new WriteMetrics();
+    private WriterConfiguration configuration;
+
+    /**
+     * Creates a writer with the specified stream as a destination using the default configuration.
+     *
+     * @param streamName      name of destination stream
+     * @param entryTranslator translates objects to an entries in a put records request
+     */
+    public BatchingStreamWriter(String streamName, AbstractPutRecordsRequestTranslator<T> entryTranslator) {
+        this(KinesisClient.create(), streamName, entryTranslator, new WriterConfiguration());
+    }
+
+    /**
+     * Creates a writer with the specified client, destination stream and configuration.
+     *
+     * @param client        client used to write to destination
+     * @param streamName    name of destination stream
+     * @param translator    maps a record to a {@link PutRecordsRequestEntry}
+     * @param configuration batching and retry configuration
+     */
+    public BatchingStreamWriter(KinesisClient client, String streamName,
+                                AbstractPutRecordsRequestTranslator<T> translator,
+                                WriterConfiguration configuration) {
+        this.client = client;
+        this.streamName = streamName;
+        this.translator = translator;
+        this.configuration = configuration;
+    }
+
+    /**
+     * Writes all records, retrying throttled entries until they succeed or
+     * {@link WriterConfiguration#getMaxAttempts()} is reached.
+     *
+     * @param records list of input records
+     * @return merged response with one result per record, in input order
+     * @throws IOException if a record cannot be translated or the thread is interrupted while backing off
+     */
+    @Override
+    public PutRecordsResponse put(List<T> records) throws IOException {
+        long start = System.nanoTime();
+        PutRecordsTracker tracker = new PutRecordsTracker(translator.toEntries(records));
+        metrics.recordSerialization(System.nanoTime() - start, tracker.getSizeBytes());
+        while (tracker.hasPending() && tracker.getAttempts() < configuration.getMaxAttempts()) {
+            if (tracker.getAttempts() > 0) {
+                EntryTracker.backoff(tracker.nextBackoffMillis(configuration));
+            }
+            for (List<Integer> batch : nextBatches(tracker)) {
+                beforeBatch(tracker, batch);
+                long requestStart = System.nanoTime();
+                PutRecordsResponse response = client.putRecords(tracker.toRequest(streamName, batch));
+                metrics.recordRequest(System.nanoTime() - requestStart, response);
+                tracker.accept(batch, response);
+                afterBatch(tracker, batch, response);
+            }
+        }
+        metrics.recordPut(System.nanoTime() - start);
+        return tracker.toResponse();
+    }
+
+    @Override
+    public void setMetrics(WriteMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Gets the metrics this writer records into.
+     *
+     * @return write metrics
+     */
+    public WriteMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Splits the tracker's pending entries into the requests of the next attempt.
+     *
+     * @param tracker tracks the entries of the current put
+     * @return batches of entry indices
+     */
+    List<List<Integer>> nextBatches(PutRecordsTracker tracker) {
+        return tracker.nextBatches(configuration);
+    }
+
+    /**
+     * Invoked before each request is sent, eg: to pace requests.
+     *
+     * @param tracker tracks the entries of the current put
+     * @param batch   indices of the entries about to be sent
+     * @throws IOException if the thread is interrupted while waiting to send
+     */
+    void beforeBatch(PutRecordsTracker tracker, List<Integer> batch) throws IOException {
+    }
+
+    /**
+     * Invoked after each request completes, after the tracker has recorded the response.
+     *
+     * @param tracker  tracks the entries of the current put
+     * @param batch    indices of the entries that were sent
+     * @param response response to the request
+     */
+    void afterBatch(PutRecordsTracker tracker, List<Integer> batch, PutRecordsResponse response) {
+    }
+
+    /**
+     * Gets the client used to write to the destination.
+     *
+     * @return client
+     */
+    KinesisClient getClient() {
+        return client;
+    }
+
+    /**
+     * Gets the name of the destination stream.
+     *
+     * @return stream name
+     */
+    String getStreamName() {
+        return streamName;
+    }
+
+    /**
+     * Gets the batching and retry configuration.
+     *
+     * @return configuration
+     */
+    WriterConfiguration getConfiguration() {
+        return configuration;
+    }
+}
@@ -0,0 +1,80 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import io.nuvalence.kiqt.core.compression.Compression;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Translates objects to put records request entries using a delegate translator, then
+ * compresses the data of each entry. Entries smaller than a minimum size can be left
+ * uncompressed, the way producers often only compress large documents; consumers tell
+ * them apart by the magic number of the compressed format.
+ *
+ * @param <T> input type
+ */
+public class CompressingPutRecordsRequestTranslator<T> extends AbstractPutRecordsRequestTranslator<T> {
+    private AbstractPutRecordsRequestTranslator<T> delegate;
+    private Compression compression;
+    private int minSize;
+
+    /**
+     * Creates a translator compressing the data of every entry.
+     *
+     * @param delegate    translates each item
+     * @param compression compression applied to entry data
+     */
+    public CompressingPutRecordsRequestTranslator(AbstractPutRecordsRequestTranslator<T> delegate,
+                                                  Compression compression) {
+        this(delegate, compression, 0);
+    }
+
+    /**
+     * Creates a translator compressing the data of entries of at least the specified size.
+     *
+     * @param delegate    translates each item
+     * @param compression compression applied to entry data
+     * @param minSize     minimum size of uncompressed data, in bytes, for an entry to be compressed
+     */
+    public CompressingPutRecordsRequestTranslator(AbstractPutRecordsRequestTranslator<T> delegate,
+                                                  Compression compression,
+                                                  int minSize) {
+        this.delegate = delegate;
+        this.compression = compression;
+        this.minSize = minSize;
+    }
+
+    @Override
+    PutRecordsRequestEntry toEntry(T item) throws IOException {
+        return compress(delegate.toEntry(item));
+    }
+
+    /**
+     * Converts a list of objects to put records request entries with compressed data.
+     *
+     * @param items input items
+     * @return list of entries, mapped 1:1 from input
+     * @throws IOException if an item cannot be translated or compressed
+     */
+    @Override
+    public List<PutRecordsRequestEntry> toEntries(List<T> items) throws IOException {
+        List<PutRecordsRequestEntry> entries = delegate.toEntries(items);
+        List<PutRecordsRequestEntry> result = new ArrayList<>(entries.size());
+        for (PutRecordsRequestEntry entry : entries) {
+            result.add(compress(entry));
+        }
+        return result;
+    }
+
+    private PutRecordsRequestEntry compress(PutRecordsRequestEntry entry) throws IOException {
+        byte[] data = entry.data().asByteArray();
+        if (compression == Compression.NONE || data.length < minSize) {
+            return entry;
+        }
+        return entry.toBuilder().data(SdkBytes.fromByteArray(compression.compress(data))).build();
+    }
+}
@@ -0,0 +1,98 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import io.nuvalence.kiqt.core.formats.DataFormat;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Translates objects to PutRecordsRequestEntry by serializing the object in a {@link DataFormat}
+ * to use as data. Serialization uses an {@link ObjectWriter} cached per record class and a
+ * per-thread reusable buffer, so each entry costs a single exactly sized copy of its data.
+ * Changes made to the object mapper's configuration after a record class has been serialized
+ * are not picked up.
+ *
+ * @param <T> input type
+ */
+public class DataFormatPutRecordsRequestEntryTranslator<T> extends AbstractPutRecordsRequestTranslator<T> {
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+    private static final ThreadLocal<ReusableOutputStream> BUFFER =
+        ThreadLocal.withInitial(ReusableOutputStream::new);
+
+    private DataFormat format;
+    private PartitionStrategy<T> partitionStrategy;
+    private Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a translator using the specified format and partition key provider.
+     *
+     * @param format               data format used to serialize objects
+     * @param partitionKeyProvider given an object, provides its partition key
+     */
+    public DataFormatPutRecordsRequestEntryTranslator(DataFormat format, Function<T, String> partitionKeyProvider) {
+        this(format, new PartitionStrategy<>(partitionKeyProvider));
+    }
+
+    /**
+     * Creates a translator using the specified format and partition strategy.
+     *
+     * @param format            data format used to serialize objects
+     * @param partitionStrategy given an object, provides its partition key and explicit hash key
+     */
+    public DataFormatPutRecordsRequestEntryTranslator(DataFormat format, PartitionStrategy<T> partitionStrategy) {
+        this.format = format;
+        this.partitionStrategy = partitionStrategy;
+    }
+
+    @Override
+    public PutRecordsRequestEntry toEntry(T item) throws IOException {
+        return PutRecordsRequestEntry.builder()
+            .partitionKey(partitionStrategy.partitionKey(item))
+            .explicitHashKey(partitionStrategy.explicitHashKey(item))
+            .data(serialize(item))
+            .build();
+    }
+
+    private SdkBytes serialize(T item) throws IOException {
+        Class<?> type = item == null ? Object.class : item.getClass();
+        ObjectWriter writer = writers.computeIfAbsent(type, format::writerFor);
+        ReusableOutputStream buffer = BUFFER.get();
+        buffer.reset();
+        try {
+            writer.writeValue(buffer, item);
+            // copies exactly the serialized bytes out of the shared buffer
+            return SdkBytes.fromByteBuffer(buffer.toByteBuffer());
+        } finally {
+            if (buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+                BUFFER.remove();
+            }
+        }
+    }
+
+    /**
+     * Byte array output stream exposing its contents without copying.
+     */
+    private static class ReusableOutputStream extends ByteArrayOutputStream {
+        ReusableOutputStream() {
+            super(INITIAL_BUFFER_SIZE);
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+    }
+}
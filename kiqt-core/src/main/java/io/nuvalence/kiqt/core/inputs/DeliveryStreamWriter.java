@@ -0,0 +1,122 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import io.nuvalence.kiqt.core.metrics.WriteMetrics;
+
+import software.amazon.awssdk.services.firehose.FirehoseClient;
+import software.amazon.awssdk.services.firehose.model.PutRecordBatchResponse;
+import software.amazon.awssdk.services.firehose.model.PutRecordBatchResponseEntry;
+import software.amazon.awssdk.services.firehose.model.Record;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kinesis Data Firehose delivery stream writer, for applications whose input is a delivery
+ * stream rather than a Kinesis stream. Records are translated with the same translators as
+ * stream writers, ignoring partition keys, split into as many PutRecordBatch requests as
+ * needed, and records that fail with a transient error (throttling or an internal failure)
+ * are resent using jittered exponential backoff. Every request and the outcome of each of
+ * its records are recorded in the writer's metrics.
+ *
+ * @param <T> record type
+ */
+public class DeliveryStreamWriter<T> implements Writer<T, PutRecordBatchResponse> {
+    /**
+     * Maximum size of a PutRecordBatch request.
+     */
+    public static final long MAX_BYTES_PER_BATCH = 4L * 1024 * 1024;
+
+    /**
+     * Error code of records rejected because the delivery stream's throughput was exceeded.
+     */
+    public static final String THROTTLED = "ServiceUnavailableException";
+
+    private FirehoseClient client;
+    private String deliveryStreamName;
+    private AbstractPutRecordsRequestTranslator<T> translator;
+    private WriteMetrics metrics = new WriteMetrics();
+    private WriterConfiguration configuration;
+
+    /**
+     * Creates a writer with the specified delivery stream as a destination using the default configuration.
+     *
+     * @param deliveryStreamName name of destination delivery stream
+     * @param entryTranslator    translates objects to entries, whose data is written
+     */
+    public DeliveryStreamWriter(String deliveryStreamName, AbstractPutRecordsRequestTranslator<T> entryTranslator) {
+        this(FirehoseClient.create(), deliveryStreamName, entryTranslator, new WriterConfiguration());
+    }
+
+    /**
+     * Creates a writer with the specified client, destination delivery stream and configuration.
+     *
+     * @param client             client used to write to destination
+     * @param deliveryStreamName name of destination delivery stream
+     * @param translator         maps a record to a {@link PutRecordsRequestEntry}, whose data is written
+     * @param configuration      batching and retry configuration
+     */
+    public DeliveryStreamWriter(FirehoseClient client, String deliveryStreamName,
+                                AbstractPutRecordsRequestTranslator<T> translator,
+                                WriterConfiguration configuration) {
+        this.client = client;
+        this.deliveryStreamName = deliveryStreamName;
+        this.translator = translator;
+        this.configuration = configuration;
+    }
+
+    /**
+     * Writes all records, retrying records that fail with a transient error until they succeed or
+     * {@link WriterConfiguration#getMaxAttempts()} is reached.
+     *
+     * @param records list of input records
+     * @return merged response with one result per record, in input order
+     * @throws IOException if a record cannot be translated or the thread is interrupted while backing off
+     */
+    @Override
+    public PutRecordBatchResponse put(List<T> records) throws IOException {
+        long start = System.nanoTime();
+        List<PutRecordsRequestEntry> translated = translator.toEntries(records);
+        List<Record> entries = new ArrayList<>(translated.size());
+        for (PutRecordsRequestEntry entry : translated) {
+            entries.add(Record.builder().data(entry.data()).build());
+        }
+        PutRecordBatchTracker tracker = new PutRecordBatchTracker(entries);
+        metrics.recordSerialization(System.nanoTime() - start, tracker.getSizeBytes());
+        while (tracker.hasPending() && tracker.getAttempts() < configuration.getMaxAttempts()) {
+            if (tracker.getAttempts() > 0) {
+                EntryTracker.backoff(tracker.nextBackoffMillis(configuration));
+            }
+            for (List<Integer> batch : tracker.nextBatches(configuration)) {
+                long requestStart = System.nanoTime();
+                PutRecordBatchResponse response = client.putRecordBatch(tracker.toRequest(deliveryStreamName, batch));
+                recordRequest(System.nanoTime() - requestStart, response);
+                tracker.accept(batch, response);
+            }
+        }
+        metrics.recordPut(System.nanoTime() - start);
+        return tracker.toResponse();
+    }
+
+    @Override
+    public void setMetrics(WriteMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    private void recordRequest(long requestNanos, PutRecordBatchResponse response) {
+        long successful = 0;
+        long throttled = 0;
+        long failed = 0;
+        for (PutRecordBatchResponseEntry result : response.requestResponses()) {
+            if (result.errorCode() == null) {
+                successful++;
+            } else if (THROTTLED.equals(result.errorCode())) {
+                throttled++;
+            } else {
+                failed++;
+            }
+        }
+        metrics.recordRequest(requestNanos, successful, throttled, failed);
+    }
+}
@@ -0,0 +1,272 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Tracks the entries of a single logical put across the batch requests needed to write them,
+ * whatever the destination. Entries are split into requests that respect the configured limits,
+ * entries that fail with a retryable error are queued for another attempt, and the result of
+ * each entry is kept at the position of the entry, so that results can be merged into one
+ * response ordered 1:1 with the original entries.
+ *
+ * @param <E> request entry type
+ * @param <R> result entry type
+ */
+abstract class EntryTracker<E, R> {
+    private final List<E> entries;
+    private final Object[] results;
+    private List<Integer> pending;
+    private List<Integer> retries = new ArrayList<>();
+    private int attempts;
+
+    /**
+     * Creates a tracker for the specified entries.
+     *
+     * @param entries entries to be written
+     */
+    EntryTracker(List<E> entries) {
+        this.entries = new ArrayList<>(entries);
+        this.results = new Object[this.entries.size()];
+        this.pending = new ArrayList<>(this.entries.size());
+        for (int i = 0; i < this.entries.size(); i++) {
+            pending.add(i);
+        }
+    }
+
+    /**
+     * Approximates the size an entry contributes to a request.
+     *
+     * @param entry request entry
+     * @return size, in bytes
+     */
+    abstract long size(E entry);
+
+    /**
+     * Checks whether a result failed with an error that may succeed on a later attempt.
+     *
+     * @param result result entry
+     * @return true if the entry should be resent
+     */
+    abstract boolean isRetryableResult(R result);
+
+    /**
+     * Gets the maximum size of a request.
+     *
+     * @param configuration request limits
+     * @return maximum size, in bytes
+     */
+    long maxBytesPerRequest(WriterConfiguration configuration) {
+        return configuration.getMaxBytesPerRequest();
+    }
+
+    /**
+     * Gets the size of every entry tracked.
+     *
+     * @return size, in bytes
+     */
+    long getSizeBytes() {
+        long size = 0;
+        for (E entry : entries) {
+            size += size(entry);
+        }
+        return size;
+    }
+
+    /**
+     * Indicates whether any entries are waiting to be (re)sent.
+     *
+     * @return true if there are pending entries
+     */
+    synchronized boolean hasPending() {
+        return !pending.isEmpty() || !retries.isEmpty();
+    }
+
+    /**
+     * Gets the number of attempts started so far.
+     *
+     * @return attempts
+     */
+    synchronized int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * Gets the entry at the specified index.
+     *
+     * @param index index of entry in the original list
+     * @return entry
+     */
+    E getEntry(int index) {
+        return entries.get(index);
+    }
+
+    /**
+     * Gets the entries at the specified indices.
+     *
+     * @param batch indices of entries in the original list
+     * @return entries, in the order of the indices
+     */
+    List<E> getEntries(List<Integer> batch) {
+        List<E> batchEntries = new ArrayList<>(batch.size());
+        for (Integer index : batch) {
+            batchEntries.add(entries.get(index));
+        }
+        return batchEntries;
+    }
+
+    /**
+     * Starts a new attempt, splitting all pending entries into batches that respect the configured limits.
+     *
+     * @param configuration request limits
+     * @return batches of entry indices, in original order
+     */
+    List<List<Integer>> nextBatches(WriterConfiguration configuration) {
+        return nextBatches(configuration, entry -> "", Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Starts a new attempt, splitting all pending entries into batches that respect the configured
+     * request limits as well as per-group limits. Each entry is placed in the first batch with room
+     * for it, at or after the batch holding the previous entry of the same group, so that entries
+     * of a group keep their relative order.
+     *
+     * @param configuration   request limits
+     * @param groupOf         maps an entry to its group (eg: target shard)
+     * @param maxGroupRecords maximum entries of a group in a single batch
+     * @param maxGroupBytes   maximum bytes of a group in a single batch
+     * @return batches of entry indices
+     */
+    synchronized List<List<Integer>> nextBatches(WriterConfiguration configuration,
+                                                 Function<E, String> groupOf,
+                                                 int maxGroupRecords,
+                                                 long maxGroupBytes) {
+        if (pending.isEmpty()) {
+            pending = retries;
+            retries = new ArrayList<>();
+        }
+        int maxRecords = configuration.getMaxRecordsPerRequest();
+        long maxBytes = maxBytesPerRequest(configuration);
+        List<Batch> batches = new ArrayList<>();
+        Map<String, Integer> lastBatchOfGroup = new HashMap<>();
+        for (Integer index : pending) {
+            E entry = entries.get(index);
+            String group = groupOf.apply(entry);
+            long size = size(entry);
+            int b = lastBatchOfGroup.getOrDefault(group, 0);
+            while (b < batches.size() && !batches.get(b).fits(group, size, maxRecords, maxBytes,
+                maxGroupRecords, maxGroupBytes)) {
+                b++;
+            }
+            if (b == batches.size()) {
+                batches.add(new Batch());
+            }
+            batches.get(b).add(index, group, size);
+            lastBatchOfGroup.put(group, b);
+        }
+        pending = new ArrayList<>();
+        attempts++;
+
+        List<List<Integer>> result = new ArrayList<>(batches.size());
+        for (Batch batch : batches) {
+            result.add(batch.indices);
+        }
+        return result;
+    }
+
+    /**
+     * Records the results for a batch. Retryable failures are queued for the next attempt.
+     *
+     * @param batch        indices of the entries that were sent
+     * @param batchResults results of the request, in the order of the batch
+     * @return number of entries queued for another attempt
+     */
+    synchronized int acceptResults(List<Integer> batch, List<R> batchResults) {
+        int retried = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            R result = batchResults.get(i);
+            results[batch.get(i)] = result;
+            if (isRetryableResult(result)) {
+                retries.add(batch.get(i));
+                retried++;
+            }
+        }
+        return retried;
+    }
+
+    /**
+     * Gets the latest result of every entry.
+     *
+     * @return results in original order, null for entries never sent
+     */
+    @SuppressWarnings("unchecked")
+    synchronized List<R> getResults() {
+        return (List<R>) Arrays.asList(results.clone());
+    }
+
+    /**
+     * Computes a randomized delay before the next attempt using exponential backoff with full jitter.
+     *
+     * @param configuration backoff configuration
+     * @return delay, in milliseconds
+     */
+    synchronized long nextBackoffMillis(WriterConfiguration configuration) {
+        int exponent = Math.min(Math.max(attempts - 1, 0), 30);
+        long ceiling = Math.min(configuration.getMaxBackoffMillis(),
+            configuration.getBaseBackoffMillis() * (1L << exponent));
+        return ThreadLocalRandom.current().nextLong(Math.max(ceiling, 0) + 1);
+    }
+
+    /**
+     * Sleeps for a backoff delay on the calling thread.
+     *
+     * @param millis delay, in milliseconds
+     * @throws InterruptedIOException if the thread is interrupted while backing off
+     */
+    static void backoff(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while backing off");
+        }
+    }
+
+    /**
+     * A request being assembled, with its size and the size of each group within it.
+     */
+    private static class Batch {
+        private final List<Integer> indices = new ArrayList<>();
+        private final Map<String, Integer> groupRecords = new HashMap<>();
+        private final Map<String, Long> groupBytes = new HashMap<>();
+        private long bytes;
+
+        boolean fits(String group, long size, int maxRecords, long maxBytes,
+                     int maxGroupRecords, long maxGroupBytes) {
+            if (indices.isEmpty()) {
+                return true;
+            }
+            if (indices.size() >= maxRecords || bytes + size > maxBytes) {
+                return false;
+            }
+            int records = groupRecords.getOrDefault(group, 0);
+            if (records == 0) {
+                return true;
+            }
+            return records < maxGroupRecords && groupBytes.get(group) + size <= maxGroupBytes;
+        }
+
+        void add(int index, String group, long size) {
+            indices.add(index);
+            groupRecords.merge(group, 1, Integer::sum);
+            groupBytes.merge(group, size, Long::sum);
+            bytes += size;
+        }
+    }
+}
@@ -1,9 +1,7 @@
 package io.nuvalence.kiqt.core.inputs;
 
-import software.amazon.awssdk.core.SdkBytes;
-import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import io.nuvalence.kiqt.core.formats.DataFormat;
 
-import java.io.IOException;
 import java.util.function.Function;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -13,9 +11,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  *
  * @param <T> input type
  */
-public class JsonPutRecordsRequestEntryTranslator<T> extends AbstractPutRecordsRequestTranslator<T> {
-    private ObjectMapper mapper;
-    private Function<T, String> partitionKeyProvider;
+public class JsonPutRecordsRequestEntryTranslator<T> extends DataFormatPutRecordsRequestEntryTranslator<T> {
 
     /**
      * Creates a translator using the specified mapper and partition key provider.
@@ -24,15 +20,16 @@ public class JsonPutRecordsRequestEntryTranslator<T> extends AbstractPutRecordsR
      * @param partitionKeyProvider given an object, provides its partition key
      */
     public JsonPutRecordsRequestEntryTranslator(ObjectMapper objectMapper, Function<T, String> partitionKeyProvider) {
-        this.mapper = objectMapper;
-        this.partitionKeyProvider = partitionKeyProvider;
+        this(objectMapper, new PartitionStrategy<>(partitionKeyProvider));
     }
 
-    @Override
-    public PutRecordsRequestEntry toEntry(T item) throws IOException {
-        return PutRecordsRequestEntry.builder()
-            .partitionKey(partitionKeyProvider.apply(item))
-            .data(SdkBytes.fromByteArray(mapper.writeValueAsBytes(item)))
-            .build();
+    /**
+     * Creates a translator using the specified mapper and partition strategy.
+     *
+     * @param objectMapper      object mapper used to serialize objects
+     * @param partitionStrategy given an object, provides its partition key and explicit hash key
+     */
+    public JsonPutRecordsRequestEntryTranslator(ObjectMapper objectMapper, PartitionStrategy<T> partitionStrategy) {
+        super(DataFormat.json(objectMapper), partitionStrategy);
     }
 }
@@ -0,0 +1,113 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Translates objects to put records request entries by fanning the work of a delegate
+ * translator out over an executor, in contiguous chunks so that the entries keep the
+ * order of the input items. The delegate must be safe to use from multiple threads;
+ * note that order-dependent partition strategies, such as round robin, will assign
+ * keys in a different order than a sequential translation would.
+ *
+ * @param <T> input type
+ */
+public class ParallelPutRecordsRequestTranslator<T> extends AbstractPutRecordsRequestTranslator<T> {
+    /**
+     * Default minimum number of items translated by each task, below which the
+     * overhead of handing work to another thread outweighs the gain.
+     */
+    public static final int DEFAULT_MIN_CHUNK_SIZE = 32;
+
+    private AbstractPutRecordsRequestTranslator<T> delegate;
+    private Executor executor;
+    private int parallelism;
+    private int minChunkSize;
+
+    /**
+     * Creates a translator using the common fork join pool.
+     *
+     * @param delegate translates each item
+     */
+    public ParallelPutRecordsRequestTranslator(AbstractPutRecordsRequestTranslator<T> delegate) {
+        this(delegate, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism(), DEFAULT_MIN_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a translator using the specified executor.
+     *
+     * @param delegate     translates each item
+     * @param executor     executor to run translation tasks on
+     * @param parallelism  maximum number of tasks to split each batch into
+     * @param minChunkSize minimum number of items translated by each task
+     */
+    public ParallelPutRecordsRequestTranslator(AbstractPutRecordsRequestTranslator<T> delegate,
+                                               Executor executor,
+                                               int parallelism,
+                                               int minChunkSize) {
+        if (parallelism < 1 || minChunkSize < 1) {
+            throw new IllegalArgumentException("parallelism and chunk size must be positive");
+        }
+        this.delegate = delegate;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.minChunkSize = minChunkSize;
+    }
+
+    @Override
+    PutRecordsRequestEntry toEntry(T item) throws IOException {
+        return delegate.toEntry(item);
+    }
+
+    /**
+     * Converts a list of objects to put records request entries, in parallel when the
+     * list is large enough to split into more than one chunk.
+     *
+     * @param items input items
+     * @return list of entries, mapped 1:1 from input
+     * @throws IOException if an item cannot be translated
+     */
+    @Override
+    public List<PutRecordsRequestEntry> toEntries(List<T> items) throws IOException {
+        int size = items == null ? 0 : items.size();
+        int chunks = Math.min(parallelism, size / minChunkSize);
+        if (chunks < 2) {
+            return delegate.toEntries(items);
+        }
+
+        List<CompletableFuture<List<PutRecordsRequestEntry>>> futures = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            List<T> chunk = items.subList(size * i / chunks, size * (i + 1) / chunks);
+            futures.add(CompletableFuture.supplyAsync(() -> translate(chunk), executor));
+        }
+
+        List<PutRecordsRequestEntry> result = new ArrayList<>(size);
+        try {
+            for (CompletableFuture<List<PutRecordsRequestEntry>> future : futures) {
+                result.addAll(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    private List<PutRecordsRequestEntry> translate(List<T> chunk) {
+        try {
+            return delegate.toEntries(chunk);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import io.nuvalence.kiqt.core.shards.ShardMap;
+
+import software.amazon.awssdk.services.kinesis.KinesisClient;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Determines how records are distributed across the shards of a stream by
+ * providing the partition key, and optionally an explicit hash key, for each record.
+ *
+ * @param <T> record type
+ */
+public class PartitionStrategy<T> {
+    private static final BigInteger TWO = BigInteger.valueOf(2);
+
+    private final Function<T, String> partitionKeyProvider;
+    private final Function<T, String> explicitHashKeyProvider;
+
+    /**
+     * Creates a strategy routing records by partition key only.
+     *
+     * @param partitionKeyProvider given a record, provides its partition key
+     */
+    public PartitionStrategy(Function<T, String> partitionKeyProvider) {
+        this(partitionKeyProvider, item -> null);
+    }
+
+    /**
+     * Creates a strategy routing records by explicit hash key.
+     *
+     * @param partitionKeyProvider    given a record, provides its partition key
+     * @param explicitHashKeyProvider given a record, provides its explicit hash key (or null)
+     */
+    public PartitionStrategy(Function<T, String> partitionKeyProvider, Function<T, String> explicitHashKeyProvider) {
+        this.partitionKeyProvider = partitionKeyProvider;
+        this.explicitHashKeyProvider = explicitHashKeyProvider;
+    }
+
+    /**
+     * Uses the same partition key for every record, so all records are written to a single shard.
+     *
+     * @param partitionKey partition key
+     * @param <T>          record type
+     * @return partition strategy
+     */
+    public static <T> PartitionStrategy<T> constant(String partitionKey) {
+        return new PartitionStrategy<>(item -> partitionKey);
+    }
+
+    /**
+     * Derives the partition key from a field of the record, keeping records
+     * with the same field value in order on the same shard.
+     *
+     * @param field extracts the field value from a record
+     * @param <T>   record type
+     * @return partition strategy
+     */
+    public static <T> PartitionStrategy<T> fromField(Function<T, ?> field) {
+        return new PartitionStrategy<>(item -> String.valueOf(field.apply(item)));
+    }
+
+    /**
+     * Uses a random partition key for each record.
+     *
+     * @param <T> record type
+     * @return partition strategy
+     */
+    public static <T> PartitionStrategy<T> random() {
+        return new PartitionStrategy<>(item -> Long.toHexString(ThreadLocalRandom.current().nextLong()));
+    }
+
+    /**
+     * Cycles through a fixed number of partition keys.
+     *
+     * @param keyCount number of distinct partition keys
+     * @param <T>      record type
+     * @return partition strategy
+     */
+    public static <T> PartitionStrategy<T> roundRobin(int keyCount) {
+        if (keyCount < 1) {
+            throw new IllegalArgumentException("key count must be positive: " + keyCount);
+        }
+        AtomicLong counter = new AtomicLong();
+        return new PartitionStrategy<>(item -> String.valueOf(counter.getAndIncrement() % keyCount));
+    }
+
+    /**
+     * Cycles through the open shards, using an explicit hash key in the middle
+     * of each shard's hash key range so that records are spread evenly
+     * regardless of partition key.
+     *
+     * @param shards shards of the destination stream
+     * @param <T>    record type
+     * @return partition strategy
+     */
+    public static <T> PartitionStrategy<T> shardBalanced(List<Shard> shards) {
+        List<String> hashKeys = new ArrayList<>();
+        for (Shard shard : new ShardMap(shards).getShards()) {
+            BigInteger start = new BigInteger(shard.hashKeyRange().startingHashKey());
+            BigInteger end = new BigInteger(shard.hashKeyRange().endingHashKey());
+            hashKeys.add(start.add(end).divide(TWO).toString());
+        }
+        AtomicLong counter = new AtomicLong();
+        // kinesis requires a partition key, but ignores it for routing when an explicit hash key is present
+        return new PartitionStrategy<>(
+            item -> "0",
+            item -> hashKeys.get((int) (counter.getAndIncrement() % hashKeys.size()))
+        );
+    }
+
+    /**
+     * Cycles through the open shards of the specified stream.
+     *
+     * @param client     client used to list the stream's shards
+     * @param streamName name of the destination stream
+     * @param <T>        record type
+     * @return partition strategy
+     * @see #shardBalanced(List)
+     */
+    public static <T> PartitionStrategy<T> shardBalanced(KinesisClient client, String streamName) {
+        return shardBalanced(ShardMap.listShards(client, streamName));
+    }
+
+    /**
+     * Gets the partition key for a record.
+     *
+     * @param item record
+     * @return partition key
+     */
+    public String partitionKey(T item) {
+        return partitionKeyProvider.apply(item);
+    }
+
+    /**
+     * Gets the explicit hash key for a record, overriding the hash of the partition key.
+     *
+     * @param item record
+     * @return explicit hash key, or null to route by partition key
+     */
+    public String explicitHashKey(T item) {
+        return explicitHashKeyProvider.apply(item);
+    }
+}
@@ -0,0 +1,93 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import software.amazon.awssdk.services.firehose.model.PutRecordBatchRequest;
+import software.amazon.awssdk.services.firehose.model.PutRecordBatchResponse;
+import software.amazon.awssdk.services.firehose.model.PutRecordBatchResponseEntry;
+import software.amazon.awssdk.services.firehose.model.Record;
+
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tracks the records of a single logical put across the PutRecordBatch requests needed to
+ * write them to a delivery stream. Records are split into requests that respect the configured
+ * limits and the 4 MiB limit of a PutRecordBatch request, records that fail with a retryable
+ * error are queued for another attempt, and the results are merged into one response ordered
+ * 1:1 with the original records.
+ */
+class PutRecordBatchTracker extends EntryTracker<Record, PutRecordBatchResponseEntry> {
+    private static final Set<String> RETRYABLE_ERROR_CODES = ImmutableSet.of(
+        DeliveryStreamWriter.THROTTLED,
+        "InternalFailure"
+    );
+
+    /**
+     * Creates a tracker for the specified records.
+     *
+     * @param records records to be written
+     */
+    PutRecordBatchTracker(List<Record> records) {
+        super(records);
+    }
+
+    @Override
+    long size(Record record) {
+        return record.data() == null ? 0 : record.data().asByteBuffer().remaining();
+    }
+
+    @Override
+    boolean isRetryableResult(PutRecordBatchResponseEntry result) {
+        return result.errorCode() != null && RETRYABLE_ERROR_CODES.contains(result.errorCode());
+    }
+
+    @Override
+    long maxBytesPerRequest(WriterConfiguration configuration) {
+        return Math.min(DeliveryStreamWriter.MAX_BYTES_PER_BATCH, configuration.getMaxBytesPerRequest());
+    }
+
+    /**
+     * Builds the request for a batch of records.
+     *
+     * @param deliveryStreamName destination delivery stream
+     * @param batch              indices of the records to send
+     * @return put record batch request
+     */
+    PutRecordBatchRequest toRequest(String deliveryStreamName, List<Integer> batch) {
+        return PutRecordBatchRequest.builder()
+            .deliveryStreamName(deliveryStreamName)
+            .records(getEntries(batch))
+            .build();
+    }
+
+    /**
+     * Records the response for a batch. Retryable failures are queued for the next attempt.
+     *
+     * @param batch    indices of the records that were sent
+     * @param response response to the request
+     * @return number of records queued for another attempt
+     */
+    int accept(List<Integer> batch, PutRecordBatchResponse response) {
+        return acceptResults(batch, response.requestResponses());
+    }
+
+    /**
+     * Merges the results of all attempts into a single response.
+     *
+     * @return response with one result per original record, in original order
+     */
+    PutRecordBatchResponse toResponse() {
+        List<PutRecordBatchResponseEntry> results = getResults();
+        int failed = 0;
+        for (PutRecordBatchResponseEntry result : results) {
+            if (result == null || result.errorCode() != null) {
+                failed++;
+            }
+        }
+        return PutRecordBatchResponse.builder()
+            .failedPutCount(failed)
+            .requestResponses(results)
+            .build();
+    }
+}
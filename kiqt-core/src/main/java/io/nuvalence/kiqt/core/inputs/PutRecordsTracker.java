@@ -0,0 +1,120 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import software.amazon.awssdk.services.kinesis.model.EncryptionType;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tracks the entries of a single logical put across the PutRecords requests
+ * needed to write them. Entries are split into requests that respect the
+ * configured limits, entries that fail with a retryable error are queued for
+ * another attempt, and the results are merged into one response ordered 1:1
+ * with the original entries.
+ */
+class PutRecordsTracker extends EntryTracker<PutRecordsRequestEntry, PutRecordsResultEntry> {
+    private static final Set<String> RETRYABLE_ERROR_CODES = ImmutableSet.of(
+        "ProvisionedThroughputExceededException",
+        "InternalFailure"
+    );
+
+    private EncryptionType encryptionType;
+
+    /**
+     * Creates a tracker for the specified entries.
+     *
+     * @param entries entries to be written
+     */
+    PutRecordsTracker(List<PutRecordsRequestEntry> entries) {
+        super(entries);
+    }
+
+    /**
+     * Approximates the size an entry contributes to a PutRecords request.
+     *
+     * @param entry request entry
+     * @return size of data and partition key, in bytes
+     */
+    static long sizeOf(PutRecordsRequestEntry entry) {
+        long size = entry.data() == null ? 0 : entry.data().asByteBuffer().remaining();
+        if (entry.partitionKey() != null) {
+            size += entry.partitionKey().getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+
+    /**
+     * Checks whether a result entry failed with an error that may succeed on a later attempt.
+     *
+     * @param result result entry
+     * @return true if the entry should be resent
+     */
+    static boolean isRetryable(PutRecordsResultEntry result) {
+        return result.errorCode() != null && RETRYABLE_ERROR_CODES.contains(result.errorCode());
+    }
+
+    @Override
+    long size(PutRecordsRequestEntry entry) {
+        return sizeOf(entry);
+    }
+
+    @Override
+    boolean isRetryableResult(PutRecordsResultEntry result) {
+        return isRetryable(result);
+    }
+
+    /**
+     * Builds the request for a batch of entries.
+     *
+     * @param streamName destination stream
+     * @param batch      indices of the entries to send
+     * @return put records request
+     */
+    PutRecordsRequest toRequest(String streamName, List<Integer> batch) {
+        return PutRecordsRequest.builder()
+            .streamName(streamName)
+            .records(getEntries(batch))
+            .build();
+    }
+
+    /**
+     * Records the response for a batch. Retryable failures are queued for the next attempt.
+     *
+     * @param batch    indices of the entries that were sent
+     * @param response response to the request
+     * @return number of entries queued for another attempt
+     */
+    synchronized int accept(List<Integer> batch, PutRecordsResponse response) {
+        if (response.encryptionType() != null) {
+            encryptionType = response.encryptionType();
+        }
+        return acceptResults(batch, response.records());
+    }
+
+    /**
+     * Merges the results of all attempts into a single response.
+     *
+     * @return response with one result per original entry, in original order
+     */
+    synchronized PutRecordsResponse toResponse() {
+        List<PutRecordsResultEntry> results = getResults();
+        int failed = 0;
+        for (PutRecordsResultEntry result : results) {
+            if (result == null || result.errorCode() != null) {
+                failed++;
+            }
+        }
+        return PutRecordsResponse.builder()
+            .records(results)
+            .failedRecordCount(failed)
+            .encryptionType(encryptionType)
+            .build();
+    }
+}
@@ -0,0 +1,22 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import io.nuvalence.kiqt.core.metrics.Stamp;
+
+/**
+ * Applies a {@link Stamp} to an input record, eg: by setting fields the application under
+ * test carries through to its outputs.
+ *
+ * @param <T> record type
+ */
+@FunctionalInterface
+public interface RecordStamper<T> {
+
+    /**
+     * Stamps a record.
+     *
+     * @param record record about to be sent
+     * @param stamp  correlation id and send time of the record
+     * @return stamped record, either the same instance or a stamped copy
+     */
+    T stamp(T record, Stamp stamp);
+}
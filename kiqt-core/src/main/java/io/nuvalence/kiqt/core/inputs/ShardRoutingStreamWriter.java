@@ -0,0 +1,220 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import io.nuvalence.kiqt.core.shards.ShardMap;
+import io.nuvalence.kiqt.core.shards.ShardStatistics;
+
+import software.amazon.awssdk.services.kinesis.KinesisClient;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.google.common.base.Suppliers;
+import com.google.common.base.Ticker;
+
+/**
+ * Kinesis stream writer that learns the hash key range of each shard, so that it can
+ * batch records without exceeding the per-shard limits in any single request and
+ * attribute the traffic it sends, and the throttling it meets, to individual shards.
+ * Comparing shards tells whether throttling comes from a skewed key distribution
+ * (a few hot shards) or from an under-provisioned stream (throttling everywhere).
+ *
+ * @param <T> record type
+ */
+public class ShardRoutingStreamWriter<T> extends BatchingStreamWriter<T> {
+    static final String THROTTLED = "ProvisionedThroughputExceededException";
+
+    private final Ticker ticker;
+    private final Map<String, ShardCounters> counters = new ConcurrentHashMap<>();
+    private volatile Supplier<ShardMap> shardMap;
+    private volatile long startNanos;
+    private volatile boolean started;
+    private Consumer<List<ShardStatistics>> statisticsHandler = statistics -> { };
+
+    /**
+     * Creates a writer with the specified stream as a destination using the default configuration.
+     *
+     * @param streamName      name of destination stream
+     * @param entryTranslator translates objects to an entries in a put records request
+     */
+    public ShardRoutingStreamWriter(String streamName, AbstractPutRecordsRequestTranslator<T> entryTranslator) {
+        this(KinesisClient.create(), streamName, entryTranslator, new WriterConfiguration());
+    }
+
+    /**
+     * Creates a writer with the specified client, destination stream and configuration.
+     *
+     * @param client        client used to list shards and write to destination
+     * @param streamName    name of destination stream
+     * @param translator    maps a record to a {@link PutRecordsRequestEntry}
+     * @param configuration batching, per-shard and retry configuration
+     */
+    public ShardRoutingStreamWriter(KinesisClient client, String streamName,
+                                    AbstractPutRecordsRequestTranslator<T> translator,
+                                    WriterConfiguration configuration) {
+        this(client, streamName, translator, configuration, Ticker.systemTicker());
+    }
+
+    ShardRoutingStreamWriter(KinesisClient client, String streamName,
+                             AbstractPutRecordsRequestTranslator<T> translator,
+                             WriterConfiguration configuration,
+                             Ticker ticker) {
+        super(client, streamName, translator, configuration);
+        this.ticker = ticker;
+        this.shardMap = loadShards();
+    }
+
+    /**
+     * Provides a handler invoked with the statistics of every shard after each put.
+     *
+     * @param statisticsHandler handler
+     */
+    public void setStatisticsHandler(Consumer<List<ShardStatistics>> statisticsHandler) {
+        this.statisticsHandler = statisticsHandler;
+    }
+
+    /**
+     * Discards the known shards, so they are listed again on the next put. Use after resharding the stream.
+     */
+    public void refreshShards() {
+        this.shardMap = loadShards();
+    }
+
+    @Override
+    public PutRecordsResponse put(List<T> records) throws IOException {
+        if (!started) {
+            startNanos = ticker.read();
+            started = true;
+        }
+        PutRecordsResponse response = super.put(records);
+        statisticsHandler.accept(getShardStatistics());
+        return response;
+    }
+
+    /**
+     * Gets the traffic sent to each open shard since the first put, along with any shard
+     * that has since closed. A shard is reported hot when it received more than
+     * {@link WriterConfiguration#getHotShardFactor()} times its fair share of records or bytes.
+     *
+     * @return statistics per shard, ordered by hash key range
+     */
+    public List<ShardStatistics> getShardStatistics() {
+        Set<String> shardIds = new LinkedHashSet<>();
+        for (Shard shard : shardMap.get().getShards()) {
+            shardIds.add(shard.shardId());
+        }
+        shardIds.addAll(counters.keySet());
+
+        long totalRecords = 0;
+        long totalBytes = 0;
+        for (ShardCounters shard : counters.values()) {
+            totalRecords += shard.records.sum();
+            totalBytes += shard.bytes.sum();
+        }
+        double factor = getConfiguration().getHotShardFactor();
+        double hotRecords = factor * totalRecords / shardIds.size();
+        double hotBytes = factor * totalBytes / shardIds.size();
+        Duration elapsed = Duration.ofNanos(started ? ticker.read() - startNanos : 0);
+
+        List<ShardStatistics> statistics = new ArrayList<>(shardIds.size());
+        for (String shardId : shardIds) {
+            ShardCounters shard = counters.getOrDefault(shardId, new ShardCounters());
+            long records = shard.records.sum();
+            long bytes = shard.bytes.sum();
+            boolean hot = shardIds.size() > 1 && (records > hotRecords || bytes > hotBytes);
+            statistics.add(new ShardStatistics(
+                shardId, records, bytes, shard.throttled.sum(), shard.failed.sum(), elapsed, hot
+            ));
+        }
+        return statistics;
+    }
+
+    /**
+     * Gets the shards that received a disproportionate share of the traffic.
+     *
+     * @return statistics of the hot shards
+     * @see #getShardStatistics()
+     */
+    public List<ShardStatistics> getHotShards() {
+        return getShardStatistics().stream().filter(ShardStatistics::isHot).collect(Collectors.toList());
+    }
+
+    @Override
+    List<List<Integer>> nextBatches(PutRecordsTracker tracker) {
+        WriterConfiguration configuration = getConfiguration();
+        return tracker.nextBatches(
+            configuration,
+            this::shardIdFor,
+            configuration.getMaxRecordsPerShard(),
+            configuration.getMaxBytesPerShard()
+        );
+    }
+
+    @Override
+    void afterBatch(PutRecordsTracker tracker, List<Integer> batch, PutRecordsResponse response) {
+        List<PutRecordsResultEntry> results = response.records();
+        for (int i = 0; i < batch.size(); i++) {
+            PutRecordsRequestEntry entry = tracker.getEntry(batch.get(i));
+            PutRecordsResultEntry result = results.get(i);
+            ShardCounters shard = counters.computeIfAbsent(shardIdOf(entry, result), id -> new ShardCounters());
+            if (result.errorCode() == null) {
+                shard.records.increment();
+                shard.bytes.add(PutRecordsTracker.sizeOf(entry));
+            } else if (THROTTLED.equals(result.errorCode())) {
+                shard.throttled.increment();
+            } else {
+                shard.failed.increment();
+            }
+        }
+    }
+
+    private Supplier<ShardMap> loadShards() {
+        KinesisClient client = getClient();
+        String streamName = getStreamName();
+        return Suppliers.memoize(() -> ShardMap.load(client, streamName));
+    }
+
+    /**
+     * Gets the shard an entry is routed to, according to the known hash key ranges.
+     *
+     * @param entry put records request entry
+     * @return shard id
+     */
+    String shardIdFor(PutRecordsRequestEntry entry) {
+        return shardMap.get().shardFor(entry.partitionKey(), entry.explicitHashKey()).shardId();
+    }
+
+    /**
+     * Gets the shard an entry was written to, or was routed to if it failed.
+     *
+     * @param entry  put records request entry
+     * @param result result of the entry
+     * @return shard id
+     */
+    String shardIdOf(PutRecordsRequestEntry entry, PutRecordsResultEntry result) {
+        return result.shardId() != null ? result.shardId() : shardIdFor(entry);
+    }
+
+    /**
+     * Running totals for a single shard.
+     */
+    private static class ShardCounters {
+        private final LongAdder records = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+    }
+}
@@ -0,0 +1,61 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import io.nuvalence.kiqt.core.metrics.PipelineLatencyTracker;
+
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stamps each object with a correlation id and send time from a {@link PipelineLatencyTracker}
+ * before translating it with a delegate translator, so that outputs can be matched back to it
+ * to measure latency through the application.
+ *
+ * @param <T> input type
+ */
+public class StampingPutRecordsRequestTranslator<T> extends AbstractPutRecordsRequestTranslator<T> {
+    private AbstractPutRecordsRequestTranslator<T> delegate;
+    private PipelineLatencyTracker tracker;
+    private RecordStamper<T> stamper;
+
+    /**
+     * Creates a translator.
+     *
+     * @param delegate translates each stamped item
+     * @param tracker  creates stamps and matches outputs to them
+     * @param stamper  applies a stamp to an item
+     */
+    public StampingPutRecordsRequestTranslator(AbstractPutRecordsRequestTranslator<T> delegate,
+                                               PipelineLatencyTracker tracker,
+                                               RecordStamper<T> stamper) {
+        this.delegate = delegate;
+        this.tracker = tracker;
+        this.stamper = stamper;
+    }
+
+    @Override
+    PutRecordsRequestEntry toEntry(T item) throws IOException {
+        return delegate.toEntry(stamper.stamp(item, tracker.stamp()));
+    }
+
+    /**
+     * Stamps a list of objects, then converts them to put records request entries.
+     *
+     * @param items input items
+     * @return list of entries, mapped 1:1 from input
+     * @throws IOException if an item cannot be translated
+     */
+    @Override
+    public List<PutRecordsRequestEntry> toEntries(List<T> items) throws IOException {
+        if (items == null) {
+            return delegate.toEntries(null);
+        }
+        List<T> stamped = new ArrayList<>(items.size());
+        for (T item : items) {
+            stamped.add(stamper.stamp(item, tracker.stamp()));
+        }
+        return delegate.toEntries(stamped);
+    }
+}
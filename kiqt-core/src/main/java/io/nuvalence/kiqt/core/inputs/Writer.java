@@ -1,7 +1,15 @@
 package io.nuvalence.kiqt.core.inputs;
 
+import io.nuvalence.kiqt.core.metrics.WriteMetrics;
+
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Interface for writing to a destination.
@@ -18,4 +26,76 @@ public interface Writer<TInput, TResponse> {
      * @throws IOException error writing records
      */
     TResponse put(List<TInput> records) throws IOException;
+
+    /**
+     * Records the latency of puts and the requests they make into the specified metrics, which
+     * may be shared between writers. Writers that do not record metrics ignore it.
+     *
+     * @param metrics write metrics
+     */
+    default void setMetrics(WriteMetrics metrics) {
+    }
+
+    /**
+     * Put records from an iterator in batches, consuming the iterator lazily so that
+     * at most one batch of records is held in memory at a time.
+     *
+     * @param records         source of records
+     * @param batchSize       maximum number of records per call to {@link #put(List)}
+     * @param responseHandler invoked with the response for each batch
+     * @return number of records written
+     * @throws IOException error writing records
+     */
+    default long putAll(Iterator<TInput> records, int batchSize, Consumer<TResponse> responseHandler)
+        throws IOException {
+
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batch size must be positive: " + batchSize);
+        }
+        long count = 0;
+        List<TInput> batch = new ArrayList<>(batchSize);
+        while (records.hasNext()) {
+            batch.add(records.next());
+            if (batch.size() == batchSize || !records.hasNext()) {
+                responseHandler.accept(put(batch));
+                count += batch.size();
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Put records from a spliterator in batches.
+     *
+     * @param records         source of records
+     * @param batchSize       maximum number of records per call to {@link #put(List)}
+     * @param responseHandler invoked with the response for each batch
+     * @return number of records written
+     * @throws IOException error writing records
+     * @see #putAll(Iterator, int, Consumer)
+     */
+    default long putAll(Spliterator<TInput> records, int batchSize, Consumer<TResponse> responseHandler)
+        throws IOException {
+
+        return putAll(Spliterators.iterator(records), batchSize, responseHandler);
+    }
+
+    /**
+     * Put records from a stream in batches. The stream is closed once written.
+     *
+     * @param records         source of records
+     * @param batchSize       maximum number of records per call to {@link #put(List)}
+     * @param responseHandler invoked with the response for each batch
+     * @return number of records written
+     * @throws IOException error writing records
+     * @see #putAll(Iterator, int, Consumer)
+     */
+    default long putAll(Stream<TInput> records, int batchSize, Consumer<TResponse> responseHandler)
+        throws IOException {
+
+        try (Stream<TInput> stream = records) {
+            return putAll(stream.iterator(), batchSize, responseHandler);
+        }
+    }
 }
@@ -0,0 +1,305 @@
+package io.nuvalence.kiqt.core.inputs;
+
+/**
+ * Configuration options for a batching {@link Writer}. Defaults match the
+ * Kinesis PutRecords limits.
+ *
+ * @see <a href="https://docs.aws.amazon.com/kinesis/latest/APIReference/API_PutRecords.html">PutRecords</a>
+ */
+public class WriterConfiguration {
+    /**
+     * Maximum number of entries Kinesis accepts in a single PutRecords request.
+     */
+    public static final int MAX_RECORDS_PER_REQUEST = 500;
+
+    /**
+     * Maximum size, in bytes, of a single PutRecords request (data and partition keys).
+     */
+    public static final long MAX_BYTES_PER_REQUEST = 5L * 1024 * 1024;
+
+    /**
+     * Maximum number of records a single shard accepts per second.
+     */
+    public static final int MAX_RECORDS_PER_SHARD = 1000;
+
+    /**
+     * Maximum number of bytes a single shard accepts per second (data and partition keys).
+     */
+    public static final long MAX_BYTES_PER_SHARD = 1024L * 1024;
+
+    private int maxRecordsPerRequest = MAX_RECORDS_PER_REQUEST;
+    private long maxBytesPerRequest = MAX_BYTES_PER_REQUEST;
+    private int maxAttempts = 10;
+    private long baseBackoffMillis = 100L;
+    private long maxBackoffMillis = 5000L;
+    private int maxRequestsInFlight = 4;
+    private int maxRecordsPerShard = MAX_RECORDS_PER_SHARD;
+    private long maxBytesPerShard = MAX_BYTES_PER_SHARD;
+    private double hotShardFactor = 2.0;
+    private double initialShardRate = 100.0;
+    private double minShardRate = 1.0;
+    private double maxShardRate = MAX_RECORDS_PER_SHARD;
+    private double shardRateIncrease = 25.0;
+    private double shardRateDecreaseFactor = 0.5;
+
+    /**
+     * Gets the maximum number of entries sent in a single request.
+     *
+     * @return maximum records per request
+     */
+    public int getMaxRecordsPerRequest() {
+        return maxRecordsPerRequest;
+    }
+
+    /**
+     * Sets the maximum number of entries sent in a single request.
+     *
+     * @param maxRecordsPerRequest maximum records per request
+     */
+    public void setMaxRecordsPerRequest(int maxRecordsPerRequest) {
+        this.maxRecordsPerRequest = maxRecordsPerRequest;
+    }
+
+    /**
+     * Gets the maximum size, in bytes, of a single request.
+     *
+     * @return maximum bytes per request
+     */
+    public long getMaxBytesPerRequest() {
+        return maxBytesPerRequest;
+    }
+
+    /**
+     * Sets the maximum size, in bytes, of a single request.
+     *
+     * @param maxBytesPerRequest maximum bytes per request
+     */
+    public void setMaxBytesPerRequest(long maxBytesPerRequest) {
+        this.maxBytesPerRequest = maxBytesPerRequest;
+    }
+
+    /**
+     * Gets the number of times an entry is sent before its failure is reported in the response.
+     *
+     * @return maximum attempts
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Sets the number of times an entry is sent before its failure is reported in the response.
+     *
+     * @param maxAttempts maximum attempts
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Gets the base delay, in milliseconds, used to compute the backoff between attempts.
+     *
+     * @return base backoff
+     */
+    public long getBaseBackoffMillis() {
+        return baseBackoffMillis;
+    }
+
+    /**
+     * Sets the base delay, in milliseconds, used to compute the backoff between attempts.
+     *
+     * @param baseBackoffMillis base backoff
+     */
+    public void setBaseBackoffMillis(long baseBackoffMillis) {
+        this.baseBackoffMillis = baseBackoffMillis;
+    }
+
+    /**
+     * Gets the upper bound, in milliseconds, of the backoff between attempts.
+     *
+     * @return maximum backoff
+     */
+    public long getMaxBackoffMillis() {
+        return maxBackoffMillis;
+    }
+
+    /**
+     * Sets the upper bound, in milliseconds, of the backoff between attempts.
+     *
+     * @param maxBackoffMillis maximum backoff
+     */
+    public void setMaxBackoffMillis(long maxBackoffMillis) {
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * Gets the maximum number of requests an asynchronous writer keeps in flight at once.
+     *
+     * @return maximum requests in flight
+     */
+    public int getMaxRequestsInFlight() {
+        return maxRequestsInFlight;
+    }
+
+    /**
+     * Sets the maximum number of requests an asynchronous writer keeps in flight at once.
+     *
+     * @param maxRequestsInFlight maximum requests in flight
+     */
+    public void setMaxRequestsInFlight(int maxRequestsInFlight) {
+        this.maxRequestsInFlight = maxRequestsInFlight;
+    }
+
+    /**
+     * Gets the maximum number of entries targeting a single shard that a shard-aware
+     * writer sends in one request.
+     *
+     * @return maximum records per shard per request
+     */
+    public int getMaxRecordsPerShard() {
+        return maxRecordsPerShard;
+    }
+
+    /**
+     * Sets the maximum number of entries targeting a single shard that a shard-aware
+     * writer sends in one request.
+     *
+     * @param maxRecordsPerShard maximum records per shard per request
+     */
+    public void setMaxRecordsPerShard(int maxRecordsPerShard) {
+        this.maxRecordsPerShard = maxRecordsPerShard;
+    }
+
+    /**
+     * Gets the maximum size, in bytes, of the entries targeting a single shard that a
+     * shard-aware writer sends in one request.
+     *
+     * @return maximum bytes per shard per request
+     */
+    public long getMaxBytesPerShard() {
+        return maxBytesPerShard;
+    }
+
+    /**
+     * Sets the maximum size, in bytes, of the entries targeting a single shard that a
+     * shard-aware writer sends in one request.
+     *
+     * @param maxBytesPerShard maximum bytes per shard per request
+     */
+    public void setMaxBytesPerShard(long maxBytesPerShard) {
+        this.maxBytesPerShard = maxBytesPerShard;
+    }
+
+    /**
+     * Gets how many times its fair share of traffic a shard must receive to be reported as hot.
+     *
+     * @return hot shard factor
+     */
+    public double getHotShardFactor() {
+        return hotShardFactor;
+    }
+
+    /**
+     * Sets how many times its fair share of traffic a shard must receive to be reported as hot.
+     *
+     * @param hotShardFactor hot shard factor
+     */
+    public void setHotShardFactor(double hotShardFactor) {
+        this.hotShardFactor = hotShardFactor;
+    }
+
+    /**
+     * Gets the rate, in records per second, at which an adaptive writer starts sending to each shard.
+     *
+     * @return initial records per second per shard
+     */
+    public double getInitialShardRate() {
+        return initialShardRate;
+    }
+
+    /**
+     * Sets the rate, in records per second, at which an adaptive writer starts sending to each shard.
+     *
+     * @param initialShardRate initial records per second per shard
+     */
+    public void setInitialShardRate(double initialShardRate) {
+        this.initialShardRate = initialShardRate;
+    }
+
+    /**
+     * Gets the rate, in records per second, below which an adaptive writer never slows a shard down.
+     *
+     * @return minimum records per second per shard
+     */
+    public double getMinShardRate() {
+        return minShardRate;
+    }
+
+    /**
+     * Sets the rate, in records per second, below which an adaptive writer never slows a shard down.
+     *
+     * @param minShardRate minimum records per second per shard
+     */
+    public void setMinShardRate(double minShardRate) {
+        this.minShardRate = minShardRate;
+    }
+
+    /**
+     * Gets the rate, in records per second, above which an adaptive writer never speeds a shard up.
+     * Defaults to the per-shard record limit.
+     *
+     * @return maximum records per second per shard
+     */
+    public double getMaxShardRate() {
+        return maxShardRate;
+    }
+
+    /**
+     * Sets the rate, in records per second, above which an adaptive writer never speeds a shard up.
+     *
+     * @param maxShardRate maximum records per second per shard
+     */
+    public void setMaxShardRate(double maxShardRate) {
+        this.maxShardRate = maxShardRate;
+    }
+
+    /**
+     * Gets the records per second an adaptive writer adds to a shard's rate after each request
+     * in which none of the shard's entries were throttled.
+     *
+     * @return additive increase
+     */
+    public double getShardRateIncrease() {
+        return shardRateIncrease;
+    }
+
+    /**
+     * Sets the records per second an adaptive writer adds to a shard's rate after each request
+     * in which none of the shard's entries were throttled.
+     *
+     * @param shardRateIncrease additive increase
+     */
+    public void setShardRateIncrease(double shardRateIncrease) {
+        this.shardRateIncrease = shardRateIncrease;
+    }
+
+    /**
+     * Gets the factor an adaptive writer multiplies a shard's rate by after a request in which
+     * any of the shard's entries were throttled.
+     *
+     * @return multiplicative decrease, between 0 and 1
+     */
+    public double getShardRateDecreaseFactor() {
+        return shardRateDecreaseFactor;
+    }
+
+    /**
+     * Sets the factor an adaptive writer multiplies a shard's rate by after a request in which
+     * any of the shard's entries were throttled.
+     *
+     * @param shardRateDecreaseFactor multiplicative decrease, between 0 and 1
+     */
+    public void setShardRateDecreaseFactor(double shardRateDecreaseFactor) {
+        this.shardRateDecreaseFactor = shardRateDecreaseFactor;
+    }
+}
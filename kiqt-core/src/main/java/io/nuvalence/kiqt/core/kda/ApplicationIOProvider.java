@@ -7,6 +7,8 @@ import software.amazon.awssdk.services.kinesisanalytics.model.ApplicationDetail;
 import software.amazon.awssdk.services.kinesisanalytics.model.InputDescription;
 import software.amazon.awssdk.services.kinesisanalytics.model.OutputDescription;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -44,14 +46,40 @@ public class ApplicationIOProvider {
      * @return input description
      */
     public AwsResource getInput() {
-        InputDescription desc = applicationDetailSupplier.get().inputDescriptions().get(0);
-        String arn;
-        if (desc.kinesisStreamsInputDescription() != null) {
-            arn = desc.kinesisStreamsInputDescription().resourceARN();
-        } else {
-            throw new IllegalStateException("Unknown type for input named: " + desc.namePrefix());
+        return toResource(applicationDetailSupplier.get().inputDescriptions().get(0));
+    }
+
+    /**
+     * Gets an input by its in-application stream name prefix, ignoring case, or by its input id.
+     *
+     * @param nameOrId name prefix or id of desired input
+     * @return input description
+     */
+    public AwsResource getInput(String nameOrId) {
+        Optional<InputDescription> optionalInputDescription = applicationDetailSupplier.get()
+            .inputDescriptions().stream()
+            .filter(d -> nameOrId.equalsIgnoreCase(d.namePrefix()) || nameOrId.equals(d.inputId()))
+            .findFirst();
+        if (!optionalInputDescription.isPresent()) {
+            String inputs = applicationDetailSupplier.get().inputDescriptions().stream()
+                .map(InputDescription::namePrefix)
+                .collect(Collectors.joining(","));
+            throw new IllegalArgumentException("no input by name or id: " + nameOrId + "; inputs: " + inputs);
         }
-        return new AwsResource(arn);
+        return toResource(optionalInputDescription.get());
+    }
+
+    /**
+     * Gets every application input, in the order the application describes them.
+     *
+     * @return input descriptions by in-application stream name prefix
+     */
+    public Map<String, AwsResource> getInputs() {
+        Map<String, AwsResource> inputs = new LinkedHashMap<>();
+        for (InputDescription desc : applicationDetailSupplier.get().inputDescriptions()) {
+            inputs.put(desc.namePrefix(), toResource(desc));
+        }
+        return inputs;
     }
 
     /**
@@ -86,4 +114,16 @@ public class ApplicationIOProvider {
 
         return new AwsResource(arn);
     }
+
+    private static AwsResource toResource(InputDescription desc) {
+        String arn;
+        if (desc.kinesisStreamsInputDescription() != null) {
+            arn = desc.kinesisStreamsInputDescription().resourceARN();
+        } else if (desc.kinesisFirehoseInputDescription() != null) {
+            arn = desc.kinesisFirehoseInputDescription().resourceARN();
+        } else {
+            throw new IllegalStateException("Unknown type for input named: " + desc.namePrefix());
+        }
+        return new AwsResource(arn);
+    }
 }
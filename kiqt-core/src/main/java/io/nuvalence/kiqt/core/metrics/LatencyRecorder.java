@@ -0,0 +1,31 @@
+package io.nuvalence.kiqt.core.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Accumulates the interval histograms of a recorder, so that taking a snapshot does not
+ * block or race with threads recording latencies.
+ */
+class LatencyRecorder {
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+    private Histogram interval;
+
+    void record(long nanos) {
+        recorder.recordValue(Math.max(0, nanos));
+    }
+
+    synchronized LatencySnapshot snapshot() {
+        interval = recorder.getIntervalHistogram(interval);
+        total.add(interval);
+        return new LatencySnapshot(total.copy());
+    }
+
+    synchronized void reset() {
+        recorder.reset();
+        total.reset();
+    }
+}
@@ -0,0 +1,98 @@
+package io.nuvalence.kiqt.core.metrics;
+
+import java.time.Duration;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Snapshot of a latency distribution, recorded in nanoseconds.
+ */
+public class LatencySnapshot {
+    private final Histogram histogram;
+
+    /**
+     * Creates a snapshot of a histogram, which must not be modified afterwards.
+     *
+     * @param histogram latencies in nanoseconds
+     */
+    LatencySnapshot(Histogram histogram) {
+        this.histogram = histogram;
+    }
+
+    /**
+     * Gets the number of recorded latencies.
+     *
+     * @return count
+     */
+    public long getCount() {
+        return histogram.getTotalCount();
+    }
+
+    /**
+     * Gets the lowest recorded latency.
+     *
+     * @return minimum latency, zero if none were recorded
+     */
+    public Duration getMin() {
+        return getCount() == 0 ? Duration.ZERO : Duration.ofNanos(histogram.getMinValue());
+    }
+
+    /**
+     * Gets the mean recorded latency.
+     *
+     * @return mean latency
+     */
+    public Duration getMean() {
+        return Duration.ofNanos((long) histogram.getMean());
+    }
+
+    /**
+     * Gets the highest recorded latency.
+     *
+     * @return maximum latency
+     */
+    public Duration getMax() {
+        return Duration.ofNanos(histogram.getMaxValue());
+    }
+
+    /**
+     * Gets the latency at or below which the specified percentage of latencies fall.
+     *
+     * @param percentile percentile, between 0 and 100
+     * @return latency at the percentile
+     */
+    public Duration getPercentile(double percentile) {
+        return Duration.ofNanos(histogram.getValueAtPercentile(percentile));
+    }
+
+    /**
+     * Gets the sum of recorded latencies, approximated from the histogram buckets.
+     *
+     * @return total latency
+     */
+    public Duration getTotal() {
+        return Duration.ofNanos((long) (histogram.getMean() * histogram.getTotalCount()));
+    }
+
+    /**
+     * Gets a copy of the underlying histogram, eg: to print its percentile distribution.
+     *
+     * @return histogram of latencies in nanoseconds
+     */
+    public Histogram getHistogram() {
+        return histogram.copy();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "{count=%d, p50=%.3fms, p90=%.3fms, p99=%.3fms, max=%.3fms}",
+            getCount(), millis(getPercentile(50)), millis(getPercentile(90)), millis(getPercentile(99)),
+            millis(getMax())
+        );
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1e6;
+    }
+}
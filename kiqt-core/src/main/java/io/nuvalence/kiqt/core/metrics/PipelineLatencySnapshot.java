@@ -0,0 +1,111 @@
+package io.nuvalence.kiqt.core.metrics;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of the latencies recorded by {@link PipelineLatencyTracker}.
+ */
+public class PipelineLatencySnapshot {
+    private final LatencySnapshot endToEndLatency;
+    private final LatencySnapshot arrivalLatency;
+    private final long pendingInputs;
+    private final long unmatchedOutputs;
+    private final long lostInputs;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param endToEndLatency  latency from sending each input to reading its output
+     * @param arrivalLatency   latency from sending each input to its output arriving in its stream
+     * @param pendingInputs    number of correlation ids stamped but not yet matched by an output
+     * @param unmatchedOutputs number of outputs read that matched no pending correlation id
+     * @param lostInputs       number of correlation ids not matched within the maximum latency
+     */
+    public PipelineLatencySnapshot(LatencySnapshot endToEndLatency, LatencySnapshot arrivalLatency,
+                                   long pendingInputs, long unmatchedOutputs, long lostInputs) {
+        this.endToEndLatency = endToEndLatency;
+        this.arrivalLatency = arrivalLatency;
+        this.pendingInputs = pendingInputs;
+        this.unmatchedOutputs = unmatchedOutputs;
+        this.lostInputs = lostInputs;
+    }
+
+    /**
+     * Gets the latency from sending each input to reading the output matching it.
+     *
+     * @return end to end latency
+     */
+    public LatencySnapshot getEndToEndLatency() {
+        return endToEndLatency;
+    }
+
+    /**
+     * Gets the latency from sending each input to the output matching it arriving in its
+     * stream, according to the output record's {@code ApproximateArrivalTimestamp}.
+     *
+     * @return arrival latency
+     */
+    public LatencySnapshot getArrivalLatency() {
+        return arrivalLatency;
+    }
+
+    /**
+     * Gets the number of outputs matched back to stamped inputs.
+     *
+     * @return matched outputs
+     */
+    public long getMatchedOutputs() {
+        return endToEndLatency.getCount();
+    }
+
+    /**
+     * Gets the number of correlation ids stamped onto inputs but not yet matched by an output.
+     *
+     * @return pending inputs
+     */
+    public long getPendingInputs() {
+        return pendingInputs;
+    }
+
+    /**
+     * Gets the number of outputs read that matched no pending correlation id, eg: duplicates
+     * or outputs of records sent before tracking started.
+     *
+     * @return unmatched outputs
+     */
+    public long getUnmatchedOutputs() {
+        return unmatchedOutputs;
+    }
+
+    /**
+     * Gets the number of correlation ids stamped onto inputs that no output matched within the
+     * maximum latency of the tracker, eg: inputs the application filtered out or aggregated.
+     *
+     * @return lost inputs
+     */
+    public long getLostInputs() {
+        return lostInputs;
+    }
+
+    @Override
+    public String toString() {
+        return "PipelineLatencySnapshot{endToEnd=" + percentiles(endToEndLatency)
+            + ", arrival=" + percentiles(arrivalLatency)
+            + ", pending=" + pendingInputs
+            + ", unmatched=" + unmatchedOutputs
+            + ", lost=" + lostInputs
+            + "}";
+    }
+
+    private static String percentiles(LatencySnapshot latency) {
+        return String.format(
+            "{count=%d, p50=%.3fms, p99=%.3fms, p99.9=%.3fms, max=%.3fms}",
+            latency.getCount(), millis(latency.getPercentile(50)), millis(latency.getPercentile(99)),
+            millis(latency.getPercentile(99.9)), millis(latency.getMax())
+        );
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1e6;
+    }
+}
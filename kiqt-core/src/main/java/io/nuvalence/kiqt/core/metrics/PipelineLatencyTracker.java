@@ -0,0 +1,156 @@
+package io.nuvalence.kiqt.core.metrics;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the latency of records through an application, from input to output. Input
+ * records are stamped with a correlation id and the time they were sent; when an output
+ * carrying that correlation id is read, the time since the input was sent is recorded
+ * against two clocks:
+ * <ul>
+ *     <li>end to end, the time the output was read, which includes how often the output is polled</li>
+ *     <li>arrival, the output record's {@code ApproximateArrivalTimestamp}, when it was written to
+ *     the output stream, which excludes polling but depends on the clocks of this host and
+ *     Kinesis agreeing</li>
+ * </ul>
+ * Several inputs may share a correlation id, eg: the records aggregated into a single
+ * output, in which case latency is measured from the last of them sent. Only the first
+ * output matching a correlation id is recorded. Stamping and matching are safe from any thread.
+ *
+ * <p>Inputs not matched within the maximum latency, 5 minutes by default, are counted as lost
+ * and forgotten, so that inputs the application filters or aggregates away do not accumulate
+ * over a long running test. An output arriving after its input was forgotten is unmatched.</p>
+ */
+public class PipelineLatencyTracker {
+    private static final Duration DEFAULT_MAX_LATENCY = Duration.ofMinutes(5);
+
+    private final Clock clock;
+    private final String prefix = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Instant> pending = new ConcurrentHashMap<>();
+    private final Queue<Stamp> expiries = new ConcurrentLinkedQueue<>();
+    private final LatencyRecorder endToEndLatency = new LatencyRecorder();
+    private final LatencyRecorder arrivalLatency = new LatencyRecorder();
+    private final LongAdder unmatchedOutputs = new LongAdder();
+    private final LongAdder lostInputs = new LongAdder();
+    private volatile Duration maxLatency = DEFAULT_MAX_LATENCY;
+
+    /**
+     * Creates a tracker using the system clock.
+     */
+    public PipelineLatencyTracker() {
+        this(Clock.systemUTC());
+    }
+
+    PipelineLatencyTracker(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Creates a stamp with a new, unique correlation id for an input record about to be sent.
+     *
+     * @return stamp
+     */
+    public Stamp stamp() {
+        return stamp(prefix + "-" + sequence.getAndIncrement());
+    }
+
+    /**
+     * Creates a stamp with the specified correlation id for an input record about to be sent.
+     *
+     * @param correlationId identifies the input record, and the outputs produced from it
+     * @return stamp
+     */
+    public Stamp stamp(String correlationId) {
+        Instant sentAt = clock.instant();
+        expire(sentAt);
+        pending.merge(correlationId, sentAt, (previous, latest) -> latest.isAfter(previous) ? latest : previous);
+        Stamp stamp = new Stamp(correlationId, sentAt);
+        expiries.add(stamp);
+        return stamp;
+    }
+
+    /**
+     * Matches an output back to the input records stamped with its correlation id, recording its latency.
+     *
+     * @param correlationId correlation id carried by the output
+     * @param arrivedAt     time the output arrived in its stream, or null if unknown
+     * @return true if the output matched a stamped input not yet matched
+     */
+    public boolean match(String correlationId, Instant arrivedAt) {
+        Instant sentAt = correlationId == null ? null : pending.remove(correlationId);
+        if (sentAt == null) {
+            unmatchedOutputs.increment();
+            return false;
+        }
+        endToEndLatency.record(Duration.between(sentAt, clock.instant()).toNanos());
+        if (arrivedAt != null) {
+            arrivalLatency.record(Duration.between(sentAt, arrivedAt).toNanos());
+        }
+        return true;
+    }
+
+    /**
+     * Gets the latencies recorded so far.
+     *
+     * @return snapshot
+     */
+    public PipelineLatencySnapshot snapshot() {
+        expire(clock.instant());
+        return new PipelineLatencySnapshot(
+            endToEndLatency.snapshot(),
+            arrivalLatency.snapshot(),
+            pending.size(),
+            unmatchedOutputs.sum(),
+            lostInputs.sum()
+        );
+    }
+
+    /**
+     * Discards the latencies recorded so far, eg: after a warm up phase. Inputs already
+     * stamped but not yet matched are kept, so their outputs are still recognized.
+     */
+    public void reset() {
+        endToEndLatency.reset();
+        arrivalLatency.reset();
+        unmatchedOutputs.reset();
+        lostInputs.reset();
+    }
+
+    /**
+     * Gets how long an input may wait for an output to match it before it is counted as lost.
+     *
+     * @return maximum latency
+     */
+    public Duration getMaxLatency() {
+        return maxLatency;
+    }
+
+    /**
+     * Sets how long an input may wait for an output to match it before it is counted as lost.
+     *
+     * @param maxLatency maximum latency, 5 minutes by default
+     */
+    public void setMaxLatency(Duration maxLatency) {
+        this.maxLatency = maxLatency;
+    }
+
+    private void expire(Instant now) {
+        Instant cutoff = now.minus(maxLatency);
+        Stamp oldest;
+        while ((oldest = expiries.peek()) != null && oldest.getSentAt().isBefore(cutoff)) {
+            if (expiries.remove(oldest) && pending.remove(oldest.getCorrelationId(), oldest.getSentAt())) {
+                lostInputs.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package io.nuvalence.kiqt.core.metrics;
+
+import java.time.Instant;
+
+/**
+ * Correlation id and send time stamped onto an input record, so that the outputs an
+ * application produces from it can be matched back to when it was sent.
+ */
+public class Stamp {
+    private final String correlationId;
+    private final Instant sentAt;
+
+    /**
+     * Creates a stamp.
+     *
+     * @param correlationId identifies the input record, and the outputs produced from it
+     * @param sentAt        time the input record was sent
+     */
+    public Stamp(String correlationId, Instant sentAt) {
+        this.correlationId = correlationId;
+        this.sentAt = sentAt;
+    }
+
+    /**
+     * Gets the id identifying the input record, which the application should carry through to its outputs.
+     *
+     * @return correlation id
+     */
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    /**
+     * Gets the time the input record was sent.
+     *
+     * @return send time
+     */
+    public Instant getSentAt() {
+        return sentAt;
+    }
+
+    @Override
+    public String toString() {
+        return "Stamp{correlationId=" + correlationId + ", sentAt=" + sentAt + "}";
+    }
+}
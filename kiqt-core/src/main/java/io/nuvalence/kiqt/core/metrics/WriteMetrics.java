@@ -0,0 +1,136 @@
+package io.nuvalence.kiqt.core.metrics;
+
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records where the time spent writing goes, so that a load test missing its target rate can
+ * tell serialization, network and throttling apart. Latencies are kept in HdrHistograms for
+ * each call to {@code Writer.put}, for serializing its records, and for each request it makes,
+ * eg: PutRecords or PutRecordBatch, along with the outcome of every entry sent. Recording is safe
+ * from any thread.
+ */
+public class WriteMetrics {
+    /**
+     * Error code of entries rejected because a shard's throughput was exceeded.
+     */
+    public static final String THROTTLED = "ProvisionedThroughputExceededException";
+
+    private final LatencyRecorder putLatency = new LatencyRecorder();
+    private final LatencyRecorder serializationLatency = new LatencyRecorder();
+    private final LatencyRecorder requestLatency = new LatencyRecorder();
+    private final LongAdder serializedBytes = new LongAdder();
+    private final LongAdder successfulEntries = new LongAdder();
+    private final LongAdder throttledEntries = new LongAdder();
+    private final LongAdder failedEntries = new LongAdder();
+
+    /**
+     * Records the duration of a call to {@code Writer.put}, including serialization, every
+     * request and any backoff between retries.
+     *
+     * @param nanos duration in nanoseconds
+     */
+    public void recordPut(long nanos) {
+        putLatency.record(nanos);
+    }
+
+    /**
+     * Records the time taken to translate the records of a put into request entries.
+     *
+     * @param nanos duration in nanoseconds
+     */
+    public void recordSerialization(long nanos) {
+        serializationLatency.record(nanos);
+    }
+
+    /**
+     * Records the time taken to translate the records of a put into request entries, and
+     * the size of those entries.
+     *
+     * @param nanos duration in nanoseconds
+     * @param bytes size of the entries, in bytes
+     */
+    public void recordSerialization(long nanos, long bytes) {
+        serializationLatency.record(nanos);
+        serializedBytes.add(bytes);
+    }
+
+    /**
+     * Gets the size of the entries serialized so far, without taking a snapshot of the latencies.
+     *
+     * @return bytes serialized
+     */
+    public long getSerializedBytes() {
+        return serializedBytes.sum();
+    }
+
+    /**
+     * Records the round trip of a PutRecords request and the outcome of each of its entries.
+     *
+     * @param nanos    duration in nanoseconds
+     * @param response response to the request
+     */
+    public void recordRequest(long nanos, PutRecordsResponse response) {
+        long successful = 0;
+        long throttled = 0;
+        long failed = 0;
+        for (PutRecordsResultEntry result : response.records()) {
+            if (result.errorCode() == null) {
+                successful++;
+            } else if (THROTTLED.equals(result.errorCode())) {
+                throttled++;
+            } else {
+                failed++;
+            }
+        }
+        recordRequest(nanos, successful, throttled, failed);
+    }
+
+    /**
+     * Records the round trip of a request to any destination and the outcome of its entries,
+     * for writers whose responses are not PutRecords responses.
+     *
+     * @param nanos      duration in nanoseconds
+     * @param successful number of entries written
+     * @param throttled  number of entries rejected because the destination's throughput was exceeded
+     * @param failed     number of entries rejected for any other reason
+     */
+    public void recordRequest(long nanos, long successful, long throttled, long failed) {
+        requestLatency.record(nanos);
+        successfulEntries.add(successful);
+        throttledEntries.add(throttled);
+        failedEntries.add(failed);
+    }
+
+    /**
+     * Gets the metrics recorded so far.
+     *
+     * @return snapshot
+     */
+    public WriteMetricsSnapshot snapshot() {
+        return new WriteMetricsSnapshot(
+            putLatency.snapshot(),
+            serializationLatency.snapshot(),
+            requestLatency.snapshot(),
+            serializedBytes.sum(),
+            successfulEntries.sum(),
+            throttledEntries.sum(),
+            failedEntries.sum()
+        );
+    }
+
+    /**
+     * Discards the metrics recorded so far, eg: after a warm up phase.
+     */
+    public void reset() {
+        putLatency.reset();
+        serializationLatency.reset();
+        requestLatency.reset();
+        serializedBytes.reset();
+        successfulEntries.reset();
+        throttledEntries.reset();
+        failedEntries.reset();
+    }
+}
@@ -0,0 +1,133 @@
+package io.nuvalence.kiqt.core.metrics;
+
+/**
+ * Snapshot of the latencies and entry outcomes recorded by {@link WriteMetrics}.
+ */
+public class WriteMetricsSnapshot {
+    private final LatencySnapshot putLatency;
+    private final LatencySnapshot serializationLatency;
+    private final LatencySnapshot requestLatency;
+    private final long serializedBytes;
+    private final long successfulEntries;
+    private final long throttledEntries;
+    private final long failedEntries;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param putLatency           latency of each call to put
+     * @param serializationLatency time taken to translate the records of each put
+     * @param requestLatency       latency of each PutRecords request
+     * @param serializedBytes      size of the entries serialized, in bytes
+     * @param successfulEntries    number of entries written
+     * @param throttledEntries     number of entries rejected because a shard's throughput was exceeded
+     * @param failedEntries        number of entries rejected for any other reason
+     */
+    public WriteMetricsSnapshot(LatencySnapshot putLatency, LatencySnapshot serializationLatency,
+                                LatencySnapshot requestLatency, long serializedBytes, long successfulEntries,
+                                long throttledEntries, long failedEntries) {
+        this.putLatency = putLatency;
+        this.serializationLatency = serializationLatency;
+        this.requestLatency = requestLatency;
+        this.serializedBytes = serializedBytes;
+        this.successfulEntries = successfulEntries;
+        this.throttledEntries = throttledEntries;
+        this.failedEntries = failedEntries;
+    }
+
+    /**
+     * Gets the latency of each call to put, including serialization, requests and backoff.
+     *
+     * @return put latency
+     */
+    public LatencySnapshot getPutLatency() {
+        return putLatency;
+    }
+
+    /**
+     * Gets the time taken to translate the records of each put into request entries.
+     *
+     * @return serialization latency
+     */
+    public LatencySnapshot getSerializationLatency() {
+        return serializationLatency;
+    }
+
+    /**
+     * Gets the round trip latency of each PutRecords request.
+     *
+     * @return request latency
+     */
+    public LatencySnapshot getRequestLatency() {
+        return requestLatency;
+    }
+
+    /**
+     * Gets the number of PutRecords requests made, including retries.
+     *
+     * @return requests
+     */
+    public long getRequests() {
+        return requestLatency.getCount();
+    }
+
+    /**
+     * Gets the number of entries successfully written.
+     *
+     * @return successful entries
+     */
+    public long getSuccessfulEntries() {
+        return successfulEntries;
+    }
+
+    /**
+     * Gets the number of entry attempts rejected because a shard's throughput was exceeded.
+     * Throttled entries are usually retried, so they may also be counted as successful.
+     *
+     * @return throttled entries
+     */
+    public long getThrottledEntries() {
+        return throttledEntries;
+    }
+
+    /**
+     * Gets the number of entry attempts rejected for reasons other than throttling.
+     *
+     * @return failed entries
+     */
+    public long getFailedEntries() {
+        return failedEntries;
+    }
+
+    /**
+     * Gets the size of the entries serialized, counting each entry once however many times it
+     * was attempted. Zero if the writer does not measure sizes.
+     *
+     * @return bytes serialized
+     */
+    public long getSerializedBytes() {
+        return serializedBytes;
+    }
+
+    /**
+     * Gets the fraction of entry attempts that were throttled.
+     *
+     * @return throttled fraction, between 0 and 1
+     */
+    public double getThrottledFraction() {
+        long attempts = successfulEntries + throttledEntries + failedEntries;
+        return attempts == 0 ? 0 : throttledEntries / (double) attempts;
+    }
+
+    @Override
+    public String toString() {
+        return "WriteMetricsSnapshot{put=" + putLatency
+            + ", serialization=" + serializationLatency
+            + ", request=" + requestLatency
+            + ", serializedBytes=" + serializedBytes
+            + ", successful=" + successfulEntries
+            + ", throttled=" + throttledEntries
+            + ", failed=" + failedEntries
+            + "}";
+    }
+}
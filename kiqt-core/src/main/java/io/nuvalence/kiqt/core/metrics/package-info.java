@@ -0,0 +1,5 @@
+/**
+ * Record the latency and outcome of writes, and the latency of records through an application.
+ */
+
+package io.nuvalence.kiqt.core.metrics;
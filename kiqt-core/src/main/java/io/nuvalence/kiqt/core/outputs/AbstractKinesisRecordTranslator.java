@@ -1,5 +1,7 @@
 package io.nuvalence.kiqt.core.outputs;
 
+import io.nuvalence.kiqt.core.aggregation.UserRecord;
+
 import software.amazon.awssdk.services.kinesis.model.Record;
 
 import java.io.IOException;
@@ -22,6 +24,18 @@ public abstract class AbstractKinesisRecordTranslator<T> {
      */
     abstract T toValue(Record record) throws IOException;
 
+    /**
+     * Translates a single user record. Translates the underlying kinesis record by
+     * default, override to make use of the sub-sequence number or explicit hash key.
+     *
+     * @param record user record
+     * @return translated value
+     * @throws IOException if the record cannot be translated
+     */
+    T toValue(UserRecord record) throws IOException {
+        return toValue(record.getRecord());
+    }
+
     /**
      * Translates a list of records.
      *
@@ -38,4 +52,21 @@ public abstract class AbstractKinesisRecordTranslator<T> {
         }
         return values;
     }
+
+    /**
+     * Translates a list of user records, as read from a stream after deaggregation.
+     *
+     * @param records user records
+     * @return values
+     * @throws IOException if any record cannot be translated
+     */
+    public List<T> toUserRecordValues(List<UserRecord> records) throws IOException {
+        List<T> values = new LinkedList<>();
+        if (records != null && !records.isEmpty()) {
+            for (UserRecord record : records) {
+                values.add(this.toValue(record));
+            }
+        }
+        return values;
+    }
 }
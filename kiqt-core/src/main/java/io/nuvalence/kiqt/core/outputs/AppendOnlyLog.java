@@ -0,0 +1,208 @@
+package io.nuvalence.kiqt.core.outputs;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Append-only store of records kept in fixed size chunks, so that appending never copies
+ * records already stored. Records are appended by one thread at a time and may be read
+ * concurrently without locking: {@link #snapshot()} and {@link #since(int)} return immutable
+ * views in constant time, and a {@link Cursor} returns only the records appended since it
+ * was last advanced, so that repeatedly inspecting a growing output costs no more than the
+ * records that are new.
+ *
+ * @param <T> record type
+ */
+public class AppendOnlyLog<T> {
+    private static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    private final int chunkSize;
+    private volatile Object[][] chunks = new Object[8][];
+    private volatile int size;
+
+    /**
+     * Creates an empty log with chunks of 4096 records.
+     */
+    public AppendOnlyLog() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates an empty log.
+     *
+     * @param chunkSize number of records per chunk
+     */
+    public AppendOnlyLog(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param record record
+     */
+    public synchronized void append(T record) {
+        store(size, record);
+        size = size + 1;
+    }
+
+    /**
+     * Appends records, making them visible to readers all at once.
+     *
+     * @param records records
+     */
+    public synchronized void appendAll(Collection<? extends T> records) {
+        int end = size;
+        for (T record : records) {
+            store(end++, record);
+        }
+        size = end;
+    }
+
+    /**
+     * Gets the number of records appended.
+     *
+     * @return size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets an immutable view of the records appended so far. Records appended afterwards
+     * are not part of the view.
+     *
+     * @return records
+     */
+    public List<T> snapshot() {
+        return since(0);
+    }
+
+    /**
+     * Gets an immutable view of the records appended at or after the specified position.
+     *
+     * @param position position of the first record, between 0 and {@link #size()}
+     * @return records
+     */
+    public List<T> since(int position) {
+        int end = size;
+        if (position < 0 || position > end) {
+            throw new IndexOutOfBoundsException("position " + position + " is outside of [0, " + end + "]");
+        }
+        return new View<>(chunks, chunkSize, position, end);
+    }
+
+    /**
+     * Creates a cursor positioned at the first record.
+     *
+     * @return cursor
+     */
+    public Cursor<T> cursor() {
+        return new Cursor<>(this, 0);
+    }
+
+    private void store(int index, T record) {
+        int chunk = index / chunkSize;
+        Object[][] current = chunks;
+        if (chunk == current.length) {
+            Object[][] grown = new Object[current.length * 2][];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            chunks = grown;
+            current = grown;
+        }
+        if (current[chunk] == null) {
+            current[chunk] = new Object[chunkSize];
+        }
+        // visible to readers once the write to size that follows is
+        current[chunk][index % chunkSize] = record;
+    }
+
+    /**
+     * Position in a log from which records not yet seen can be read.
+     *
+     * @param <T> record type
+     */
+    public static class Cursor<T> {
+        private final AppendOnlyLog<T> log;
+        private int position;
+
+        private Cursor(AppendOnlyLog<T> log, int position) {
+            this.log = log;
+            this.position = position;
+        }
+
+        /**
+         * Gets the records appended since the cursor was last advanced, and advances it past them.
+         *
+         * @return new records
+         */
+        public synchronized List<T> next() {
+            List<T> records = log.since(position);
+            position += records.size();
+            return records;
+        }
+
+        /**
+         * Gets the records appended since the cursor was last advanced, without advancing it.
+         *
+         * @return new records
+         */
+        public synchronized List<T> peek() {
+            return log.since(position);
+        }
+
+        /**
+         * Gets the position of the next record the cursor will return.
+         *
+         * @return position
+         */
+        public synchronized int getPosition() {
+            return position;
+        }
+    }
+
+    /**
+     * Immutable view over a range of records.
+     */
+    private static final class View<T> extends AbstractList<T> implements RandomAccess {
+        private final Object[][] chunks;
+        private final int chunkSize;
+        private final int from;
+        private final int to;
+
+        View(Object[][] chunks, int chunkSize, int from, int to) {
+            this.chunks = chunks;
+            this.chunkSize = chunkSize;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            if (index < 0 || index >= to - from) {
+                throw new IndexOutOfBoundsException("index " + index + " is outside of [0, " + (to - from) + ")");
+            }
+            int position = from + index;
+            return (T) chunks[position / chunkSize][position % chunkSize];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+
+        @Override
+        public List<T> subList(int fromIndex, int toIndex) {
+            if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+                throw new IndexOutOfBoundsException("range [" + fromIndex + ", " + toIndex + ") is outside of view");
+            }
+            return new View<>(chunks, chunkSize, from + fromIndex, from + toIndex);
+        }
+    }
+}
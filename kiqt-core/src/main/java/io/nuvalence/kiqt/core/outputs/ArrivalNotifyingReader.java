@@ -0,0 +1,25 @@
+package io.nuvalence.kiqt.core.outputs;
+
+/**
+ * Reader that signals when new records arrive, so that consumers of its records can wait
+ * for the signal rather than polling.
+ *
+ * @param <T> record type
+ */
+public interface ArrivalNotifyingReader<T> extends Reader<T> {
+
+    /**
+     * Gets the signal sent whenever new records arrive.
+     *
+     * @return arrival signal
+     */
+    ArrivalSignal getArrivalSignal();
+
+    /**
+     * Requests that the reader check for new records as soon as possible rather than at its next
+     * scheduled read, eg: while a consumer is waiting for them. Records found are signalled as
+     * usual. Does nothing by default.
+     */
+    default void requestRefresh() {
+    }
+}
@@ -0,0 +1,76 @@
+package io.nuvalence.kiqt.core.outputs;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Notification that new records have arrived, so that whatever depends on them can react
+ * right away and stay idle otherwise, instead of polling at a fixed interval. Each signal
+ * increments a version, which waiters compare against the version they last saw so that a
+ * signal sent between checking records and starting to wait is never missed.
+ */
+public class ArrivalSignal {
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private long version;
+
+    /**
+     * Gets the number of signals sent so far.
+     *
+     * @return version
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Signals that new records have arrived, waking waiters and notifying listeners.
+     */
+    public void signal() {
+        synchronized (this) {
+            version++;
+            notifyAll();
+        }
+        listeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Waits until a signal is sent after the specified version was read.
+     *
+     * @param version version last seen
+     * @param timeout maximum time to wait
+     * @param unit    unit of timeout
+     * @return true if signalled, false if the timeout elapsed first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized boolean awaitChange(long version, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (this.version == version) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        return true;
+    }
+
+    /**
+     * Adds a listener run on the signalling thread after every signal. Listeners should hand
+     * off any slow work to another thread.
+     *
+     * @param listener listener
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     *
+     * @param listener listener
+     */
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+}
@@ -0,0 +1,18 @@
+package io.nuvalence.kiqt.core.outputs;
+
+/**
+ * Reader that retains every record read, so that records can be read incrementally with a
+ * cursor rather than all at once.
+ *
+ * @param <T> record type
+ */
+public interface CursorReader<T> extends Reader<T> {
+
+    /**
+     * Creates a cursor positioned at the first record read, which returns only the records
+     * read since it was last advanced.
+     *
+     * @return cursor
+     */
+    AppendOnlyLog.Cursor<T> cursor();
+}
@@ -0,0 +1,33 @@
+package io.nuvalence.kiqt.core.outputs;
+
+import io.nuvalence.kiqt.core.formats.DataFormat;
+
+import software.amazon.awssdk.services.kinesis.model.Record;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Translates kinesis record to generic object by deserializing its data in a {@link DataFormat}.
+ *
+ * @param <T> output type
+ */
+public class DataFormatRecordTranslator<T> extends AbstractKinesisRecordTranslator<T> {
+    private ObjectReader reader;
+
+    /**
+     * Creates a translator using the specified format.
+     *
+     * @param format     data format used to deserialize record data
+     * @param recordType output record class
+     */
+    public DataFormatRecordTranslator(DataFormat format, Class<T> recordType) {
+        this.reader = format.readerFor(recordType);
+    }
+
+    @Override
+    public T toValue(Record record) throws IOException {
+        return reader.readValue(record.data().asByteArray());
+    }
+}
@@ -0,0 +1,80 @@
+package io.nuvalence.kiqt.core.outputs;
+
+import io.nuvalence.kiqt.core.aggregation.UserRecord;
+import io.nuvalence.kiqt.core.compression.Compression;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.Record;
+
+import java.io.IOException;
+
+/**
+ * Decompresses the data of kinesis records before translating them with a delegate
+ * translator. The compression is either configured, or detected per record from the
+ * magic number its data starts with, so streams mixing compressed and uncompressed
+ * records can be read. Uncompressed data may start with a magic number by chance, so a
+ * record that cannot be decompressed with the detected compression is translated as is.
+ * Records are decompressed after deaggregation, matching producers that compress each
+ * user record.
+ *
+ * @param <T> output type
+ */
+public class DecompressingRecordTranslator<T> extends AbstractKinesisRecordTranslator<T> {
+    private AbstractKinesisRecordTranslator<T> delegate;
+    private Compression compression;
+
+    /**
+     * Creates a translator detecting the compression of each record.
+     *
+     * @param delegate translates decompressed records
+     */
+    public DecompressingRecordTranslator(AbstractKinesisRecordTranslator<T> delegate) {
+        this(delegate, null);
+    }
+
+    /**
+     * Creates a translator decompressing every record with the specified compression.
+     *
+     * @param delegate    translates decompressed records
+     * @param compression compression of record data, or null to detect it for each record
+     */
+    public DecompressingRecordTranslator(AbstractKinesisRecordTranslator<T> delegate, Compression compression) {
+        this.delegate = delegate;
+        this.compression = compression;
+    }
+
+    @Override
+    T toValue(Record record) throws IOException {
+        return delegate.toValue(decompress(record));
+    }
+
+    @Override
+    T toValue(UserRecord record) throws IOException {
+        return delegate.toValue(new UserRecord(
+            decompress(record.getRecord()),
+            record.getExplicitHashKey(),
+            record.getSubSequenceNumber(),
+            record.isAggregated()
+        ));
+    }
+
+    private Record decompress(Record record) throws IOException {
+        byte[] data = record.data().asByteArray();
+        Compression codec = compression != null ? compression : Compression.detect(data);
+        if (codec == Compression.NONE) {
+            return record;
+        }
+        try {
+            return withData(record, codec.decompress(data));
+        } catch (IOException e) {
+            if (compression != null) {
+                throw e;
+            }
+            return record;
+        }
+    }
+
+    private static Record withData(Record record, byte[] data) {
+        return record.toBuilder().data(SdkBytes.fromByteArray(data)).build();
+    }
+}
@@ -1,15 +1,25 @@
 package io.nuvalence.kiqt.core.outputs;
 
+import io.nuvalence.kiqt.core.formats.DataFormat;
+import io.nuvalence.kiqt.core.metrics.PipelineLatencyTracker;
 import io.nuvalence.kiqt.core.resources.AwsResource;
 
+import java.util.function.Function;
+
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
  * Default reader provider. Currently only supports Kinesis Streams,
  * a custom {@link ReaderProvider} may be implemented to support other types of
- * destinations.
+ * destinations. Readers are wrapped in an {@link OutputCache} unless caching is
+ * disabled in the {@link ReaderConfiguration}. Streams are read with an
+ * {@link EnhancedFanOutReader} when a fan-out consumer name is configured.
  */
 public class DefaultReaderProvider implements ReaderProvider {
+    // verifications waiting on records request refreshes in between, see ArrivalNotifyingReader#requestRefresh
+    private static final long POLLING_REFRESH_MILLIS = 2500L;
+    // pushed records are buffered locally, so they can be collected far more often
+    private static final long FAN_OUT_REFRESH_MILLIS = 250L;
 
     private ReaderConfiguration configuration;
 
@@ -29,13 +39,54 @@ public class DefaultReaderProvider implements ReaderProvider {
         this.configuration = configuration;
     }
 
+    /**
+     * Gets the configuration options of the readers provided.
+     *
+     * @return reader configuration
+     */
+    public ReaderConfiguration getConfiguration() {
+        return configuration;
+    }
+
     @Override
     public <TOutput> Reader<TOutput> get(AwsResource resource, ObjectMapper mapper, Class<TOutput> recordType) {
-        KinesisStreamReader<TOutput> reader = new KinesisStreamReader<>(
-            resource.getResource(),
-            new JsonRecordTranslator<>(mapper, recordType)
+        return get(resource, DataFormat.json(mapper), recordType);
+    }
+
+    @Override
+    public <TOutput> Reader<TOutput> get(AwsResource resource, DataFormat format, Class<TOutput> recordType) {
+        return reader(resource, translator(format, recordType));
+    }
+
+    @Override
+    public <TOutput> Reader<TOutput> get(AwsResource resource, DataFormat format, Class<TOutput> recordType,
+                                         PipelineLatencyTracker tracker,
+                                         Function<? super TOutput, String> correlationIdProvider) {
+        return reader(resource, new LatencyMatchingRecordTranslator<>(
+            translator(format, recordType),
+            tracker,
+            correlationIdProvider
+        ));
+    }
+
+    private <TOutput> AbstractKinesisRecordTranslator<TOutput> translator(DataFormat format,
+                                                                          Class<TOutput> recordType) {
+        return new DecompressingRecordTranslator<>(
+            new DataFormatRecordTranslator<>(format, recordType),
+            configuration.getCompression()
         );
+    }
+
+    private <TOutput> Reader<TOutput> reader(AwsResource resource,
+                                             AbstractKinesisRecordTranslator<TOutput> translator) {
+        String consumerName = configuration.getFanOutConsumerName();
+        Reader<TOutput> reader = consumerName == null
+            ? new KinesisStreamReader<>(resource.getResource(), translator)
+            : new EnhancedFanOutReader<>(resource.getResource(), consumerName, translator);
         reader.setConfiguration(configuration);
-        return new OutputCache<>(reader, 2500L);
+        if (!configuration.isCacheEnabled()) {
+            return reader;
+        }
+        return new OutputCache<>(reader, consumerName == null ? POLLING_REFRESH_MILLIS : FAN_OUT_REFRESH_MILLIS);
     }
 }
@@ -0,0 +1,331 @@
+package io.nuvalence.kiqt.core.outputs;
+
+import io.nuvalence.kiqt.core.aggregation.RecordDeaggregator;
+import io.nuvalence.kiqt.core.aggregation.UserRecord;
+import io.nuvalence.kiqt.core.shards.ShardDiscovery;
+
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.ConsumerDescription;
+import software.amazon.awssdk.services.kinesis.model.ConsumerStatus;
+import software.amazon.awssdk.services.kinesis.model.DeregisterStreamConsumerRequest;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamConsumerRequest;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamSummaryRequest;
+import software.amazon.awssdk.services.kinesis.model.Record;
+import software.amazon.awssdk.services.kinesis.model.RegisterStreamConsumerRequest;
+import software.amazon.awssdk.services.kinesis.model.ResourceInUseException;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+import software.amazon.awssdk.services.kinesis.model.ShardIteratorType;
+import software.amazon.awssdk.services.kinesis.model.StartingPosition;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardEvent;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardRequest;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardResponseHandler;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Push reader for a Kinesis stream using enhanced fan-out. A stream consumer is registered
+ * on the first read and every shard is subscribed to with SubscribeToShard, so records are
+ * pushed over HTTP/2 as soon as they are written rather than polled for, using throughput
+ * dedicated to the consumer instead of sharing the GetRecords quota with the application's
+ * other consumers. Records received are buffered until the next call to {@link #getRecords()},
+ * and their arrival is signalled so that they can be collected right away.
+ *
+ * <p>Subscriptions expire after five minutes and are renewed from the last record received.
+ * Failed subscriptions are retried with a jittered backoff, and the read fails once a shard
+ * has failed too many times in a row. Shards are discovered with a cached {@link ShardDiscovery},
+ * and the children of a shard closed by a reshard are only subscribed to once every record of
+ * the closed shard has been received.</p>
+ *
+ * <p>A consumer registered by the reader is deregistered when the reader is closed, as it is
+ * billed per shard hour and counts towards the limit of 20 consumers per stream. A consumer
+ * already registered under the same name, eg: by an earlier run, is reused and left registered.
+ * Each reader of a stream reading at the same time needs its own consumer name: a shard of a
+ * consumer has only one subscription at a time, so readers sharing a consumer take over each
+ * other's subscriptions.</p>
+ *
+ * @param <T> record type
+ */
+public class EnhancedFanOutReader<T> implements ArrivalNotifyingReader<T> {
+    private static final Duration CONSUMER_ACTIVE_TIMEOUT = Duration.ofMinutes(2);
+    private static final long CONSUMER_POLL_MILLIS = 1000;
+    private static final long BASE_RETRY_MILLIS = 200;
+    private static final long MAX_RETRY_MILLIS = 5000;
+    private static final int MAX_CONSECUTIVE_FAILURES = 10;
+
+    private final KinesisAsyncClient client;
+    private final String streamName;
+    private final String consumerName;
+    private final AbstractKinesisRecordTranslator<T> recordTranslator;
+    private final Queue<Record> received = new ConcurrentLinkedQueue<>();
+    private final Map<String, ShardSubscription> subscriptions = new ConcurrentHashMap<>();
+    private final Set<String> finishedShards = ConcurrentHashMap.newKeySet();
+    private final ShardDiscovery shardDiscovery;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final ArrivalSignal arrivals = new ArrivalSignal();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("kiqt-fan-out-reader-%d").build()
+    );
+    private ReaderConfiguration configuration = new ReaderConfiguration();
+    private String consumerArn;
+    private boolean registered;
+    private volatile boolean closed;
+
+    /**
+     * Creates a reader.
+     *
+     * @param streamName       name of stream
+     * @param consumerName     name under which the stream consumer is registered
+     * @param recordTranslator function to translate a kinesis record to the expected record type
+     */
+    public EnhancedFanOutReader(String streamName, String consumerName,
+                                AbstractKinesisRecordTranslator<T> recordTranslator) {
+        this(KinesisAsyncClient.create(), streamName, consumerName, recordTranslator);
+    }
+
+    /**
+     * Creates a reader.
+     *
+     * @param client           asynchronous client used to register the consumer and subscribe to shards
+     * @param streamName       name of stream
+     * @param consumerName     name under which the stream consumer is registered
+     * @param recordTranslator function to translate a kinesis record to the expected record type
+     */
+    public EnhancedFanOutReader(KinesisAsyncClient client, String streamName, String consumerName,
+                                AbstractKinesisRecordTranslator<T> recordTranslator) {
+        this.client = client;
+        this.shardDiscovery = new ShardDiscovery(client, streamName);
+        this.streamName = streamName;
+        this.consumerName = consumerName;
+        this.recordTranslator = recordTranslator;
+    }
+
+    @Override
+    public synchronized List<T> getRecords() throws IOException {
+        if (closed) {
+            throw new IllegalStateException("reader is closed");
+        }
+        Throwable cause = failure.get();
+        if (cause != null) {
+            throw new IOException("subscription to shard of " + streamName + " failed", cause);
+        }
+        if (consumerArn == null) {
+            consumerArn = registerConsumer();
+        }
+        subscribeToNewShards();
+
+        List<Record> records = new ArrayList<>();
+        for (Record record = received.poll(); record != null; record = received.poll()) {
+            records.add(record);
+        }
+        return recordTranslator.toUserRecordValues(toUserRecords(records));
+    }
+
+    @Override
+    public void setConfiguration(ReaderConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    @Override
+    public ArrivalSignal getArrivalSignal() {
+        return arrivals;
+    }
+
+    /**
+     * Ends every subscription and deregisters the stream consumer if it was registered by this reader.
+     *
+     * @throws IOException if unable to deregister the consumer
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        scheduler.shutdownNow();
+        subscriptions.values().forEach(ShardSubscription::cancel);
+        if (registered) {
+            join(client.deregisterStreamConsumer(DeregisterStreamConsumerRequest.builder()
+                .consumerARN(consumerArn)
+                .build()));
+        }
+    }
+
+    private String registerConsumer() throws IOException {
+        String streamArn = join(client.describeStreamSummary(DescribeStreamSummaryRequest.builder()
+            .streamName(streamName)
+            .build())).streamDescriptionSummary().streamARN();
+
+        String arn;
+        try {
+            arn = join(client.registerStreamConsumer(RegisterStreamConsumerRequest.builder()
+                .streamARN(streamArn)
+                .consumerName(consumerName)
+                .build())).consumer().consumerARN();
+            registered = true;
+        } catch (ResourceInUseException e) {
+            // already registered under this name, eg: by an earlier run
+            arn = describeConsumer(DescribeStreamConsumerRequest.builder()
+                .streamARN(streamArn)
+                .consumerName(consumerName)
+                .build()).consumerARN();
+        }
+        awaitActive(arn);
+        return arn;
+    }
+
+    private void awaitActive(String arn) throws IOException {
+        long deadline = System.nanoTime() + CONSUMER_ACTIVE_TIMEOUT.toNanos();
+        DescribeStreamConsumerRequest request = DescribeStreamConsumerRequest.builder().consumerARN(arn).build();
+        while (describeConsumer(request).consumerStatus() != ConsumerStatus.ACTIVE) {
+            if (System.nanoTime() > deadline) {
+                throw new IOException("consumer " + consumerName + " did not become active within "
+                    + CONSUMER_ACTIVE_TIMEOUT);
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(CONSUMER_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while awaiting consumer " + consumerName);
+            }
+        }
+    }
+
+    private ConsumerDescription describeConsumer(DescribeStreamConsumerRequest request) throws IOException {
+        return join(client.describeStreamConsumer(request)).consumerDescription();
+    }
+
+    private void subscribeToNewShards() {
+        for (Shard shard : shardDiscovery.getReadableShards(finishedShards)) {
+            ShardSubscription subscription = new ShardSubscription(shard.shardId(), startingPosition());
+            if (subscriptions.putIfAbsent(shard.shardId(), subscription) == null) {
+                subscription.subscribe();
+            }
+        }
+    }
+
+    private StartingPosition startingPosition() {
+        if (configuration != null && configuration.getStartTime() != null) {
+            return StartingPosition.builder()
+                .type(ShardIteratorType.AT_TIMESTAMP)
+                .timestamp(configuration.getStartTime())
+                .build();
+        }
+        return StartingPosition.builder().type(ShardIteratorType.TRIM_HORIZON).build();
+    }
+
+    private List<UserRecord> toUserRecords(List<Record> records) {
+        if (configuration == null || configuration.isDeaggregationEnabled()) {
+            return RecordDeaggregator.deaggregate(records);
+        }
+        return records.stream().map(UserRecord::of).collect(Collectors.toList());
+    }
+
+    private static <R> R join(CompletableFuture<R> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while awaiting response");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("request failed", cause);
+        }
+    }
+
+    /**
+     * Subscription to a single shard, renewed from the last record received until the shard is closed.
+     */
+    private class ShardSubscription {
+        private final String shardId;
+        private volatile StartingPosition position;
+        private volatile CompletableFuture<Void> future;
+        private int consecutiveFailures;
+
+        ShardSubscription(String shardId, StartingPosition position) {
+            this.shardId = shardId;
+            this.position = position;
+        }
+
+        void subscribe() {
+            if (closed) {
+                return;
+            }
+            SubscribeToShardRequest request = SubscribeToShardRequest.builder()
+                .consumerARN(consumerArn)
+                .shardId(shardId)
+                .startingPosition(position)
+                .build();
+            SubscribeToShardResponseHandler handler = SubscribeToShardResponseHandler.builder()
+                .subscriber(SubscribeToShardResponseHandler.Visitor.builder()
+                    .onSubscribeToShardEvent(this::onEvent)
+                    .build())
+                .build();
+            future = client.subscribeToShard(request, handler);
+            future.whenComplete((ignored, error) -> onEnd(error));
+        }
+
+        void cancel() {
+            CompletableFuture<Void> current = future;
+            if (current != null) {
+                current.cancel(true);
+            }
+        }
+
+        private void onEvent(SubscribeToShardEvent event) {
+            received.addAll(event.records());
+            if (!event.records().isEmpty()) {
+                arrivals.signal();
+            }
+            consecutiveFailures = 0;
+            String continuation = event.continuationSequenceNumber();
+            position = continuation == null ? null : StartingPosition.builder()
+                .type(ShardIteratorType.AFTER_SEQUENCE_NUMBER)
+                .sequenceNumber(continuation)
+                .build();
+        }
+
+        private void onEnd(Throwable error) {
+            if (closed) {
+                return;
+            }
+            if (position == null) {
+                // every record of the closed shard was received, its children may now be read
+                finishedShards.add(shardId);
+                shardDiscovery.invalidate();
+            } else if (error == null) {
+                // subscriptions expire after five minutes
+                subscribe();
+            } else if (++consecutiveFailures > MAX_CONSECUTIVE_FAILURES) {
+                failure.compareAndSet(null, error);
+            } else {
+                long backoff = Math.min(MAX_RETRY_MILLIS, BASE_RETRY_MILLIS << Math.min(consecutiveFailures, 10));
+                scheduler.schedule(this::subscribe, ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1),
+                    TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+}
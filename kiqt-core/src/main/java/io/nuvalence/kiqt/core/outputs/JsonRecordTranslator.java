@@ -1,8 +1,6 @@
 package io.nuvalence.kiqt.core.outputs;
 
-import software.amazon.awssdk.services.kinesis.model.Record;
-
-import java.io.IOException;
+import io.nuvalence.kiqt.core.formats.DataFormat;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -11,9 +9,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  *
  * @param <T> output type
  */
-public class JsonRecordTranslator<T> extends AbstractKinesisRecordTranslator<T> {
-    private ObjectMapper mapper;
-    private Class<T> recordType;
+public class JsonRecordTranslator<T> extends DataFormatRecordTranslator<T> {
 
     /**
      * Creates a translator using a custom ObjectMapper.
@@ -22,12 +18,6 @@ public class JsonRecordTranslator<T> extends AbstractKinesisRecordTranslator<T>
      * @param recordType   output record class
      */
     public JsonRecordTranslator(ObjectMapper objectMapper, Class<T> recordType) {
-        this.mapper = objectMapper;
-        this.recordType = recordType;
-    }
-
-    @Override
-    public T toValue(Record record) throws IOException {
-        return mapper.readValue(record.data().asByteArray(), recordType);
+        super(DataFormat.json(objectMapper), recordType);
     }
 }
@@ -1,31 +1,79 @@
 package io.nuvalence.kiqt.core.outputs;
 
+import io.nuvalence.kiqt.core.aggregation.RecordDeaggregator;
+import io.nuvalence.kiqt.core.aggregation.UserRecord;
+import io.nuvalence.kiqt.core.shards.ShardDiscovery;
+import io.nuvalence.kiqt.core.throughput.TokenBucket;
+
 import software.amazon.awssdk.services.kinesis.KinesisClient;
-import software.amazon.awssdk.services.kinesis.model.DescribeStreamRequest;
 import software.amazon.awssdk.services.kinesis.model.GetRecordsRequest;
 import software.amazon.awssdk.services.kinesis.model.GetRecordsResponse;
 import software.amazon.awssdk.services.kinesis.model.GetShardIteratorRequest;
+import software.amazon.awssdk.services.kinesis.model.ProvisionedThroughputExceededException;
 import software.amazon.awssdk.services.kinesis.model.Record;
 import software.amazon.awssdk.services.kinesis.model.Shard;
 import software.amazon.awssdk.services.kinesis.model.ShardIteratorType;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Polling reader for a Kinesis stream. Polls and caches output given at a fixed interval.
+ * KPL aggregated records are unpacked into their user records before being translated,
+ * unless disabled in the {@link ReaderConfiguration}.
+ *
+ * <p>Each read keeps fetching from a shard until the shard reports it is no longer behind
+ * the tip of the stream, up to the number of calls per shard allowed by the configuration,
+ * so that a backlog is drained in a single read rather than over many. Calls to each shard
+ * are paced to stay within the GetRecords quotas of five calls and 2 MiB per second per shard.
+ * Should a call be throttled or fail anyway, draining the shard stops and the records already
+ * fetched are returned, since the shard iterator has moved past them; the shard is read from
+ * where it stopped on the next read. Likewise, a shard failing does not lose the records fetched
+ * from other shards: they are returned and the failure is thrown by the next read, or by this
+ * read if no records were fetched at all.</p>
+ *
+ * <p>Shards are read one after another unless {@link ReaderConfiguration#getShardReadParallelism()}
+ * allows several to be read at once. Either way, records are returned grouped by shard, in the
+ * order shards are listed, and in order within each shard.</p>
+ *
+ * <p>Shards are discovered with a cached {@link ShardDiscovery}. A shard closed by a reshard is
+ * read to its end before the shards that replaced it are read, so records of a partition key
+ * are returned in order across splits and merges.</p>
  *
  * @param <T> record type
  */
 public class KinesisStreamReader<T> implements Reader<T> {
+    private static final double GET_RECORDS_PER_SECOND_PER_SHARD = 5;
+    private static final double BYTES_PER_SECOND_PER_SHARD = 2 * 1024 * 1024;
+
     private final String streamName;
     private final AbstractKinesisRecordTranslator<T> recordTranslator;
     private ReaderConfiguration configuration;
     private KinesisClient client;
-    private Map<String, String> shardIdNextIteratorMap = new HashMap<>();
+    private Map<String, String> shardIdNextIteratorMap = new ConcurrentHashMap<>();
+    private final Set<String> closedShards = ConcurrentHashMap.newKeySet();
+    private final Map<String, TokenBucket> shardQuotas = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> shardByteQuotas = new ConcurrentHashMap<>();
+    private final Ticker ticker;
+    private final ShardDiscovery shardDiscovery;
+    private ThreadPoolExecutor executor;
+    private volatile Exception deferredFailure;
 
     /**
      * Creates a reader.
@@ -47,6 +95,15 @@ public class KinesisStreamReader<T> implements Reader<T> {
     public KinesisStreamReader(KinesisClient client,
                                String streamName,
                                AbstractKinesisRecordTranslator<T> recordTranslator) {
+        this(client, streamName, recordTranslator, Ticker.systemTicker());
+    }
+
+    KinesisStreamReader(KinesisClient client,
+                        String streamName,
+                        AbstractKinesisRecordTranslator<T> recordTranslator,
+                        Ticker ticker) {
+        this.ticker = ticker;
+        this.shardDiscovery = new ShardDiscovery(client, streamName);
         this.configuration = new ReaderConfiguration();
         this.client = client;
         this.streamName = streamName;
@@ -55,12 +112,16 @@ public class KinesisStreamReader<T> implements Reader<T> {
 
     @Override
     public List<T> getRecords() throws IOException {
-        List<Shard> shards = this.client
-            .describeStream(DescribeStreamRequest.builder().streamName(streamName).build())
-            .streamDescription().shards();
+        Exception failure = deferredFailure;
+        if (failure != null) {
+            deferredFailure = null;
+            rethrow(failure);
+        }
+        List<Shard> shards = shardDiscovery.getReadableShards(closedShards);
         List<T> items = new LinkedList<>();
-        for (Shard shard : shards) {
-            items.addAll(recordTranslator.toValues(getRecordsForShard(shard)));
+        // translators need not be thread-safe, so only fetching is done concurrently
+        for (List<Record> records : fetch(shards)) {
+            items.addAll(recordTranslator.toUserRecordValues(toUserRecords(records)));
         }
         return items;
     }
@@ -70,14 +131,197 @@ public class KinesisStreamReader<T> implements Reader<T> {
         this.configuration = configuration;
     }
 
-    private List<Record> getRecordsForShard(Shard shard) {
-        GetRecordsResponse response = this.client.getRecords(GetRecordsRequest.builder()
-            .shardIterator(getShardIterator(shard))
-            .build());
+    /**
+     * Stops the threads reading shards concurrently, if any.
+     */
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private List<List<Record>> fetch(List<Shard> shards) throws IOException {
+        int parallelism = configuration == null ? 1 : configuration.getShardReadParallelism();
+        List<List<Record>> records = new ArrayList<>(shards.size());
+        if (parallelism <= 1 || shards.size() <= 1) {
+            List<Exception> failures = new ArrayList<>();
+            for (Shard shard : shards) {
+                try {
+                    records.add(getRecordsForShard(shard));
+                } catch (IOException | RuntimeException e) {
+                    failures.add(e);
+                    if (e instanceof InterruptedIOException) {
+                        break;
+                    }
+                }
+            }
+            return keepFetched(records, failures);
+        }
+
+        ThreadPoolExecutor executor = executor(parallelism);
+        List<Future<List<Record>>> fetches = new ArrayList<>(shards.size());
+        for (Shard shard : shards) {
+            fetches.add(executor.submit(() -> {
+                try {
+                    return getRecordsForShard(shard);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+        // every fetch is awaited rather than cancelled on failure, since a fetch that has started
+        // has moved its shard's iterator past the records it returns
+        List<Exception> failures = new ArrayList<>();
+        for (Future<List<Record>> fetch : fetches) {
+            try {
+                records.add(await(fetch));
+            } catch (IOException | RuntimeException e) {
+                failures.add(e);
+                if (e instanceof InterruptedIOException) {
+                    break;
+                }
+            }
+        }
+        return keepFetched(records, failures);
+    }
+
+    /**
+     * Returns the records fetched from the shards that were read, so that a shard failing does not
+     * lose records fetched from others. The failure is thrown if no records were fetched, otherwise
+     * it is thrown by the next read.
+     */
+    private List<List<Record>> keepFetched(List<List<Record>> records, List<Exception> failures)
+        throws IOException {
+        if (failures.isEmpty()) {
+            return records;
+        }
+        Exception failure = failures.get(0);
+        failures.subList(1, failures.size()).forEach(failure::addSuppressed);
+        if (records.stream().allMatch(List::isEmpty)) {
+            rethrow(failure);
+        }
+        deferredFailure = failure;
+        return records;
+    }
 
-        shardIdNextIteratorMap.put(shard.shardId(), response.nextShardIterator());
+    private static void rethrow(Exception failure) throws IOException {
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        throw (RuntimeException) failure;
+    }
+
+    private synchronized ThreadPoolExecutor executor(int parallelism) {
+        if (executor == null || executor.getMaximumPoolSize() != parallelism) {
+            if (executor != null) {
+                executor.shutdown();
+            }
+            executor = new ThreadPoolExecutor(parallelism, parallelism, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("kiqt-shard-reader-%d").build());
+            // readers are not always closed, so idle threads are let go rather than left waiting
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    private static List<Record> await(Future<List<Record>> fetch) throws IOException {
+        try {
+            return fetch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while reading shards");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("failed to read shard", cause);
+        }
+    }
+
+    private List<UserRecord> toUserRecords(List<Record> records) {
+        if (configuration == null || configuration.isDeaggregationEnabled()) {
+            return RecordDeaggregator.deaggregate(records);
+        }
+        return records.stream().map(UserRecord::of).collect(Collectors.toList());
+    }
+
+    private List<Record> getRecordsForShard(Shard shard) throws InterruptedIOException {
+        List<Record> records = new ArrayList<>();
+        int maxCalls = configuration == null ? 1 : configuration.getMaxGetRecordsCallsPerShard();
+        for (int calls = 0; calls < maxCalls; calls++) {
+            awaitQuota(shard.shardId());
+            GetRecordsResponse response;
+            try {
+                response = this.client.getRecords(GetRecordsRequest.builder()
+                    .shardIterator(getShardIterator(shard))
+                    .build());
+            } catch (ProvisionedThroughputExceededException e) {
+                break;
+            } catch (RuntimeException e) {
+                if (records.isEmpty()) {
+                    throw e;
+                }
+                // the iterator has moved past the records fetched, so they are returned now and
+                // the failure, if it persists, is reported by the next read
+                break;
+            }
+
+            records.addAll(response.records());
+            consumeBytes(shard.shardId(), response.records());
+
+            if (response.nextShardIterator() == null) {
+                // the shard was closed by a reshard and every record in it has been read
+                closedShards.add(shard.shardId());
+                shardIdNextIteratorMap.remove(shard.shardId());
+                shardDiscovery.invalidate();
+                break;
+            }
+            shardIdNextIteratorMap.put(shard.shardId(), response.nextShardIterator());
+            if (!isBehind(response)) {
+                break;
+            }
+        }
+        return records;
+    }
+
+    private static boolean isBehind(GetRecordsResponse response) {
+        return response.millisBehindLatest() != null && response.millisBehindLatest() > 0;
+    }
+
+    private void awaitQuota(String shardId) throws InterruptedIOException {
+        TokenBucket quota = shardQuotas.computeIfAbsent(shardId, id -> new TokenBucket(
+            GET_RECORDS_PER_SECOND_PER_SHARD, GET_RECORDS_PER_SECOND_PER_SHARD, ticker
+        ));
+        try {
+            quota.acquire(1);
+            // waits until bytes read by previous calls have been paid back
+            byteQuota(shardId).acquire(0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while pacing reads of shard " + shardId);
+        }
+    }
+
+    private void consumeBytes(String shardId, List<Record> records) {
+        long bytes = 0;
+        for (Record record : records) {
+            bytes += record.data().asByteBuffer().remaining();
+        }
+        byteQuota(shardId).reserve(bytes);
+    }
 
-        return response.records();
+    private TokenBucket byteQuota(String shardId) {
+        return shardByteQuotas.computeIfAbsent(shardId, id -> new TokenBucket(
+            BYTES_PER_SECOND_PER_SHARD, BYTES_PER_SECOND_PER_SHARD, ticker
+        ));
     }
 
     private String getShardIterator(Shard shard) {
@@ -0,0 +1,78 @@
+package io.nuvalence.kiqt.core.outputs;
+
+import io.nuvalence.kiqt.core.metrics.PipelineLatencyTracker;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Matches the records returned by a reader back to the stamped inputs they were produced from,
+ * for readers whose records do not carry the time they arrived in the output. Only the latency
+ * until records are read is recorded, not the latency until they arrived.
+ *
+ * @param <T> record type
+ * @see LatencyMatchingRecordTranslator
+ */
+class LatencyMatchingReader<T> implements Reader<T> {
+    private final Reader<T> reader;
+    private final PipelineLatencyTracker tracker;
+    private final Function<? super T, String> correlationIdProvider;
+
+    private LatencyMatchingReader(Reader<T> reader, PipelineLatencyTracker tracker,
+                                  Function<? super T, String> correlationIdProvider) {
+        this.reader = reader;
+        this.tracker = tracker;
+        this.correlationIdProvider = correlationIdProvider;
+    }
+
+    /**
+     * Matches the records of a reader. Records of a reader that retains them and signals their
+     * arrival, eg: an {@link OutputCache}, are matched as they arrive and the reader is returned
+     * as is, so that it can still be read with a cursor. Otherwise records are matched as they
+     * are returned by the reader returned.
+     *
+     * @param reader                output reader
+     * @param tracker               matches outputs to stamped inputs
+     * @param correlationIdProvider given an output, provides the correlation id it carries, or null if none
+     * @param <T>                   record type
+     * @return reader of the matched records
+     */
+    static <T> Reader<T> of(Reader<T> reader, PipelineLatencyTracker tracker,
+                            Function<? super T, String> correlationIdProvider) {
+        LatencyMatchingReader<T> matching = new LatencyMatchingReader<>(reader, tracker, correlationIdProvider);
+        if (!(reader instanceof CursorReader && reader instanceof ArrivalNotifyingReader)) {
+            return matching;
+        }
+        AppendOnlyLog.Cursor<T> cursor = ((CursorReader<T>) reader).cursor();
+        ((ArrivalNotifyingReader<T>) reader).getArrivalSignal().addListener(() -> matching.match(cursor.next()));
+        // records cached before the listener was added
+        matching.match(cursor.next());
+        return reader;
+    }
+
+    @Override
+    public List<T> getRecords() throws IOException {
+        return match(reader.getRecords());
+    }
+
+    @Override
+    public void setConfiguration(ReaderConfiguration configuration) {
+        reader.setConfiguration(configuration);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private List<T> match(List<T> records) {
+        for (T record : records) {
+            String correlationId = record == null ? null : correlationIdProvider.apply(record);
+            if (correlationId != null) {
+                tracker.match(correlationId, null);
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,55 @@
+package io.nuvalence.kiqt.core.outputs;
+
+import io.nuvalence.kiqt.core.aggregation.UserRecord;
+import io.nuvalence.kiqt.core.metrics.PipelineLatencyTracker;
+
+import software.amazon.awssdk.services.kinesis.model.Record;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+/**
+ * Translates kinesis records with a delegate translator, then matches each value back to
+ * the stamped input it was produced from by its correlation id, recording the latency
+ * through the application in a {@link PipelineLatencyTracker}.
+ *
+ * @param <T> output type
+ */
+public class LatencyMatchingRecordTranslator<T> extends AbstractKinesisRecordTranslator<T> {
+    private AbstractKinesisRecordTranslator<T> delegate;
+    private PipelineLatencyTracker tracker;
+    private Function<? super T, String> correlationIdProvider;
+
+    /**
+     * Creates a translator.
+     *
+     * @param delegate              translates each record
+     * @param tracker               matches outputs to stamped inputs
+     * @param correlationIdProvider given an output, provides the correlation id it carries, or null if none
+     */
+    public LatencyMatchingRecordTranslator(AbstractKinesisRecordTranslator<T> delegate,
+                                           PipelineLatencyTracker tracker,
+                                           Function<? super T, String> correlationIdProvider) {
+        this.delegate = delegate;
+        this.tracker = tracker;
+        this.correlationIdProvider = correlationIdProvider;
+    }
+
+    @Override
+    T toValue(Record record) throws IOException {
+        return match(delegate.toValue(record), record);
+    }
+
+    @Override
+    T toValue(UserRecord record) throws IOException {
+        return match(delegate.toValue(record), record.getRecord());
+    }
+
+    private T match(T value, Record record) {
+        String correlationId = value == null ? null : correlationIdProvider.apply(value);
+        if (correlationId != null) {
+            tracker.match(correlationId, record.approximateArrivalTimestamp());
+        }
+        return value;
+    }
+}
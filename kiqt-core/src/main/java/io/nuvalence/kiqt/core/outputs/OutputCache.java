@@ -1,19 +1,29 @@
 package io.nuvalence.kiqt.core.outputs;
 
 import java.io.IOException;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 /**
  * Caches all outputs from a desired reader so that {@link #getRecords()} returns all records since inception.
+ * Records are kept in an {@link AppendOnlyLog}, so reading them does not copy the cache, and
+ * a {@link #cursor()} reads only the records cached since it was last advanced.
+ *
+ * <p>The cache signals whenever records are added to it. If the nested reader also signals
+ * arrivals, eg: an {@link EnhancedFanOutReader}, the cache refreshes as soon as it does rather
+ * than waiting for the next scheduled refresh, and so does {@link #requestRefresh()}.</p>
  *
  * @param <T> record type
  */
-public class OutputCache<T> implements Reader<T> {
-    private final List<T> records = new LinkedList<>();
+public class OutputCache<T> implements CursorReader<T>, ArrivalNotifyingReader<T> {
+    private final AppendOnlyLog<T> records = new AppendOnlyLog<>();
+    private final ArrivalSignal arrivals = new ArrivalSignal();
+    private final AtomicBoolean refreshRequested = new AtomicBoolean();
+    private final Runnable refreshRequest = this::requestRefresh;
+    private final Consumer<IOException> exceptionHandler;
     private Reader<T> reader;
     private Timer timer = new Timer();
 
@@ -41,32 +51,38 @@ public class OutputCache<T> implements Reader<T> {
      */
     public OutputCache(Reader<T> reader, Long refreshInterval, Consumer<IOException> exceptionHandler) {
         this.reader = reader;
-        try {
-            // want to refresh once synchronously, then poll asynchronously
-            refresh();
-        } catch (IOException e) {
-            exceptionHandler.accept(e);
-        }
+        this.exceptionHandler = exceptionHandler;
+        // want to refresh once synchronously, then poll asynchronously
+        refreshOrHandle();
         this.timer.scheduleAtFixedRate(new TimerTask() {
             @Override
             public void run() {
-                try {
-                    refresh();
-                } catch (IOException e) {
-                    exceptionHandler.accept(e);
-                }
+                refreshOrHandle();
             }
         }, refreshInterval, refreshInterval);
+        if (reader instanceof ArrivalNotifyingReader) {
+            ((ArrivalNotifyingReader<T>) reader).getArrivalSignal().addListener(refreshRequest);
+        }
     }
 
     /**
      * Gets the list of all cached records from the nested reader's {@link Reader#getRecords()}.
      *
-     * @return all cached records
+     * @return immutable view of all records cached so far
      */
     @Override
     public List<T> getRecords() {
-        return new LinkedList<>(records);
+        return records.snapshot();
+    }
+
+    @Override
+    public AppendOnlyLog.Cursor<T> cursor() {
+        return records.cursor();
+    }
+
+    @Override
+    public ArrivalSignal getArrivalSignal() {
+        return arrivals;
     }
 
     @Override
@@ -80,15 +96,62 @@ public class OutputCache<T> implements Reader<T> {
      * @throws IOException on error fetching records
      */
     public void refresh() throws IOException {
-        synchronized (records) {
-            this.records.addAll(reader.getRecords());
+        List<T> read;
+        synchronized (reader) {
+            read = reader.getRecords();
+            this.records.appendAll(read);
+        }
+        if (!read.isEmpty()) {
+            arrivals.signal();
+        }
+    }
+
+    @Override
+    public void requestRefresh() {
+        // refreshes requested while one is pending are served by it
+        if (!refreshRequested.compareAndSet(false, true)) {
+            return;
         }
+        try {
+            timer.schedule(new TimerTask() {
+                @Override
+                public void run() {
+                    refreshRequested.set(false);
+                    refreshOrHandle();
+                }
+            }, 0);
+        } catch (IllegalStateException e) {
+            // cancelled, no more refreshes
+            refreshRequested.set(false);
+        }
+    }
+
+    /**
+     * Cancels the scheduled polling and closes the nested reader.
+     *
+     * @throws IOException on error closing the nested reader
+     */
+    @Override
+    public void close() throws IOException {
+        cancel();
+        reader.close();
     }
 
     /**
-     * Cancels the scheduled polling.
+     * Cancels the scheduled polling, leaving the nested reader open.
      */
     public void cancel() {
+        if (reader instanceof ArrivalNotifyingReader) {
+            ((ArrivalNotifyingReader<T>) reader).getArrivalSignal().removeListener(refreshRequest);
+        }
         this.timer.cancel();
     }
+
+    private void refreshOrHandle() {
+        try {
+            refresh();
+        } catch (IOException e) {
+            exceptionHandler.accept(e);
+        }
+    }
 }
@@ -1,14 +1,16 @@
 package io.nuvalence.kiqt.core.outputs;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.List;
 
 /**
- * Abstraction for an output reader.
+ * Abstraction for an output reader. Readers holding resources, such as threads or stream
+ * consumers, release them when closed.
  *
  * @param <T> record type
  */
-public interface Reader<T> {
+public interface Reader<T> extends Closeable {
 
     /**
      * Gets a list of records from the output since the last call to this method.
@@ -24,4 +26,13 @@ public interface Reader<T> {
      * @param configuration configuration
      */
     void setConfiguration(ReaderConfiguration configuration);
+
+    /**
+     * Releases resources held by the reader. Does nothing by default.
+     *
+     * @throws IOException on error releasing resources
+     */
+    @Override
+    default void close() throws IOException {
+    }
 }
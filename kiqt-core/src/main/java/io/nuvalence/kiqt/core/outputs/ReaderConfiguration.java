@@ -1,5 +1,7 @@
 package io.nuvalence.kiqt.core.outputs;
 
+import io.nuvalence.kiqt.core.compression.Compression;
+
 import java.time.Instant;
 
 /**
@@ -7,6 +9,34 @@ import java.time.Instant;
  */
 public class ReaderConfiguration {
     private Instant startTime;
+    private boolean deaggregationEnabled = true;
+    private Compression compression;
+    private boolean cacheEnabled = true;
+    private int maxGetRecordsCallsPerShard = 10;
+    private int shardReadParallelism = 1;
+    private String fanOutConsumerName;
+
+    /**
+     * Creates a configuration with default options.
+     */
+    public ReaderConfiguration() {
+    }
+
+    /**
+     * Creates a copy of a configuration, eg: to derive a configuration for readers that differ
+     * only in some options.
+     *
+     * @param configuration configuration to copy
+     */
+    public ReaderConfiguration(ReaderConfiguration configuration) {
+        this.startTime = configuration.startTime;
+        this.deaggregationEnabled = configuration.deaggregationEnabled;
+        this.compression = configuration.compression;
+        this.cacheEnabled = configuration.cacheEnabled;
+        this.maxGetRecordsCallsPerShard = configuration.maxGetRecordsCallsPerShard;
+        this.shardReadParallelism = configuration.shardReadParallelism;
+        this.fanOutConsumerName = configuration.fanOutConsumerName;
+    }
 
     /**
      * Configures a start time for the reader to read records that were
@@ -27,4 +57,131 @@ public class ReaderConfiguration {
     public void setStartTime(Instant startTime) {
         this.startTime = startTime;
     }
+
+    /**
+     * Gets whether KPL aggregated records are unpacked into their user records before
+     * being translated. Enabled by default.
+     *
+     * @return true if deaggregation is enabled
+     */
+    public boolean isDeaggregationEnabled() {
+        return deaggregationEnabled;
+    }
+
+    /**
+     * Sets whether KPL aggregated records are unpacked into their user records before
+     * being translated. Disable to verify the aggregated records themselves.
+     *
+     * @param deaggregationEnabled true to enable deaggregation
+     */
+    public void setDeaggregationEnabled(boolean deaggregationEnabled) {
+        this.deaggregationEnabled = deaggregationEnabled;
+    }
+
+    /**
+     * Gets the compression of record data. If not set, the compression of each record is
+     * detected from the magic number its data starts with.
+     *
+     * @return compression, or null to detect it
+     */
+    public Compression getCompression() {
+        return compression;
+    }
+
+    /**
+     * Sets the compression of record data. Use {@link Compression#NONE} to read data as is.
+     *
+     * @param compression compression, or null to detect it
+     */
+    public void setCompression(Compression compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Gets whether readers cache every record read, so that each read returns all records
+     * since inception. Enabled by default.
+     *
+     * @return true if caching is enabled
+     */
+    public boolean isCacheEnabled() {
+        return cacheEnabled;
+    }
+
+    /**
+     * Sets whether readers cache every record read. Disable for long running reads, so that
+     * each read returns only the records since the previous one and memory stays bounded.
+     *
+     * @param cacheEnabled true to enable caching
+     */
+    public void setCacheEnabled(boolean cacheEnabled) {
+        this.cacheEnabled = cacheEnabled;
+    }
+
+    /**
+     * Gets the maximum number of GetRecords calls made to each shard in a single read while
+     * catching up to the tip of the stream. Defaults to 10.
+     *
+     * @return calls per shard per read
+     */
+    public int getMaxGetRecordsCallsPerShard() {
+        return maxGetRecordsCallsPerShard;
+    }
+
+    /**
+     * Sets the maximum number of GetRecords calls made to each shard in a single read. Set to 1
+     * to fetch a single batch per shard per read.
+     *
+     * @param maxGetRecordsCallsPerShard calls per shard per read, at least 1
+     */
+    public void setMaxGetRecordsCallsPerShard(int maxGetRecordsCallsPerShard) {
+        if (maxGetRecordsCallsPerShard < 1) {
+            throw new IllegalArgumentException("at least one call per shard is required");
+        }
+        this.maxGetRecordsCallsPerShard = maxGetRecordsCallsPerShard;
+    }
+
+    /**
+     * Gets the number of shards read at once. Defaults to 1, reading shards one after another.
+     *
+     * @return shards read concurrently
+     */
+    public int getShardReadParallelism() {
+        return shardReadParallelism;
+    }
+
+    /**
+     * Sets the number of shards read at once, eg: to the shard count of the stream so that the
+     * time taken by a read does not grow with the number of shards.
+     *
+     * @param shardReadParallelism shards read concurrently, at least 1
+     */
+    public void setShardReadParallelism(int shardReadParallelism) {
+        if (shardReadParallelism < 1) {
+            throw new IllegalArgumentException("at least one shard must be read at a time");
+        }
+        this.shardReadParallelism = shardReadParallelism;
+    }
+
+    /**
+     * Gets the name of the enhanced fan-out consumer used to read streams. If not set,
+     * streams are polled with GetRecords.
+     *
+     * @return consumer name, or null to poll
+     * @see EnhancedFanOutReader
+     */
+    public String getFanOutConsumerName() {
+        return fanOutConsumerName;
+    }
+
+    /**
+     * Sets the name of the enhanced fan-out consumer used to read streams, so that records are
+     * pushed as they are written using throughput dedicated to the consumer. Readers of the same
+     * stream reading at the same time, eg: concurrent tests, must each use a different name, and
+     * should be closed so that the consumers they register are deregistered.
+     *
+     * @param fanOutConsumerName consumer name, or null to poll
+     */
+    public void setFanOutConsumerName(String fanOutConsumerName) {
+        this.fanOutConsumerName = fanOutConsumerName;
+    }
 }
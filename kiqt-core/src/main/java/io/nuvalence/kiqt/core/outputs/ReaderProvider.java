@@ -1,7 +1,11 @@
 package io.nuvalence.kiqt.core.outputs;
 
+import io.nuvalence.kiqt.core.formats.DataFormat;
+import io.nuvalence.kiqt.core.metrics.PipelineLatencyTracker;
 import io.nuvalence.kiqt.core.resources.AwsResource;
 
+import java.util.function.Function;
+
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
@@ -19,4 +23,46 @@ public interface ReaderProvider {
      * @return output reader
      */
     <TOutput> Reader<TOutput> get(AwsResource resource, ObjectMapper mapper, Class<TOutput> recordType);
+
+    /**
+     * Configures a reader for the described output, deserializing records in the specified format.
+     * By default, schemaless formats (JSON, Smile and CBOR) are read with the format's object mapper,
+     * providers must override this method to read formats that require a schema.
+     *
+     * @param resource   the AWS resource to be read
+     * @param format     data format used to deserialize records
+     * @param <TOutput>  record type
+     * @param recordType output record class
+     * @return output reader
+     * @throws IllegalArgumentException if the format requires a schema the provider does not support
+     */
+    default <TOutput> Reader<TOutput> get(AwsResource resource, DataFormat format, Class<TOutput> recordType) {
+        if (format.getSchema() != null) {
+            throw new IllegalArgumentException("reader provider does not support the " + format
+                + " format, which requires a schema");
+        }
+        return get(resource, format.getObjectMapper(), recordType);
+    }
+
+    /**
+     * Configures a reader for the described output that matches each record back to the
+     * stamped input it was produced from, recording latency through the application.
+     * By default, records are matched once they are read from the reader for the format,
+     * since their arrival time in the output is not known, so only end-to-end latency is
+     * recorded. Providers that know when records arrived should override this method, eg:
+     * by translating records with a {@link LatencyMatchingRecordTranslator}.
+     *
+     * @param resource              the AWS resource to be read
+     * @param format                data format used to deserialize records
+     * @param recordType            output record class
+     * @param tracker               matches outputs to stamped inputs
+     * @param correlationIdProvider given an output, provides the correlation id it carries
+     * @param <TOutput>             record type
+     * @return output reader
+     */
+    default <TOutput> Reader<TOutput> get(AwsResource resource, DataFormat format, Class<TOutput> recordType,
+                                          PipelineLatencyTracker tracker,
+                                          Function<? super TOutput, String> correlationIdProvider) {
+        return LatencyMatchingReader.of(get(resource, format, recordType), tracker, correlationIdProvider);
+    }
 }
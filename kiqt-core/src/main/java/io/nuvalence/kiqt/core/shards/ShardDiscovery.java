@@ -0,0 +1,187 @@
+package io.nuvalence.kiqt.core.shards;
+
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.KinesisClient;
+import software.amazon.awssdk.services.kinesis.model.ListShardsRequest;
+import software.amazon.awssdk.services.kinesis.model.ListShardsResponse;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import com.google.common.base.Ticker;
+
+/**
+ * Discovers the shards of a stream with ListShards, following pagination, and caches them so
+ * that frequent readers stay well within the ListShards quota. Shards are ordered so that every
+ * parent comes before its children, which lets readers finish a shard closed by a split or merge
+ * before reading the shards that replaced it, preserving the order of records per partition key
+ * across a reshard.
+ */
+public class ShardDiscovery {
+    private static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(10);
+
+    private final Function<ListShardsRequest, ListShardsResponse> lister;
+    private final String streamName;
+    private final long refreshNanos;
+    private final Ticker ticker;
+    private List<Shard> shards;
+    private long listedAtNanos;
+
+    /**
+     * Creates a discovery refreshing shards every 10 seconds.
+     *
+     * @param client     client used to list the stream's shards
+     * @param streamName name of stream
+     */
+    public ShardDiscovery(KinesisClient client, String streamName) {
+        this(client::listShards, streamName, DEFAULT_REFRESH_INTERVAL, Ticker.systemTicker());
+    }
+
+    /**
+     * Creates a discovery refreshing shards every 10 seconds.
+     *
+     * @param client     asynchronous client used to list the stream's shards
+     * @param streamName name of stream
+     */
+    public ShardDiscovery(KinesisAsyncClient client, String streamName) {
+        this(request -> join(client.listShards(request)), streamName, DEFAULT_REFRESH_INTERVAL,
+            Ticker.systemTicker());
+    }
+
+    ShardDiscovery(Function<ListShardsRequest, ListShardsResponse> lister, String streamName,
+                   Duration refreshInterval, Ticker ticker) {
+        this.lister = lister;
+        this.streamName = streamName;
+        this.refreshNanos = refreshInterval.toNanos();
+        this.ticker = ticker;
+    }
+
+    /**
+     * Gets the shards of the stream, open and closed, with parents before their children.
+     * Shards are listed again once the cached listing is older than the refresh interval
+     * or has been invalidated.
+     *
+     * @return shards
+     */
+    public synchronized List<Shard> getShards() {
+        long now = ticker.read();
+        if (shards == null || now - listedAtNanos >= refreshNanos) {
+            shards = Collections.unmodifiableList(parentsFirst(list()));
+            listedAtNanos = now;
+        }
+        return shards;
+    }
+
+    /**
+     * Gets the shards that may be read, ie: those not yet finished whose parents have all been
+     * finished or have expired from the stream.
+     *
+     * @param finishedShardIds ids of closed shards every record of which has been read
+     * @return readable shards, with parents before their children
+     */
+    public List<Shard> getReadableShards(Set<String> finishedShardIds) {
+        List<Shard> shards = getShards();
+        Set<String> listed = new HashSet<>();
+        shards.forEach(shard -> listed.add(shard.shardId()));
+
+        List<Shard> readable = new ArrayList<>();
+        for (Shard shard : shards) {
+            if (!finishedShardIds.contains(shard.shardId())
+                && isFinished(shard.parentShardId(), listed, finishedShardIds)
+                && isFinished(shard.adjacentParentShardId(), listed, finishedShardIds)) {
+                readable.add(shard);
+            }
+        }
+        return readable;
+    }
+
+    /**
+     * Discards the cached shards, eg: when a shard is found to be closed, so that the shards
+     * replacing it are discovered on the next call.
+     */
+    public synchronized void invalidate() {
+        shards = null;
+    }
+
+    /**
+     * Orders shards so that every parent comes before its children, otherwise keeping the order given.
+     * Parents missing from the shards given, eg: because they expired, are ignored.
+     *
+     * @param shards shards of a stream
+     * @return ordered shards
+     */
+    public static List<Shard> parentsFirst(List<Shard> shards) {
+        Map<String, Shard> byId = new LinkedHashMap<>();
+        shards.forEach(shard -> byId.put(shard.shardId(), shard));
+        Map<String, Boolean> visited = new HashMap<>();
+        List<Shard> ordered = new ArrayList<>(shards.size());
+        for (Shard shard : shards) {
+            visit(shard, byId, visited, ordered);
+        }
+        return ordered;
+    }
+
+    /**
+     * Lists all shards of a stream, following pagination.
+     *
+     * @param lister     lists a page of shards
+     * @param streamName name of stream
+     * @return shards, open and closed, in the order listed
+     */
+    static List<Shard> listShards(Function<ListShardsRequest, ListShardsResponse> lister, String streamName) {
+        List<Shard> listed = new ArrayList<>();
+        ListShardsRequest request = ListShardsRequest.builder().streamName(streamName).build();
+        while (request != null) {
+            ListShardsResponse response = lister.apply(request);
+            listed.addAll(response.shards());
+            request = response.nextToken() == null
+                ? null
+                : ListShardsRequest.builder().nextToken(response.nextToken()).build();
+        }
+        return listed;
+    }
+
+    private static void visit(Shard shard, Map<String, Shard> byId, Map<String, Boolean> visited,
+                              List<Shard> ordered) {
+        if (visited.putIfAbsent(shard.shardId(), Boolean.TRUE) != null) {
+            return;
+        }
+        for (String parentId : new String[] {shard.parentShardId(), shard.adjacentParentShardId()}) {
+            Shard parent = parentId == null ? null : byId.get(parentId);
+            if (parent != null) {
+                visit(parent, byId, visited, ordered);
+            }
+        }
+        ordered.add(shard);
+    }
+
+    private static boolean isFinished(String parentId, Set<String> listed, Set<String> finishedShardIds) {
+        return parentId == null || !listed.contains(parentId) || finishedShardIds.contains(parentId);
+    }
+
+    private List<Shard> list() {
+        return listShards(lister, streamName);
+    }
+
+    private static <R> R join(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
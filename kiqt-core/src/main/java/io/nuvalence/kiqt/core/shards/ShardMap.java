@@ -0,0 +1,152 @@
+package io.nuvalence.kiqt.core.shards;
+
+import software.amazon.awssdk.services.kinesis.KinesisClient;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Maps records to the open shard of a stream that Kinesis will route them to, by
+ * hashing their partition key (or using their explicit hash key) and looking up the
+ * shard whose hash key range contains the result.
+ */
+public class ShardMap {
+    private final NavigableMap<BigInteger, Shard> shardsByStartingHashKey = new TreeMap<>();
+
+    /**
+     * Creates a map of the open shards among those specified.
+     *
+     * @param shards shards of a stream, open or closed
+     * @throws IllegalArgumentException if none of the shards are open
+     */
+    public ShardMap(List<Shard> shards) {
+        for (Shard shard : shards) {
+            if (isOpen(shard)) {
+                shardsByStartingHashKey.put(new BigInteger(shard.hashKeyRange().startingHashKey()), shard);
+            }
+        }
+        if (shardsByStartingHashKey.isEmpty()) {
+            throw new IllegalArgumentException("no open shards to map records to");
+        }
+    }
+
+    /**
+     * Creates a map of the open shards of a stream.
+     *
+     * @param client     client used to list the stream's shards
+     * @param streamName name of stream
+     * @return shard map
+     */
+    public static ShardMap load(KinesisClient client, String streamName) {
+        return new ShardMap(listShards(client, streamName));
+    }
+
+    /**
+     * Supplies maps of the open shards of a stream that follow resharding. Shards are listed
+     * through a {@link ShardDiscovery}, so at most once per refresh interval.
+     *
+     * @param client     client used to list the stream's shards
+     * @param streamName name of stream
+     * @return supplier of the latest shard map
+     */
+    public static Supplier<ShardMap> refreshing(KinesisClient client, String streamName) {
+        return refreshing(new ShardDiscovery(client, streamName));
+    }
+
+    /**
+     * Supplies maps of the open shards listed by a discovery, mapping shards again only when
+     * the discovery has listed them again.
+     *
+     * @param discovery discovers the shards of a stream
+     * @return supplier of the latest shard map
+     */
+    public static Supplier<ShardMap> refreshing(ShardDiscovery discovery) {
+        return new Supplier<ShardMap>() {
+            private List<Shard> mapped;
+            private ShardMap shardMap;
+
+            @Override
+            public synchronized ShardMap get() {
+                List<Shard> shards = discovery.getShards();
+                if (shards != mapped) {
+                    shardMap = new ShardMap(shards);
+                    mapped = shards;
+                }
+                return shardMap;
+            }
+        };
+    }
+
+    /**
+     * Lists all shards of a stream, following pagination.
+     *
+     * @param client     client used to list the stream's shards
+     * @param streamName name of stream
+     * @return shards, open and closed
+     */
+    public static List<Shard> listShards(KinesisClient client, String streamName) {
+        return ShardDiscovery.listShards(client::listShards, streamName);
+    }
+
+    /**
+     * Checks whether a shard is open, ie: accepting new records.
+     *
+     * @param shard shard
+     * @return true if the shard has no ending sequence number
+     */
+    public static boolean isOpen(Shard shard) {
+        return shard.sequenceNumberRange() == null || shard.sequenceNumberRange().endingSequenceNumber() == null;
+    }
+
+    /**
+     * Computes the hash key Kinesis uses to route a record.
+     *
+     * @param partitionKey    partition key of the record
+     * @param explicitHashKey explicit hash key of the record, or null
+     * @return the explicit hash key if present, otherwise the MD5 hash of the partition key
+     */
+    public static BigInteger hashKeyOf(String partitionKey, String explicitHashKey) {
+        if (explicitHashKey != null) {
+            return new BigInteger(explicitHashKey);
+        }
+        try {
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            return new BigInteger(1, md5.digest(partitionKey.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is required to be supported by every JVM", e);
+        }
+    }
+
+    /**
+     * Finds the shard a record will be routed to.
+     *
+     * @param partitionKey    partition key of the record
+     * @param explicitHashKey explicit hash key of the record, or null
+     * @return target shard
+     */
+    public Shard shardFor(String partitionKey, String explicitHashKey) {
+        Map.Entry<BigInteger, Shard> entry = shardsByStartingHashKey.floorEntry(
+            hashKeyOf(partitionKey, explicitHashKey)
+        );
+        return entry == null ? shardsByStartingHashKey.firstEntry().getValue() : entry.getValue();
+    }
+
+    /**
+     * Gets the open shards, ordered by hash key range.
+     *
+     * @return open shards
+     */
+    public Collection<Shard> getShards() {
+        return Collections.unmodifiableCollection(shardsByStartingHashKey.values());
+    }
+}
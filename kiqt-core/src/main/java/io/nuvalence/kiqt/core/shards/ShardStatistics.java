@@ -0,0 +1,136 @@
+package io.nuvalence.kiqt.core.shards;
+
+import java.time.Duration;
+
+/**
+ * Snapshot of the traffic a writer has sent to a single shard.
+ */
+public class ShardStatistics {
+    private final String shardId;
+    private final long recordsSent;
+    private final long bytesSent;
+    private final long throttled;
+    private final long failed;
+    private final Duration elapsed;
+    private final boolean hot;
+
+    /**
+     * Creates a snapshot.
+     *
+     * @param shardId     id of the shard
+     * @param recordsSent number of records successfully written to the shard
+     * @param bytesSent   number of bytes successfully written to the shard
+     * @param throttled   number of writes rejected because the shard's throughput was exceeded
+     * @param failed      number of writes rejected for any other reason
+     * @param elapsed     period over which the traffic was sent
+     * @param hot         whether the shard received a disproportionate share of the traffic
+     */
+    public ShardStatistics(String shardId, long recordsSent, long bytesSent, long throttled, long failed,
+                           Duration elapsed, boolean hot) {
+        this.shardId = shardId;
+        this.recordsSent = recordsSent;
+        this.bytesSent = bytesSent;
+        this.throttled = throttled;
+        this.failed = failed;
+        this.elapsed = elapsed;
+        this.hot = hot;
+    }
+
+    /**
+     * Gets the id of the shard.
+     *
+     * @return shard id
+     */
+    public String getShardId() {
+        return shardId;
+    }
+
+    /**
+     * Gets the number of records successfully written to the shard.
+     *
+     * @return records sent
+     */
+    public long getRecordsSent() {
+        return recordsSent;
+    }
+
+    /**
+     * Gets the number of bytes successfully written to the shard.
+     *
+     * @return bytes sent
+     */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * Gets the number of writes rejected because the shard's throughput was exceeded.
+     *
+     * @return throttled writes
+     */
+    public long getThrottled() {
+        return throttled;
+    }
+
+    /**
+     * Gets the number of writes rejected for reasons other than throttling.
+     *
+     * @return failed writes
+     */
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Gets the period over which the traffic was sent.
+     *
+     * @return elapsed time
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Gets the rate of records successfully written to the shard.
+     *
+     * @return records per second
+     */
+    public double getRecordsPerSecond() {
+        return perSecond(recordsSent);
+    }
+
+    /**
+     * Gets the rate of bytes successfully written to the shard.
+     *
+     * @return bytes per second
+     */
+    public double getBytesPerSecond() {
+        return perSecond(bytesSent);
+    }
+
+    /**
+     * Gets whether the shard received a disproportionate share of the traffic. A throttled
+     * hot shard points at the key distribution, while throttling spread evenly across
+     * shards points at an under-provisioned stream.
+     *
+     * @return true if the shard is hot
+     */
+    public boolean isHot() {
+        return hot;
+    }
+
+    private double perSecond(long count) {
+        double seconds = elapsed.toNanos() / 1e9;
+        return seconds > 0 ? count / seconds : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "ShardStatistics{shardId=%s, records=%d, bytes=%d, throttled=%d, failed=%d, records/s=%.1f, "
+                + "bytes/s=%.1f%s}",
+            shardId, recordsSent, bytesSent, throttled, failed, getRecordsPerSecond(), getBytesPerSecond(),
+            hot ? ", hot" : ""
+        );
+    }
+}
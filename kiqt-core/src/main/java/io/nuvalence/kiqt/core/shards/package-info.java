@@ -0,0 +1,5 @@
+/**
+ * Discover the shards of a Kinesis stream and attribute traffic to them.
+ */
+
+package io.nuvalence.kiqt.core.shards;
@@ -0,0 +1,103 @@
+package io.nuvalence.kiqt.core.throughput;
+
+/**
+ * Additive increase, multiplicative decrease rate controller. The rate grows by a fixed step
+ * after every successful round and is cut by a factor whenever the destination pushes back,
+ * so it settles into a sawtooth just under the capacity of the destination. The rates at which
+ * push back occurs are smoothed into an estimate of that capacity.
+ */
+public class AimdController {
+    private static final double CEILING_SMOOTHING = 0.3;
+
+    private final double minRate;
+    private final double maxRate;
+    private final double increase;
+    private final double decreaseFactor;
+    private double rate;
+    private double ceiling;
+    private long throttleEvents;
+
+    /**
+     * Creates a controller.
+     *
+     * @param initialRate    starting rate
+     * @param minRate        rate below which the controller never decreases
+     * @param maxRate        rate above which the controller never increases
+     * @param increase       amount added to the rate after each successful round
+     * @param decreaseFactor factor, between 0 and 1, the rate is multiplied by when throttled
+     */
+    public AimdController(double initialRate, double minRate, double maxRate, double increase,
+                          double decreaseFactor) {
+        if (minRate <= 0 || maxRate < minRate || initialRate < minRate || initialRate > maxRate) {
+            throw new IllegalArgumentException("rates must be positive, with min <= initial <= max");
+        }
+        if (increase < 0 || decreaseFactor <= 0 || decreaseFactor >= 1) {
+            throw new IllegalArgumentException("increase must not be negative and decrease factor must be in (0, 1)");
+        }
+        this.rate = initialRate;
+        this.minRate = minRate;
+        this.maxRate = maxRate;
+        this.increase = increase;
+        this.decreaseFactor = decreaseFactor;
+    }
+
+    /**
+     * Increases the rate after a round that was not throttled.
+     *
+     * @return new rate
+     */
+    public synchronized double onSuccess() {
+        rate = Math.min(maxRate, rate + increase);
+        return rate;
+    }
+
+    /**
+     * Decreases the rate after a round that was throttled, remembering the rate at which it happened.
+     *
+     * @return new rate
+     */
+    public synchronized double onThrottle() {
+        ceiling = throttleEvents == 0 ? rate : ceiling + CEILING_SMOOTHING * (rate - ceiling);
+        throttleEvents++;
+        rate = Math.max(minRate, rate * decreaseFactor);
+        return rate;
+    }
+
+    /**
+     * Gets the current rate.
+     *
+     * @return rate
+     */
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    /**
+     * Gets the number of times the controller was throttled.
+     *
+     * @return throttle events
+     */
+    public synchronized long getThrottleEvents() {
+        return throttleEvents;
+    }
+
+    /**
+     * Gets whether the controller has been throttled, in which case {@link #getSustainableRate()}
+     * measures the capacity of the destination rather than a lower bound of it.
+     *
+     * @return true if throttled at least once
+     */
+    public synchronized boolean isSaturated() {
+        return throttleEvents > 0;
+    }
+
+    /**
+     * Gets the highest rate that can be sustained without throttling: the smoothed rate at
+     * which throttling started, or the current rate if the controller was never throttled.
+     *
+     * @return sustainable rate
+     */
+    public synchronized double getSustainableRate() {
+        return throttleEvents == 0 ? rate : ceiling;
+    }
+}
@@ -0,0 +1,141 @@
+package io.nuvalence.kiqt.core.throughput;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Ticker;
+
+/**
+ * Token bucket used to pace work to a target rate. Tokens accrue at a fixed
+ * rate up to the bucket capacity, which bounds how large a burst may be
+ * after a period of inactivity. Acquiring more tokens than are available
+ * puts the bucket into debt, and the caller waits for the debt to be repaid,
+ * so requests larger than the capacity are still paced correctly.
+ */
+public class TokenBucket {
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Ticker ticker;
+    private double ratePerSecond;
+    private double capacity;
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * Creates a full bucket using the system ticker.
+     *
+     * @param ratePerSecond tokens added per second
+     * @param capacity      maximum number of tokens held by the bucket
+     */
+    public TokenBucket(double ratePerSecond, double capacity) {
+        this(ratePerSecond, capacity, Ticker.systemTicker());
+    }
+
+    /**
+     * Creates a full bucket using a custom ticker.
+     *
+     * @param ratePerSecond tokens added per second
+     * @param capacity      maximum number of tokens held by the bucket
+     * @param ticker        source of time
+     */
+    public TokenBucket(double ratePerSecond, double capacity, Ticker ticker) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("rate must be positive: " + ratePerSecond);
+        }
+        this.ticker = ticker;
+        this.ratePerSecond = ratePerSecond;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefillNanos = ticker.read();
+    }
+
+    /**
+     * Takes the specified number of tokens, waiting until the bucket is no longer in debt.
+     *
+     * @param permits number of tokens
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire(double permits) throws InterruptedException {
+        long waitNanos = reserve(permits);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Takes the specified number of tokens without waiting, going into debt if necessary.
+     *
+     * @param permits number of tokens
+     * @return time, in nanoseconds, the caller should wait before proceeding
+     */
+    public synchronized long reserve(double permits) {
+        refill();
+        tokens -= permits;
+        if (tokens >= 0) {
+            return 0L;
+        }
+        return (long) Math.ceil(-tokens * NANOS_PER_SECOND / ratePerSecond);
+    }
+
+    /**
+     * Takes the specified number of tokens only if they are available now.
+     *
+     * @param permits number of tokens
+     * @return true if the tokens were taken
+     */
+    public synchronized boolean tryAcquire(double permits) {
+        refill();
+        if (tokens >= permits) {
+            tokens -= permits;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the rate at which tokens are added.
+     *
+     * @return tokens per second
+     */
+    public synchronized double getRate() {
+        return ratePerSecond;
+    }
+
+    /**
+     * Changes the rate at which tokens are added. Tokens accrued at the previous rate are kept.
+     *
+     * @param ratePerSecond tokens per second
+     */
+    public synchronized void setRate(double ratePerSecond) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("rate must be positive: " + ratePerSecond);
+        }
+        refill();
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    /**
+     * Gets the maximum number of tokens held by the bucket.
+     *
+     * @return capacity
+     */
+    public synchronized double getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Changes the maximum number of tokens held by the bucket.
+     *
+     * @param capacity capacity
+     */
+    public synchronized void setCapacity(double capacity) {
+        refill();
+        this.capacity = capacity;
+        this.tokens = Math.min(tokens, capacity);
+    }
+
+    private void refill() {
+        long now = ticker.read();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * ratePerSecond / NANOS_PER_SECOND);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Control and measure the rate at which data flows to and from an application.
+ */
+
+package io.nuvalence.kiqt.core.throughput;
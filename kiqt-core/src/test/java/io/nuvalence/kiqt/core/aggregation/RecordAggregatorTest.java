@@ -0,0 +1,110 @@
+package io.nuvalence.kiqt.core.aggregation;
+
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RecordAggregatorTest {
+    private RecordAggregator aggregator = new RecordAggregator();
+
+    @Test
+    public void toEntry_GivenMultipleRecords_ShouldEncodeKplAggregatedRecord() throws Exception {
+        aggregator.add("a", null, bytes("x"));
+        aggregator.add("b", null, bytes("y"));
+
+        PutRecordsRequestEntry entry = aggregator.toEntry();
+
+        byte[] message = {
+            0x0A, 0x01, 'a',
+            0x0A, 0x01, 'b',
+            0x1A, 0x05, 0x08, 0x00, 0x1A, 0x01, 'x',
+            0x1A, 0x05, 0x08, 0x01, 0x1A, 0x01, 'y'
+        };
+        byte[] data = entry.data().asByteArray();
+        Assert.assertArrayEquals(AggregationFormat.MAGIC, Arrays.copyOfRange(data, 0, 4));
+        Assert.assertArrayEquals(message, Arrays.copyOfRange(data, 4, 4 + message.length));
+        Assert.assertArrayEquals(
+            MessageDigest.getInstance("MD5").digest(message),
+            Arrays.copyOfRange(data, 4 + message.length, data.length)
+        );
+        Assert.assertEquals("a", entry.partitionKey());
+        Assert.assertEquals(data.length + 1, aggregator.getSizeBytes());
+    }
+
+    @Test
+    public void toEntry_GivenExplicitHashKeys_ShouldShareKeyTables() {
+        aggregator.add("a", "1", bytes("x"));
+        aggregator.add("a", "1", bytes("y"));
+        aggregator.add("a", null, bytes("z"));
+
+        PutRecordsRequestEntry entry = aggregator.toEntry();
+
+        byte[] message = {
+            0x0A, 0x01, 'a',
+            0x12, 0x01, '1',
+            0x1A, 0x07, 0x08, 0x00, 0x10, 0x00, 0x1A, 0x01, 'x',
+            0x1A, 0x07, 0x08, 0x00, 0x10, 0x00, 0x1A, 0x01, 'y',
+            0x1A, 0x05, 0x08, 0x00, 0x1A, 0x01, 'z'
+        };
+        byte[] data = entry.data().asByteArray();
+        Assert.assertArrayEquals(message, Arrays.copyOfRange(data, 4, 4 + message.length));
+        Assert.assertEquals("1", entry.explicitHashKey());
+        Assert.assertEquals(data.length + 1, aggregator.getSizeBytes());
+    }
+
+    @Test
+    public void toEntry_GivenSingleRecord_ShouldNotAggregate() {
+        aggregator.add("a", null, bytes("x"));
+
+        PutRecordsRequestEntry entry = aggregator.toEntry();
+
+        Assert.assertEquals("x", entry.data().asUtf8String());
+        Assert.assertEquals("a", entry.partitionKey());
+        Assert.assertEquals(2, aggregator.getSizeBytes());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void toEntry_GivenNoRecords_ShouldThrow() {
+        aggregator.toEntry();
+    }
+
+    @Test
+    public void add_GivenRecordExceedingLimit_ShouldRejectRecord() {
+        aggregator = new RecordAggregator(100);
+
+        Assert.assertTrue(aggregator.add("a", null, new byte[30]));
+        Assert.assertTrue(aggregator.add("a", null, new byte[20]));
+        Assert.assertFalse(aggregator.add("a", null, new byte[10]));
+        Assert.assertEquals(2, aggregator.getRecordCount());
+        Assert.assertTrue(aggregator.getSizeBytes() <= 100);
+        Assert.assertEquals(aggregator.toEntry().data().asByteArray().length + 1, aggregator.getSizeBytes());
+    }
+
+    @Test
+    public void add_GivenOversizedFirstRecord_ShouldAcceptRecord() {
+        aggregator = new RecordAggregator(10);
+
+        Assert.assertTrue(aggregator.add("a", null, new byte[20]));
+        Assert.assertFalse(aggregator.add("a", null, new byte[1]));
+    }
+
+    @Test
+    public void clear_ShouldResetAggregator() {
+        aggregator.add("a", null, bytes("x"));
+        aggregator.add("b", null, bytes("y"));
+        aggregator.clear();
+        aggregator.add("c", null, bytes("z"));
+
+        Assert.assertEquals(1, aggregator.getRecordCount());
+        Assert.assertEquals("c", aggregator.toEntry().partitionKey());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
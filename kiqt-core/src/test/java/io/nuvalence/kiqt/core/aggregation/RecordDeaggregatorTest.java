@@ -0,0 +1,115 @@
+package io.nuvalence.kiqt.core.aggregation;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.Record;
+
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RecordDeaggregatorTest {
+    private Instant arrival = Instant.now();
+
+    @Test
+    public void deaggregate_GivenAggregatedRecord_ShouldReturnUserRecordsInOrder() {
+        RecordAggregator aggregator = new RecordAggregator();
+        aggregator.add("a", null, "x".getBytes());
+        aggregator.add("b", "123", "y".getBytes());
+        aggregator.add("a", null, "z".getBytes());
+
+        List<UserRecord> records = RecordDeaggregator.deaggregate(toRecord(aggregator.toEntry().data()));
+
+        Assert.assertEquals(3, records.size());
+        assertUserRecord(records.get(0), "a", null, "x", 0);
+        assertUserRecord(records.get(1), "b", "123", "y", 1);
+        assertUserRecord(records.get(2), "a", null, "z", 2);
+    }
+
+    @Test
+    public void deaggregate_GivenRecordList_ShouldFlattenInOrder() {
+        RecordAggregator aggregator = new RecordAggregator();
+        aggregator.add("a", null, "x".getBytes());
+        aggregator.add("a", null, "y".getBytes());
+
+        List<UserRecord> records = RecordDeaggregator.deaggregate(Arrays.asList(
+            toRecord(aggregator.toEntry().data()),
+            toRecord(SdkBytes.fromUtf8String("z"))
+        ));
+
+        Assert.assertEquals(3, records.size());
+        Assert.assertEquals("z", records.get(2).getRecord().data().asUtf8String());
+        Assert.assertFalse(records.get(2).isAggregated());
+    }
+
+    @Test
+    public void deaggregate_GivenPlainRecord_ShouldReturnRecordUnchanged() {
+        Record record = toRecord(SdkBytes.fromUtf8String("{\"id\":1}"));
+
+        List<UserRecord> records = RecordDeaggregator.deaggregate(record);
+
+        Assert.assertEquals(1, records.size());
+        Assert.assertSame(record, records.get(0).getRecord());
+        Assert.assertFalse(records.get(0).isAggregated());
+        Assert.assertFalse(RecordDeaggregator.isAggregated(record));
+    }
+
+    @Test
+    public void deaggregate_GivenDigestMismatch_ShouldReturnRecordUnchanged() {
+        RecordAggregator aggregator = new RecordAggregator();
+        aggregator.add("a", null, "x".getBytes());
+        aggregator.add("a", null, "y".getBytes());
+        byte[] data = aggregator.toEntry().data().asByteArray();
+        data[data.length - 1]++;
+        Record record = toRecord(SdkBytes.fromByteArray(data));
+
+        List<UserRecord> records = RecordDeaggregator.deaggregate(record);
+
+        Assert.assertEquals(1, records.size());
+        Assert.assertSame(record, records.get(0).getRecord());
+    }
+
+    @Test
+    public void deaggregate_GivenUnknownFields_ShouldSkipThem() throws Exception {
+        byte[] message = {
+            0x0A, 0x01, 'a',
+            0x1A, 0x0A, 0x08, 0x00, 0x1A, 0x01, 'x', 0x22, 0x03, 0x0A, 0x01, 't'
+        };
+        byte[] digest = MessageDigest.getInstance("MD5").digest(message);
+        byte[] data = new byte[4 + message.length + digest.length];
+        System.arraycopy(AggregationFormat.MAGIC, 0, data, 0, 4);
+        System.arraycopy(message, 0, data, 4, message.length);
+        System.arraycopy(digest, 0, data, 4 + message.length, digest.length);
+
+        List<UserRecord> records = RecordDeaggregator.deaggregate(toRecord(SdkBytes.fromByteArray(data)));
+
+        Assert.assertEquals(1, records.size());
+        assertUserRecord(records.get(0), "a", null, "x", 0);
+    }
+
+    private Record toRecord(SdkBytes data) {
+        return Record.builder()
+            .sequenceNumber("42")
+            .partitionKey("outer")
+            .approximateArrivalTimestamp(arrival)
+            .data(data)
+            .build();
+    }
+
+    private void assertUserRecord(UserRecord record,
+                                  String partitionKey,
+                                  String explicitHashKey,
+                                  String data,
+                                  long subSequenceNumber) {
+        Assert.assertTrue(record.isAggregated());
+        Assert.assertEquals(partitionKey, record.getRecord().partitionKey());
+        Assert.assertEquals(explicitHashKey, record.getExplicitHashKey());
+        Assert.assertEquals(data, record.getRecord().data().asUtf8String());
+        Assert.assertEquals(subSequenceNumber, record.getSubSequenceNumber());
+        Assert.assertEquals("42", record.getRecord().sequenceNumber());
+        Assert.assertEquals(arrival, record.getRecord().approximateArrivalTimestamp());
+    }
+}
@@ -0,0 +1,65 @@
+package io.nuvalence.kiqt.core.compression;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompressionTest {
+    private static final byte[] DOCUMENT = repeat("{\"id\":\"sample\",\"value\":42}", 100);
+
+    @Test
+    public void compress_GivenGzip_ShouldRoundTrip() throws IOException {
+        assertRoundTrip(Compression.GZIP);
+    }
+
+    @Test
+    public void compress_GivenZstd_ShouldRoundTrip() throws IOException {
+        assertRoundTrip(Compression.ZSTD);
+    }
+
+    @Test
+    public void compress_GivenLz4_ShouldRoundTrip() throws IOException {
+        assertRoundTrip(Compression.LZ4);
+    }
+
+    @Test
+    public void compress_GivenNone_ShouldReturnDataAsIs() throws IOException {
+        Assert.assertSame(DOCUMENT, Compression.NONE.compress(DOCUMENT));
+        Assert.assertSame(DOCUMENT, Compression.NONE.decompress(DOCUMENT));
+    }
+
+    @Test
+    public void detect_GivenCompressedData_ShouldMatchCompression() throws IOException {
+        for (Compression compression : Compression.values()) {
+            Assert.assertEquals(compression, Compression.detect(compression.compress(DOCUMENT)));
+        }
+    }
+
+    @Test
+    public void detect_GivenUncompressedOrEmptyData_ShouldReturnNone() {
+        Assert.assertEquals(Compression.NONE, Compression.detect(DOCUMENT));
+        Assert.assertEquals(Compression.NONE, Compression.detect(new byte[] {(byte) 0x1F}));
+        Assert.assertEquals(Compression.NONE, Compression.detect(null));
+    }
+
+    @Test(expected = IOException.class)
+    public void decompress_GivenUncompressedData_ShouldThrow() throws IOException {
+        Compression.GZIP.decompress(DOCUMENT);
+    }
+
+    private static void assertRoundTrip(Compression compression) throws IOException {
+        byte[] compressed = compression.compress(DOCUMENT);
+        Assert.assertTrue(compressed.length < DOCUMENT.length);
+        Assert.assertArrayEquals(DOCUMENT, compression.decompress(compressed));
+    }
+
+    private static byte[] repeat(String value, int times) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            builder.append(value);
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
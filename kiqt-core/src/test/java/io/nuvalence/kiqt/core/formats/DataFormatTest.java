@@ -0,0 +1,98 @@
+package io.nuvalence.kiqt.core.formats;
+
+import io.nuvalence.kiqt.core.inputs.DataFormatPutRecordsRequestEntryTranslator;
+import io.nuvalence.kiqt.core.outputs.DataFormatRecordTranslator;
+
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import software.amazon.awssdk.services.kinesis.model.Record;
+
+import java.io.IOException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DataFormatTest {
+    private static final String AVRO_SCHEMA = "{\"type\":\"record\",\"name\":\"SampleRecord\",\"fields\":["
+        + "{\"name\":\"id\",\"type\":\"string\"},{\"name\":\"value\",\"type\":\"int\"}]}";
+    private static final String PROTO_SCHEMA = "message SampleRecord {\n"
+        + "  required string id = 1;\n"
+        + "  required int32 value = 2;\n"
+        + "}\n";
+
+    @Test
+    public void json_ShouldRoundTrip() throws IOException {
+        assertRoundTrip(DataFormat.json());
+    }
+
+    @Test
+    public void smile_ShouldRoundTrip() throws IOException {
+        assertRoundTrip(DataFormat.smile());
+    }
+
+    @Test
+    public void cbor_ShouldRoundTrip() throws IOException {
+        assertRoundTrip(DataFormat.cbor());
+    }
+
+    @Test
+    public void avro_GivenSchemaDefinition_ShouldRoundTrip() throws IOException {
+        assertRoundTrip(DataFormat.avro(AVRO_SCHEMA));
+    }
+
+    @Test
+    public void avro_GivenRecordClass_ShouldRoundTrip() throws IOException {
+        assertRoundTrip(DataFormat.avro(SampleRecord.class));
+    }
+
+    @Test
+    public void protobuf_GivenProtoDefinition_ShouldRoundTrip() throws IOException {
+        assertRoundTrip(DataFormat.protobuf(PROTO_SCHEMA));
+    }
+
+    @Test
+    public void protobuf_GivenRecordClass_ShouldRoundTrip() throws IOException {
+        assertRoundTrip(DataFormat.protobuf(SampleRecord.class));
+    }
+
+    @Test
+    public void binaryFormats_ShouldBeSmallerThanJson() throws IOException {
+        int json = serialize(DataFormat.json()).length;
+        Assert.assertTrue(serialize(DataFormat.cbor()).length < json);
+        Assert.assertTrue(serialize(DataFormat.avro(AVRO_SCHEMA)).length < json);
+        Assert.assertTrue(serialize(DataFormat.protobuf(PROTO_SCHEMA)).length < json);
+    }
+
+    @Test
+    public void getSchema_GivenSchemalessFormat_ShouldReturnNull() {
+        Assert.assertNull(DataFormat.smile().getSchema());
+        Assert.assertEquals("smile", DataFormat.smile().getName());
+    }
+
+    private static void assertRoundTrip(DataFormat format) throws IOException {
+        PutRecordsRequestEntry entry = new DataFormatPutRecordsRequestEntryTranslator<SampleRecord>(format, o -> o.id)
+            .toEntry(sample());
+
+        SampleRecord value = new DataFormatRecordTranslator<>(format, SampleRecord.class)
+            .toValue(Record.builder().data(entry.data()).partitionKey(entry.partitionKey()).build());
+
+        Assert.assertEquals("sample", entry.partitionKey());
+        Assert.assertEquals("sample", value.id);
+        Assert.assertEquals(42, value.value);
+    }
+
+    private static byte[] serialize(DataFormat format) throws IOException {
+        return format.writerFor(SampleRecord.class).writeValueAsBytes(sample());
+    }
+
+    private static SampleRecord sample() {
+        SampleRecord record = new SampleRecord();
+        record.id = "sample";
+        record.value = 42;
+        return record;
+    }
+
+    public static class SampleRecord {
+        public String id;
+        public int value;
+    }
+}
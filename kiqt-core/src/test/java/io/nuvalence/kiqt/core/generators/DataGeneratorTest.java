@@ -0,0 +1,81 @@
+package io.nuvalence.kiqt.core.generators;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DataGeneratorTest {
+    private DataGenerator<String> generator =
+        new DataGenerator<>(42L, (index, random) -> index + ":" + random.nextInt());
+
+    @Test
+    public void get_GivenSameSeed_ShouldCreateSameRecords() {
+        DataGenerator<String> other = new DataGenerator<>(42L, (index, random) -> index + ":" + random.nextInt());
+
+        Assert.assertEquals(generator.get(0), other.get(0));
+        Assert.assertEquals(generator.get(12345), other.get(12345));
+    }
+
+    @Test
+    public void get_GivenDifferentSeed_ShouldCreateDifferentRecords() {
+        DataGenerator<String> other = new DataGenerator<>(43L, (index, random) -> index + ":" + random.nextInt());
+
+        Assert.assertNotEquals(generator.get(0), other.get(0));
+    }
+
+    @Test
+    public void stream_GivenParallelStream_ShouldCreateSameRecordsAsIterator() {
+        List<String> sequential = new ArrayList<>();
+        generator.iterator(10000).forEachRemaining(sequential::add);
+
+        List<String> parallel = generator.stream(10000).parallel().collect(Collectors.toList());
+
+        Assert.assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void iterator_GivenObserver_ShouldSeeEachRecordLazily() {
+        AtomicLong observed = new AtomicLong();
+        Iterator<String> records = generator.iterator(3, record -> observed.incrementAndGet());
+
+        Assert.assertEquals(0, observed.get());
+        records.next();
+        Assert.assertEquals(1, observed.get());
+        records.next();
+        records.next();
+        Assert.assertFalse(records.hasNext());
+        Assert.assertEquals(3, observed.get());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void iterator_GivenExhausted_ShouldThrow() {
+        generator.iterator(0).next();
+    }
+
+    @Test
+    public void list_ShouldCreateRecordsInOrder() {
+        List<String> records = generator.list(3, record -> { });
+
+        Assert.assertEquals(3, records.size());
+        Assert.assertEquals(generator.get(2), records.get(2));
+    }
+
+    @Test
+    public void uuid_ShouldBeStableForKeyAndUniqueAcrossKeys() {
+        Set<String> uuids = new HashSet<>();
+        for (long key = 0; key < 1000; key++) {
+            uuids.add(generator.uuid(key).toString());
+        }
+
+        Assert.assertEquals(1000, uuids.size());
+        Assert.assertEquals(generator.uuid(7), DataGenerator.uuid(42L, 7));
+    }
+}
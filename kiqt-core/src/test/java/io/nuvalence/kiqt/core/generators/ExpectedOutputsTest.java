@@ -0,0 +1,53 @@
+package io.nuvalence.kiqt.core.generators;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExpectedOutputsTest {
+
+    @Test
+    public void accept_ShouldAccumulateRecordsByGroup() {
+        ExpectedOutputs<Integer, Boolean, Long> counts =
+            ExpectedOutputs.groupingBy(i -> i % 2 == 0, Collectors.counting());
+
+        Arrays.asList(1, 2, 3, 4, 5).forEach(counts);
+
+        Assert.assertEquals(5, counts.getRecordCount());
+        Assert.assertEquals(Long.valueOf(2), counts.get(true));
+        Assert.assertEquals(Long.valueOf(3), counts.get(false));
+        Assert.assertNull(counts.get(null));
+    }
+
+    @Test
+    public void accept_GivenParallelGeneration_ShouldMatchSequentialResult() {
+        DataGenerator<Integer> generator = new DataGenerator<>(7L, (index, random) -> random.nextInt(1000));
+        ExpectedOutputs<Integer, Integer, DoubleSummaryStatistics> expected =
+            ExpectedOutputs.groupingBy(i -> i % 10, Collectors.summarizingDouble(i -> i));
+
+        long total = generator.stream(100000, expected).parallel().mapToLong(i -> i).sum();
+
+        Map<Integer, DoubleSummaryStatistics> outputs = expected.getOutputs();
+        Assert.assertEquals(10, outputs.size());
+        Assert.assertEquals(100000, outputs.values().stream().mapToLong(DoubleSummaryStatistics::getCount).sum());
+        Assert.assertEquals(total, outputs.values().stream().mapToDouble(DoubleSummaryStatistics::getSum).sum(), 0);
+    }
+
+    @Test
+    public void toList_ShouldMapEachGroupToOutputRecord() {
+        ExpectedOutputs<String, Integer, Long> lengths =
+            ExpectedOutputs.groupingBy(String::length, Collectors.counting());
+        Arrays.asList("a", "bb", "cc").forEach(lengths);
+
+        List<String> outputs = lengths.toList((length, count) -> length + "=" + count);
+        Collections.sort(outputs);
+
+        Assert.assertEquals(Arrays.asList("1=1", "2=2"), outputs);
+    }
+}
@@ -0,0 +1,146 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.KinesisClient;
+import software.amazon.awssdk.services.kinesis.model.HashKeyRange;
+import software.amazon.awssdk.services.kinesis.model.ListShardsRequest;
+import software.amazon.awssdk.services.kinesis.model.ListShardsResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+public class AdaptiveRateStreamWriterTest {
+    private static final String THROTTLED = "ProvisionedThroughputExceededException";
+
+    private KinesisClient client;
+    private WriterConfiguration configuration;
+    private AtomicLong nanos = new AtomicLong();
+    private Set<String> throttledOnce = new HashSet<>();
+    private boolean throttleAll;
+
+    @Before
+    public void setup() {
+        client = Mockito.mock(KinesisClient.class);
+        configuration = new WriterConfiguration();
+        configuration.setBaseBackoffMillis(1L);
+        configuration.setMaxBackoffMillis(5L);
+        configuration.setInitialShardRate(100);
+        configuration.setShardRateIncrease(25);
+        configuration.setShardRateDecreaseFactor(0.5);
+        Mockito.when(client.listShards(ListShardsRequest.builder().streamName("stream").build()))
+            .thenReturn(ListShardsResponse.builder()
+                .shards(shard("low", "0", "99"), shard("high", "100", "199"))
+                .build());
+        Mockito.when(client.putRecords(Matchers.any(PutRecordsRequest.class)))
+            .thenAnswer(invocation -> respond((PutRecordsRequest) invocation.getArguments()[0]));
+    }
+
+    @Test
+    public void put_GivenThrottledShard_ShouldDecreaseOnlyThatShardsRate() throws IOException {
+        throttledOnce.add("h0");
+        throttledOnce.add("h1");
+        AdaptiveRateStreamWriter<String> writer = writer();
+
+        PutRecordsResponse response = writer.put(records(4, 2));
+
+        Assert.assertEquals(0, response.failedRecordCount().intValue());
+        Map<String, Double> rates = writer.getShardRates();
+        Assert.assertEquals(125, rates.get("low"), 0);
+        Assert.assertEquals(75, rates.get("high"), 0);
+        Assert.assertFalse(writer.isSaturated());
+        Assert.assertEquals(125 + 100, writer.getSustainableRecordsPerSecond(), 0);
+        // each entry is a 1 character record plus a 1 character partition key
+        Assert.assertEquals((125 + 100) * 2, writer.getSustainableBytesPerSecond(), 0.001);
+    }
+
+    @Test
+    public void put_GivenEveryShardThrottled_ShouldBeSaturated() throws IOException {
+        configuration.setMaxAttempts(1);
+        throttleAll = true;
+        AdaptiveRateStreamWriter<String> writer = writer();
+
+        writer.put(records(2, 2));
+
+        Assert.assertTrue(writer.isSaturated());
+        Assert.assertEquals(50, writer.getShardRates().get("low"), 0);
+        Assert.assertEquals(200, writer.getSustainableRecordsPerSecond(), 0);
+    }
+
+    private AdaptiveRateStreamWriter<String> writer() {
+        Ticker ticker = new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        };
+        return new AdaptiveRateStreamWriter<>(client, "stream", new RecordTranslator(), configuration, ticker);
+    }
+
+    /**
+     * Creates records for the low shard ("l" prefixed) followed by records for the high shard ("h" prefixed).
+     */
+    private static List<String> records(int low, int high) {
+        List<String> records = new ArrayList<>();
+        for (int i = 0; i < low; i++) {
+            records.add("l" + i);
+        }
+        for (int i = 0; i < high; i++) {
+            records.add("h" + i);
+        }
+        return records;
+    }
+
+    private PutRecordsResponse respond(PutRecordsRequest request) {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        List<PutRecordsResultEntry> results = new ArrayList<>();
+        int failed = 0;
+        for (PutRecordsRequestEntry entry : request.records()) {
+            boolean high = entry.explicitHashKey().equals("101");
+            String item = (high ? "h" : "l") + entry.data().asUtf8String();
+            if (throttleAll || throttledOnce.remove(item)) {
+                results.add(PutRecordsResultEntry.builder().errorCode(THROTTLED).build());
+                failed++;
+            } else {
+                results.add(PutRecordsResultEntry.builder().sequenceNumber("1").shardId(high ? "high" : "low").build());
+            }
+        }
+        return PutRecordsResponse.builder().records(results).failedRecordCount(failed).build();
+    }
+
+    private static Shard shard(String id, String start, String end) {
+        return Shard.builder()
+            .shardId(id)
+            .hashKeyRange(HashKeyRange.builder().startingHashKey(start).endingHashKey(end).build())
+            .build();
+    }
+
+    private static class RecordTranslator extends AbstractPutRecordsRequestTranslator<String> {
+        @Override
+        PutRecordsRequestEntry toEntry(String item) {
+            return PutRecordsRequestEntry.builder()
+                .partitionKey("0")
+                .explicitHashKey(item.startsWith("h") ? "101" : "1")
+                .data(SdkBytes.fromUtf8String(item.substring(1)))
+                .build();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import io.nuvalence.kiqt.core.aggregation.RecordAggregator;
+import io.nuvalence.kiqt.core.aggregation.RecordDeaggregator;
+import io.nuvalence.kiqt.core.shards.ShardMap;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.HashKeyRange;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import software.amazon.awssdk.services.kinesis.model.Record;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.hamcrest.Matchers;
+
+public class AggregatingPutRecordsRequestTranslatorTest {
+    private static final byte[] MAGIC = {(byte) 0xF3, (byte) 0x89, (byte) 0x9A, (byte) 0xC2};
+
+    private AbstractPutRecordsRequestTranslator<String> delegate = new AbstractPutRecordsRequestTranslator<String>() {
+        @Override
+        PutRecordsRequestEntry toEntry(String item) {
+            return PutRecordsRequestEntry.builder()
+                .partitionKey("key")
+                .data(SdkBytes.fromUtf8String(item))
+                .build();
+        }
+    };
+
+    @Test
+    public void toEntries_GivenNullItems_ShouldReturnEmptyList() throws IOException {
+        Assert.assertThat(new AggregatingPutRecordsRequestTranslator<>(delegate).toEntries(null), Matchers.empty());
+    }
+
+    @Test
+    public void toEntries_GivenSmallRecords_ShouldAggregateIntoSingleEntry() throws IOException {
+        List<PutRecordsRequestEntry> entries = new AggregatingPutRecordsRequestTranslator<>(delegate)
+            .toEntries(Arrays.asList("a", "b", "c"));
+
+        Assert.assertEquals(1, entries.size());
+        Assert.assertEquals("key", entries.get(0).partitionKey());
+        Assert.assertArrayEquals(MAGIC, Arrays.copyOfRange(entries.get(0).data().asByteArray(), 0, 4));
+    }
+
+    @Test
+    public void toEntries_GivenRecordsExceedingLimit_ShouldSplitAcrossEntries() throws IOException {
+        String item = String.join("", Collections.nCopies(30, "x"));
+        List<PutRecordsRequestEntry> entries = new AggregatingPutRecordsRequestTranslator<>(delegate, 100)
+            .toEntries(Arrays.asList(item, item, item, item, item));
+
+        Assert.assertEquals(3, entries.size());
+        for (PutRecordsRequestEntry entry : entries) {
+            Assert.assertThat(entry.data().asByteArray().length + 3, Matchers.lessThanOrEqualTo(100));
+        }
+        Assert.assertEquals(item, entries.get(2).data().asUtf8String());
+    }
+
+    @Test
+    public void toEntries_GivenKeysOnDifferentShards_ShouldAggregateEachShardSeparately() throws IOException {
+        ShardMap shardMap = new ShardMap(Arrays.asList(shard("low", "0", "199"), shard("high", "200", "300")));
+        AbstractPutRecordsRequestTranslator<String> routed = new AbstractPutRecordsRequestTranslator<String>() {
+            @Override
+            PutRecordsRequestEntry toEntry(String item) {
+                return PutRecordsRequestEntry.builder()
+                    .partitionKey(item)
+                    .explicitHashKey(item.startsWith("low") ? "10" : "250")
+                    .data(SdkBytes.fromUtf8String(item))
+                    .build();
+            }
+        };
+
+        List<PutRecordsRequestEntry> entries = new AggregatingPutRecordsRequestTranslator<>(
+            routed, () -> shardMap, RecordAggregator.MAX_RECORD_SIZE
+        ).toEntries(Arrays.asList("low-1", "high-1", "low-2", "high-2"));
+
+        Assert.assertEquals(2, entries.size());
+        Assert.assertEquals("low", shardMap.shardFor(entries.get(0).partitionKey(), entries.get(0).explicitHashKey())
+            .shardId());
+        Assert.assertEquals(Arrays.asList("low-1", "low-2"), userRecords(entries.get(0)));
+        Assert.assertEquals("high", shardMap.shardFor(entries.get(1).partitionKey(), entries.get(1).explicitHashKey())
+            .shardId());
+        Assert.assertEquals(Arrays.asList("high-1", "high-2"), userRecords(entries.get(1)));
+    }
+
+    @Test
+    public void toEntries_WithoutShardMap_ShouldOnlyAggregateRecordsWithSameKey() throws IOException {
+        AbstractPutRecordsRequestTranslator<String> keyed = new AbstractPutRecordsRequestTranslator<String>() {
+            @Override
+            PutRecordsRequestEntry toEntry(String item) {
+                return PutRecordsRequestEntry.builder()
+                    .partitionKey(item.substring(0, 1))
+                    .data(SdkBytes.fromUtf8String(item))
+                    .build();
+            }
+        };
+
+        List<PutRecordsRequestEntry> entries = new AggregatingPutRecordsRequestTranslator<>(keyed)
+            .toEntries(Arrays.asList("a1", "b1", "a2"));
+
+        Assert.assertEquals(2, entries.size());
+        Assert.assertEquals("a", entries.get(0).partitionKey());
+        Assert.assertEquals(Arrays.asList("a1", "a2"), userRecords(entries.get(0)));
+        Assert.assertEquals("b", entries.get(1).partitionKey());
+        Assert.assertEquals("b1", entries.get(1).data().asUtf8String());
+    }
+
+    private static List<String> userRecords(PutRecordsRequestEntry entry) {
+        Record record = Record.builder()
+            .sequenceNumber("1")
+            .partitionKey(entry.partitionKey())
+            .data(entry.data())
+            .build();
+        return RecordDeaggregator.deaggregate(record).stream()
+            .map(userRecord -> userRecord.getRecord().data().asUtf8String())
+            .collect(Collectors.toList());
+    }
+
+    private static Shard shard(String id, String start, String end) {
+        return Shard.builder()
+            .shardId(id)
+            .hashKeyRange(HashKeyRange.builder().startingHashKey(start).endingHashKey(end).build())
+            .build();
+    }
+}
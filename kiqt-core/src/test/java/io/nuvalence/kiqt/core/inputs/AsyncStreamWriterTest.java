@@ -0,0 +1,155 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+public class AsyncStreamWriterTest {
+    private static final String THROTTLED = "ProvisionedThroughputExceededException";
+
+    private KinesisAsyncClient client;
+    private WriterConfiguration configuration;
+    private Queue<PendingRequest> pending;
+    private AtomicBoolean throttleFirstEntry;
+
+    @Before
+    public void setup() {
+        client = Mockito.mock(KinesisAsyncClient.class);
+        configuration = new WriterConfiguration();
+        configuration.setBaseBackoffMillis(1L);
+        configuration.setMaxBackoffMillis(5L);
+        pending = new ConcurrentLinkedQueue<>();
+        throttleFirstEntry = new AtomicBoolean();
+        Mockito.when(client.putRecords(Matchers.any(PutRecordsRequest.class))).thenAnswer(invocation -> {
+            PendingRequest request = new PendingRequest((PutRecordsRequest) invocation.getArguments()[0]);
+            pending.add(request);
+            return request.future;
+        });
+    }
+
+    @Test
+    public void putAsync_GivenMoreBatchesThanAllowedInFlight_ShouldLimitOutstandingRequests() throws Exception {
+        configuration.setMaxRecordsPerRequest(1);
+        configuration.setMaxRequestsInFlight(2);
+        AsyncStreamWriter<String> writer = writer();
+
+        CompletableFuture<PutRecordsResponse> result = writer.putAsync(records(5));
+
+        Mockito.verify(client, Mockito.times(2)).putRecords(Matchers.any(PutRecordsRequest.class));
+        Assert.assertFalse(result.isDone());
+
+        // completing one request frees a slot for the next queued request
+        pending.poll().succeed();
+        Mockito.verify(client, Mockito.times(3)).putRecords(Matchers.any(PutRecordsRequest.class));
+
+        completeAll();
+        Assert.assertEquals(5, result.get(1, TimeUnit.SECONDS).records().size());
+        Assert.assertEquals(0, result.get().failedRecordCount().intValue());
+    }
+
+    @Test
+    public void putAsync_GivenThrottledEntry_ShouldResendAfterBackoff() throws Exception {
+        throttleFirstEntry.set(true);
+        AsyncStreamWriter<String> writer = writer();
+        List<String> records = records(3);
+
+        CompletableFuture<PutRecordsResponse> result = writer.putAsync(records);
+        PutRecordsResponse response = completeUntilDone(result);
+
+        Mockito.verify(client, Mockito.times(2)).putRecords(Matchers.any(PutRecordsRequest.class));
+        Assert.assertEquals(0, response.failedRecordCount().intValue());
+        Assert.assertEquals(records.get(0), response.records().get(0).sequenceNumber());
+    }
+
+    @Test(expected = IOException.class)
+    public void put_GivenFailedRequest_ShouldThrowIOException() throws IOException {
+        Mockito.when(client.putRecords(Matchers.any(PutRecordsRequest.class))).thenAnswer(invocation -> {
+            CompletableFuture<PutRecordsResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalStateException("EXPECTED EXCEPTION"));
+            return failed;
+        });
+
+        writer().put(records(1));
+    }
+
+    private AsyncStreamWriter<String> writer() {
+        return new AsyncStreamWriter<>(client, UUID.randomUUID().toString(), new RecordTranslator(), configuration);
+    }
+
+    private void completeAll() {
+        PendingRequest request;
+        while ((request = pending.poll()) != null) {
+            request.succeed();
+        }
+    }
+
+    private PutRecordsResponse completeUntilDone(CompletableFuture<PutRecordsResponse> result) throws Exception {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (!result.isDone() && System.currentTimeMillis() < deadline) {
+            completeAll();
+            Thread.sleep(5);
+        }
+        return result.get(1, TimeUnit.MILLISECONDS);
+    }
+
+    private static List<String> records(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> UUID.randomUUID().toString())
+            .collect(Collectors.toList());
+    }
+
+    private class PendingRequest {
+        private final PutRecordsRequest request;
+        private final CompletableFuture<PutRecordsResponse> future = new CompletableFuture<>();
+
+        PendingRequest(PutRecordsRequest request) {
+            this.request = request;
+        }
+
+        void succeed() {
+            boolean throttleFirst = throttleFirstEntry.getAndSet(false);
+            List<PutRecordsResultEntry> results = IntStream.range(0, request.records().size())
+                .mapToObj(i -> throttleFirst && i == 0
+                    ? PutRecordsResultEntry.builder().errorCode(THROTTLED).build()
+                    : PutRecordsResultEntry.builder()
+                        .sequenceNumber(request.records().get(i).data().asUtf8String())
+                        .build())
+                .collect(Collectors.toList());
+            future.complete(PutRecordsResponse.builder()
+                .records(results)
+                .failedRecordCount(throttleFirst ? 1 : 0)
+                .build());
+        }
+    }
+
+    private static class RecordTranslator extends AbstractPutRecordsRequestTranslator<String> {
+        @Override
+        PutRecordsRequestEntry toEntry(String item) {
+            return PutRecordsRequestEntry.builder()
+                .partitionKey("0")
+                .data(SdkBytes.fromUtf8String(item))
+                .build();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import io.nuvalence.kiqt.core.metrics.WriteMetrics;
+import io.nuvalence.kiqt.core.metrics.WriteMetricsSnapshot;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.KinesisClient;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+public class BatchingStreamWriterTest {
+    private static final String THROTTLED = "ProvisionedThroughputExceededException";
+
+    private KinesisClient client;
+    private String streamName;
+    private WriterConfiguration configuration;
+    private Set<String> throttledOnce;
+    private boolean throttleAll;
+
+    @Before
+    public void setup() {
+        client = Mockito.mock(KinesisClient.class);
+        streamName = UUID.randomUUID().toString();
+        configuration = new WriterConfiguration();
+        configuration.setBaseBackoffMillis(1L);
+        configuration.setMaxBackoffMillis(5L);
+        throttledOnce = new HashSet<>();
+        Mockito.when(client.putRecords(Matchers.any(PutRecordsRequest.class)))
+            .thenAnswer(invocation -> respond((PutRecordsRequest) invocation.getArguments()[0]));
+    }
+
+    @Test
+    public void put_GivenMoreRecordsThanRequestLimit_ShouldSplitIntoMultipleRequests() throws IOException {
+        BatchingStreamWriter<String> writer = writer();
+
+        PutRecordsResponse response = writer.put(records(1200));
+
+        List<PutRecordsRequest> requests = captureRequests(3);
+        Assert.assertEquals(500, requests.get(0).records().size());
+        Assert.assertEquals(500, requests.get(1).records().size());
+        Assert.assertEquals(200, requests.get(2).records().size());
+        Assert.assertEquals(streamName, requests.get(0).streamName());
+        Assert.assertEquals(1200, response.records().size());
+        Assert.assertEquals(0, response.failedRecordCount().intValue());
+    }
+
+    @Test
+    public void put_GivenRecordsExceedingByteLimit_ShouldSplitOnSize() throws IOException {
+        // each entry is a 36 character uuid plus a 1 character partition key
+        configuration.setMaxBytesPerRequest(37L * 4);
+        BatchingStreamWriter<String> writer = writer();
+
+        writer.put(records(10));
+
+        List<PutRecordsRequest> requests = captureRequests(3);
+        Assert.assertEquals(4, requests.get(0).records().size());
+        Assert.assertEquals(4, requests.get(1).records().size());
+        Assert.assertEquals(2, requests.get(2).records().size());
+    }
+
+    @Test
+    public void put_GivenThrottledEntries_ShouldResendOnlyFailedEntries() throws IOException {
+        List<String> records = records(5);
+        throttledOnce.add(records.get(1));
+        throttledOnce.add(records.get(3));
+        BatchingStreamWriter<String> writer = writer();
+
+        PutRecordsResponse response = writer.put(records);
+
+        List<PutRecordsRequest> requests = captureRequests(2);
+        Assert.assertEquals(
+            Arrays.asList(records.get(1), records.get(3)),
+            requests.get(1).records().stream().map(e -> e.data().asUtf8String()).collect(Collectors.toList())
+        );
+        Assert.assertEquals(0, response.failedRecordCount().intValue());
+        for (int i = 0; i < records.size(); i++) {
+            Assert.assertEquals(records.get(i), response.records().get(i).sequenceNumber());
+        }
+    }
+
+    @Test
+    public void put_GivenEntriesThrottledOnEveryAttempt_ShouldReportFailuresAfterMaxAttempts() throws IOException {
+        configuration.setMaxAttempts(3);
+        throttleAll = true;
+        BatchingStreamWriter<String> writer = writer();
+
+        PutRecordsResponse response = writer.put(records(2));
+
+        captureRequests(3);
+        Assert.assertEquals(2, response.failedRecordCount().intValue());
+        Assert.assertEquals(THROTTLED, response.records().get(0).errorCode());
+    }
+
+    @Test
+    public void put_GivenMetrics_ShouldRecordLatenciesAndEntryOutcomes() throws IOException {
+        List<String> records = records(5);
+        throttledOnce.add(records.get(2));
+        WriteMetrics metrics = new WriteMetrics();
+        BatchingStreamWriter<String> writer = writer();
+        writer.setMetrics(metrics);
+
+        writer.put(records);
+
+        WriteMetricsSnapshot snapshot = metrics.snapshot();
+        Assert.assertEquals(1, snapshot.getPutLatency().getCount());
+        Assert.assertEquals(1, snapshot.getSerializationLatency().getCount());
+        Assert.assertEquals(2, snapshot.getRequests());
+        Assert.assertEquals(5, snapshot.getSuccessfulEntries());
+        Assert.assertEquals(1, snapshot.getThrottledEntries());
+        Assert.assertEquals(0, snapshot.getFailedEntries());
+    }
+
+    private BatchingStreamWriter<String> writer() {
+        return new BatchingStreamWriter<>(client, streamName, new RecordTranslator(), configuration);
+    }
+
+    private List<PutRecordsRequest> captureRequests(int expectedCount) {
+        ArgumentCaptor<PutRecordsRequest> arg = ArgumentCaptor.forClass(PutRecordsRequest.class);
+        Mockito.verify(client, Mockito.times(expectedCount)).putRecords(arg.capture());
+        return arg.getAllValues();
+    }
+
+    private static List<String> records(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> UUID.randomUUID().toString())
+            .collect(Collectors.toList());
+    }
+
+    private PutRecordsResponse respond(PutRecordsRequest request) {
+        List<PutRecordsResultEntry> results = new ArrayList<>();
+        int failed = 0;
+        for (PutRecordsRequestEntry entry : request.records()) {
+            String data = entry.data().asUtf8String();
+            if (throttleAll || throttledOnce.remove(data)) {
+                results.add(PutRecordsResultEntry.builder().errorCode(THROTTLED).build());
+                failed++;
+            } else {
+                // echo the data as the sequence number so ordering of the merged response can be verified
+                results.add(PutRecordsResultEntry.builder().sequenceNumber(data).shardId("0").build());
+            }
+        }
+        return PutRecordsResponse.builder().records(results).failedRecordCount(failed).build();
+    }
+
+    private static class RecordTranslator extends AbstractPutRecordsRequestTranslator<String> {
+        @Override
+        PutRecordsRequestEntry toEntry(String item) {
+            return PutRecordsRequestEntry.builder()
+                .partitionKey("0")
+                .data(SdkBytes.fromUtf8String(item))
+                .build();
+        }
+    }
+}
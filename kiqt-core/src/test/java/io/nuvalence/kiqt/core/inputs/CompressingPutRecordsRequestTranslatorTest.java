@@ -0,0 +1,53 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import io.nuvalence.kiqt.core.compression.Compression;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompressingPutRecordsRequestTranslatorTest {
+    private AbstractPutRecordsRequestTranslator<String> delegate = new AbstractPutRecordsRequestTranslator<String>() {
+        @Override
+        PutRecordsRequestEntry toEntry(String item) {
+            return PutRecordsRequestEntry.builder()
+                .partitionKey("key")
+                .data(SdkBytes.fromUtf8String(item))
+                .build();
+        }
+    };
+
+    @Test
+    public void toEntry_ShouldCompressDataAndKeepPartitionKey() throws IOException {
+        PutRecordsRequestEntry entry = new CompressingPutRecordsRequestTranslator<>(delegate, Compression.GZIP)
+            .toEntry("abc");
+
+        Assert.assertEquals("key", entry.partitionKey());
+        Assert.assertEquals("abc", new String(Compression.GZIP.decompress(entry.data().asByteArray()), "UTF-8"));
+    }
+
+    @Test
+    public void toEntries_GivenMinSize_ShouldOnlyCompressLargeEntries() throws IOException {
+        List<PutRecordsRequestEntry> entries = new CompressingPutRecordsRequestTranslator<>(
+            delegate, Compression.GZIP, 4
+        ).toEntries(Arrays.asList("abc", "abcd"));
+
+        Assert.assertEquals(2, entries.size());
+        Assert.assertEquals("abc", entries.get(0).data().asUtf8String());
+        Assert.assertTrue(Compression.GZIP.matches(entries.get(1).data().asByteArray()));
+    }
+
+    @Test
+    public void toEntries_GivenNoCompression_ShouldReturnDelegateEntries() throws IOException {
+        List<PutRecordsRequestEntry> entries = new CompressingPutRecordsRequestTranslator<>(delegate, Compression.NONE)
+            .toEntries(Arrays.asList("abc"));
+
+        Assert.assertEquals("abc", entries.get(0).data().asUtf8String());
+    }
+}
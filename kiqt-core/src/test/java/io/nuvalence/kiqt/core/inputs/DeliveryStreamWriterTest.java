@@ -0,0 +1,164 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import io.nuvalence.kiqt.core.metrics.WriteMetrics;
+import io.nuvalence.kiqt.core.metrics.WriteMetricsSnapshot;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.firehose.FirehoseClient;
+import software.amazon.awssdk.services.firehose.model.PutRecordBatchRequest;
+import software.amazon.awssdk.services.firehose.model.PutRecordBatchResponse;
+import software.amazon.awssdk.services.firehose.model.PutRecordBatchResponseEntry;
+import software.amazon.awssdk.services.firehose.model.Record;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+public class DeliveryStreamWriterTest {
+    private FirehoseClient client;
+    private String deliveryStreamName;
+    private WriterConfiguration configuration;
+    private Set<String> failedOnce;
+    private Set<String> rejected;
+    private boolean failAll;
+    private AbstractPutRecordsRequestTranslator<String> translator = new AbstractPutRecordsRequestTranslator<String>() {
+        @Override
+        PutRecordsRequestEntry toEntry(String item) {
+            return PutRecordsRequestEntry.builder()
+                .partitionKey("0")
+                .data(SdkBytes.fromUtf8String(item))
+                .build();
+        }
+    };
+
+    @Before
+    public void setup() {
+        client = Mockito.mock(FirehoseClient.class);
+        deliveryStreamName = UUID.randomUUID().toString();
+        configuration = new WriterConfiguration();
+        configuration.setBaseBackoffMillis(1L);
+        configuration.setMaxBackoffMillis(5L);
+        failedOnce = new HashSet<>();
+        rejected = new HashSet<>();
+        Mockito.when(client.putRecordBatch(Matchers.any(PutRecordBatchRequest.class)))
+            .thenAnswer(invocation -> respond((PutRecordBatchRequest) invocation.getArguments()[0]));
+    }
+
+    @Test
+    public void put_GivenMoreRecordsThanRequestLimit_ShouldSplitIntoMultipleRequests() throws IOException {
+        PutRecordBatchResponse response = writer().put(records(700));
+
+        List<PutRecordBatchRequest> requests = captureRequests(2);
+        Assert.assertEquals(500, requests.get(0).records().size());
+        Assert.assertEquals(200, requests.get(1).records().size());
+        Assert.assertEquals(deliveryStreamName, requests.get(0).deliveryStreamName());
+        Assert.assertEquals(700, response.requestResponses().size());
+        Assert.assertEquals(0, response.failedPutCount().intValue());
+    }
+
+    @Test
+    public void put_GivenFailedRecords_ShouldRetryOnlyFailedRecordsInOrder() throws IOException {
+        List<String> records = records(10);
+        failedOnce.add(records.get(3));
+        failedOnce.add(records.get(7));
+
+        PutRecordBatchResponse response = writer().put(records);
+
+        List<PutRecordBatchRequest> requests = captureRequests(2);
+        Assert.assertEquals(2, requests.get(1).records().size());
+        Assert.assertEquals(records.get(3), requests.get(1).records().get(0).data().asUtf8String());
+        Assert.assertEquals(0, response.failedPutCount().intValue());
+        Assert.assertEquals("3", response.requestResponses().get(3).recordId());
+    }
+
+    @Test
+    public void put_GivenNonRetryableFailure_ShouldNotRetryRecord() throws IOException {
+        List<String> records = records(10);
+        rejected.add(records.get(4));
+        WriteMetrics metrics = new WriteMetrics();
+        DeliveryStreamWriter<String> writer = writer();
+        writer.setMetrics(metrics);
+
+        PutRecordBatchResponse response = writer.put(records);
+
+        captureRequests(1);
+        Assert.assertEquals(1, response.failedPutCount().intValue());
+        Assert.assertEquals("InvalidArgumentException", response.requestResponses().get(4).errorCode());
+        Assert.assertEquals(1, metrics.snapshot().getFailedEntries());
+        Assert.assertEquals(0, metrics.snapshot().getThrottledEntries());
+    }
+
+    @Test
+    public void put_GivenRecordsFailingEveryAttempt_ShouldStopAtMaxAttempts() throws IOException {
+        configuration.setMaxAttempts(3);
+        failAll = true;
+
+        PutRecordBatchResponse response = writer().put(records(2));
+
+        captureRequests(3);
+        Assert.assertEquals(2, response.failedPutCount().intValue());
+    }
+
+    @Test
+    public void put_GivenMetrics_ShouldRecordEachRequestAndEntryOutcomes() throws IOException {
+        List<String> records = records(600);
+        failedOnce.add(records.get(3));
+        WriteMetrics metrics = new WriteMetrics();
+        DeliveryStreamWriter<String> writer = writer();
+        writer.setMetrics(metrics);
+
+        writer.put(records);
+
+        WriteMetricsSnapshot snapshot = metrics.snapshot();
+        Assert.assertEquals(3, snapshot.getRequests());
+        Assert.assertEquals(600, snapshot.getSuccessfulEntries());
+        Assert.assertEquals(1, snapshot.getThrottledEntries());
+        Assert.assertEquals(0, snapshot.getFailedEntries());
+    }
+
+    private DeliveryStreamWriter<String> writer() {
+        return new DeliveryStreamWriter<>(client, deliveryStreamName, translator, configuration);
+    }
+
+    private PutRecordBatchResponse respond(PutRecordBatchRequest request) {
+        List<PutRecordBatchResponseEntry> entries = new ArrayList<>();
+        int failed = 0;
+        for (Record record : request.records()) {
+            String data = record.data().asUtf8String();
+            if (rejected.contains(data)) {
+                entries.add(PutRecordBatchResponseEntry.builder().errorCode("InvalidArgumentException").build());
+                failed++;
+            } else if (failAll || failedOnce.remove(data)) {
+                entries.add(PutRecordBatchResponseEntry.builder().errorCode(DeliveryStreamWriter.THROTTLED).build());
+                failed++;
+            } else {
+                entries.add(PutRecordBatchResponseEntry.builder().recordId(data).build());
+            }
+        }
+        return PutRecordBatchResponse.builder().failedPutCount(failed).requestResponses(entries).build();
+    }
+
+    private List<PutRecordBatchRequest> captureRequests(int count) {
+        ArgumentCaptor<PutRecordBatchRequest> captor = ArgumentCaptor.forClass(PutRecordBatchRequest.class);
+        Mockito.verify(client, Mockito.times(count)).putRecordBatch(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static List<String> records(int count) {
+        return IntStream.range(0, count).mapToObj(String::valueOf).collect(Collectors.toList());
+    }
+}
@@ -22,10 +22,26 @@ public class JsonPutRecordsRequestEntryTranslatorTest {
         SampleRecord item = new SampleRecord();
         PutRecordsRequestEntry entry = translator.toEntry(item);
 
-        Mockito.verify(objectMapperSpy).writeValueAsBytes(item);
+        Mockito.verify(objectMapperSpy).writerFor(SampleRecord.class);
         Assert.assertEquals("{\"id\":\"" + item.id + "\"}", entry.data().asUtf8String());
     }
 
+    @Test
+    public void toEntry_GivenMultipleRecords_ShouldReuseWriterAndKeepEntriesIndependent() throws IOException {
+        JsonPutRecordsRequestEntryTranslator<SampleRecord> translator =
+            new JsonPutRecordsRequestEntryTranslator<>(objectMapperSpy, o -> "key");
+
+        SampleRecord first = new SampleRecord();
+        SampleRecord second = new SampleRecord();
+        second.id = "short";
+        PutRecordsRequestEntry firstEntry = translator.toEntry(first);
+        PutRecordsRequestEntry secondEntry = translator.toEntry(second);
+
+        Mockito.verify(objectMapperSpy, Mockito.times(1)).writerFor(SampleRecord.class);
+        Assert.assertEquals("{\"id\":\"" + first.id + "\"}", firstEntry.data().asUtf8String());
+        Assert.assertEquals("{\"id\":\"short\"}", secondEntry.data().asUtf8String());
+    }
+
     @Test
     public void toEntry_GivenPartitionKeyProvider_ShouldUseSpecifiedPartitionKey() throws IOException {
         String partitionKey = UUID.randomUUID().toString();
@@ -38,6 +54,18 @@ public class JsonPutRecordsRequestEntryTranslatorTest {
         Assert.assertEquals(partitionKey, entry.partitionKey());
     }
 
+    @Test
+    public void toEntry_GivenPartitionStrategy_ShouldUseExplicitHashKey() throws IOException {
+        JsonPutRecordsRequestEntryTranslator<SampleRecord> translator = new JsonPutRecordsRequestEntryTranslator<>(
+            objectMapperSpy, new PartitionStrategy<SampleRecord>(o -> "key", o -> "12345")
+        );
+
+        PutRecordsRequestEntry entry = translator.toEntry(new SampleRecord());
+
+        Assert.assertEquals("key", entry.partitionKey());
+        Assert.assertEquals("12345", entry.explicitHashKey());
+    }
+
     private static class SampleRecord {
         public String id = UUID.randomUUID().toString();
     }
@@ -0,0 +1,77 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelPutRecordsRequestTranslatorTest {
+    private ExecutorService executor = Executors.newFixedThreadPool(4);
+    private Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    private AbstractPutRecordsRequestTranslator<Integer> delegate = new AbstractPutRecordsRequestTranslator<Integer>() {
+        @Override
+        PutRecordsRequestEntry toEntry(Integer item) throws IOException {
+            if (item < 0) {
+                throw new IOException("negative item");
+            }
+            threads.add(Thread.currentThread());
+            return PutRecordsRequestEntry.builder()
+                .partitionKey("key")
+                .data(SdkBytes.fromUtf8String(String.valueOf(item)))
+                .build();
+        }
+    };
+    private ParallelPutRecordsRequestTranslator<Integer> translator =
+        new ParallelPutRecordsRequestTranslator<>(delegate, executor, 4, 10);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void toEntries_GivenLargeBatch_ShouldTranslateOnExecutorPreservingOrder() throws IOException {
+        List<Integer> items = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+
+        List<PutRecordsRequestEntry> entries = translator.toEntries(items);
+
+        Assert.assertEquals(
+            items.stream().map(String::valueOf).collect(Collectors.toList()),
+            entries.stream().map(entry -> entry.data().asUtf8String()).collect(Collectors.toList())
+        );
+        Assert.assertFalse(threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    public void toEntries_GivenSmallBatch_ShouldTranslateOnCallingThread() throws IOException {
+        List<Integer> items = IntStream.range(0, 15).boxed().collect(Collectors.toList());
+
+        Assert.assertEquals(15, translator.toEntries(items).size());
+        Assert.assertEquals(1, threads.size());
+        Assert.assertTrue(threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    public void toEntries_GivenNullItems_ShouldReturnEmptyList() throws IOException {
+        Assert.assertTrue(translator.toEntries(null).isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void toEntries_GivenUntranslatableItem_ShouldThrowIOException() throws IOException {
+        List<Integer> items = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        items.set(57, -1);
+
+        translator.toEntries(items);
+    }
+}
@@ -0,0 +1,101 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import software.amazon.awssdk.services.kinesis.KinesisClient;
+import software.amazon.awssdk.services.kinesis.model.HashKeyRange;
+import software.amazon.awssdk.services.kinesis.model.ListShardsRequest;
+import software.amazon.awssdk.services.kinesis.model.ListShardsResponse;
+import software.amazon.awssdk.services.kinesis.model.SequenceNumberRange;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.mockito.Mockito;
+
+public class PartitionStrategyTest {
+
+    @Test
+    public void constant_ShouldUseSamePartitionKeyWithoutExplicitHashKey() {
+        PartitionStrategy<String> strategy = PartitionStrategy.constant("key");
+        Assert.assertEquals("key", strategy.partitionKey("a"));
+        Assert.assertEquals("key", strategy.partitionKey("b"));
+        Assert.assertNull(strategy.explicitHashKey("a"));
+    }
+
+    @Test
+    public void fromField_ShouldUseFieldValueAsPartitionKey() {
+        PartitionStrategy<String> strategy = PartitionStrategy.fromField(String::length);
+        Assert.assertEquals("3", strategy.partitionKey("abc"));
+    }
+
+    @Test
+    public void random_ShouldProduceDistinctPartitionKeys() {
+        PartitionStrategy<String> strategy = PartitionStrategy.random();
+        Set<String> keys = IntStream.range(0, 100)
+            .mapToObj(i -> strategy.partitionKey("a"))
+            .collect(Collectors.toSet());
+        Assert.assertEquals(100, keys.size());
+    }
+
+    @Test
+    public void roundRobin_ShouldCycleThroughKeys() {
+        PartitionStrategy<String> strategy = PartitionStrategy.roundRobin(3);
+        String keys = IntStream.range(0, 7)
+            .mapToObj(i -> strategy.partitionKey("a"))
+            .collect(Collectors.joining(","));
+        Assert.assertEquals("0,1,2,0,1,2,0", keys);
+    }
+
+    @Test
+    public void shardBalanced_ShouldCycleThroughMidpointsOfOpenShards() {
+        PartitionStrategy<String> strategy = PartitionStrategy.shardBalanced(Arrays.asList(
+            shard("0", "99", null),
+            shard("100", "199", "closed"),
+            shard("200", "300", null)
+        ));
+
+        Assert.assertEquals("49", strategy.explicitHashKey("a"));
+        Assert.assertEquals("250", strategy.explicitHashKey("a"));
+        Assert.assertEquals("49", strategy.explicitHashKey("a"));
+        Assert.assertNotNull(strategy.partitionKey("a"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shardBalanced_GivenNoOpenShards_ShouldThrow() {
+        PartitionStrategy.shardBalanced(Arrays.asList(shard("0", "99", "closed")));
+    }
+
+    @Test
+    public void shardBalanced_GivenPaginatedStream_ShouldListAllShards() {
+        KinesisClient client = Mockito.mock(KinesisClient.class);
+        Mockito.when(client.listShards(ListShardsRequest.builder().streamName("stream").build()))
+            .thenReturn(ListShardsResponse.builder().shards(shard("0", "99", null)).nextToken("next").build());
+        Mockito.when(client.listShards(ListShardsRequest.builder().nextToken("next").build()))
+            .thenReturn(ListShardsResponse.builder().shards(shard("100", "199", null)).build());
+
+        PartitionStrategy<String> strategy = PartitionStrategy.shardBalanced(client, "stream");
+
+        Set<String> hashKeys = new HashSet<>(Arrays.asList(
+            strategy.explicitHashKey("a"),
+            strategy.explicitHashKey("b")
+        ));
+        Assert.assertEquals(new HashSet<>(Arrays.asList("49", "149")), hashKeys);
+    }
+
+    private static Shard shard(String start, String end, String endingSequenceNumber) {
+        return Shard.builder()
+            .shardId(start)
+            .hashKeyRange(HashKeyRange.builder().startingHashKey(start).endingHashKey(end).build())
+            .sequenceNumberRange(SequenceNumberRange.builder()
+                .startingSequenceNumber("0")
+                .endingSequenceNumber(endingSequenceNumber)
+                .build())
+            .build();
+    }
+}
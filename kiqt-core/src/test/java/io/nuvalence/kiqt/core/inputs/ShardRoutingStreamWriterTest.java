@@ -0,0 +1,176 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import io.nuvalence.kiqt.core.shards.ShardStatistics;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.KinesisClient;
+import software.amazon.awssdk.services.kinesis.model.HashKeyRange;
+import software.amazon.awssdk.services.kinesis.model.ListShardsRequest;
+import software.amazon.awssdk.services.kinesis.model.ListShardsResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequest;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+
+public class ShardRoutingStreamWriterTest {
+    private static final String THROTTLED = "ProvisionedThroughputExceededException";
+
+    private KinesisClient client;
+    private WriterConfiguration configuration;
+    private AtomicLong nanos = new AtomicLong();
+    private boolean throttleHigh;
+
+    @Before
+    public void setup() {
+        client = Mockito.mock(KinesisClient.class);
+        configuration = new WriterConfiguration();
+        configuration.setBaseBackoffMillis(1L);
+        configuration.setMaxBackoffMillis(5L);
+        Mockito.when(client.listShards(ListShardsRequest.builder().streamName("stream").build()))
+            .thenReturn(ListShardsResponse.builder()
+                .shards(shard("low", "0", "99"), shard("high", "100", "199"))
+                .build());
+        Mockito.when(client.putRecords(Matchers.any(PutRecordsRequest.class)))
+            .thenAnswer(invocation -> respond((PutRecordsRequest) invocation.getArguments()[0]));
+    }
+
+    @Test
+    public void put_GivenMoreRecordsForShardThanShardLimit_ShouldSpreadShardAcrossRequests() throws IOException {
+        configuration.setMaxRecordsPerShard(3);
+
+        writer().put(records(5, 2));
+
+        List<PutRecordsRequest> requests = captureRequests(2);
+        Assert.assertEquals(5, requests.get(0).records().size());
+        Assert.assertEquals(2, requests.get(1).records().size());
+        for (PutRecordsRequest request : requests) {
+            Assert.assertTrue(request.records().stream().filter(e -> e.explicitHashKey().equals("1")).count() <= 3);
+        }
+    }
+
+    @Test
+    public void getShardStatistics_GivenThrottledShard_ShouldAttributeTrafficToShards() throws IOException {
+        configuration.setMaxAttempts(2);
+        configuration.setHotShardFactor(1.5);
+        throttleHigh = true;
+        AtomicReference<List<ShardStatistics>> reported = new AtomicReference<>();
+        ShardRoutingStreamWriter<String> writer = writer();
+        writer.setStatisticsHandler(reported::set);
+
+        writer.put(records(6, 2));
+
+        List<ShardStatistics> statistics = reported.get();
+        Assert.assertEquals(2, statistics.size());
+        ShardStatistics low = statistics.get(0);
+        Assert.assertEquals("low", low.getShardId());
+        Assert.assertEquals(6, low.getRecordsSent());
+        Assert.assertEquals(6 * 2, low.getBytesSent());
+        Assert.assertEquals(0, low.getThrottled());
+        Assert.assertEquals(3.0, low.getRecordsPerSecond(), 0.001);
+        Assert.assertTrue(low.isHot());
+        ShardStatistics high = statistics.get(1);
+        Assert.assertEquals("high", high.getShardId());
+        Assert.assertEquals(0, high.getRecordsSent());
+        Assert.assertEquals(4, high.getThrottled());
+        Assert.assertFalse(high.isHot());
+        Assert.assertEquals(Collections.singletonList(low.getShardId()), shardIds(writer.getHotShards()));
+    }
+
+    @Test
+    public void getShardStatistics_GivenEvenTraffic_ShouldNotReportHotShards() throws IOException {
+        ShardRoutingStreamWriter<String> writer = writer();
+
+        writer.put(records(4, 4));
+
+        Assert.assertTrue(writer.getHotShards().isEmpty());
+        Mockito.verify(client, Mockito.times(1)).listShards(Matchers.any(ListShardsRequest.class));
+    }
+
+    private ShardRoutingStreamWriter<String> writer() {
+        Ticker ticker = new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        };
+        return new ShardRoutingStreamWriter<>(client, "stream", new RecordTranslator(), configuration, ticker);
+    }
+
+    private List<PutRecordsRequest> captureRequests(int expectedCount) {
+        ArgumentCaptor<PutRecordsRequest> arg = ArgumentCaptor.forClass(PutRecordsRequest.class);
+        Mockito.verify(client, Mockito.times(expectedCount)).putRecords(arg.capture());
+        return arg.getAllValues();
+    }
+
+    private static List<String> shardIds(List<ShardStatistics> statistics) {
+        List<String> ids = new ArrayList<>();
+        statistics.forEach(s -> ids.add(s.getShardId()));
+        return ids;
+    }
+
+    /**
+     * Creates records for the low shard ("l" prefixed) followed by records for the high shard ("h" prefixed).
+     */
+    private static List<String> records(int low, int high) {
+        List<String> records = new ArrayList<>();
+        for (int i = 0; i < low; i++) {
+            records.add("l" + i);
+        }
+        for (int i = 0; i < high; i++) {
+            records.add("h" + i);
+        }
+        return records;
+    }
+
+    private PutRecordsResponse respond(PutRecordsRequest request) {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        List<PutRecordsResultEntry> results = new ArrayList<>();
+        int failed = 0;
+        for (PutRecordsRequestEntry entry : request.records()) {
+            boolean high = entry.explicitHashKey().equals("101");
+            if (high && throttleHigh) {
+                results.add(PutRecordsResultEntry.builder().errorCode(THROTTLED).build());
+                failed++;
+            } else {
+                results.add(PutRecordsResultEntry.builder().sequenceNumber("1").shardId(high ? "high" : "low").build());
+            }
+        }
+        return PutRecordsResponse.builder().records(results).failedRecordCount(failed).build();
+    }
+
+    private static Shard shard(String id, String start, String end) {
+        return Shard.builder()
+            .shardId(id)
+            .hashKeyRange(HashKeyRange.builder().startingHashKey(start).endingHashKey(end).build())
+            .build();
+    }
+
+    private static class RecordTranslator extends AbstractPutRecordsRequestTranslator<String> {
+        @Override
+        PutRecordsRequestEntry toEntry(String item) {
+            return PutRecordsRequestEntry.builder()
+                .partitionKey("0")
+                .explicitHashKey(item.startsWith("h") ? "101" : "1")
+                .data(SdkBytes.fromUtf8String(item.substring(1)))
+                .build();
+        }
+    }
+}
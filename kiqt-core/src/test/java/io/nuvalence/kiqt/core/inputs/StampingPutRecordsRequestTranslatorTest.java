@@ -0,0 +1,54 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import io.nuvalence.kiqt.core.metrics.PipelineLatencyTracker;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StampingPutRecordsRequestTranslatorTest {
+    private AbstractPutRecordsRequestTranslator<String> delegate = new AbstractPutRecordsRequestTranslator<String>() {
+        @Override
+        PutRecordsRequestEntry toEntry(String item) {
+            return PutRecordsRequestEntry.builder()
+                .partitionKey("key")
+                .data(SdkBytes.fromUtf8String(item))
+                .build();
+        }
+    };
+    private PipelineLatencyTracker tracker = new PipelineLatencyTracker();
+    private StampingPutRecordsRequestTranslator<String> translator = new StampingPutRecordsRequestTranslator<>(
+        delegate, tracker, (item, stamp) -> item + "|" + stamp.getCorrelationId()
+    );
+
+    @Test
+    public void toEntry_ShouldTranslateStampedItem() throws IOException {
+        String data = translator.toEntry("abc").data().asUtf8String();
+
+        Assert.assertTrue(data.startsWith("abc|"));
+        Assert.assertTrue(tracker.match(data.substring(4), null));
+    }
+
+    @Test
+    public void toEntries_ShouldStampEachItemWithDistinctCorrelationId() throws IOException {
+        List<PutRecordsRequestEntry> entries = translator.toEntries(Arrays.asList("a", "b"));
+
+        Assert.assertEquals(2, entries.size());
+        Assert.assertNotEquals(
+            entries.get(0).data().asUtf8String().substring(2),
+            entries.get(1).data().asUtf8String().substring(2)
+        );
+        Assert.assertEquals(2, tracker.snapshot().getPendingInputs());
+    }
+
+    @Test
+    public void toEntries_GivenNull_ShouldReturnEmptyList() throws IOException {
+        Assert.assertTrue(translator.toEntries(null).isEmpty());
+    }
+}
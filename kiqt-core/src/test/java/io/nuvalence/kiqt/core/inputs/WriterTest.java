@@ -0,0 +1,52 @@
+package io.nuvalence.kiqt.core.inputs;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WriterTest {
+    private List<List<Integer>> batches = new ArrayList<>();
+    private Writer<Integer, Integer> writer = records -> {
+        batches.add(new ArrayList<>(records));
+        return records.size();
+    };
+
+    @Test
+    public void putAll_GivenIterator_ShouldPutInBatches() throws IOException {
+        List<Integer> responses = new ArrayList<>();
+
+        long count = writer.putAll(IntStream.range(0, 5).iterator(), 2, responses::add);
+
+        Assert.assertEquals(5, count);
+        Assert.assertEquals(Arrays.asList(Arrays.asList(0, 1), Arrays.asList(2, 3), Arrays.asList(4)), batches);
+        Assert.assertEquals(Arrays.asList(2, 2, 1), responses);
+    }
+
+    @Test
+    public void putAll_GivenSpliterator_ShouldPutInBatches() throws IOException {
+        long count = writer.putAll(Arrays.asList(1, 2, 3).spliterator(), 3, response -> { });
+
+        Assert.assertEquals(3, count);
+        Assert.assertEquals(Collections.singletonList(Arrays.asList(1, 2, 3)), batches);
+    }
+
+    @Test
+    public void putAll_GivenEmptyStream_ShouldNotPut() throws IOException {
+        long count = writer.putAll(Stream.empty(), 10, response -> { });
+
+        Assert.assertEquals(0, count);
+        Assert.assertTrue(batches.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void putAll_GivenInvalidBatchSize_ShouldThrow() throws IOException {
+        writer.putAll(Collections.<Integer>emptyIterator(), 0, response -> { });
+    }
+}
@@ -7,12 +7,16 @@ import software.amazon.awssdk.services.kinesisanalytics.model.ApplicationDetail;
 import software.amazon.awssdk.services.kinesisanalytics.model.DescribeApplicationRequest;
 import software.amazon.awssdk.services.kinesisanalytics.model.DescribeApplicationResponse;
 import software.amazon.awssdk.services.kinesisanalytics.model.InputDescription;
+import software.amazon.awssdk.services.kinesisanalytics.model.KinesisFirehoseInputDescription;
 import software.amazon.awssdk.services.kinesisanalytics.model.KinesisFirehoseOutputDescription;
 import software.amazon.awssdk.services.kinesisanalytics.model.KinesisStreamsInputDescription;
 import software.amazon.awssdk.services.kinesisanalytics.model.KinesisStreamsOutputDescription;
 import software.amazon.awssdk.services.kinesisanalytics.model.LambdaOutputDescription;
 import software.amazon.awssdk.services.kinesisanalytics.model.OutputDescription;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
 import java.util.UUID;
 
 import org.junit.Assert;
@@ -57,13 +61,65 @@ public class ApplicationIOProviderTest {
 
     @Test
     public void getInput_GivenApplicationDetailSpecifyingMultipleInputs_ShouldReturnFirstInput() {
-        // currently only one input is supported, so to avoid specifying the
-        // name of an input we're just returning the first
+        // without a name or id, the first input is returned
         AwsResource expected = new AwsResource(streamArnPrefix + "example-stream-name");
         configureInputs(inputStreamDescription(expected), InputDescription.builder().namePrefix("b").build());
         Assert.assertEquals(expected, wrapper.getInput());
     }
 
+    @Test
+    public void getInput_GivenNamePrefix_ShouldReturnMatchingInput() {
+        AwsResource expected = new AwsResource(streamArnPrefix + "bar");
+        configureInputs(
+            inputStreamDescription(new AwsResource(streamArnPrefix + "foo")),
+            inputStreamDescription(expected)
+        );
+
+        Assert.assertEquals(expected, wrapper.getInput("BAR"));
+    }
+
+    @Test
+    public void getInput_GivenInputId_ShouldReturnMatchingInput() {
+        AwsResource expected = new AwsResource(streamArnPrefix + "bar");
+        configureInputs(
+            inputStreamDescription(new AwsResource(streamArnPrefix + "foo")).toBuilder().inputId("1.1").build(),
+            inputStreamDescription(expected).toBuilder().inputId("1.2").build()
+        );
+
+        Assert.assertEquals(expected, wrapper.getInput("1.2"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getInput_GivenNameOfNonexistentInput_ShouldThrow() {
+        configureInputs(inputStreamDescription(new AwsResource(streamArnPrefix + "foo")));
+        wrapper.getInput("doesnotexist");
+    }
+
+    @Test
+    public void getInput_GivenFirehoseSource_ShouldReturnFirehoseArn() {
+        AwsResource firehose = new AwsResource(
+            "arn:aws:firehose:us-east-1:123456789012:deliverystream/my-deliverystream"
+        );
+        KinesisFirehoseInputDescription firehoseInputDescription = KinesisFirehoseInputDescription.builder()
+            .resourceARN(firehose.getArn()).build();
+        configureInputs(InputDescription.builder().namePrefix(firehose.getResource())
+            .kinesisFirehoseInputDescription(firehoseInputDescription).build());
+
+        Assert.assertEquals(firehose, wrapper.getInput(firehose.getResource()));
+    }
+
+    @Test
+    public void getInputs_GivenMultipleInputs_ShouldReturnAllInOrder() {
+        AwsResource foo = new AwsResource(streamArnPrefix + "foo");
+        AwsResource bar = new AwsResource(streamArnPrefix + "bar");
+        configureInputs(inputStreamDescription(foo), inputStreamDescription(bar));
+
+        Map<String, AwsResource> inputs = wrapper.getInputs();
+
+        Assert.assertEquals(Arrays.asList("foo", "bar"), new ArrayList<>(inputs.keySet()));
+        Assert.assertEquals(bar, inputs.get("bar"));
+    }
+
     @Test
     public void getOutput_GivenApplicationDetailSpecifyingMultipleOutputStreams_ShouldReturnOutputByName() {
         AwsResource expected = new AwsResource(streamArnPrefix + "foo");
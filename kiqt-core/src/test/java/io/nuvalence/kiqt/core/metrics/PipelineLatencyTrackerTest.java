@@ -0,0 +1,131 @@
+package io.nuvalence.kiqt.core.metrics;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PipelineLatencyTrackerTest {
+    private static final Instant START = Instant.parse("2019-06-01T00:00:00Z");
+
+    private MutableClock clock = new MutableClock();
+    private PipelineLatencyTracker tracker = new PipelineLatencyTracker(clock);
+
+    @Test
+    public void stamp_ShouldCreateUniqueCorrelationIdsAtCurrentTime() {
+        Stamp first = tracker.stamp();
+        Stamp second = tracker.stamp();
+
+        Assert.assertNotEquals(first.getCorrelationId(), second.getCorrelationId());
+        Assert.assertEquals(START, first.getSentAt());
+        Assert.assertEquals(2, tracker.snapshot().getPendingInputs());
+    }
+
+    @Test
+    public void match_GivenStampedInput_ShouldRecordLatencyAgainstBothClocks() {
+        Stamp stamp = tracker.stamp();
+        clock.advance(Duration.ofMillis(500));
+
+        Assert.assertTrue(tracker.match(stamp.getCorrelationId(), START.plusMillis(200)));
+
+        PipelineLatencySnapshot snapshot = tracker.snapshot();
+        Assert.assertEquals(1, snapshot.getMatchedOutputs());
+        Assert.assertEquals(0, snapshot.getPendingInputs());
+        Assert.assertEquals(500, snapshot.getEndToEndLatency().getMax().toMillis());
+        Assert.assertEquals(200, snapshot.getArrivalLatency().getMax().toMillis());
+    }
+
+    @Test
+    public void match_GivenUnknownOrRepeatedCorrelationId_ShouldCountUnmatched() {
+        Stamp stamp = tracker.stamp();
+
+        Assert.assertTrue(tracker.match(stamp.getCorrelationId(), null));
+        Assert.assertFalse(tracker.match(stamp.getCorrelationId(), null));
+        Assert.assertFalse(tracker.match("unknown", null));
+
+        PipelineLatencySnapshot snapshot = tracker.snapshot();
+        Assert.assertEquals(1, snapshot.getMatchedOutputs());
+        Assert.assertEquals(0, snapshot.getArrivalLatency().getCount());
+        Assert.assertEquals(2, snapshot.getUnmatchedOutputs());
+    }
+
+    @Test
+    public void match_GivenSharedCorrelationId_ShouldMeasureFromLastInputSent() {
+        tracker.stamp("group");
+        clock.advance(Duration.ofMillis(300));
+        tracker.stamp("group");
+        clock.advance(Duration.ofMillis(100));
+
+        tracker.match("group", null);
+
+        Assert.assertEquals(100, tracker.snapshot().getEndToEndLatency().getMax().toMillis());
+    }
+
+    @Test
+    public void reset_ShouldDiscardLatenciesButKeepPendingInputs() {
+        Stamp first = tracker.stamp();
+        Stamp second = tracker.stamp();
+        tracker.match(first.getCorrelationId(), null);
+
+        tracker.reset();
+
+        Assert.assertEquals(0, tracker.snapshot().getMatchedOutputs());
+        Assert.assertTrue(tracker.match(second.getCorrelationId(), null));
+    }
+
+    @Test
+    public void snapshot_GivenInputsUnmatchedPastMaxLatency_ShouldCountThemLost() {
+        tracker.setMaxLatency(Duration.ofMinutes(1));
+        Stamp expired = tracker.stamp();
+        clock.advance(Duration.ofSeconds(45));
+        Stamp recent = tracker.stamp();
+        clock.advance(Duration.ofSeconds(30));
+
+        PipelineLatencySnapshot snapshot = tracker.snapshot();
+
+        Assert.assertEquals(1, snapshot.getLostInputs());
+        Assert.assertEquals(1, snapshot.getPendingInputs());
+        Assert.assertFalse(tracker.match(expired.getCorrelationId(), null));
+        Assert.assertTrue(tracker.match(recent.getCorrelationId(), null));
+    }
+
+    @Test
+    public void stamp_GivenMatchedInputsPastMaxLatency_ShouldNotCountThemLost() {
+        tracker.setMaxLatency(Duration.ofMinutes(1));
+        Stamp matched = tracker.stamp();
+        tracker.match(matched.getCorrelationId(), null);
+        clock.advance(Duration.ofMinutes(2));
+
+        tracker.stamp();
+
+        Assert.assertEquals(0, tracker.snapshot().getLostInputs());
+        Assert.assertEquals(1, tracker.snapshot().getPendingInputs());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = START;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package io.nuvalence.kiqt.core.metrics;
+
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry;
+
+import java.time.Duration;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WriteMetricsTest {
+    private WriteMetrics metrics = new WriteMetrics();
+
+    @Test
+    public void snapshot_GivenNoRecordings_ShouldBeEmpty() {
+        WriteMetricsSnapshot snapshot = metrics.snapshot();
+
+        Assert.assertEquals(0, snapshot.getPutLatency().getCount());
+        Assert.assertEquals(Duration.ZERO, snapshot.getPutLatency().getMin());
+        Assert.assertEquals(0, snapshot.getRequests());
+        Assert.assertEquals(0, snapshot.getThrottledFraction(), 0);
+    }
+
+    @Test
+    public void snapshot_GivenRecordedLatencies_ShouldReportPercentiles() {
+        for (int i = 1; i <= 100; i++) {
+            metrics.recordPut(Duration.ofMillis(i).toNanos());
+        }
+
+        LatencySnapshot latency = metrics.snapshot().getPutLatency();
+
+        Assert.assertEquals(100, latency.getCount());
+        Assert.assertEquals(50, latency.getPercentile(50).toMillis());
+        Assert.assertEquals(99, latency.getPercentile(99).toMillis());
+        Assert.assertEquals(100, latency.getMax().toMillis());
+        Assert.assertEquals(1, Math.round(latency.getMin().toNanos() / 1e6));
+    }
+
+    @Test
+    public void snapshot_ShouldAccumulateAcrossSnapshots() {
+        metrics.recordSerialization(1000);
+        metrics.snapshot();
+        metrics.recordSerialization(2000);
+
+        Assert.assertEquals(2, metrics.snapshot().getSerializationLatency().getCount());
+    }
+
+    @Test
+    public void recordSerialization_GivenBytes_ShouldAccumulateSerializedBytes() {
+        metrics.recordSerialization(1000, 300);
+        metrics.recordSerialization(1000, 200);
+
+        Assert.assertEquals(500, metrics.getSerializedBytes());
+        Assert.assertEquals(500, metrics.snapshot().getSerializedBytes());
+    }
+
+    @Test
+    public void recordRequest_ShouldCountEntryOutcomes() {
+        metrics.recordRequest(1000, PutRecordsResponse.builder().records(
+            PutRecordsResultEntry.builder().sequenceNumber("1").build(),
+            PutRecordsResultEntry.builder().errorCode(WriteMetrics.THROTTLED).build(),
+            PutRecordsResultEntry.builder().errorCode("InternalFailure").build(),
+            PutRecordsResultEntry.builder().sequenceNumber("2").build()
+        ).build());
+
+        WriteMetricsSnapshot snapshot = metrics.snapshot();
+        Assert.assertEquals(1, snapshot.getRequests());
+        Assert.assertEquals(2, snapshot.getSuccessfulEntries());
+        Assert.assertEquals(1, snapshot.getThrottledEntries());
+        Assert.assertEquals(1, snapshot.getFailedEntries());
+        Assert.assertEquals(0.25, snapshot.getThrottledFraction(), 0);
+    }
+
+    @Test
+    public void reset_ShouldDiscardRecordings() {
+        metrics.recordPut(1000);
+        metrics.snapshot();
+        metrics.recordPut(1000);
+
+        metrics.reset();
+
+        Assert.assertEquals(0, metrics.snapshot().getPutLatency().getCount());
+    }
+}
@@ -23,6 +23,11 @@ public class AbstractKinesisRecordTranslatorTest {
         Assert.assertThat(translator.toValues(Collections.emptyList()), Matchers.empty());
     }
 
+    @Test
+    public void toUserRecordValues_GivenNullItems_ShouldReturnEmptyList() throws IOException {
+        Assert.assertThat(translator.toUserRecordValues(null), Matchers.empty());
+    }
+
     private static class UnimplementedTranslator extends AbstractKinesisRecordTranslator<String> {
         @Override
         String toValue(Record record) throws IOException {
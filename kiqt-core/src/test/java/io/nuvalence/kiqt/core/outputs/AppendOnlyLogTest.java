@@ -0,0 +1,94 @@
+package io.nuvalence.kiqt.core.outputs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AppendOnlyLogTest {
+    private AppendOnlyLog<Integer> log = new AppendOnlyLog<>(3);
+
+    @Test
+    public void snapshot_GivenRecordsSpanningChunks_ShouldReturnRecordsInOrder() {
+        List<Integer> expected = range(0, 100);
+        log.appendAll(expected.subList(0, 50));
+        expected.subList(50, 100).forEach(log::append);
+
+        Assert.assertEquals(expected, log.snapshot());
+        Assert.assertEquals(100, log.size());
+    }
+
+    @Test
+    public void snapshot_ShouldNotIncludeRecordsAppendedAfterwards() {
+        log.appendAll(range(0, 4));
+        List<Integer> snapshot = log.snapshot();
+
+        log.appendAll(range(4, 40));
+
+        Assert.assertEquals(range(0, 4), snapshot);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void snapshot_ShouldBeImmutable() {
+        log.append(1);
+        log.snapshot().add(2);
+    }
+
+    @Test
+    public void since_ShouldReturnRecordsFromPosition() {
+        log.appendAll(range(0, 10));
+
+        Assert.assertEquals(range(7, 10), log.since(7));
+        Assert.assertEquals(Collections.emptyList(), log.since(10));
+        Assert.assertEquals(range(8, 9), log.since(7).subList(1, 2));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void since_GivenPositionPastEnd_ShouldThrow() {
+        log.append(1);
+        log.since(2);
+    }
+
+    @Test
+    public void cursor_ShouldReturnOnlyNewRecords() {
+        AppendOnlyLog.Cursor<Integer> cursor = log.cursor();
+        log.appendAll(range(0, 5));
+
+        Assert.assertEquals(range(0, 5), cursor.peek());
+        Assert.assertEquals(range(0, 5), cursor.next());
+        Assert.assertEquals(Collections.emptyList(), cursor.next());
+
+        log.appendAll(Arrays.asList(5, 6));
+
+        Assert.assertEquals(Arrays.asList(5, 6), cursor.next());
+        Assert.assertEquals(7, cursor.getPosition());
+    }
+
+    @Test
+    public void snapshot_WhileAppending_ShouldAlwaysSeeCompletePrefix() throws InterruptedException {
+        AppendOnlyLog<Integer> concurrent = new AppendOnlyLog<>(16);
+        Thread writer = new Thread(() -> IntStream.range(0, 100_000).forEach(concurrent::append));
+        writer.start();
+        List<String> errors = new ArrayList<>();
+        while (writer.isAlive() || concurrent.size() < 100_000) {
+            List<Integer> snapshot = concurrent.snapshot();
+            for (int i = 0; i < snapshot.size(); i++) {
+                if (snapshot.get(i) != i) {
+                    errors.add("expected " + i + " but was " + snapshot.get(i));
+                    break;
+                }
+            }
+        }
+        writer.join();
+        Assert.assertEquals(Collections.emptyList(), errors);
+    }
+
+    private static List<Integer> range(int from, int to) {
+        return IntStream.range(from, to).boxed().collect(Collectors.toList());
+    }
+}
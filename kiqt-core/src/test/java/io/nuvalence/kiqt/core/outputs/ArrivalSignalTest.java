@@ -0,0 +1,60 @@
+package io.nuvalence.kiqt.core.outputs;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ArrivalSignalTest {
+    private ArrivalSignal signal = new ArrivalSignal();
+
+    @Test
+    public void awaitChange_GivenSignalAfterVersionRead_ShouldReturnImmediately() throws InterruptedException {
+        long version = signal.getVersion();
+        signal.signal();
+
+        long start = System.nanoTime();
+        Assert.assertTrue(signal.awaitChange(version, 5, TimeUnit.SECONDS));
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    public void awaitChange_GivenNoSignal_ShouldTimeOut() throws InterruptedException {
+        Assert.assertFalse(signal.awaitChange(signal.getVersion(), 50, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void awaitChange_GivenSignalFromAnotherThread_ShouldWake() throws InterruptedException {
+        long version = signal.getVersion();
+        CountDownLatch waiting = new CountDownLatch(1);
+        Thread signaller = new Thread(() -> {
+            try {
+                waiting.await();
+                signal.signal();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        signaller.start();
+
+        waiting.countDown();
+        Assert.assertTrue(signal.awaitChange(version, 5, TimeUnit.SECONDS));
+        signaller.join();
+    }
+
+    @Test
+    public void signal_ShouldNotifyListenersUntilRemoved() {
+        AtomicInteger notified = new AtomicInteger();
+        Runnable listener = notified::incrementAndGet;
+        signal.addListener(listener);
+
+        signal.signal();
+        signal.removeListener(listener);
+        signal.signal();
+
+        Assert.assertEquals(1, notified.get());
+        Assert.assertEquals(2, signal.getVersion());
+    }
+}
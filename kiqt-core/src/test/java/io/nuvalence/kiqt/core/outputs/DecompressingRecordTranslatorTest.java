@@ -0,0 +1,76 @@
+package io.nuvalence.kiqt.core.outputs;
+
+import io.nuvalence.kiqt.core.aggregation.UserRecord;
+import io.nuvalence.kiqt.core.compression.Compression;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.Record;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DecompressingRecordTranslatorTest {
+    private AbstractKinesisRecordTranslator<String> delegate = new AbstractKinesisRecordTranslator<String>() {
+        @Override
+        String toValue(Record record) {
+            return record.data().asUtf8String();
+        }
+    };
+
+    @Test
+    public void toValues_GivenMixedRecords_ShouldDetectCompression() throws IOException {
+        List<String> values = new DecompressingRecordTranslator<>(delegate).toValues(Arrays.asList(
+            record(Compression.GZIP.compress(utf8("gzip"))),
+            record(utf8("plain"))
+        ));
+
+        Assert.assertEquals(Arrays.asList("gzip", "plain"), values);
+    }
+
+    @Test
+    public void toUserRecordValues_ShouldDecompressEachUserRecord() throws IOException {
+        List<String> values = new DecompressingRecordTranslator<>(delegate).toUserRecordValues(Arrays.asList(
+            new UserRecord(record(Compression.GZIP.compress(utf8("first"))), null, 0, true),
+            new UserRecord(record(Compression.GZIP.compress(utf8("second"))), null, 1, true)
+        ));
+
+        Assert.assertEquals(Arrays.asList("first", "second"), values);
+    }
+
+    @Test
+    public void toValues_GivenPlainRecordStartingWithMagicNumber_ShouldTranslateRecordAsIs() throws IOException {
+        byte[] plain = {(byte) 0x1F, (byte) 0x8B, 'p', 'l', 'a', 'i', 'n'};
+
+        List<String> values = new DecompressingRecordTranslator<>(delegate).toValues(Arrays.asList(record(plain)));
+
+        Assert.assertEquals(new String(plain, StandardCharsets.UTF_8), values.get(0));
+    }
+
+    @Test
+    public void toValues_GivenConfiguredCompression_ShouldNotDetect() throws IOException {
+        byte[] gzip = Compression.GZIP.compress(utf8("gzip"));
+
+        List<String> values = new DecompressingRecordTranslator<>(delegate, Compression.NONE)
+            .toValues(Arrays.asList(record(gzip)));
+
+        Assert.assertEquals(new String(gzip, StandardCharsets.UTF_8), values.get(0));
+    }
+
+    @Test(expected = IOException.class)
+    public void toValues_GivenConfiguredCompressionAndPlainRecord_ShouldThrow() throws IOException {
+        new DecompressingRecordTranslator<>(delegate, Compression.GZIP).toValues(Arrays.asList(record(utf8("plain"))));
+    }
+
+    private static Record record(byte[] data) {
+        return Record.builder().partitionKey("key").data(SdkBytes.fromByteArray(data)).build();
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
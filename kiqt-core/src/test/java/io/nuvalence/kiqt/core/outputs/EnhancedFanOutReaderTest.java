@@ -0,0 +1,233 @@
+package io.nuvalence.kiqt.core.outputs;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.Consumer;
+import software.amazon.awssdk.services.kinesis.model.ConsumerDescription;
+import software.amazon.awssdk.services.kinesis.model.ConsumerStatus;
+import software.amazon.awssdk.services.kinesis.model.DeregisterStreamConsumerRequest;
+import software.amazon.awssdk.services.kinesis.model.DeregisterStreamConsumerResponse;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamConsumerRequest;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamConsumerResponse;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamSummaryRequest;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamSummaryResponse;
+import software.amazon.awssdk.services.kinesis.model.ListShardsRequest;
+import software.amazon.awssdk.services.kinesis.model.ListShardsResponse;
+import software.amazon.awssdk.services.kinesis.model.Record;
+import software.amazon.awssdk.services.kinesis.model.RegisterStreamConsumerRequest;
+import software.amazon.awssdk.services.kinesis.model.RegisterStreamConsumerResponse;
+import software.amazon.awssdk.services.kinesis.model.ResourceInUseException;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+import software.amazon.awssdk.services.kinesis.model.ShardIteratorType;
+import software.amazon.awssdk.services.kinesis.model.StreamDescriptionSummary;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardEvent;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardEventStream;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardRequest;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardResponseHandler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import org.mockito.Matchers;
+import org.mockito.Mockito;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+public class EnhancedFanOutReaderTest {
+    private static final String STREAM_ARN = "arn:aws:kinesis:us-east-1:123456789012:stream/output";
+    private static final String CONSUMER_ARN = STREAM_ARN + "/consumer/kiqt:1";
+
+    private KinesisAsyncClient mockClient = Mockito.mock(KinesisAsyncClient.class);
+    private AbstractKinesisRecordTranslator<String> translator = new AbstractKinesisRecordTranslator<String>() {
+        @Override
+        String toValue(Record record) {
+            return record.data().asUtf8String();
+        }
+    };
+    private EnhancedFanOutReader<String> reader =
+        new EnhancedFanOutReader<>(mockClient, "output", "kiqt", translator);
+    private Queue<List<SubscribeToShardEvent>> pushes = new LinkedList<>();
+    private List<SubscribeToShardRequest> subscriptions = new ArrayList<>();
+
+    @Test
+    public void getRecords_GivenPushedEvents_ShouldReturnRecordsInOrder() throws IOException {
+        mockConsumerRegistration();
+        mockListShards(Shard.builder().shardId("shard-0").build());
+        mockSubscriptions(Arrays.asList(event("1", "a", "b"), event("2", "c")));
+
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), reader.getRecords());
+        Assert.assertEquals(Collections.emptyList(), reader.getRecords());
+
+        SubscribeToShardRequest first = subscriptions.get(0);
+        Assert.assertEquals(CONSUMER_ARN, first.consumerARN());
+        Assert.assertEquals("shard-0", first.shardId());
+        Assert.assertEquals(ShardIteratorType.TRIM_HORIZON, first.startingPosition().type());
+    }
+
+    @Test
+    public void getRecords_GivenExpiredSubscription_ShouldResubscribeAfterLastRecord() throws IOException {
+        mockConsumerRegistration();
+        mockListShards(Shard.builder().shardId("shard-0").build());
+        mockSubscriptions(Collections.singletonList(event("7", "a")));
+
+        reader.getRecords();
+
+        Assert.assertEquals(2, subscriptions.size());
+        SubscribeToShardRequest renewal = subscriptions.get(1);
+        Assert.assertEquals(ShardIteratorType.AFTER_SEQUENCE_NUMBER, renewal.startingPosition().type());
+        Assert.assertEquals("7", renewal.startingPosition().sequenceNumber());
+    }
+
+    @Test
+    public void getRecords_GivenFinishedParentShard_ShouldSubscribeToChildShards() throws IOException {
+        mockConsumerRegistration();
+        mockListShards(Shard.builder().shardId("shard-0").build());
+        mockSubscriptions(Collections.singletonList(event(null, "a")));
+
+        Assert.assertEquals(Collections.singletonList("a"), reader.getRecords());
+        Assert.assertEquals(1, subscriptions.size());
+
+        mockListShards(
+            Shard.builder().shardId("shard-0").build(),
+            Shard.builder().shardId("shard-1").parentShardId("shard-0").build(),
+            Shard.builder().shardId("shard-2").parentShardId("shard-0").build()
+        );
+        reader.getRecords();
+
+        Assert.assertEquals(3, subscriptions.size());
+        Assert.assertEquals("shard-1", subscriptions.get(1).shardId());
+        Assert.assertEquals("shard-2", subscriptions.get(2).shardId());
+    }
+
+    @Test
+    public void getRecords_GivenConsumerAlreadyRegistered_ShouldReuseConsumer() throws IOException {
+        mockConsumerRegistration();
+        CompletableFuture<RegisterStreamConsumerResponse> inUse = new CompletableFuture<>();
+        inUse.completeExceptionally(ResourceInUseException.builder().message("in use").build());
+        Mockito.when(mockClient.registerStreamConsumer(Matchers.any(RegisterStreamConsumerRequest.class)))
+            .thenReturn(inUse);
+        mockListShards(Shard.builder().shardId("shard-0").build());
+        mockSubscriptions();
+
+        reader.getRecords();
+        reader.close();
+
+        Assert.assertEquals(CONSUMER_ARN, subscriptions.get(0).consumerARN());
+        Mockito.verify(mockClient, Mockito.never())
+            .deregisterStreamConsumer(Matchers.any(DeregisterStreamConsumerRequest.class));
+    }
+
+    @Test
+    public void close_GivenRegisteredConsumer_ShouldDeregisterConsumer() throws IOException {
+        mockConsumerRegistration();
+        mockListShards(Shard.builder().shardId("shard-0").build());
+        mockSubscriptions();
+
+        reader.getRecords();
+        reader.close();
+
+        Mockito.verify(mockClient).deregisterStreamConsumer(
+            DeregisterStreamConsumerRequest.builder().consumerARN(CONSUMER_ARN).build()
+        );
+    }
+
+    private void mockConsumerRegistration() {
+        Mockito.when(mockClient.describeStreamSummary(Matchers.any(DescribeStreamSummaryRequest.class)))
+            .thenReturn(CompletableFuture.completedFuture(DescribeStreamSummaryResponse.builder()
+                .streamDescriptionSummary(StreamDescriptionSummary.builder().streamARN(STREAM_ARN).build())
+                .build()));
+        Mockito.when(mockClient.registerStreamConsumer(Matchers.any(RegisterStreamConsumerRequest.class)))
+            .thenReturn(CompletableFuture.completedFuture(RegisterStreamConsumerResponse.builder()
+                .consumer(Consumer.builder().consumerARN(CONSUMER_ARN).build())
+                .build()));
+        Mockito.when(mockClient.describeStreamConsumer(Matchers.any(DescribeStreamConsumerRequest.class)))
+            .thenReturn(CompletableFuture.completedFuture(DescribeStreamConsumerResponse.builder()
+                .consumerDescription(ConsumerDescription.builder()
+                    .consumerARN(CONSUMER_ARN)
+                    .consumerStatus(ConsumerStatus.ACTIVE)
+                    .build())
+                .build()));
+        Mockito.when(mockClient.deregisterStreamConsumer(Matchers.any(DeregisterStreamConsumerRequest.class)))
+            .thenReturn(CompletableFuture.completedFuture(DeregisterStreamConsumerResponse.builder().build()));
+    }
+
+    private void mockListShards(Shard... shards) {
+        Mockito.when(mockClient.listShards(Matchers.any(ListShardsRequest.class)))
+            .thenReturn(CompletableFuture.completedFuture(ListShardsResponse.builder().shards(shards).build()));
+    }
+
+    /**
+     * Each subscription pushes the next list of events then ends, once lists run out,
+     * subscriptions stay open.
+     */
+    @SafeVarargs
+    private final void mockSubscriptions(List<SubscribeToShardEvent>... events) {
+        pushes.addAll(Arrays.asList(events));
+        Mockito.when(mockClient.subscribeToShard(
+            Matchers.any(SubscribeToShardRequest.class),
+            Matchers.any(SubscribeToShardResponseHandler.class)
+        )).thenAnswer(invocation -> {
+            subscriptions.add((SubscribeToShardRequest) invocation.getArguments()[0]);
+            List<SubscribeToShardEvent> push = pushes.poll();
+            if (push == null) {
+                return new CompletableFuture<Void>();
+            }
+            ((SubscribeToShardResponseHandler) invocation.getArguments()[1]).onEventStream(publisher(push));
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    private static SubscribeToShardEvent event(String continuationSequenceNumber, String... data) {
+        List<Record> records = new ArrayList<>();
+        for (String value : data) {
+            records.add(Record.builder()
+                .sequenceNumber(value)
+                .data(SdkBytes.fromUtf8String(value))
+                .build());
+        }
+        return SubscribeToShardEvent.builder()
+            .records(records)
+            .continuationSequenceNumber(continuationSequenceNumber)
+            .millisBehindLatest(0L)
+            .build();
+    }
+
+    private static SdkPublisher<SubscribeToShardEventStream> publisher(List<SubscribeToShardEvent> events) {
+        return new SdkPublisher<SubscribeToShardEventStream>() {
+            @Override
+            public void subscribe(Subscriber<? super SubscribeToShardEventStream> subscriber) {
+                Iterator<SubscribeToShardEvent> remaining = events.iterator();
+                subscriber.onSubscribe(new Subscription() {
+                    private boolean done;
+
+                    @Override
+                    public void request(long n) {
+                        for (long i = 0; i < n && remaining.hasNext(); i++) {
+                            subscriber.onNext(remaining.next());
+                        }
+                        if (!remaining.hasNext() && !done) {
+                            done = true;
+                            subscriber.onComplete();
+                        }
+                    }
+
+                    @Override
+                    public void cancel() {
+                        done = true;
+                    }
+                });
+            }
+        };
+    }
+}
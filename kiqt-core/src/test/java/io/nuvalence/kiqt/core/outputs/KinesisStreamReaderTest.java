@@ -1,20 +1,23 @@
 package io.nuvalence.kiqt.core.outputs;
 
+import io.nuvalence.kiqt.core.aggregation.RecordAggregator;
+
 import software.amazon.awssdk.core.SdkBytes;
 import software.amazon.awssdk.services.kinesis.KinesisClient;
-import software.amazon.awssdk.services.kinesis.model.DescribeStreamRequest;
-import software.amazon.awssdk.services.kinesis.model.DescribeStreamResponse;
 import software.amazon.awssdk.services.kinesis.model.GetRecordsRequest;
 import software.amazon.awssdk.services.kinesis.model.GetRecordsResponse;
 import software.amazon.awssdk.services.kinesis.model.GetShardIteratorRequest;
 import software.amazon.awssdk.services.kinesis.model.GetShardIteratorResponse;
+import software.amazon.awssdk.services.kinesis.model.ListShardsRequest;
+import software.amazon.awssdk.services.kinesis.model.ListShardsResponse;
+import software.amazon.awssdk.services.kinesis.model.ProvisionedThroughputExceededException;
 import software.amazon.awssdk.services.kinesis.model.Record;
 import software.amazon.awssdk.services.kinesis.model.Shard;
 import software.amazon.awssdk.services.kinesis.model.ShardIteratorType;
-import software.amazon.awssdk.services.kinesis.model.StreamDescription;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -32,7 +35,7 @@ import org.mockito.Mockito;
 public class KinesisStreamReaderTest {
     private KinesisClient mockClient = Mockito.mock(KinesisClient.class);
     private String streamName = UUID.randomUUID().toString();
-    private DescribeStreamRequest describeStreamRequest = DescribeStreamRequest.builder()
+    private ListShardsRequest listShardsRequest = ListShardsRequest.builder()
         .streamName(streamName).build();
     private JsonRecordTranslator<SampleRecord> translatorSpy = Mockito.spy(
         new JsonRecordTranslator<>(new ObjectMapper(), SampleRecord.class)
@@ -55,7 +58,7 @@ public class KinesisStreamReaderTest {
     public void getRecords_GivenStreamWithSingleShard_ShouldRequestRecordsUsingShardIterator() throws IOException {
         Shard shard = Shard.builder().shardId(UUID.randomUUID().toString()).build();
 
-        mockDescribeStream(shard);
+        mockListShards(shard);
 
         String shardIterator = mockGetShardIterator(shard.shardId());
 
@@ -64,7 +67,7 @@ public class KinesisStreamReaderTest {
 
         reader.getRecords();
 
-        Mockito.verify(mockClient).describeStream(describeStreamRequest);
+        Mockito.verify(mockClient).listShards(listShardsRequest);
         verifyGetShardIterator(shard.shardId());
         verifyGetRecords(shardIterator);
     }
@@ -81,7 +84,7 @@ public class KinesisStreamReaderTest {
 
         Shard shard = Shard.builder().shardId(UUID.randomUUID().toString()).build();
 
-        mockDescribeStream(shard);
+        mockListShards(shard);
 
         GetShardIteratorRequest shardIteratorRequest = GetShardIteratorRequest.builder()
             .shardIteratorType(ShardIteratorType.AT_TIMESTAMP)
@@ -99,7 +102,7 @@ public class KinesisStreamReaderTest {
 
         reader.getRecords();
 
-        Mockito.verify(mockClient).describeStream(describeStreamRequest);
+        Mockito.verify(mockClient).listShards(listShardsRequest);
         Mockito.verify(mockClient).getShardIterator(shardIteratorRequest);
         verifyGetRecords(shardIterator);
     }
@@ -108,7 +111,7 @@ public class KinesisStreamReaderTest {
     public void getRecords_GivenSingleShardStream_OnSecondCall_ShouldNotRequestShardIterator() throws IOException {
         Shard shard = Shard.builder().shardId(UUID.randomUUID().toString()).build();
 
-        mockDescribeStream(shard);
+        mockListShards(shard);
 
         String shardIterator = mockGetShardIterator(shard.shardId());
 
@@ -120,7 +123,7 @@ public class KinesisStreamReaderTest {
         reader.getRecords();
         reader.getRecords();
 
-        Mockito.verify(mockClient, Mockito.times(2)).describeStream(describeStreamRequest);
+        Mockito.verify(mockClient).listShards(listShardsRequest);
         verifyGetShardIterator(shard.shardId());
         verifyGetRecords(shardIterator);
         verifyGetRecords(nextShardIterator);
@@ -130,7 +133,7 @@ public class KinesisStreamReaderTest {
     public void getRecords_GivenStreamWithSingleShard_ShouldReturnExpectedRecords() throws IOException {
         Shard shard = Shard.builder().shardId(UUID.randomUUID().toString()).build();
 
-        mockDescribeStream(shard);
+        mockListShards(shard);
         String shardIterator = mockGetShardIterator(shard.shardId());
         List<SampleRecord> expected = Collections.singletonList(new SampleRecord());
         mockGetRecords(shardIterator, null, expected);
@@ -148,7 +151,7 @@ public class KinesisStreamReaderTest {
             Shard.builder().shardId(UUID.randomUUID().toString()).build()
         };
 
-        mockDescribeStream(shards);
+        mockListShards(shards);
 
         String[] iterators = new String[3];
         for (int i = 0; i < shards.length; i++) {
@@ -159,7 +162,7 @@ public class KinesisStreamReaderTest {
 
         reader.getRecords();
 
-        Mockito.verify(mockClient).describeStream(describeStreamRequest);
+        Mockito.verify(mockClient).listShards(listShardsRequest);
 
         for (int i = 0; i < shards.length; i++) {
             verifyGetShardIterator(shards[i].shardId());
@@ -176,7 +179,7 @@ public class KinesisStreamReaderTest {
             Shard.builder().shardId(UUID.randomUUID().toString()).build()
         };
 
-        mockDescribeStream(shards);
+        mockListShards(shards);
 
         List<SampleRecord> expected = new LinkedList<>();
         for (Shard shard : shards) {
@@ -189,11 +192,220 @@ public class KinesisStreamReaderTest {
         Assert.assertEquals(expected, reader.getRecords());
     }
 
-    private void mockDescribeStream(Shard... shards) {
-        DescribeStreamResponse response = DescribeStreamResponse.builder()
-            .streamDescription(StreamDescription.builder().shards(shards).build())
-            .build();
-        Mockito.when(mockClient.describeStream(describeStreamRequest)).thenReturn(response);
+    @Test
+    public void getRecords_GivenAggregatedRecord_ShouldReturnUserRecords() throws IOException {
+        Shard shard = Shard.builder().shardId(UUID.randomUUID().toString()).build();
+
+        mockListShards(shard);
+        String shardIterator = mockGetShardIterator(shard.shardId());
+        List<SampleRecord> expected = Arrays.asList(new SampleRecord(), new SampleRecord());
+        RecordAggregator aggregator = new RecordAggregator();
+        for (SampleRecord record : expected) {
+            aggregator.add("key", null, toKinesisRecord(record).data().asByteArray());
+        }
+        Mockito.when(mockClient.getRecords(GetRecordsRequest.builder().shardIterator(shardIterator).build()))
+            .thenReturn(GetRecordsResponse.builder()
+                .records(Record.builder().sequenceNumber("1").data(aggregator.toEntry().data()).build())
+                .build());
+
+        Assert.assertEquals(expected, reader.getRecords());
+    }
+
+    @Test
+    public void getRecords_GivenShardBehindLatest_ShouldFetchUntilCaughtUp() throws IOException {
+        Shard shard = Shard.builder().shardId(UUID.randomUUID().toString()).build();
+
+        mockListShards(shard);
+        String[] iterators = {
+            mockGetShardIterator(shard.shardId()), UUID.randomUUID().toString(), UUID.randomUUID().toString()
+        };
+        List<SampleRecord> expected = new LinkedList<>();
+        for (int i = 0; i < iterators.length; i++) {
+            List<SampleRecord> records = Collections.singletonList(new SampleRecord());
+            expected.addAll(records);
+            String next = i + 1 < iterators.length ? iterators[i + 1] : UUID.randomUUID().toString();
+            mockGetRecords(iterators[i], next, records, i + 1 < iterators.length ? 1000L : 0L);
+        }
+
+        Assert.assertEquals(expected, reader.getRecords());
+        for (String iterator : iterators) {
+            verifyGetRecords(iterator);
+        }
+    }
+
+    @Test
+    public void getRecords_GivenShardBehindLatest_ShouldStopAtCallBudget() throws IOException {
+        ReaderConfiguration configuration = new ReaderConfiguration();
+        configuration.setMaxGetRecordsCallsPerShard(2);
+        reader.setConfiguration(configuration);
+        Shard shard = Shard.builder().shardId(UUID.randomUUID().toString()).build();
+
+        mockListShards(shard);
+        String[] iterators = {
+            mockGetShardIterator(shard.shardId()), UUID.randomUUID().toString(), UUID.randomUUID().toString()
+        };
+        for (int i = 0; i < iterators.length; i++) {
+            String next = i + 1 < iterators.length ? iterators[i + 1] : null;
+            mockGetRecords(iterators[i], next, Collections.singletonList(new SampleRecord()), 1000L);
+        }
+
+        Assert.assertEquals(2, reader.getRecords().size());
+        verifyGetRecords(iterators[0]);
+        verifyGetRecords(iterators[1]);
+        Mockito.verify(mockClient, Mockito.never())
+            .getRecords(GetRecordsRequest.builder().shardIterator(iterators[2]).build());
+
+        Assert.assertEquals(1, reader.getRecords().size());
+        verifyGetRecords(iterators[2]);
+    }
+
+    @Test
+    public void getRecords_GivenThrottledSecondCall_ShouldReturnRecordsAlreadyFetched() throws IOException {
+        Shard shard = Shard.builder().shardId(UUID.randomUUID().toString()).build();
+
+        mockListShards(shard);
+        String[] iterators = {mockGetShardIterator(shard.shardId()), UUID.randomUUID().toString()};
+        List<SampleRecord> first = Collections.singletonList(new SampleRecord());
+        mockGetRecords(iterators[0], iterators[1], first, 1000L);
+        List<SampleRecord> second = Collections.singletonList(new SampleRecord());
+        Mockito.when(mockClient.getRecords(GetRecordsRequest.builder().shardIterator(iterators[1]).build()))
+            .thenThrow(ProvisionedThroughputExceededException.builder().message("Rate exceeded").build())
+            .thenReturn(GetRecordsResponse.builder()
+                .nextShardIterator(UUID.randomUUID().toString())
+                .millisBehindLatest(0L)
+                .records(second.stream().map(KinesisStreamReaderTest::toKinesisRecord).collect(Collectors.toList()))
+                .build());
+
+        Assert.assertEquals(first, reader.getRecords());
+        Assert.assertEquals(second, reader.getRecords());
+        verifyGetRecords(iterators[0]);
+        Mockito.verify(mockClient, Mockito.times(2))
+            .getRecords(GetRecordsRequest.builder().shardIterator(iterators[1]).build());
+    }
+
+    @Test
+    public void getRecords_GivenFailingSecondShard_ShouldReturnRecordsOfFirstShard() throws IOException {
+        assertFailingShardKeepsRecordsOfOtherShards();
+    }
+
+    @Test
+    public void getRecords_GivenShardReadParallelism_ShouldReturnRecordsInShardOrder() throws IOException {
+        ReaderConfiguration configuration = new ReaderConfiguration();
+        configuration.setShardReadParallelism(4);
+        reader.setConfiguration(configuration);
+
+        Shard[] shards = new Shard[8];
+        List<SampleRecord> expected = new LinkedList<>();
+        String[] iterators = new String[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = Shard.builder().shardId(UUID.randomUUID().toString()).build();
+            iterators[i] = mockGetShardIterator(shards[i].shardId());
+            List<SampleRecord> records = Arrays.asList(new SampleRecord(), new SampleRecord());
+            expected.addAll(records);
+            mockGetRecords(iterators[i], UUID.randomUUID().toString(), records);
+        }
+        mockListShards(shards);
+
+        Assert.assertEquals(expected, reader.getRecords());
+        for (String iterator : iterators) {
+            verifyGetRecords(iterator);
+        }
+    }
+
+    @Test
+    public void getRecords_GivenShardReadParallelismAndFailingShard_ShouldReturnRecordsOfOtherShards()
+        throws IOException {
+        ReaderConfiguration configuration = new ReaderConfiguration();
+        configuration.setShardReadParallelism(2);
+        reader.setConfiguration(configuration);
+
+        assertFailingShardKeepsRecordsOfOtherShards();
+    }
+
+    @Test
+    public void getRecords_GivenClosedShard_ShouldNotReadShardAgain() throws IOException {
+        Shard shard = Shard.builder().shardId(UUID.randomUUID().toString()).build();
+
+        mockListShards(shard);
+        String shardIterator = mockGetShardIterator(shard.shardId());
+        mockGetRecords(shardIterator, null, Collections.singletonList(new SampleRecord()));
+
+        Assert.assertEquals(1, reader.getRecords().size());
+        Assert.assertEquals(Collections.emptyList(), reader.getRecords());
+
+        verifyGetShardIterator(shard.shardId());
+        verifyGetRecords(shardIterator);
+    }
+
+    @Test
+    public void getRecords_GivenSplitShard_ShouldReadParentBeforeChildren() throws IOException {
+        Shard parent = Shard.builder().shardId("shardId-000000000000").build();
+        Shard[] children = new Shard[] {
+            Shard.builder().shardId("shardId-000000000001").parentShardId(parent.shardId()).build(),
+            Shard.builder().shardId("shardId-000000000002").parentShardId(parent.shardId()).build()
+        };
+        // children listed first to check lineage, rather than listing order, decides what is read
+        mockListShards(children[0], children[1], parent);
+
+        String parentIterator = mockGetShardIterator(parent.shardId());
+        List<SampleRecord> expected = new LinkedList<>(Collections.singletonList(new SampleRecord()));
+        mockGetRecords(parentIterator, null, expected);
+        String[] childIterators = new String[children.length];
+        List<SampleRecord> childRecords = new LinkedList<>();
+        for (int i = 0; i < children.length; i++) {
+            childIterators[i] = mockGetShardIterator(children[i].shardId());
+            List<SampleRecord> records = Collections.singletonList(new SampleRecord());
+            childRecords.addAll(records);
+            mockGetRecords(childIterators[i], UUID.randomUUID().toString(), records);
+        }
+
+        Assert.assertEquals(expected, reader.getRecords());
+        Mockito.verify(mockClient, Mockito.never()).getRecords(
+            GetRecordsRequest.builder().shardIterator(childIterators[0]).build()
+        );
+
+        Assert.assertEquals(childRecords, reader.getRecords());
+        Mockito.verify(mockClient, Mockito.times(2)).listShards(listShardsRequest);
+        verifyGetRecords(parentIterator);
+    }
+
+    /**
+     * Reads two shards, the second of which fails on its first call, then fails again on the
+     * next read, and finally succeeds.
+     */
+    private void assertFailingShardKeepsRecordsOfOtherShards() throws IOException {
+        Shard[] shards = new Shard[] {
+            Shard.builder().shardId(UUID.randomUUID().toString()).build(),
+            Shard.builder().shardId(UUID.randomUUID().toString()).build()
+        };
+        mockListShards(shards);
+        String healthyIterator = mockGetShardIterator(shards[0].shardId());
+        List<SampleRecord> healthy = Collections.singletonList(new SampleRecord());
+        mockGetRecords(healthyIterator, healthyIterator, healthy);
+        String failingIterator = mockGetShardIterator(shards[1].shardId());
+        List<SampleRecord> recovered = Collections.singletonList(new SampleRecord());
+        Mockito.when(mockClient.getRecords(GetRecordsRequest.builder().shardIterator(failingIterator).build()))
+            .thenThrow(new IllegalStateException("shard unavailable"))
+            .thenReturn(GetRecordsResponse.builder()
+                .nextShardIterator(failingIterator)
+                .records(recovered.stream().map(KinesisStreamReaderTest::toKinesisRecord).collect(Collectors.toList()))
+                .build());
+
+        Assert.assertEquals(healthy, reader.getRecords());
+        try {
+            reader.getRecords();
+            Assert.fail("expected failure of the previous read to be reported");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("shard unavailable", e.getMessage());
+        }
+        List<SampleRecord> expected = new LinkedList<>(healthy);
+        expected.addAll(recovered);
+        Assert.assertEquals(expected, reader.getRecords());
+    }
+
+    private void mockListShards(Shard... shards) {
+        ListShardsResponse response = ListShardsResponse.builder().shards(shards).build();
+        Mockito.when(mockClient.listShards(listShardsRequest)).thenReturn(response);
     }
 
     private String mockGetShardIterator(String shardId) {
@@ -218,9 +430,15 @@ public class KinesisStreamReaderTest {
     }
 
     private void mockGetRecords(String shardIterator, String nextShardIterator, List<SampleRecord> records) {
+        mockGetRecords(shardIterator, nextShardIterator, records, null);
+    }
+
+    private void mockGetRecords(String shardIterator, String nextShardIterator, List<SampleRecord> records,
+                                Long millisBehindLatest) {
         GetRecordsRequest getRecordsRequest = GetRecordsRequest.builder().shardIterator(shardIterator).build();
         GetRecordsResponse getRecordsResponse = GetRecordsResponse.builder()
             .nextShardIterator(nextShardIterator)
+            .millisBehindLatest(millisBehindLatest)
             .records(records.stream().map(KinesisStreamReaderTest::toKinesisRecord).collect(Collectors.toList()))
             .build();
 
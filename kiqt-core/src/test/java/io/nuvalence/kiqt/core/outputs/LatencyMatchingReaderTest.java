@@ -0,0 +1,82 @@
+package io.nuvalence.kiqt.core.outputs;
+
+import io.nuvalence.kiqt.core.metrics.PipelineLatencyTracker;
+import io.nuvalence.kiqt.core.metrics.Stamp;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.function.Function;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyMatchingReaderTest {
+    private PipelineLatencyTracker tracker = new PipelineLatencyTracker();
+    private Function<String, String> correlationIdProvider =
+        value -> value.startsWith("id:") ? value.substring(3) : null;
+
+    @Test
+    public void getRecords_ShouldMatchRecordsCarryingCorrelationId() throws IOException {
+        Stamp stamp = tracker.stamp();
+        Reader<String> reader = LatencyMatchingReader.of(
+            new QueueReader(Arrays.asList("id:" + stamp.getCorrelationId(), "other")),
+            tracker,
+            correlationIdProvider
+        );
+
+        Assert.assertEquals(2, reader.getRecords().size());
+        Assert.assertEquals(1, tracker.snapshot().getMatchedOutputs());
+        Assert.assertEquals(1, tracker.snapshot().getEndToEndLatency().getCount());
+        Assert.assertEquals(0, tracker.snapshot().getArrivalLatency().getCount());
+        Assert.assertEquals(0, tracker.snapshot().getUnmatchedOutputs());
+    }
+
+    @Test
+    public void of_GivenOutputCache_ShouldMatchRecordsAsTheyArrive() throws IOException {
+        Stamp first = tracker.stamp();
+        Stamp second = tracker.stamp();
+        OutputCache<String> cache = new OutputCache<>(new QueueReader(
+            Collections.singletonList("id:" + first.getCorrelationId()),
+            Collections.singletonList("id:" + second.getCorrelationId())
+        ), 60_000L);
+        try {
+            Reader<String> reader = LatencyMatchingReader.of(cache, tracker, correlationIdProvider);
+
+            Assert.assertSame(cache, reader);
+            Assert.assertEquals(1, tracker.snapshot().getMatchedOutputs());
+
+            cache.refresh();
+
+            Assert.assertEquals(2, tracker.snapshot().getMatchedOutputs());
+            Assert.assertEquals(2, cache.getRecords().size());
+            Assert.assertEquals(2, tracker.snapshot().getMatchedOutputs());
+        } finally {
+            cache.cancel();
+        }
+    }
+
+    /**
+     * Returns the next list of records on each read, then none.
+     */
+    private static class QueueReader implements Reader<String> {
+        private final Queue<List<String>> reads;
+
+        @SafeVarargs
+        QueueReader(List<String>... reads) {
+            this.reads = new LinkedList<>(Arrays.asList(reads));
+        }
+
+        @Override
+        public List<String> getRecords() {
+            return reads.isEmpty() ? Collections.emptyList() : reads.poll();
+        }
+
+        @Override
+        public void setConfiguration(ReaderConfiguration configuration) {
+        }
+    }
+}
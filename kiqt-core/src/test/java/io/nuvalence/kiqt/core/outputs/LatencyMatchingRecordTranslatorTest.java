@@ -0,0 +1,62 @@
+package io.nuvalence.kiqt.core.outputs;
+
+import io.nuvalence.kiqt.core.aggregation.UserRecord;
+import io.nuvalence.kiqt.core.metrics.PipelineLatencyTracker;
+import io.nuvalence.kiqt.core.metrics.Stamp;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.model.Record;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyMatchingRecordTranslatorTest {
+    private AbstractKinesisRecordTranslator<String> delegate = new AbstractKinesisRecordTranslator<String>() {
+        @Override
+        String toValue(Record record) {
+            return record.data().asUtf8String();
+        }
+    };
+    private PipelineLatencyTracker tracker = new PipelineLatencyTracker();
+    private LatencyMatchingRecordTranslator<String> translator = new LatencyMatchingRecordTranslator<>(
+        delegate, tracker, value -> value.startsWith("id:") ? value.substring(3) : null
+    );
+
+    @Test
+    public void toValues_ShouldMatchOutputsCarryingCorrelationId() throws IOException {
+        Stamp stamp = tracker.stamp();
+
+        List<String> values = translator.toValues(Arrays.asList(
+            record("id:" + stamp.getCorrelationId(), stamp.getSentAt().plusMillis(10)),
+            record("other", stamp.getSentAt())
+        ));
+
+        Assert.assertEquals(2, values.size());
+        Assert.assertEquals(1, tracker.snapshot().getMatchedOutputs());
+        Assert.assertEquals(1, tracker.snapshot().getArrivalLatency().getCount());
+        Assert.assertEquals(0, tracker.snapshot().getUnmatchedOutputs());
+    }
+
+    @Test
+    public void toUserRecordValues_ShouldMatchUsingArrivalOfUnderlyingRecord() throws IOException {
+        Stamp stamp = tracker.stamp();
+
+        translator.toUserRecordValues(Arrays.asList(
+            new UserRecord(record("id:" + stamp.getCorrelationId(), stamp.getSentAt()), null, 0, true)
+        ));
+
+        Assert.assertEquals(1, tracker.snapshot().getArrivalLatency().getCount());
+    }
+
+    private static Record record(String data, Instant arrivedAt) {
+        return Record.builder()
+            .data(SdkBytes.fromUtf8String(data))
+            .approximateArrivalTimestamp(arrivedAt)
+            .build();
+    }
+}
@@ -87,6 +87,118 @@ public class OutputCacheTest {
         Mockito.verifyNoMoreInteractions(readerSpy);
     }
 
+    @Test
+    public void close_ShouldStopPollingAndCloseReader() throws InterruptedException, IOException {
+        OutputCache<String> cache = new OutputCache<>(readerSpy, 100L);
+
+        cache.close();
+        Thread.sleep(300);
+
+        Mockito.verify(readerSpy).getRecords();
+        Mockito.verify(readerSpy).close();
+    }
+
+    @Test
+    public void cursor_ShouldReturnRecordsCachedSinceLastAdvanced() throws IOException {
+        OutputCache<String> cache = new OutputCache<>(readerSpy, 60_000L);
+        AppendOnlyLog.Cursor<String> cursor = cache.cursor();
+
+        Assert.assertEquals(cache.getRecords(), cursor.next());
+        cache.refresh();
+        List<String> next = cursor.next();
+
+        Assert.assertThat(next, Matchers.hasSize(1));
+        Assert.assertEquals(cache.getRecords().get(1), next.get(0));
+        cache.cancel();
+    }
+
+    @Test
+    public void refresh_GivenNewRecords_ShouldSignalArrival() throws IOException {
+        OutputCache<String> cache = new OutputCache<>(readerSpy, 60_000L);
+        long version = cache.getArrivalSignal().getVersion();
+
+        cache.refresh();
+
+        Assert.assertEquals(version + 1, cache.getArrivalSignal().getVersion());
+        cache.cancel();
+    }
+
+    @Test
+    public void refresh_GivenNoNewRecords_ShouldNotSignalArrival() throws IOException {
+        OutputCache<String> cache = new OutputCache<>(new EmptyReader(), 60_000L);
+
+        cache.refresh();
+
+        Assert.assertEquals(0, cache.getArrivalSignal().getVersion());
+        cache.cancel();
+    }
+
+    @Test
+    public void givenArrivalNotifyingReader_OnArrival_ShouldRefreshBeforeInterval() {
+        NotifyingReader reader = new NotifyingReader();
+        OutputCache<String> cache = new OutputCache<>(reader, 60_000L);
+
+        reader.push("record");
+
+        Awaitility.await()
+            .atMost(1, TimeUnit.SECONDS)
+            .pollInterval(5, TimeUnit.MILLISECONDS)
+            .untilAsserted(() -> Assert.assertEquals(Collections.singletonList("record"), cache.getRecords()));
+        cache.cancel();
+    }
+
+    @Test
+    public void requestRefresh_ShouldRefreshBeforeInterval() {
+        OutputCache<String> cache = new OutputCache<>(readerSpy, 60_000L);
+
+        cache.requestRefresh();
+
+        Awaitility.await()
+            .atMost(1, TimeUnit.SECONDS)
+            .pollInterval(5, TimeUnit.MILLISECONDS)
+            .untilAsserted(() -> Assert.assertThat(cache.getRecords(), Matchers.hasSize(2)));
+        cache.cancel();
+    }
+
+    private static class EmptyReader implements Reader<String> {
+        @Override
+        public List<String> getRecords() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void setConfiguration(ReaderConfiguration configuration) {
+            // no-op
+        }
+    }
+
+    private static class NotifyingReader implements ArrivalNotifyingReader<String> {
+        private final ArrivalSignal arrivals = new ArrivalSignal();
+        private final List<String> pending = new LinkedList<>();
+
+        synchronized void push(String record) {
+            pending.add(record);
+            arrivals.signal();
+        }
+
+        @Override
+        public synchronized List<String> getRecords() {
+            List<String> records = new LinkedList<>(pending);
+            pending.clear();
+            return records;
+        }
+
+        @Override
+        public ArrivalSignal getArrivalSignal() {
+            return arrivals;
+        }
+
+        @Override
+        public void setConfiguration(ReaderConfiguration configuration) {
+            // no-op
+        }
+    }
+
     private static class TestReader implements Reader<String> {
         @Override
         public List<String> getRecords() {
@@ -0,0 +1,135 @@
+package io.nuvalence.kiqt.core.shards;
+
+import software.amazon.awssdk.services.kinesis.model.ListShardsRequest;
+import software.amazon.awssdk.services.kinesis.model.ListShardsResponse;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+
+public class ShardDiscoveryTest {
+    private List<ListShardsRequest> requests = new ArrayList<>();
+    private List<Shard> shards = new ArrayList<>();
+    private long nanos;
+    private ShardDiscovery discovery = new ShardDiscovery(
+        request -> {
+            requests.add(request);
+            return ListShardsResponse.builder().shards(shards).build();
+        },
+        "stream",
+        Duration.ofSeconds(10),
+        new Ticker() {
+            @Override
+            public long read() {
+                return nanos;
+            }
+        }
+    );
+
+    @Test
+    public void parentsFirst_GivenChildrenListedBeforeParents_ShouldOrderParentsFirst() {
+        List<Shard> ordered = ShardDiscovery.parentsFirst(Arrays.asList(
+            shard("merged", "left", "right"),
+            shard("left", "root", null),
+            shard("right", "root", null),
+            shard("root", null, null),
+            shard("other", "expired", null)
+        ));
+
+        Assert.assertEquals(Arrays.asList("root", "left", "right", "merged", "other"), ids(ordered));
+    }
+
+    @Test
+    public void getShards_GivenPaginatedStream_ShouldListEveryPage() {
+        ShardDiscovery paginated = new ShardDiscovery(
+            request -> request.nextToken() == null
+                ? ListShardsResponse.builder().shards(shard("a", null, null)).nextToken("next").build()
+                : ListShardsResponse.builder().shards(shard("b", null, null)).build(),
+            "stream",
+            Duration.ofSeconds(10),
+            Ticker.systemTicker()
+        );
+
+        Assert.assertEquals(Arrays.asList("a", "b"), ids(paginated.getShards()));
+    }
+
+    @Test
+    public void getShards_WithinRefreshInterval_ShouldUseCachedShards() {
+        shards.add(shard("a", null, null));
+
+        discovery.getShards();
+        nanos += TimeUnit.SECONDS.toNanos(9);
+        discovery.getShards();
+
+        Assert.assertEquals(1, requests.size());
+        Assert.assertEquals("stream", requests.get(0).streamName());
+
+        nanos += TimeUnit.SECONDS.toNanos(1);
+        discovery.getShards();
+
+        Assert.assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void invalidate_ShouldListShardsOnNextCall() {
+        shards.add(shard("a", null, null));
+        discovery.getShards();
+
+        shards.add(shard("b", "a", null));
+        discovery.invalidate();
+
+        Assert.assertEquals(Arrays.asList("a", "b"), ids(discovery.getShards()));
+        Assert.assertEquals(2, requests.size());
+    }
+
+    @Test
+    public void getReadableShards_ShouldWithholdChildrenUntilParentsAreFinished() {
+        shards.addAll(Arrays.asList(
+            shard("left", null, null),
+            shard("right", null, null),
+            shard("merged", "left", "right")
+        ));
+
+        Assert.assertEquals(
+            Arrays.asList("left", "right"),
+            ids(discovery.getReadableShards(Collections.emptySet()))
+        );
+        Assert.assertEquals(
+            Collections.singletonList("right"),
+            ids(discovery.getReadableShards(Collections.singleton("left")))
+        );
+        Assert.assertEquals(
+            Collections.singletonList("merged"),
+            ids(discovery.getReadableShards(new HashSet<>(Arrays.asList("left", "right"))))
+        );
+    }
+
+    @Test
+    public void getReadableShards_GivenExpiredParent_ShouldReadChild() {
+        shards.add(shard("child", "expired", null));
+
+        Assert.assertEquals(
+            Collections.singletonList("child"),
+            ids(discovery.getReadableShards(Collections.emptySet()))
+        );
+    }
+
+    private static Shard shard(String id, String parentId, String adjacentParentId) {
+        return Shard.builder().shardId(id).parentShardId(parentId).adjacentParentShardId(adjacentParentId).build();
+    }
+
+    private static List<String> ids(List<Shard> shards) {
+        return shards.stream().map(Shard::shardId).collect(Collectors.toList());
+    }
+}
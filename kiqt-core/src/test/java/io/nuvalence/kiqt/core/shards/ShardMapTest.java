@@ -0,0 +1,109 @@
+package io.nuvalence.kiqt.core.shards;
+
+import software.amazon.awssdk.services.kinesis.KinesisClient;
+import software.amazon.awssdk.services.kinesis.model.HashKeyRange;
+import software.amazon.awssdk.services.kinesis.model.ListShardsRequest;
+import software.amazon.awssdk.services.kinesis.model.ListShardsResponse;
+import software.amazon.awssdk.services.kinesis.model.SequenceNumberRange;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+import org.mockito.Mockito;
+
+public class ShardMapTest {
+    private ShardMap shardMap = new ShardMap(Arrays.asList(
+        shard("high", "200", "300", null),
+        shard("closed", "0", "300", "99"),
+        shard("low", "0", "199", null)
+    ));
+
+    @Test
+    public void getShards_ShouldReturnOpenShardsOrderedByHashKey() {
+        Assert.assertEquals(
+            Arrays.asList("low", "high"),
+            shardMap.getShards().stream().map(Shard::shardId).collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    public void shardFor_GivenExplicitHashKey_ShouldReturnShardContainingHashKey() {
+        Assert.assertEquals("low", shardMap.shardFor("key", "0").shardId());
+        Assert.assertEquals("low", shardMap.shardFor("key", "199").shardId());
+        Assert.assertEquals("high", shardMap.shardFor("key", "200").shardId());
+    }
+
+    @Test
+    public void hashKeyOf_GivenPartitionKey_ShouldUseMd5OfPartitionKey() {
+        Assert.assertEquals(
+            new BigInteger("d41d8cd98f00b204e9800998ecf8427e", 16),
+            ShardMap.hashKeyOf("", null)
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_GivenNoOpenShards_ShouldThrow() {
+        new ShardMap(Arrays.asList(shard("closed", "0", "1", "99")));
+    }
+
+    @Test
+    public void load_GivenPaginatedStream_ShouldMapAllShards() {
+        KinesisClient client = Mockito.mock(KinesisClient.class);
+        Mockito.when(client.listShards(ListShardsRequest.builder().streamName("stream").build()))
+            .thenReturn(ListShardsResponse.builder().shards(shard("low", "0", "199", null)).nextToken("next").build());
+        Mockito.when(client.listShards(ListShardsRequest.builder().nextToken("next").build()))
+            .thenReturn(ListShardsResponse.builder().shards(shard("high", "200", "300", null)).build());
+
+        ShardMap loaded = ShardMap.load(client, "stream");
+
+        Assert.assertEquals(2, loaded.getShards().size());
+        Assert.assertEquals("high", loaded.shardFor("key", "250").shardId());
+    }
+
+    @Test
+    public void refreshing_AfterRefreshInterval_ShouldMapReshardedShards() {
+        List<Shard> shards = new ArrayList<>(Collections.singletonList(shard("all", "0", "300", null)));
+        long[] nanos = {0};
+        Supplier<ShardMap> refreshing = ShardMap.refreshing(new ShardDiscovery(
+            request -> ListShardsResponse.builder().shards(new ArrayList<>(shards)).build(),
+            "stream",
+            Duration.ofSeconds(10),
+            new Ticker() {
+                @Override
+                public long read() {
+                    return nanos[0];
+                }
+            }
+        ));
+        ShardMap first = refreshing.get();
+        shards.clear();
+        shards.addAll(Arrays.asList(shard("low", "0", "199", null), shard("high", "200", "300", null)));
+
+        Assert.assertSame(first, refreshing.get());
+        nanos[0] = TimeUnit.SECONDS.toNanos(10);
+        Assert.assertEquals("high", refreshing.get().shardFor("key", "250").shardId());
+    }
+
+    private static Shard shard(String id, String start, String end, String endingSequenceNumber) {
+        return Shard.builder()
+            .shardId(id)
+            .hashKeyRange(HashKeyRange.builder().startingHashKey(start).endingHashKey(end).build())
+            .sequenceNumberRange(SequenceNumberRange.builder()
+                .startingSequenceNumber("0")
+                .endingSequenceNumber(endingSequenceNumber)
+                .build())
+            .build();
+    }
+}
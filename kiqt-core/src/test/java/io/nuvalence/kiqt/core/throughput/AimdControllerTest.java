@@ -0,0 +1,63 @@
+package io.nuvalence.kiqt.core.throughput;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AimdControllerTest {
+    private AimdController controller = new AimdController(100, 10, 400, 50, 0.5);
+
+    @Test
+    public void onSuccess_ShouldIncreaseRateAdditivelyUpToMax() {
+        Assert.assertEquals(150, controller.onSuccess(), 0);
+        Assert.assertEquals(200, controller.onSuccess(), 0);
+        for (int i = 0; i < 10; i++) {
+            controller.onSuccess();
+        }
+        Assert.assertEquals(400, controller.getRate(), 0);
+    }
+
+    @Test
+    public void onThrottle_ShouldDecreaseRateMultiplicativelyDownToMin() {
+        Assert.assertEquals(50, controller.onThrottle(), 0);
+        Assert.assertEquals(25, controller.onThrottle(), 0);
+        Assert.assertEquals(12.5, controller.onThrottle(), 0);
+        Assert.assertEquals(10, controller.onThrottle(), 0);
+        Assert.assertEquals(4, controller.getThrottleEvents());
+    }
+
+    @Test
+    public void getSustainableRate_GivenNoThrottling_ShouldReturnCurrentRate() {
+        controller.onSuccess();
+
+        Assert.assertFalse(controller.isSaturated());
+        Assert.assertEquals(150, controller.getSustainableRate(), 0);
+    }
+
+    @Test
+    public void getSustainableRate_GivenThrottling_ShouldSmoothRatesAtWhichThrottlingStarted() {
+        controller.onSuccess();
+        controller.onSuccess();
+        controller.onThrottle();
+        Assert.assertEquals(200, controller.getSustainableRate(), 0);
+
+        controller.onSuccess();
+        controller.onSuccess();
+        controller.onSuccess();
+        controller.onSuccess();
+        controller.onThrottle();
+
+        Assert.assertTrue(controller.isSaturated());
+        Assert.assertEquals(150, controller.getRate(), 0);
+        Assert.assertEquals(230, controller.getSustainableRate(), 0.001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_GivenInitialRateAboveMax_ShouldThrow() {
+        new AimdController(500, 10, 400, 50, 0.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_GivenDecreaseFactorOfOne_ShouldThrow() {
+        new AimdController(100, 10, 400, 50, 1);
+    }
+}
@@ -0,0 +1,70 @@
+package io.nuvalence.kiqt.core.throughput;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.google.common.base.Ticker;
+
+public class TokenBucketTest {
+    private FakeTicker ticker = new FakeTicker();
+
+    @Test
+    public void reserve_GivenPermitsWithinCapacity_ShouldNotWait() {
+        TokenBucket bucket = new TokenBucket(10, 5, ticker);
+        Assert.assertEquals(0L, bucket.reserve(5));
+    }
+
+    @Test
+    public void reserve_GivenPermitsBeyondAvailableTokens_ShouldWaitForDebtToBeRepaid() {
+        TokenBucket bucket = new TokenBucket(10, 5, ticker);
+        bucket.reserve(5);
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(500), bucket.reserve(5));
+    }
+
+    @Test
+    public void reserve_AfterIdlePeriod_ShouldNotAccrueMoreThanCapacity() {
+        TokenBucket bucket = new TokenBucket(10, 5, ticker);
+        bucket.reserve(5);
+        ticker.advance(TimeUnit.SECONDS.toNanos(10));
+        Assert.assertEquals(0L, bucket.reserve(5));
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(100), bucket.reserve(1));
+    }
+
+    @Test
+    public void tryAcquire_GivenInsufficientTokens_ShouldNotTakeTokens() {
+        TokenBucket bucket = new TokenBucket(10, 5, ticker);
+        Assert.assertFalse(bucket.tryAcquire(6));
+        Assert.assertTrue(bucket.tryAcquire(5));
+        Assert.assertFalse(bucket.tryAcquire(1));
+        ticker.advance(TimeUnit.MILLISECONDS.toNanos(100));
+        Assert.assertTrue(bucket.tryAcquire(1));
+    }
+
+    @Test
+    public void setRate_ShouldChangeRateOfAccrual() {
+        TokenBucket bucket = new TokenBucket(10, 5, ticker);
+        bucket.reserve(5);
+        bucket.setRate(100);
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(50), bucket.reserve(5));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_GivenNonPositiveRate_ShouldThrow() {
+        new TokenBucket(0, 5, ticker);
+    }
+
+    private static class FakeTicker extends Ticker {
+        private long now;
+
+        @Override
+        public long read() {
+            return now;
+        }
+
+        void advance(long nanos) {
+            now += nanos;
+        }
+    }
+}
@@ -1,33 +1,62 @@
 package io.nuvalence.kiqt.junit;
 
+import io.nuvalence.kiqt.core.compression.Compression;
 import io.nuvalence.kiqt.core.errors.AbstractErrorModel;
+import io.nuvalence.kiqt.core.formats.DataFormat;
+import io.nuvalence.kiqt.core.inputs.AbstractPutRecordsRequestTranslator;
+import io.nuvalence.kiqt.core.inputs.AggregatingPutRecordsRequestTranslator;
+import io.nuvalence.kiqt.core.inputs.AsyncStreamWriter;
+import io.nuvalence.kiqt.core.inputs.BatchingStreamWriter;
+import io.nuvalence.kiqt.core.inputs.CompressingPutRecordsRequestTranslator;
+import io.nuvalence.kiqt.core.inputs.DataFormatPutRecordsRequestEntryTranslator;
+import io.nuvalence.kiqt.core.inputs.DeliveryStreamWriter;
 import io.nuvalence.kiqt.core.inputs.JsonPutRecordsRequestEntryTranslator;
-import io.nuvalence.kiqt.core.inputs.StreamWriter;
+import io.nuvalence.kiqt.core.inputs.ParallelPutRecordsRequestTranslator;
+import io.nuvalence.kiqt.core.inputs.PartitionStrategy;
+import io.nuvalence.kiqt.core.inputs.RecordStamper;
+import io.nuvalence.kiqt.core.inputs.StampingPutRecordsRequestTranslator;
+import io.nuvalence.kiqt.core.inputs.WriterConfiguration;
 import io.nuvalence.kiqt.core.inputs.WriterProvider;
 import io.nuvalence.kiqt.core.kda.ApplicationIOProvider;
+import io.nuvalence.kiqt.core.metrics.PipelineLatencyTracker;
 import io.nuvalence.kiqt.core.outputs.AbstractKinesisRecordTranslator;
 import io.nuvalence.kiqt.core.outputs.DefaultReaderProvider;
 import io.nuvalence.kiqt.core.outputs.JsonRecordTranslator;
 import io.nuvalence.kiqt.core.outputs.KinesisStreamReader;
+import io.nuvalence.kiqt.core.outputs.Reader;
 import io.nuvalence.kiqt.core.outputs.ReaderConfiguration;
 import io.nuvalence.kiqt.core.outputs.ReaderProvider;
 import io.nuvalence.kiqt.core.resources.AwsResource;
 import io.nuvalence.kiqt.junit.setup.InputSetup;
+import io.nuvalence.kiqt.junit.setup.MultiInputSetup;
+import io.nuvalence.kiqt.junit.soak.SoakRunner;
 import io.nuvalence.kiqt.junit.verification.OutputVerification;
 
+import software.amazon.awssdk.services.firehose.model.PutRecordBatchResponse;
+import software.amazon.awssdk.services.kinesis.KinesisClient;
 import software.amazon.awssdk.services.kinesis.model.PutRecordsResponse;
 
+import java.io.IOException;
 import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
- * Sets up a scenario for testing a streaming application.
+ * Sets up a scenario for testing a streaming application. The tool should be closed once
+ * the scenario is done, eg: in an {@code @After} method, to close the output readers it
+ * created and release what they hold, such as the consumers of enhanced fan-out readers.
  */
-public class KinesisQualityTool {
+public class KinesisQualityTool implements AutoCloseable {
     protected ApplicationIOProvider application;
     private ObjectMapper objectMapper = new ObjectMapper();
     private ReaderProvider readerProvider;
+    private boolean parallelSerialization;
+    private Compression compression = Compression.NONE;
+    private PipelineLatencyTracker latencyTracker = new PipelineLatencyTracker();
+    private final List<Reader<?>> readers = new CopyOnWriteArrayList<>();
 
     /**
      * Creates a scenario for the given application.
@@ -59,6 +88,40 @@ public class KinesisQualityTool {
         this.objectMapper = objectMapper;
     }
 
+    /**
+     * Serializes batches of input records across the common fork join pool using a
+     * {@link ParallelPutRecordsRequestTranslator}, for when json encoding rather than the
+     * network limits how fast a single test can write. Disabled by default.
+     *
+     * @param parallelSerialization true to serialize input records in parallel
+     */
+    public void setParallelSerialization(boolean parallelSerialization) {
+        this.parallelSerialization = parallelSerialization;
+    }
+
+    /**
+     * Compresses the data of input records using a {@link CompressingPutRecordsRequestTranslator},
+     * the way producers compress large documents to stay within per-shard byte quotas. Load
+     * profiles limiting bytes per second then count compressed bytes. The default reader provider
+     * detects compressed output records, see {@link ReaderConfiguration#setCompression(Compression)}.
+     *
+     * @param compression compression of input records, {@link Compression#NONE} by default
+     */
+    public void setCompression(Compression compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Gets the tracker measuring latency from stamped inputs to the outputs matching them, see
+     * {@link #theStampedInputStream(PartitionStrategy, RecordStamper)} and
+     * {@link #theStampedOutput(String, Class, Function)}.
+     *
+     * @return pipeline latency tracker
+     */
+    public PipelineLatencyTracker getLatencyTracker() {
+        return latencyTracker;
+    }
+
     /**
      * Configure {@link ReaderProvider} used to create a reader from an {@link AwsResource}.
      * Defaults to a {@link KinesisStreamReader#KinesisStreamReader(String, AbstractKinesisRecordTranslator)}
@@ -86,18 +149,197 @@ public class KinesisQualityTool {
     }
 
     /**
-     * Creates a writer the input kinesis stream using {@link StreamWriter} with
+     * Creates a writer for the input with the specified in-application stream name prefix or
+     * input id, for applications with several inputs, and initializes an {@link InputSetup}.
+     *
+     * @param <TRecord>      input record type
+     * @param <TResponse>    write response type
+     * @param nameOrId       name prefix or id of the input
+     * @param writerProvider provides a writer for the input
+     * @return set up test scenario
+     * @see ApplicationIOProvider#getInput(String)
+     */
+    public <TRecord, TResponse> InputSetup<TRecord, TResponse> theInput(
+        String nameOrId,
+        WriterProvider<TRecord, TResponse> writerProvider
+    ) {
+        return new InputSetup<>(writerProvider.get(application.getInput(nameOrId), objectMapper));
+    }
+
+    /**
+     * Creates a writer for the kinesis stream input with the specified name prefix or input id
+     * using {@link BatchingStreamWriter} with a {@link JsonPutRecordsRequestEntryTranslator}
+     * using the specified partition strategy and the configured object mapper.
+     *
+     * @param <TRecord>         input record type
+     * @param nameOrId          name prefix or id of the input
+     * @param partitionStrategy distributes records across the shards of the input stream
+     * @return set up test scenario
+     */
+    public <TRecord> InputSetup<TRecord, PutRecordsResponse> theInputStream(
+        String nameOrId,
+        PartitionStrategy<TRecord> partitionStrategy
+    ) {
+        return this.<TRecord, PutRecordsResponse>theInput(nameOrId, (resource, mapper) ->
+            new BatchingStreamWriter<>(resource.getResource(), jsonTranslator(partitionStrategy))
+        );
+    }
+
+    /**
+     * Creates a writer for the Kinesis Data Firehose delivery stream input with the specified
+     * name prefix or input id using a {@link DeliveryStreamWriter}, serializing records as json
+     * with the configured object mapper.
+     *
+     * @param <TRecord> input record type
+     * @param nameOrId  name prefix or id of the input
+     * @return set up test scenario
+     */
+    public <TRecord> InputSetup<TRecord, PutRecordBatchResponse> theDeliveryStreamInput(String nameOrId) {
+        return this.<TRecord, PutRecordBatchResponse>theInput(nameOrId, (resource, mapper) ->
+            new DeliveryStreamWriter<>(resource.getResource(), jsonTranslator(PartitionStrategy.constant("0")))
+        );
+    }
+
+    /**
+     * Initializes a {@link MultiInputSetup} for writing to several inputs at once with aligned
+     * event times. Add each input with {@link MultiInputSetup#given}, eg: created by
+     * {@link #theInputStream(String, PartitionStrategy)}.
+     *
+     * @return set up test scenario
+     */
+    public MultiInputSetup theInputs() {
+        return new MultiInputSetup();
+    }
+
+    /**
+     * Creates a writer the input kinesis stream using {@link BatchingStreamWriter} with
      * a {@link JsonPutRecordsRequestEntryTranslator}
-     * using a constant partition key and the configured object mapper.
+     * using a constant partition key and the configured object mapper. Records
+     * are split into as many requests as needed and throttled records are retried.
+     * Since every record is written to the same shard, use
+     * {@link #theInputStream(PartitionStrategy)} to spread records across a multi-shard stream.
      *
      * @param <TRecord> input record type
      * @return set up test scenario
      */
     public <TRecord> InputSetup<TRecord, PutRecordsResponse> theInputStream() {
-        return theInput((resource, mapper) -> {
-            JsonPutRecordsRequestEntryTranslator<TRecord> translator =
-                new JsonPutRecordsRequestEntryTranslator<>(objectMapper, o -> "0");
-            return new StreamWriter<>(resource.getResource(), translator);
+        return theInputStream(PartitionStrategy.constant("0"));
+    }
+
+    /**
+     * Creates a writer the input kinesis stream using {@link BatchingStreamWriter} with
+     * a {@link JsonPutRecordsRequestEntryTranslator} using the specified partition
+     * strategy and the configured object mapper.
+     *
+     * @param <TRecord>         input record type
+     * @param partitionStrategy distributes records across the shards of the input stream
+     * @return set up test scenario
+     */
+    public <TRecord> InputSetup<TRecord, PutRecordsResponse> theInputStream(
+        PartitionStrategy<TRecord> partitionStrategy
+    ) {
+        return this.<TRecord, PutRecordsResponse>theInput((resource, mapper) ->
+            new BatchingStreamWriter<>(resource.getResource(), jsonTranslator(partitionStrategy))
+        );
+    }
+
+    /**
+     * Creates a writer the input kinesis stream using {@link BatchingStreamWriter} with
+     * a {@link DataFormatPutRecordsRequestEntryTranslator}, serializing records in the
+     * specified format, such as {@link DataFormat#smile()} or {@link DataFormat#avro(String)},
+     * for applications consuming binary payloads.
+     *
+     * @param <TRecord>         input record type
+     * @param format            data format used to serialize records
+     * @param partitionStrategy distributes records across the shards of the input stream
+     * @return set up test scenario
+     */
+    public <TRecord> InputSetup<TRecord, PutRecordsResponse> theInputStream(
+        DataFormat format,
+        PartitionStrategy<TRecord> partitionStrategy
+    ) {
+        return this.<TRecord, PutRecordsResponse>theInput((resource, mapper) ->
+            new BatchingStreamWriter<>(resource.getResource(), translator(format, partitionStrategy))
+        );
+    }
+
+    /**
+     * Creates a writer for the input kinesis stream using {@link BatchingStreamWriter} with
+     * a {@link StampingPutRecordsRequestTranslator}, stamping each record with a correlation id
+     * and send time from the {@link #getLatencyTracker() latency tracker} before serializing it
+     * as json. Read outputs with {@link #theStampedOutput(String, Class, Function)} to measure
+     * latency through the application.
+     *
+     * @param <TRecord>         input record type
+     * @param partitionStrategy distributes records across the shards of the input stream
+     * @param stamper           applies a stamp to each record
+     * @return set up test scenario
+     */
+    public <TRecord> InputSetup<TRecord, PutRecordsResponse> theStampedInputStream(
+        PartitionStrategy<TRecord> partitionStrategy,
+        RecordStamper<TRecord> stamper
+    ) {
+        return this.<TRecord, PutRecordsResponse>theInput((resource, mapper) ->
+            new BatchingStreamWriter<>(
+                resource.getResource(),
+                new StampingPutRecordsRequestTranslator<>(jsonTranslator(partitionStrategy), latencyTracker, stamper)
+            )
+        );
+    }
+
+    /**
+     * Creates a pipelined writer for the input kinesis stream using {@link AsyncStreamWriter}
+     * with a {@link JsonPutRecordsRequestEntryTranslator} using a constant partition key
+     * and the configured object mapper. Pair with {@link InputSetup#givenAsync(java.util.List)}
+     * to keep writing while outputs are verified.
+     *
+     * @param <TRecord> input record type
+     * @return set up test scenario
+     */
+    public <TRecord> InputSetup<TRecord, PutRecordsResponse> theAsyncInputStream() {
+        return theAsyncInputStream(PartitionStrategy.constant("0"));
+    }
+
+    /**
+     * Creates a pipelined writer for the input kinesis stream using {@link AsyncStreamWriter}
+     * with a {@link JsonPutRecordsRequestEntryTranslator} using the specified partition
+     * strategy and the configured object mapper.
+     *
+     * @param <TRecord>         input record type
+     * @param partitionStrategy distributes records across the shards of the input stream
+     * @return set up test scenario
+     */
+    public <TRecord> InputSetup<TRecord, PutRecordsResponse> theAsyncInputStream(
+        PartitionStrategy<TRecord> partitionStrategy
+    ) {
+        return this.<TRecord, PutRecordsResponse>theInput((resource, mapper) ->
+            new AsyncStreamWriter<>(resource.getResource(), jsonTranslator(partitionStrategy))
+        );
+    }
+
+    /**
+     * Creates a writer for the input kinesis stream using {@link BatchingStreamWriter} with
+     * an {@link AggregatingPutRecordsRequestTranslator}, packing the json serialized records
+     * into KPL aggregated records the same way production producers using the KPL do, with
+     * one aggregated record per shard of the input stream.
+     *
+     * @param <TRecord>         input record type
+     * @param partitionStrategy distributes records across the shards of the input stream
+     * @return set up test scenario
+     */
+    public <TRecord> InputSetup<TRecord, PutRecordsResponse> theAggregatedInputStream(
+        PartitionStrategy<TRecord> partitionStrategy
+    ) {
+        return this.<TRecord, PutRecordsResponse>theInput((resource, mapper) -> {
+            KinesisClient client = KinesisClient.create();
+            return new BatchingStreamWriter<>(
+                client,
+                resource.getResource(),
+                new AggregatingPutRecordsRequestTranslator<>(
+                    jsonTranslator(partitionStrategy), client, resource.getResource()
+                ),
+                new WriterConfiguration()
+            );
         });
     }
 
@@ -113,7 +355,98 @@ public class KinesisQualityTool {
     public <TOutputRecord> OutputVerification<TOutputRecord> theOutput(String name,
                                                                        Class<TOutputRecord> outputRecordClass) {
         AwsResource output = application.getOutput(name);
-        return new OutputVerification<>(readerProvider.get(output, objectMapper, outputRecordClass));
+        return new OutputVerification<>(track(readerProvider.get(output, objectMapper, outputRecordClass)));
+    }
+
+    /**
+     * Creates a reader for the output and initializes an {@link OutputVerification}
+     * with the desired output type, deserializing records in the specified format.
+     *
+     * @param name              name of output
+     * @param format            data format used to deserialize records
+     * @param outputRecordClass output record class
+     * @param <TOutputRecord>   output record type
+     * @return test scenario verification phase
+     */
+    public <TOutputRecord> OutputVerification<TOutputRecord> theOutput(String name,
+                                                                       DataFormat format,
+                                                                       Class<TOutputRecord> outputRecordClass) {
+        AwsResource output = application.getOutput(name);
+        return new OutputVerification<>(track(readerProvider.get(output, format, outputRecordClass)));
+    }
+
+    /**
+     * Creates a reader for the output which matches each record back to the stamped input it
+     * was produced from, recording latency through the application in the
+     * {@link #getLatencyTracker() latency tracker}, and initializes an {@link OutputVerification}.
+     *
+     * @param name                  name of output
+     * @param outputRecordClass     output record class
+     * @param correlationIdProvider given an output record, provides the correlation id it carries
+     * @param <TOutputRecord>       output record type
+     * @return test scenario verification phase
+     */
+    public <TOutputRecord> OutputVerification<TOutputRecord> theStampedOutput(
+        String name,
+        Class<TOutputRecord> outputRecordClass,
+        Function<? super TOutputRecord, String> correlationIdProvider
+    ) {
+        AwsResource output = application.getOutput(name);
+        return new OutputVerification<>(track(readerProvider.get(
+            output, DataFormat.json(objectMapper), outputRecordClass, latencyTracker, correlationIdProvider
+        )));
+    }
+
+    /**
+     * Creates a {@link SoakRunner} writing to the input and reading the output incrementally,
+     * using the configured {@link DefaultReaderProvider}'s options with caching disabled so that
+     * memory stays bounded however long the test runs. Custom reader providers are not supported.
+     *
+     * @param input             input to write to
+     * @param name              name of output
+     * @param outputRecordClass output record class
+     * @param <TRecord>         input record type
+     * @param <TOutputRecord>   output record type
+     * @return soak runner
+     * @throws IllegalStateException if a custom reader provider is configured
+     */
+    public <TRecord, TOutputRecord> SoakRunner<TRecord, TOutputRecord> theSoakTest(
+        InputSetup<TRecord, ?> input,
+        String name,
+        Class<TOutputRecord> outputRecordClass
+    ) {
+        AwsResource output = application.getOutput(name);
+        Reader<TOutputRecord> reader =
+            track(soakReaderProvider().get(output, DataFormat.json(objectMapper), outputRecordClass));
+        return new SoakRunner<>(input, reader);
+    }
+
+    /**
+     * Creates a {@link SoakRunner} writing to a stamped input, see
+     * {@link #theStampedInputStream(PartitionStrategy, RecordStamper)}, and reading the output
+     * incrementally, including the latency through the application in each checkpoint.
+     *
+     * @param input                 stamped input to write to
+     * @param name                  name of output
+     * @param outputRecordClass     output record class
+     * @param correlationIdProvider given an output record, provides the correlation id it carries
+     * @param <TRecord>             input record type
+     * @param <TOutputRecord>       output record type
+     * @return soak runner
+     * @throws IllegalStateException if a custom reader provider is configured
+     * @see #theSoakTest(InputSetup, String, Class)
+     */
+    public <TRecord, TOutputRecord> SoakRunner<TRecord, TOutputRecord> theSoakTest(
+        InputSetup<TRecord, ?> input,
+        String name,
+        Class<TOutputRecord> outputRecordClass,
+        Function<? super TOutputRecord, String> correlationIdProvider
+    ) {
+        AwsResource output = application.getOutput(name);
+        Reader<TOutputRecord> reader = track(soakReaderProvider().get(
+            output, DataFormat.json(objectMapper), outputRecordClass, latencyTracker, correlationIdProvider
+        ));
+        return new SoakRunner<>(input, reader).withLatencyTracker(latencyTracker);
     }
 
     /**
@@ -135,4 +468,67 @@ public class KinesisQualityTool {
     public <T extends AbstractErrorModel> OutputVerification<T> theErrorOutput(Class<T> errorModelClass) {
         return theOutput("error_stream", errorModelClass);
     }
+
+    /**
+     * Closes every output reader created by the tool, stopping their polling and deregistering
+     * any stream consumers they registered. Every reader is closed even if some fail to close.
+     *
+     * @throws IOException if a reader could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (Reader<?> reader : readers) {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        readers.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private <TOutputRecord> Reader<TOutputRecord> track(Reader<TOutputRecord> reader) {
+        if (reader != null) {
+            readers.add(reader);
+        }
+        return reader;
+    }
+
+    private ReaderProvider soakReaderProvider() {
+        if (readerProvider == null || readerProvider.getClass() != DefaultReaderProvider.class) {
+            throw new IllegalStateException("soak tests read with a DefaultReaderProvider with caching disabled, "
+                + "configure one with setReaderProvider instead of " + readerProvider);
+        }
+        ReaderConfiguration configuration =
+            new ReaderConfiguration(((DefaultReaderProvider) readerProvider).getConfiguration());
+        configuration.setStartTime(Instant.now());
+        configuration.setCacheEnabled(false);
+        return new DefaultReaderProvider(configuration);
+    }
+
+    private <TRecord> AbstractPutRecordsRequestTranslator<TRecord> jsonTranslator(
+        PartitionStrategy<TRecord> partitionStrategy
+    ) {
+        return translator(DataFormat.json(objectMapper), partitionStrategy);
+    }
+
+    private <TRecord> AbstractPutRecordsRequestTranslator<TRecord> translator(
+        DataFormat format,
+        PartitionStrategy<TRecord> partitionStrategy
+    ) {
+        AbstractPutRecordsRequestTranslator<TRecord> translator =
+            new DataFormatPutRecordsRequestEntryTranslator<>(format, partitionStrategy);
+        if (compression != Compression.NONE) {
+            translator = new CompressingPutRecordsRequestTranslator<>(translator, compression);
+        }
+        return parallelSerialization ? new ParallelPutRecordsRequestTranslator<>(translator) : translator;
+    }
 }
@@ -1,10 +1,26 @@
 package io.nuvalence.kiqt.junit.setup;
 
+import io.nuvalence.kiqt.core.inputs.AsyncWriter;
 import io.nuvalence.kiqt.core.inputs.Writer;
+import io.nuvalence.kiqt.core.inputs.WriterConfiguration;
+import io.nuvalence.kiqt.core.metrics.WriteMetrics;
+import io.nuvalence.kiqt.core.metrics.WriteMetricsSnapshot;
+import io.nuvalence.kiqt.core.throughput.TokenBucket;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
 
 /**
  * Scenario lifecycle management class for setting up a scenario via an input.
@@ -13,8 +29,16 @@ import java.util.function.Consumer;
  * @param <TResponse> write response type
  */
 public class InputSetup<TRecord, TResponse> {
+    private static final double PACING_INTERVAL_SECONDS = 0.1;
+    private static final double MIN_RAMP_FRACTION = 0.01;
+
     private Writer<TRecord, TResponse> writer;
     private Consumer<TResponse> responseHandler = response -> { };
+    private Queue<CompletableFuture<Void>> pendingWrites = new ConcurrentLinkedQueue<>();
+    private Consumer<LoadReport> loadReportHandler = report -> { };
+    private ToIntFunction<TRecord> recordSizer;
+    private int batchSize = WriterConfiguration.MAX_RECORDS_PER_REQUEST;
+    private WriteMetrics metrics = new WriteMetrics();
 
     /**
      * Wraps the specified writer in the input setup test phase.
@@ -23,6 +47,29 @@ public class InputSetup<TRecord, TResponse> {
      */
     public InputSetup(Writer<TRecord, TResponse> writer) {
         this.writer = writer;
+        writer.setMetrics(metrics);
+    }
+
+    /**
+     * Gets the latency and entry outcomes recorded by the writer so far, showing whether
+     * the time spent writing went to serialization, requests or backing off from throttling.
+     * Empty if the writer does not record metrics.
+     *
+     * @return write metrics snapshot
+     * @see Writer#setMetrics(WriteMetrics)
+     */
+    public WriteMetricsSnapshot getWriteMetrics() {
+        return metrics.snapshot();
+    }
+
+    /**
+     * Discards the write metrics recorded so far, eg: after writing warm up records.
+     *
+     * @return this
+     */
+    public InputSetup<TRecord, TResponse> resetWriteMetrics() {
+        metrics.reset();
+        return this;
     }
 
     /**
@@ -59,4 +106,226 @@ public class InputSetup<TRecord, TResponse> {
         this.responseHandler.accept(writer.put(records));
         return this;
     }
+
+    /**
+     * Sets the number of records handed to the writer at a time when writing from an
+     * iterator or stream. Defaults to the maximum number of records in a put records request.
+     *
+     * @param batchSize records per batch
+     * @return this
+     */
+    public InputSetup<TRecord, TResponse> withBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batch size must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Puts input records to the input using the underlying writer, consuming the iterator
+     * lazily in batches so that arbitrarily many records can be written in constant memory.
+     * The response handler is invoked for each batch.
+     *
+     * @param records source of records to write
+     * @return this
+     * @throws IOException if unable to write the records to the input
+     */
+    public InputSetup<TRecord, TResponse> given(Iterator<TRecord> records) throws IOException {
+        writer.putAll(records, batchSize, this.responseHandler);
+        return this;
+    }
+
+    /**
+     * Puts input records to the input using the underlying writer, consuming the stream
+     * lazily in batches. The stream is closed once written.
+     *
+     * @param records stream of records to write
+     * @return this
+     * @throws IOException if unable to write the records to the input
+     * @see #given(Iterator)
+     */
+    public InputSetup<TRecord, TResponse> given(Stream<TRecord> records) throws IOException {
+        writer.putAll(records, batchSize, this.responseHandler);
+        return this;
+    }
+
+    /**
+     * Starts writing input records using the underlying writer without waiting
+     * for the write to complete, so that output verification can begin while
+     * the input is still being written. The response handler is invoked once
+     * the write completes; use {@link #thenAwaitWrites()} to wait for all
+     * pending writes and surface their errors.
+     *
+     * @param records records to write
+     * @return this
+     */
+    @SuppressWarnings("unchecked")
+    public InputSetup<TRecord, TResponse> givenAsync(List<TRecord> records) {
+        CompletableFuture<TResponse> write;
+        if (writer instanceof AsyncWriter) {
+            write = ((AsyncWriter<TRecord, TResponse>) writer).putAsync(records);
+        } else {
+            write = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return writer.put(records);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        pendingWrites.add(write.thenAccept(this.responseHandler));
+        return this;
+    }
+
+    /**
+     * Waits for all writes started by {@link #givenAsync(List)} to complete.
+     *
+     * @return this
+     * @throws IOException if any pending write failed, or the thread is interrupted while waiting
+     */
+    public InputSetup<TRecord, TResponse> thenAwaitWrites() throws IOException {
+        CompletableFuture<Void> pending;
+        while ((pending = pendingWrites.poll()) != null) {
+            try {
+                pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while awaiting pending writes");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) cause).getCause();
+                } else if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IOException("failed to write records", cause);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Provides a handler for the report produced by {@link #givenAtRate(Iterator, LoadProfile)}.
+     *
+     * @param loadReportHandler handler
+     * @return this
+     */
+    public InputSetup<TRecord, TResponse> withLoadReportHandler(Consumer<LoadReport> loadReportHandler) {
+        this.loadReportHandler = loadReportHandler;
+        return this;
+    }
+
+    /**
+     * Provides a function estimating the serialized size of a record, in bytes. Only needed
+     * to pace a {@link LoadProfile} by bytes per second with a writer that does not measure
+     * the size of the entries it serializes, see {@link WriteMetrics#getSerializedBytes()},
+     * and only used then, so records are not serialized a second time just to be sized.
+     *
+     * @param recordSizer record size function
+     * @return this
+     */
+    public InputSetup<TRecord, TResponse> withRecordSizer(ToIntFunction<TRecord> recordSizer) {
+        this.recordSizer = recordSizer;
+        return this;
+    }
+
+    /**
+     * Writes records at the rate described by the load profile, pacing each
+     * batch through a token bucket. Writing stops when the profile's duration
+     * or record limit is reached, or when the records run out. The response
+     * handler is invoked for each batch and the load report handler once writing stops.
+     *
+     * <p>Bytes are counted from the entries the writer serialized, as recorded in its
+     * {@link #getWriteMetrics() write metrics}, and the time a batch's bytes take at the
+     * target rate is waited out before the next batch is written.</p>
+     *
+     * @param records source of records, consumed lazily
+     * @param profile target load profile
+     * @return this
+     * @throws IOException          if unable to write records to the input
+     * @throws InterruptedException if interrupted while pacing
+     */
+    public InputSetup<TRecord, TResponse> givenAtRate(Iterator<TRecord> records, LoadProfile profile)
+        throws IOException, InterruptedException {
+
+        if (profile.getRecordsPerSecond() <= 0 && profile.getBytesPerSecond() <= 0) {
+            throw new IllegalArgumentException("load profile must target records or bytes per second");
+        }
+
+        double burstSeconds = Math.max(profile.getBurst().toNanos() / 1e9, PACING_INTERVAL_SECONDS);
+        TokenBucket recordBucket = bucket(profile.getRecordsPerSecond(), burstSeconds);
+        TokenBucket byteBucket = bucket(profile.getBytesPerSecond(), burstSeconds);
+        long rampNanos = profile.getRampUp().toNanos();
+        long start = System.nanoTime();
+        long deadline = profile.getDuration() == null ? Long.MAX_VALUE : start + profile.getDuration().toNanos();
+        long recordsSent = 0;
+        long bytesSent = 0;
+
+        while (records.hasNext() && recordsSent < profile.getMaxRecords() && System.nanoTime() - deadline < 0) {
+            double rampFraction = 1;
+            if (rampNanos > 0) {
+                double rampProgress = (System.nanoTime() - start) / (double) rampNanos;
+                rampFraction = Math.max(MIN_RAMP_FRACTION, Math.min(1, rampProgress));
+            }
+            int batchSize = WriterConfiguration.MAX_RECORDS_PER_REQUEST;
+            if (recordBucket != null) {
+                recordBucket.setRate(profile.getRecordsPerSecond() * rampFraction);
+                batchSize = (int) Math.max(1, Math.min(batchSize, recordBucket.getRate() * PACING_INTERVAL_SECONDS));
+            }
+            if (byteBucket != null) {
+                byteBucket.setRate(profile.getBytesPerSecond() * rampFraction);
+            }
+
+            List<TRecord> batch = new ArrayList<>(batchSize);
+            long remaining = profile.getMaxRecords() - recordsSent;
+            while (batch.size() < batchSize && batch.size() < remaining && records.hasNext()) {
+                batch.add(records.next());
+            }
+
+            if (recordBucket != null) {
+                recordBucket.acquire(batch.size());
+            }
+            long serializedBefore = metrics.getSerializedBytes();
+            this.responseHandler.accept(writer.put(batch));
+            long batchBytes = Math.max(0, metrics.getSerializedBytes() - serializedBefore);
+            if (byteBucket != null) {
+                if (batchBytes == 0) {
+                    batchBytes = sizeOf(batch);
+                }
+                // the bucket goes into debt, so the next batch waits for these bytes to be paid back
+                byteBucket.acquire(batchBytes);
+            }
+            recordsSent += batch.size();
+            bytesSent += batchBytes;
+        }
+
+        this.loadReportHandler.accept(
+            new LoadReport(profile, recordsSent, bytesSent, Duration.ofNanos(System.nanoTime() - start))
+        );
+        return this;
+    }
+
+    private long sizeOf(List<TRecord> batch) {
+        if (recordSizer == null) {
+            throw new IllegalStateException("the writer does not measure the records it writes, "
+                + "a record sizer is required to pace by bytes per second");
+        }
+        long bytes = 0;
+        for (TRecord record : batch) {
+            bytes += recordSizer.applyAsInt(record);
+        }
+        return bytes;
+    }
+
+    private static TokenBucket bucket(double ratePerSecond, double burstSeconds) {
+        if (ratePerSecond <= 0) {
+            return null;
+        }
+        return new TokenBucket(ratePerSecond, Math.max(1, ratePerSecond * burstSeconds));
+    }
 }
@@ -0,0 +1,166 @@
+package io.nuvalence.kiqt.junit.setup;
+
+import java.time.Duration;
+
+/**
+ * Describes the shape of a sustained load written to an input: a target rate
+ * in records and/or bytes per second, an optional ramp up and burst
+ * allowance, and when to stop (after a duration, a record count, or when the
+ * input runs out).
+ */
+public class LoadProfile {
+    private double recordsPerSecond;
+    private double bytesPerSecond;
+    private Duration rampUp = Duration.ZERO;
+    private Duration burst = Duration.ZERO;
+    private Duration duration;
+    private long maxRecords = Long.MAX_VALUE;
+
+    /**
+     * Creates a profile writing at a steady number of records per second.
+     *
+     * @param recordsPerSecond target records per second
+     * @return load profile
+     */
+    public static LoadProfile recordsPerSecond(double recordsPerSecond) {
+        LoadProfile profile = new LoadProfile();
+        profile.recordsPerSecond = recordsPerSecond;
+        return profile;
+    }
+
+    /**
+     * Creates a profile writing at a steady number of bytes per second, counting the bytes of the
+     * entries the writer serializes. Writers that do not measure them need a record sizer, see
+     * {@link InputSetup#withRecordSizer(java.util.function.ToIntFunction)}.
+     *
+     * @param bytesPerSecond target bytes per second
+     * @return load profile
+     */
+    public static LoadProfile bytesPerSecond(double bytesPerSecond) {
+        LoadProfile profile = new LoadProfile();
+        profile.bytesPerSecond = bytesPerSecond;
+        return profile;
+    }
+
+    /**
+     * Additionally limits the profile to the specified number of bytes per second.
+     *
+     * @param bytesPerSecond target bytes per second
+     * @return this
+     */
+    public LoadProfile andBytesPerSecond(double bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        return this;
+    }
+
+    /**
+     * Linearly increases the rate from zero to the target over the specified period.
+     *
+     * @param rampUp ramp up period
+     * @return this
+     */
+    public LoadProfile rampingUpOver(Duration rampUp) {
+        this.rampUp = rampUp;
+        return this;
+    }
+
+    /**
+     * Allows up to the specified period's worth of records to be written at
+     * once after the writer falls behind or sits idle.
+     *
+     * @param burst burst allowance
+     * @return this
+     */
+    public LoadProfile withBurstOf(Duration burst) {
+        this.burst = burst;
+        return this;
+    }
+
+    /**
+     * Stops writing after the specified period.
+     *
+     * @param duration how long to write for
+     * @return this
+     */
+    public LoadProfile forDuration(Duration duration) {
+        this.duration = duration;
+        return this;
+    }
+
+    /**
+     * Stops writing after the specified number of records.
+     *
+     * @param maxRecords number of records to write
+     * @return this
+     */
+    public LoadProfile forRecords(long maxRecords) {
+        this.maxRecords = maxRecords;
+        return this;
+    }
+
+    /**
+     * Gets the target records per second, or zero if the profile is not paced by record count.
+     *
+     * @return records per second
+     */
+    public double getRecordsPerSecond() {
+        return recordsPerSecond;
+    }
+
+    /**
+     * Gets the target bytes per second, or zero if the profile is not paced by size.
+     *
+     * @return bytes per second
+     */
+    public double getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    /**
+     * Gets the ramp up period.
+     *
+     * @return ramp up period
+     */
+    public Duration getRampUp() {
+        return rampUp;
+    }
+
+    /**
+     * Gets the burst allowance.
+     *
+     * @return burst allowance
+     */
+    public Duration getBurst() {
+        return burst;
+    }
+
+    /**
+     * Gets the period to write for, or null to write until the record limit or end of input.
+     *
+     * @return duration
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * Gets the maximum number of records to write.
+     *
+     * @return record limit
+     */
+    public long getMaxRecords() {
+        return maxRecords;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadProfile{" +
+            "recordsPerSecond=" + recordsPerSecond +
+            ", bytesPerSecond=" + bytesPerSecond +
+            ", rampUp=" + rampUp +
+            ", burst=" + burst +
+            ", duration=" + duration +
+            ", maxRecords=" + maxRecords +
+            '}';
+    }
+}
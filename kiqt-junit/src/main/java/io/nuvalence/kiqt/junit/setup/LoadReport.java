@@ -0,0 +1,98 @@
+package io.nuvalence.kiqt.junit.setup;
+
+import java.time.Duration;
+
+/**
+ * Summarizes a paced write: what was sent, how long it took, and the
+ * achieved rate compared to the {@link LoadProfile} target.
+ */
+public class LoadReport {
+    private final LoadProfile profile;
+    private final long recordsSent;
+    private final long bytesSent;
+    private final Duration elapsed;
+
+    /**
+     * Creates a report.
+     *
+     * @param profile     targeted load profile
+     * @param recordsSent number of records written
+     * @param bytesSent   number of bytes written, or zero if sizes were not measured
+     * @param elapsed     time spent writing
+     */
+    public LoadReport(LoadProfile profile, long recordsSent, long bytesSent, Duration elapsed) {
+        this.profile = profile;
+        this.recordsSent = recordsSent;
+        this.bytesSent = bytesSent;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Gets the targeted load profile.
+     *
+     * @return load profile
+     */
+    public LoadProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * Gets the number of records written.
+     *
+     * @return records sent
+     */
+    public long getRecordsSent() {
+        return recordsSent;
+    }
+
+    /**
+     * Gets the number of bytes written.
+     *
+     * @return bytes sent
+     */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * Gets the time spent writing.
+     *
+     * @return elapsed time
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Gets the achieved rate in records per second.
+     *
+     * @return records per second
+     */
+    public double getAchievedRecordsPerSecond() {
+        return perSecond(recordsSent);
+    }
+
+    /**
+     * Gets the achieved rate in bytes per second.
+     *
+     * @return bytes per second
+     */
+    public double getAchievedBytesPerSecond() {
+        return perSecond(bytesSent);
+    }
+
+    private double perSecond(long count) {
+        double seconds = elapsed.toNanos() / 1e9;
+        return seconds > 0 ? count / seconds : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "LoadReport{records=%d, bytes=%d, elapsed=%s, records/s=%.1f (target %.1f), bytes/s=%.1f (target %.1f)}",
+            recordsSent, bytesSent, elapsed,
+            getAchievedRecordsPerSecond(), profile.getRecordsPerSecond(),
+            getAchievedBytesPerSecond(), profile.getBytesPerSecond()
+        );
+    }
+}
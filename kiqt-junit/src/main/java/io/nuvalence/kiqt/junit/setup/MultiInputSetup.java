@@ -0,0 +1,188 @@
+package io.nuvalence.kiqt.junit.setup;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
+
+/**
+ * Writes to several inputs of an application at once, keeping their event times aligned,
+ * eg: to load both sides of a join at the same time. Records are written in steps of event
+ * time: every input's records for a step are written concurrently, and no input moves on to
+ * the next step until all have finished the current one. Optionally, steps are paced so that
+ * event time advances with wall clock time, replaying inputs at their recorded throughput.
+ */
+public class MultiInputSetup {
+    private final List<Feed<?>> feeds = new ArrayList<>();
+    private Duration step = Duration.ofSeconds(1);
+    private boolean realTime;
+
+    /**
+     * Adds an input to write to.
+     *
+     * @param input       writes records to the input
+     * @param records     source of records in ascending event time order, consumed lazily
+     * @param eventTimeOf given a record, provides its event time in epoch milliseconds
+     * @param <TRecord>   input record type
+     * @return this
+     */
+    public <TRecord> MultiInputSetup given(InputSetup<TRecord, ?> input, Iterator<TRecord> records,
+                                           ToLongFunction<? super TRecord> eventTimeOf) {
+        feeds.add(new Feed<>(input, records, eventTimeOf));
+        return this;
+    }
+
+    /**
+     * Sets the span of event time written to every input before any input moves on. Defaults to one second.
+     *
+     * @param step span of event time
+     * @return this
+     */
+    public MultiInputSetup inStepsOf(Duration step) {
+        if (step.toMillis() < 1) {
+            throw new IllegalArgumentException("step must be at least one millisecond: " + step);
+        }
+        this.step = step;
+        return this;
+    }
+
+    /**
+     * Paces writes so that event time advances with wall clock time from the earliest record,
+     * instead of writing every step as fast as possible.
+     *
+     * @return this
+     */
+    public MultiInputSetup inRealTime() {
+        this.realTime = true;
+        return this;
+    }
+
+    /**
+     * Writes every input's records, step by step, until all run out.
+     *
+     * @return this
+     * @throws IOException if unable to write records to an input, or interrupted while pacing
+     */
+    public MultiInputSetup write() throws IOException {
+        long stepMillis = step.toMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, feeds.size()));
+        try {
+            long origin = nextEventTime();
+            long wallStart = System.currentTimeMillis();
+            long stepStart = origin;
+            while (stepStart != Long.MAX_VALUE) {
+                if (realTime) {
+                    pace(wallStart + (stepStart - origin));
+                }
+                long stepEnd = stepStart + stepMillis;
+                List<Future<Void>> writes = new ArrayList<>(feeds.size());
+                for (Feed<?> feed : feeds) {
+                    Callable<Void> write = feed.writeUntil(stepEnd);
+                    if (write != null) {
+                        writes.add(executor.submit(write));
+                    }
+                }
+                await(writes);
+                // skip steps without records, keeping steps aligned with the earliest record
+                long next = nextEventTime();
+                stepStart = next == Long.MAX_VALUE
+                    ? next
+                    : Math.max(stepEnd, origin + (next - origin) / stepMillis * stepMillis);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return this;
+    }
+
+    private long nextEventTime() {
+        long next = Long.MAX_VALUE;
+        for (Feed<?> feed : feeds) {
+            next = Math.min(next, feed.nextEventTime());
+        }
+        return next;
+    }
+
+    private static void pace(long wallTime) throws InterruptedIOException {
+        long wait = wallTime - System.currentTimeMillis();
+        if (wait > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while pacing");
+            }
+        }
+    }
+
+    private static void await(List<Future<Void>> writes) throws IOException {
+        try {
+            for (Future<Void> write : writes) {
+                write.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while awaiting writes");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("failed to write records", cause);
+        }
+    }
+
+    /**
+     * Records of a single input, consumed one step at a time.
+     *
+     * @param <TRecord> input record type
+     */
+    private static class Feed<TRecord> {
+        private final InputSetup<TRecord, ?> input;
+        private final PeekingIterator<TRecord> records;
+        private final ToLongFunction<? super TRecord> eventTimeOf;
+
+        Feed(InputSetup<TRecord, ?> input, Iterator<TRecord> records, ToLongFunction<? super TRecord> eventTimeOf) {
+            this.input = input;
+            this.records = Iterators.peekingIterator(records);
+            this.eventTimeOf = eventTimeOf;
+        }
+
+        long nextEventTime() {
+            return records.hasNext() ? eventTimeOf.applyAsLong(records.peek()) : Long.MAX_VALUE;
+        }
+
+        Callable<Void> writeUntil(long eventTime) {
+            List<TRecord> batch = new ArrayList<>();
+            while (records.hasNext() && eventTimeOf.applyAsLong(records.peek()) < eventTime) {
+                batch.add(records.next());
+            }
+            if (batch.isEmpty()) {
+                return null;
+            }
+            return () -> {
+                input.given(batch);
+                return null;
+            };
+        }
+    }
+}
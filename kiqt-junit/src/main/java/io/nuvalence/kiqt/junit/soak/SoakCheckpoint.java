@@ -0,0 +1,175 @@
+package io.nuvalence.kiqt.junit.soak;
+
+import io.nuvalence.kiqt.core.metrics.PipelineLatencySnapshot;
+import io.nuvalence.kiqt.core.metrics.WriteMetricsSnapshot;
+
+import java.time.Duration;
+
+/**
+ * Throughput, latency and error rate of a soak test over the interval since the previous
+ * checkpoint, along with running totals, so that throughput decay or growing latency in a
+ * long-lived application shows up as a trend across checkpoints.
+ */
+public class SoakCheckpoint {
+    private final int index;
+    private final Duration elapsed;
+    private final Duration interval;
+    private final long recordsWritten;
+    private final long outputsRead;
+    private final long totalRecordsWritten;
+    private final long totalOutputsRead;
+    private final WriteMetricsSnapshot writeMetrics;
+    private final PipelineLatencySnapshot latency;
+
+    /**
+     * Creates a checkpoint.
+     *
+     * @param index               position of the checkpoint, starting from zero
+     * @param elapsed             time since the soak test started
+     * @param interval            time since the previous checkpoint
+     * @param recordsWritten      number of input records written during the interval
+     * @param outputsRead         number of output records read during the interval
+     * @param totalRecordsWritten number of input records written since the soak test started
+     * @param totalOutputsRead    number of output records read since the soak test started
+     * @param writeMetrics        write latencies and entry outcomes during the interval
+     * @param latency             latency through the application during the interval, or null if not tracked
+     */
+    public SoakCheckpoint(int index, Duration elapsed, Duration interval, long recordsWritten, long outputsRead,
+                          long totalRecordsWritten, long totalOutputsRead, WriteMetricsSnapshot writeMetrics,
+                          PipelineLatencySnapshot latency) {
+        this.index = index;
+        this.elapsed = elapsed;
+        this.interval = interval;
+        this.recordsWritten = recordsWritten;
+        this.outputsRead = outputsRead;
+        this.totalRecordsWritten = totalRecordsWritten;
+        this.totalOutputsRead = totalOutputsRead;
+        this.writeMetrics = writeMetrics;
+        this.latency = latency;
+    }
+
+    /**
+     * Gets the position of the checkpoint, starting from zero.
+     *
+     * @return index
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the time since the soak test started.
+     *
+     * @return elapsed time
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Gets the time since the previous checkpoint.
+     *
+     * @return interval
+     */
+    public Duration getInterval() {
+        return interval;
+    }
+
+    /**
+     * Gets the number of input records written during the interval.
+     *
+     * @return records written
+     */
+    public long getRecordsWritten() {
+        return recordsWritten;
+    }
+
+    /**
+     * Gets the number of output records read during the interval.
+     *
+     * @return outputs read
+     */
+    public long getOutputsRead() {
+        return outputsRead;
+    }
+
+    /**
+     * Gets the number of input records written since the soak test started.
+     *
+     * @return total records written
+     */
+    public long getTotalRecordsWritten() {
+        return totalRecordsWritten;
+    }
+
+    /**
+     * Gets the number of output records read since the soak test started.
+     *
+     * @return total outputs read
+     */
+    public long getTotalOutputsRead() {
+        return totalOutputsRead;
+    }
+
+    /**
+     * Gets the rate input records were written at during the interval.
+     *
+     * @return records per second
+     */
+    public double getInputPerSecond() {
+        return perSecond(recordsWritten);
+    }
+
+    /**
+     * Gets the rate output records were read at during the interval.
+     *
+     * @return records per second
+     */
+    public double getOutputPerSecond() {
+        return perSecond(outputsRead);
+    }
+
+    /**
+     * Gets the write latencies and entry outcomes recorded during the interval.
+     *
+     * @return write metrics
+     */
+    public WriteMetricsSnapshot getWriteMetrics() {
+        return writeMetrics;
+    }
+
+    /**
+     * Gets the fraction of entries written during the interval that failed for reasons other than throttling.
+     *
+     * @return error rate, between 0 and 1
+     */
+    public double getErrorRate() {
+        long attempts = writeMetrics.getSuccessfulEntries() + writeMetrics.getThrottledEntries()
+            + writeMetrics.getFailedEntries();
+        return attempts == 0 ? 0 : writeMetrics.getFailedEntries() / (double) attempts;
+    }
+
+    /**
+     * Gets the latency through the application of outputs matched during the interval.
+     *
+     * @return pipeline latency, or null if latency was not tracked
+     */
+    public PipelineLatencySnapshot getLatency() {
+        return latency;
+    }
+
+    private double perSecond(long count) {
+        double seconds = interval.toNanos() / 1e9;
+        return seconds > 0 ? count / seconds : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "SoakCheckpoint{index=%d, elapsed=%s, input/s=%.1f, output/s=%.1f, written=%d, read=%d, "
+                + "throttled=%.4f, errors=%.4f, latency=%s}",
+            index, elapsed, getInputPerSecond(), getOutputPerSecond(), totalRecordsWritten, totalOutputsRead,
+            writeMetrics.getThrottledFraction(), getErrorRate(), latency
+        );
+    }
+}
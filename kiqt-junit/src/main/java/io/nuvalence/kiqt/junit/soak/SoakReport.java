@@ -0,0 +1,68 @@
+package io.nuvalence.kiqt.junit.soak;
+
+import io.nuvalence.kiqt.junit.setup.LoadReport;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Summarizes a soak test: the load written and the checkpoints taken along the way.
+ */
+public class SoakReport {
+    private final LoadReport loadReport;
+    private final List<SoakCheckpoint> checkpoints;
+
+    /**
+     * Creates a report.
+     *
+     * @param loadReport  summary of the load written
+     * @param checkpoints checkpoints taken, in order
+     */
+    public SoakReport(LoadReport loadReport, List<SoakCheckpoint> checkpoints) {
+        this.loadReport = loadReport;
+        this.checkpoints = Collections.unmodifiableList(checkpoints);
+    }
+
+    /**
+     * Gets the summary of the load written.
+     *
+     * @return load report
+     */
+    public LoadReport getLoadReport() {
+        return loadReport;
+    }
+
+    /**
+     * Gets the checkpoints taken, in order.
+     *
+     * @return checkpoints
+     */
+    public List<SoakCheckpoint> getCheckpoints() {
+        return checkpoints;
+    }
+
+    /**
+     * Gets the number of output records read over the whole soak test.
+     *
+     * @return total outputs read
+     */
+    public long getTotalOutputsRead() {
+        return checkpoints.isEmpty() ? 0 : checkpoints.get(checkpoints.size() - 1).getTotalOutputsRead();
+    }
+
+    /**
+     * Gets the highest output rate of any checkpoint, to compare later checkpoints against
+     * when looking for throughput decay.
+     *
+     * @return records per second
+     */
+    public double getPeakOutputPerSecond() {
+        return checkpoints.stream().mapToDouble(SoakCheckpoint::getOutputPerSecond).max().orElse(0);
+    }
+
+    @Override
+    public String toString() {
+        return "SoakReport{load=" + loadReport + ", checkpoints=" + checkpoints.size()
+            + ", outputs=" + getTotalOutputsRead() + "}";
+    }
+}
@@ -0,0 +1,262 @@
+package io.nuvalence.kiqt.junit.soak;
+
+import io.nuvalence.kiqt.core.metrics.PipelineLatencySnapshot;
+import io.nuvalence.kiqt.core.metrics.PipelineLatencyTracker;
+import io.nuvalence.kiqt.core.metrics.WriteMetricsSnapshot;
+import io.nuvalence.kiqt.core.outputs.OutputCache;
+import io.nuvalence.kiqt.core.outputs.Reader;
+import io.nuvalence.kiqt.junit.setup.InputSetup;
+import io.nuvalence.kiqt.junit.setup.LoadProfile;
+import io.nuvalence.kiqt.junit.setup.LoadReport;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Runs a soak test: keeps input flowing at the rate of a {@link LoadProfile} for as long
+ * as it describes, possibly hours, while periodically reading the output written since the
+ * previous checkpoint, handing it to a verifier and reporting a {@link SoakCheckpoint} of the
+ * throughput, latency and error rate over the interval.
+ *
+ * <p>Unlike {@link io.nuvalence.kiqt.junit.verification.OutputVerification}, output records
+ * are never accumulated: the output reader must return only the records read since its previous
+ * call, eg: a reader that is not wrapped in an {@link OutputCache}, and the verifier sees each
+ * record once. Input records are consumed lazily, eg: from a
+ * {@link io.nuvalence.kiqt.core.generators.DataGenerator}, so memory stays bounded however long
+ * the test runs. Write metrics, and pipeline latency if tracked, are reset at every checkpoint.</p>
+ *
+ * @param <TInput>  input record type
+ * @param <TOutput> output record type
+ */
+public class SoakRunner<TInput, TOutput> {
+    private final InputSetup<TInput, ?> input;
+    private final Reader<TOutput> output;
+    private Duration checkpointInterval = Duration.ofMinutes(1);
+    private Duration drainPeriod = Duration.ZERO;
+    private PipelineLatencyTracker latencyTracker;
+    private Consumer<List<TOutput>> verifier = outputs -> { };
+    private Consumer<SoakCheckpoint> checkpointHandler = checkpoint -> { };
+
+    /**
+     * Creates a soak runner.
+     *
+     * @param input  writes input records to the application
+     * @param output reads the output records written since its previous call
+     */
+    public SoakRunner(InputSetup<TInput, ?> input, Reader<TOutput> output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    /**
+     * Sets how often output is verified and checkpoints are taken. Defaults to one minute.
+     *
+     * @param checkpointInterval checkpoint interval
+     * @return this
+     */
+    public SoakRunner<TInput, TOutput> withCheckpointInterval(Duration checkpointInterval) {
+        if (checkpointInterval.isNegative() || checkpointInterval.isZero()) {
+            throw new IllegalArgumentException("checkpoint interval must be positive: " + checkpointInterval);
+        }
+        this.checkpointInterval = checkpointInterval;
+        return this;
+    }
+
+    /**
+     * Keeps reading output for the specified period once input stops, so that records still in
+     * flight through the application are verified. Defaults to zero.
+     *
+     * @param drainPeriod drain period
+     * @return this
+     */
+    public SoakRunner<TInput, TOutput> withDrainPeriod(Duration drainPeriod) {
+        this.drainPeriod = drainPeriod;
+        return this;
+    }
+
+    /**
+     * Includes the latency through the application, measured by the specified tracker, in each checkpoint.
+     * The input must stamp records and the output match them, see
+     * {@link io.nuvalence.kiqt.junit.KinesisQualityTool#getLatencyTracker()}.
+     *
+     * @param latencyTracker pipeline latency tracker
+     * @return this
+     */
+    public SoakRunner<TInput, TOutput> withLatencyTracker(PipelineLatencyTracker latencyTracker) {
+        this.latencyTracker = latencyTracker;
+        return this;
+    }
+
+    /**
+     * Provides the verifier handed the output records read at each checkpoint, which have not
+     * been seen by it before. Any error it throws stops the soak test and is rethrown.
+     *
+     * @param verifier verifier of output records
+     * @return this
+     */
+    public SoakRunner<TInput, TOutput> verifying(Consumer<List<TOutput>> verifier) {
+        this.verifier = verifier;
+        return this;
+    }
+
+    /**
+     * Provides a handler for each checkpoint, eg: to log it or assert that throughput has not decayed.
+     * Any error it throws stops the soak test and is rethrown.
+     *
+     * @param checkpointHandler checkpoint handler
+     * @return this
+     */
+    public SoakRunner<TInput, TOutput> withCheckpointHandler(Consumer<SoakCheckpoint> checkpointHandler) {
+        this.checkpointHandler = checkpointHandler;
+        return this;
+    }
+
+    /**
+     * Writes records at the rate described by the load profile on a background thread,
+     * taking a checkpoint at every interval until writing stops and the drain period elapses.
+     * Replaces the load report handler of the input.
+     *
+     * @param records source of records, consumed lazily
+     * @param profile target load profile, whose duration or record limit determines how long the test runs
+     * @return report of the soak test
+     * @throws IOException          if unable to write or read records
+     * @throws InterruptedException if interrupted while running
+     */
+    public SoakReport run(Iterator<TInput> records, LoadProfile profile) throws IOException, InterruptedException {
+        AtomicLong written = new AtomicLong();
+        AtomicReference<LoadReport> loadReport = new AtomicReference<>();
+        Iterator<TInput> counted = new Iterator<TInput>() {
+            @Override
+            public boolean hasNext() {
+                return records.hasNext();
+            }
+
+            @Override
+            public TInput next() {
+                TInput record = records.next();
+                written.incrementAndGet();
+                return record;
+            }
+        };
+        input.withLoadReportHandler(loadReport::set);
+        input.resetWriteMetrics();
+        if (latencyTracker != null) {
+            latencyTracker.reset();
+        }
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> writing = executor.submit(() -> {
+            input.givenAtRate(counted, profile);
+            return null;
+        });
+        try {
+            List<SoakCheckpoint> checkpoints = new ArrayList<>();
+            long start = System.nanoTime();
+            long previous = start;
+            long previousWritten = 0;
+            long totalOutputs = 0;
+            boolean draining = false;
+            long drainDeadline = 0;
+            while (true) {
+                long next = previous + checkpointInterval.toNanos();
+                if (!draining && awaitWrites(writing, next - System.nanoTime())) {
+                    draining = true;
+                    drainDeadline = System.nanoTime() + drainPeriod.toNanos();
+                }
+                if (draining) {
+                    sleepUntil(next - drainDeadline < 0 ? next : drainDeadline);
+                }
+
+                List<TOutput> outputs = output.getRecords();
+                verifier.accept(outputs);
+                long now = System.nanoTime();
+                long totalWritten = written.get();
+                totalOutputs += outputs.size();
+                SoakCheckpoint checkpoint = new SoakCheckpoint(
+                    checkpoints.size(),
+                    Duration.ofNanos(now - start),
+                    Duration.ofNanos(now - previous),
+                    totalWritten - previousWritten,
+                    outputs.size(),
+                    totalWritten,
+                    totalOutputs,
+                    writeMetrics(),
+                    latency()
+                );
+                checkpoints.add(checkpoint);
+                checkpointHandler.accept(checkpoint);
+                previous = now;
+                previousWritten = totalWritten;
+                if (draining && now - drainDeadline >= 0) {
+                    return new SoakReport(loadReport.get(), checkpoints);
+                }
+            }
+        } finally {
+            writing.cancel(true);
+            executor.shutdownNow();
+        }
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    private WriteMetricsSnapshot writeMetrics() {
+        WriteMetricsSnapshot snapshot = input.getWriteMetrics();
+        input.resetWriteMetrics();
+        return snapshot;
+    }
+
+    private PipelineLatencySnapshot latency() {
+        if (latencyTracker == null) {
+            return null;
+        }
+        PipelineLatencySnapshot snapshot = latencyTracker.snapshot();
+        latencyTracker.reset();
+        return snapshot;
+    }
+
+    /**
+     * Waits for writing to stop, rethrowing any error it stopped with.
+     *
+     * @return true if writing stopped, false if the timeout elapsed first
+     */
+    private static boolean awaitWrites(Future<?> writing, long timeoutNanos) throws IOException, InterruptedException {
+        try {
+            writing.get(Math.max(0, timeoutNanos), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("failed to write records", cause);
+        }
+    }
+}
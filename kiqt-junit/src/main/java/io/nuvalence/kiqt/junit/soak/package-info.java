@@ -0,0 +1,5 @@
+/**
+ * Run long-lived soak tests, verifying output and reporting checkpoints as input keeps flowing.
+ */
+
+package io.nuvalence.kiqt.junit.soak;
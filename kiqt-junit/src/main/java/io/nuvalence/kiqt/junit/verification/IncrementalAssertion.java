@@ -0,0 +1,238 @@
+package io.nuvalence.kiqt.junit.verification;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Assertion evaluated one record at a time as records arrive, rather than against every
+ * record of the output on each poll. Each assertion keeps its own state, so the cost of
+ * polling an output is proportional to the records that are new, and reports its progress
+ * towards being satisfied.
+ *
+ * <p>An assertion is pending until it is satisfied. Some assertions, such as
+ * {@link #noneMatch(String, Predicate)}, can also be violated by a record, after which
+ * waiting for more records cannot make them pass.</p>
+ *
+ * <p>Assertions that records never arrive, such as {@link #noneMatch(String, Predicate)} and
+ * {@link #allMatch(String, Predicate)}, are satisfied before any record is seen. They are
+ * {@linkplain #isHeldUntilTimeout() held until the timeout}, so that an output verified within
+ * a timeout is watched for the whole timeout, and passes only if no record violated it by then.</p>
+ *
+ * @param <T> record type
+ * @see OutputVerification#should(IncrementalAssertion)
+ */
+public abstract class IncrementalAssertion<T> {
+
+    /**
+     * Consumes a record that arrived since the previous poll.
+     *
+     * @param record new record
+     */
+    public abstract void accept(T record);
+
+    /**
+     * Gets whether the records consumed so far satisfy the assertion.
+     *
+     * @return true if satisfied
+     */
+    public abstract boolean isSatisfied();
+
+    /**
+     * Gets whether a record consumed so far violates the assertion, such that no further
+     * records can satisfy it.
+     *
+     * @return true if violated
+     */
+    public boolean isViolated() {
+        return false;
+    }
+
+    /**
+     * Gets whether the assertion must hold until the timeout rather than being satisfied as
+     * soon as it holds, eg: because it is satisfied before any record is seen.
+     *
+     * @return true if the assertion is held until the timeout
+     */
+    public boolean isHeldUntilTimeout() {
+        return false;
+    }
+
+    /**
+     * Describes progress towards satisfying the assertion, eg: "412 of 10,000 expected records seen".
+     *
+     * @return progress description
+     */
+    public abstract String describeProgress();
+
+    /**
+     * Asserts that every expected record arrives, each as many times as it is expected.
+     *
+     * @param expected expected records
+     * @param <T>      record type
+     * @return assertion
+     */
+    public static <T> IncrementalAssertion<T> containsAll(Collection<? extends T> expected) {
+        Map<T, Integer> outstanding = new HashMap<>();
+        expected.forEach(record -> outstanding.merge(record, 1, Integer::sum));
+        int total = expected.size();
+
+        return new IncrementalAssertion<T>() {
+            private int seen;
+
+            @Override
+            public void accept(T record) {
+                Integer count = outstanding.get(record);
+                if (count == null) {
+                    return;
+                }
+                seen++;
+                if (count == 1) {
+                    outstanding.remove(record);
+                } else {
+                    outstanding.put(record, count - 1);
+                }
+            }
+
+            @Override
+            public boolean isSatisfied() {
+                return outstanding.isEmpty();
+            }
+
+            @Override
+            public String describeProgress() {
+                return format("%,d of %,d expected records seen", seen, total);
+            }
+        };
+    }
+
+    /**
+     * Asserts that no record matches a predicate. Violated as soon as a matching record arrives,
+     * otherwise held until the timeout, and satisfied even if no record arrives.
+     *
+     * @param description describes the records that must not arrive
+     * @param predicate   matches records that must not arrive
+     * @param <T>         record type
+     * @return assertion
+     */
+    public static <T> IncrementalAssertion<T> noneMatch(String description, Predicate<? super T> predicate) {
+        return new IncrementalAssertion<T>() {
+            private long seen;
+            private T match;
+
+            @Override
+            public void accept(T record) {
+                seen++;
+                if (match == null && predicate.test(record)) {
+                    match = record;
+                }
+            }
+
+            @Override
+            public boolean isSatisfied() {
+                return match == null;
+            }
+
+            @Override
+            public boolean isViolated() {
+                return match != null;
+            }
+
+            @Override
+            public boolean isHeldUntilTimeout() {
+                return true;
+            }
+
+            @Override
+            public String describeProgress() {
+                return match == null
+                    ? format("none of %,d records seen are %s", seen, description)
+                    : format("record %s is %s", match, description);
+            }
+        };
+    }
+
+    /**
+     * Asserts that every record matches a predicate. Violated as soon as a record that does not match arrives,
+     * otherwise held until the timeout, and satisfied even if no record arrives. Also verify
+     * {@link #countAtLeast(String, Predicate, long)} to require records to arrive.
+     *
+     * @param description describes the records expected
+     * @param predicate   matches records expected
+     * @param <T>         record type
+     * @return assertion
+     */
+    public static <T> IncrementalAssertion<T> allMatch(String description, Predicate<? super T> predicate) {
+        IncrementalAssertion<T> mismatches = noneMatch("not " + description, predicate.negate());
+        return new IncrementalAssertion<T>() {
+            private long seen;
+
+            @Override
+            public void accept(T record) {
+                seen++;
+                mismatches.accept(record);
+            }
+
+            @Override
+            public boolean isSatisfied() {
+                return mismatches.isSatisfied();
+            }
+
+            @Override
+            public boolean isViolated() {
+                return mismatches.isViolated();
+            }
+
+            @Override
+            public boolean isHeldUntilTimeout() {
+                return true;
+            }
+
+            @Override
+            public String describeProgress() {
+                return isViolated()
+                    ? mismatches.describeProgress()
+                    : format("all of %,d records seen are %s", seen, description);
+            }
+        };
+    }
+
+    /**
+     * Asserts that at least a number of records match a predicate.
+     *
+     * @param description describes the records counted
+     * @param predicate   matches records counted
+     * @param count       minimum number of matching records
+     * @param <T>         record type
+     * @return assertion
+     */
+    public static <T> IncrementalAssertion<T> countAtLeast(String description, Predicate<? super T> predicate,
+                                                           long count) {
+        return new IncrementalAssertion<T>() {
+            private long matched;
+
+            @Override
+            public void accept(T record) {
+                if (predicate.test(record)) {
+                    matched++;
+                }
+            }
+
+            @Override
+            public boolean isSatisfied() {
+                return matched >= count;
+            }
+
+            @Override
+            public String describeProgress() {
+                return format("%,d of at least %,d records seen are %s", matched, count, description);
+            }
+        };
+    }
+
+    private static String format(String format, Object... args) {
+        return String.format(Locale.ROOT, format, args);
+    }
+}
@@ -1,25 +1,43 @@
 package io.nuvalence.kiqt.junit.verification;
 
+import io.nuvalence.kiqt.core.outputs.AppendOnlyLog;
+import io.nuvalence.kiqt.core.outputs.ArrivalNotifyingReader;
+import io.nuvalence.kiqt.core.outputs.ArrivalSignal;
+import io.nuvalence.kiqt.core.outputs.CursorReader;
 import io.nuvalence.kiqt.core.outputs.Reader;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.junit.Assert;
 import org.junit.rules.ErrorCollector;
 
 import org.awaitility.Awaitility;
 import org.awaitility.Duration;
+import org.awaitility.core.ConditionTimeoutException;
 import org.hamcrest.Matcher;
 
 /**
  * Wraps an output for performing assertions.
  *
+ * <p>Assertions with a timeout are retried until they succeed. If the output signals the
+ * arrival of records, eg: an {@link io.nuvalence.kiqt.core.outputs.OutputCache}, they are
+ * retried as soon as records arrive and not otherwise, rather than polled at a fixed interval.
+ * While waiting, the output is asked to check for new records every 200ms rather than at its
+ * own, possibly much longer, refresh interval.</p>
+ *
  * @param <TOutput> output record type
  */
 public class OutputVerification<TOutput> {
+    // matches the rate at which a stream reader may call GetRecords on each shard
+    private static final long REFRESH_REQUEST_MILLIS = 200L;
+
     private Reader<TOutput> output;
     private ErrorCollector collector;
     private Long timeout;
@@ -96,6 +114,17 @@ public class OutputVerification<TOutput> {
         try {
             if (timeout == null) {
                 consumer.accept(output.getRecords());
+            } else if (output instanceof ArrivalNotifyingReader) {
+                AssertionError[] lastError = new AssertionError[1];
+                awaitArrivals(() -> {
+                    try {
+                        consumer.accept(output.getRecords());
+                        return true;
+                    } catch (AssertionError e) {
+                        lastError[0] = e;
+                        return false;
+                    }
+                }, () -> lastError[0].getMessage());
             } else {
                 Awaitility.await().atMost(timeout, TimeUnit.MILLISECONDS)
                     .untilAsserted(() -> consumer.accept(output.getRecords()));
@@ -110,4 +139,112 @@ public class OutputVerification<TOutput> {
         return this;
     }
 
+    /**
+     * Asserts incrementally on the output, so that each poll only evaluates the records that
+     * arrived since the previous one. Records are read with a cursor when the output is a
+     * {@link CursorReader}, otherwise the output must return only new records on each read,
+     * eg: a reader that is not cached. Fails as soon as the assertion is violated rather than
+     * waiting for the timeout, and reports the assertion's progress on failure. Assertions that
+     * are {@linkplain IncrementalAssertion#isHeldUntilTimeout() held until the timeout}, eg:
+     * {@link IncrementalAssertion#noneMatch(String, java.util.function.Predicate)}, are evaluated
+     * for the whole timeout and pass only if they are still satisfied once it elapses.
+     *
+     * @param assertion incremental assertion, which should not be reused
+     * @return this
+     * @throws IOException on error retrieving output records
+     */
+    public OutputVerification<TOutput> should(IncrementalAssertion<? super TOutput> assertion) throws IOException {
+        AppendOnlyLog.Cursor<TOutput> cursor = output instanceof CursorReader
+            ? ((CursorReader<TOutput>) output).cursor()
+            : null;
+        try {
+            if (timeout == null) {
+                if (!poll(assertion, cursor)) {
+                    throw new AssertionError("assertion not satisfied: " + assertion.describeProgress());
+                }
+            } else {
+                boolean heldUntilTimeout = assertion.isHeldUntilTimeout();
+                try {
+                    if (output instanceof ArrivalNotifyingReader) {
+                        awaitArrivals(() -> poll(assertion, cursor) && !heldUntilTimeout, assertion::describeProgress);
+                    } else {
+                        Awaitility.await().atMost(timeout, TimeUnit.MILLISECONDS)
+                            .until(() -> poll(assertion, cursor) && !heldUntilTimeout);
+                    }
+                } catch (ConditionTimeoutException e) {
+                    // records that arrived since the last poll are evaluated before passing
+                    if (!heldUntilTimeout || !poll(assertion, cursor)) {
+                        throw new ConditionTimeoutException("assertion not satisfied within " + timeout + "ms: "
+                            + assertion.describeProgress());
+                    }
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (Throwable t) {
+            if (collector != null) {
+                collector.addError(t);
+            } else {
+                throw t;
+            }
+        }
+        return this;
+    }
+
+    private boolean poll(IncrementalAssertion<? super TOutput> assertion, AppendOnlyLog.Cursor<TOutput> cursor) {
+        List<TOutput> records;
+        try {
+            records = cursor == null ? output.getRecords() : cursor.next();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (TOutput record : records) {
+            assertion.accept(record);
+            if (assertion.isViolated()) {
+                throw new AssertionError("assertion violated: " + assertion.describeProgress());
+            }
+        }
+        return assertion.isSatisfied();
+    }
+
+    /**
+     * Evaluates a condition, then again each time records arrive, until it holds or the timeout elapses.
+     */
+    private void awaitArrivals(Condition condition, Supplier<String> progress) throws IOException {
+        ArrivalNotifyingReader<TOutput> reader = (ArrivalNotifyingReader<TOutput>) output;
+        ArrivalSignal arrivals = reader.getArrivalSignal();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while (true) {
+            // read before evaluating, so that records arriving during evaluation are not missed
+            long version = arrivals.getVersion();
+            if (condition.evaluate()) {
+                return;
+            }
+            try {
+                boolean arrived = false;
+                while (!arrived) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new ConditionTimeoutException("assertion not satisfied within " + timeout + "ms: "
+                            + progress.get());
+                    }
+                    // check for records now rather than at the reader's next scheduled read
+                    reader.requestRefresh();
+                    arrived = arrivals.awaitChange(version,
+                        Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(REFRESH_REQUEST_MILLIS)),
+                        TimeUnit.NANOSECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while awaiting output records");
+            }
+        }
+    }
+
+    /**
+     * Condition on the output records.
+     */
+    private interface Condition {
+        boolean evaluate() throws IOException;
+    }
 }
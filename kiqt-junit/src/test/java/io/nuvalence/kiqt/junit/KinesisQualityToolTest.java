@@ -1,14 +1,18 @@
 package io.nuvalence.kiqt.junit;
 
 import io.nuvalence.kiqt.core.errors.AbstractErrorModel;
+import io.nuvalence.kiqt.core.formats.DataFormat;
 import io.nuvalence.kiqt.core.inputs.Writer;
 import io.nuvalence.kiqt.core.inputs.WriterProvider;
 import io.nuvalence.kiqt.core.kda.ApplicationIOProvider;
+import io.nuvalence.kiqt.core.metrics.PipelineLatencyTracker;
 import io.nuvalence.kiqt.core.outputs.Reader;
 import io.nuvalence.kiqt.core.outputs.ReaderProvider;
 import io.nuvalence.kiqt.core.resources.AwsResource;
 
+import java.io.IOException;
 import java.util.UUID;
+import java.util.function.Function;
 
 import org.junit.Test;
 
@@ -76,6 +80,56 @@ public class KinesisQualityToolTest {
         Mockito.verify(providerSpy).get(mockOutput, mockObjectMapper, AbstractErrorModel.class);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void theStampedOutput_GivenReaderProvider_ShouldReadWithLatencyTracker() {
+        FakeReaderProvider providerSpy = Mockito.spy(new FakeReaderProvider());
+        AwsResource mockOutput = Mockito.mock(AwsResource.class);
+        String outputName = UUID.randomUUID().toString();
+
+        Mockito.when(mockDetails.getOutput(outputName)).thenReturn(mockOutput);
+
+        scenario.setReaderProvider(providerSpy);
+        scenario.theStampedOutput(outputName, String.class, value -> value);
+
+        Mockito.verify(mockDetails).getOutput(outputName);
+        Mockito.verify(providerSpy).get(
+            Mockito.eq(mockOutput),
+            Mockito.any(DataFormat.class),
+            Mockito.eq(String.class),
+            Mockito.eq(scenario.getLatencyTracker()),
+            Mockito.any(Function.class)
+        );
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void theSoakTest_GivenCustomReaderProvider_ShouldFail() {
+        String outputName = UUID.randomUUID().toString();
+        Mockito.when(mockDetails.getOutput(outputName)).thenReturn(Mockito.mock(AwsResource.class));
+
+        scenario.setReaderProvider(new FakeReaderProvider());
+        scenario.theSoakTest(null, outputName, String.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void close_ShouldCloseOutputReaders() throws IOException {
+        ReaderProvider mockProvider = Mockito.mock(ReaderProvider.class);
+        Reader<String> mockReader = Mockito.mock(Reader.class);
+        AwsResource mockOutput = Mockito.mock(AwsResource.class);
+        String outputName = UUID.randomUUID().toString();
+
+        Mockito.when(mockDetails.getOutput(outputName)).thenReturn(mockOutput);
+        Mockito.when(mockProvider.get(mockOutput, mockObjectMapper, String.class)).thenReturn(mockReader);
+
+        scenario.setReaderProvider(mockProvider);
+        scenario.theOutput(outputName, String.class);
+        scenario.close();
+        scenario.close();
+
+        Mockito.verify(mockReader).close();
+    }
+
     private static class FakeWriterProvider implements WriterProvider<String, String> {
         @Override
         public Writer<String, String> get(AwsResource resource, ObjectMapper mapper) {
@@ -88,6 +142,13 @@ public class KinesisQualityToolTest {
         public <TOutput> Reader<TOutput> get(AwsResource resource, ObjectMapper mapper, Class<TOutput> recordType) {
             return null;
         }
+
+        @Override
+        public <TOutput> Reader<TOutput> get(AwsResource resource, DataFormat format, Class<TOutput> recordType,
+                                             PipelineLatencyTracker tracker,
+                                             Function<? super TOutput, String> correlationIdProvider) {
+            return null;
+        }
     }
 
 }
@@ -1,11 +1,20 @@
 package io.nuvalence.kiqt.junit.setup;
 
+import io.nuvalence.kiqt.core.inputs.AsyncWriter;
 import io.nuvalence.kiqt.core.inputs.Writer;
+import io.nuvalence.kiqt.core.metrics.WriteMetrics;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -37,6 +46,38 @@ public class InputSetupTest {
         Assert.assertEquals(records.toString(), result.get());
     }
 
+    @Test
+    public void given_GivenIterator_ShouldWriteInBatchesOfMaxRequestSize() throws IOException {
+        List<Integer> batchSizes = new ArrayList<>();
+        Writer<String, Integer> writer = List::size;
+
+        new InputSetup<>(writer)
+            .withResponseHandler(batchSizes::add)
+            .given(IntStream.range(0, 1200).mapToObj(String::valueOf).iterator());
+
+        Assert.assertEquals(ImmutableList.of(500, 500, 200), batchSizes);
+    }
+
+    @Test
+    public void given_GivenStreamAndBatchSize_ShouldWriteInConfiguredBatchesAndCloseStream() throws IOException {
+        List<Integer> batchSizes = new ArrayList<>();
+        AtomicBoolean closed = new AtomicBoolean();
+        Writer<String, Integer> writer = List::size;
+
+        new InputSetup<>(writer)
+            .withResponseHandler(batchSizes::add)
+            .withBatchSize(3)
+            .given(Stream.of("a", "b", "c", "d", "e", "f", "g").onClose(() -> closed.set(true)));
+
+        Assert.assertEquals(ImmutableList.of(3, 3, 1), batchSizes);
+        Assert.assertTrue(closed.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withBatchSize_GivenZero_ShouldThrow() {
+        setup.withBatchSize(0);
+    }
+
     @Test
     public void thenWait_GivenMilliseconds_ShouldSleepForConfiguredTime() throws InterruptedException {
         long startTime = System.currentTimeMillis();
@@ -45,10 +86,145 @@ public class InputSetupTest {
         Assert.assertThat(System.currentTimeMillis() - startTime, Matchers.greaterThanOrEqualTo(waitFor));
     }
 
+    @Test
+    public void givenAsync_GivenRecordsAndResponseHandler_ShouldInvokeHandlerOnceWritten() throws IOException {
+        List<String> records = ImmutableList.of(UUID.randomUUID().toString());
+        AtomicReference<String> result = new AtomicReference<>();
+
+        setup.withResponseHandler(result::set).givenAsync(records).thenAwaitWrites();
+
+        Mockito.verify(spyWriter).put(records);
+        Assert.assertEquals(records.toString(), result.get());
+    }
+
+    @Test
+    public void givenAsync_GivenAsyncWriter_ShouldDelegateToPutAsync() throws IOException {
+        FakeAsyncWriter asyncWriter = Mockito.spy(new FakeAsyncWriter());
+        List<String> records = ImmutableList.of(UUID.randomUUID().toString());
+
+        new InputSetup<>(asyncWriter).givenAsync(records).thenAwaitWrites();
+
+        Mockito.verify(asyncWriter).putAsync(records);
+    }
+
+    @Test(expected = IOException.class)
+    public void thenAwaitWrites_GivenFailedWrite_ShouldThrowIOException() throws IOException {
+        Writer<String, String> failingWriter = records -> {
+            throw new IOException("EXPECTED EXCEPTION");
+        };
+
+        new InputSetup<>(failingWriter).givenAsync(ImmutableList.of("a")).thenAwaitWrites();
+    }
+
+    @Test
+    public void givenAtRate_GivenRecordLimit_ShouldWriteLimitedRecordsInPacedBatches() throws Exception {
+        List<String> records = IntStream.range(0, 100).mapToObj(String::valueOf).collect(Collectors.toList());
+        List<Integer> batchSizes = new ArrayList<>();
+        AtomicReference<LoadReport> report = new AtomicReference<>();
+        Writer<String, Integer> writer = List::size;
+
+        new InputSetup<>(writer)
+            .withResponseHandler(batchSizes::add)
+            .withLoadReportHandler(report::set)
+            .givenAtRate(records.iterator(), LoadProfile.recordsPerSecond(200).forRecords(40));
+
+        // 200 records/s is paced in batches of 20 records
+        Assert.assertEquals(ImmutableList.of(20, 20), batchSizes);
+        Assert.assertEquals(40, report.get().getRecordsSent());
+        // the first batch is allowed immediately, the second waits 100 ms
+        Assert.assertThat(report.get().getElapsed(), Matchers.greaterThanOrEqualTo(Duration.ofMillis(90)));
+        Assert.assertThat(report.get().getAchievedRecordsPerSecond(), Matchers.lessThanOrEqualTo(450.0));
+    }
+
+    @Test
+    public void givenAtRate_GivenBytesPerSecondAndSizer_ShouldReportBytesSent() throws Exception {
+        AtomicReference<LoadReport> report = new AtomicReference<>();
+
+        setup.withRecordSizer(String::length)
+            .withLoadReportHandler(report::set)
+            .givenAtRate(ImmutableList.of("abc", "de").iterator(), LoadProfile.bytesPerSecond(1000));
+
+        Assert.assertEquals(2, report.get().getRecordsSent());
+        Assert.assertEquals(5, report.get().getBytesSent());
+    }
+
+    @Test
+    public void givenAtRate_GivenWriterMeasuringBytes_ShouldReportMeasuredBytesWithoutSizing() throws Exception {
+        AtomicReference<LoadReport> report = new AtomicReference<>();
+
+        new InputSetup<>(new MeteredWriter())
+            .withRecordSizer(InputSetupTest::unexpectedSize)
+            .withLoadReportHandler(report::set)
+            .givenAtRate(ImmutableList.of("abc", "de").iterator(), LoadProfile.bytesPerSecond(1000));
+
+        Assert.assertEquals(2, report.get().getRecordsSent());
+        Assert.assertEquals(5, report.get().getBytesSent());
+    }
+
+    @Test
+    public void givenAtRate_GivenRecordsPerSecond_ShouldNotSizeRecords() throws Exception {
+        AtomicReference<LoadReport> report = new AtomicReference<>();
+
+        setup.withRecordSizer(InputSetupTest::unexpectedSize)
+            .withLoadReportHandler(report::set)
+            .givenAtRate(ImmutableList.of("abc", "de").iterator(), LoadProfile.recordsPerSecond(1000));
+
+        Assert.assertEquals(2, report.get().getRecordsSent());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void givenAtRate_GivenBytesPerSecondWithoutSizer_ShouldThrow() throws Exception {
+        setup.givenAtRate(ImmutableList.of("a").iterator(), LoadProfile.bytesPerSecond(1000));
+    }
+
+    @Test
+    public void getWriteMetrics_ShouldReturnMetricsRecordedByWriter() throws IOException {
+        InputSetup<String, String> meteredSetup = new InputSetup<>(new MeteredWriter());
+
+        meteredSetup.given(ImmutableList.of("a")).given(ImmutableList.of("b"));
+
+        Assert.assertEquals(2, meteredSetup.getWriteMetrics().getPutLatency().getCount());
+        Assert.assertEquals(0, meteredSetup.resetWriteMetrics().getWriteMetrics().getPutLatency().getCount());
+    }
+
+    @Test
+    public void getWriteMetrics_GivenWriterWithoutMetrics_ShouldBeEmpty() throws IOException {
+        setup.given(ImmutableList.of("a"));
+
+        Assert.assertEquals(0, setup.getWriteMetrics().getPutLatency().getCount());
+    }
+
+    private static int unexpectedSize(String record) {
+        throw new AssertionError("records should not be sized: " + record);
+    }
+
+    private static class FakeAsyncWriter implements AsyncWriter<String, String> {
+        @Override
+        public CompletableFuture<String> putAsync(List<String> records) {
+            return CompletableFuture.completedFuture(records.toString());
+        }
+    }
+
     private static class FakeWriter implements Writer<String, String> {
         @Override
         public String put(List<String> records) {
             return records.toString();
         }
     }
+
+    private static class MeteredWriter implements Writer<String, String> {
+        private WriteMetrics metrics;
+
+        @Override
+        public String put(List<String> records) {
+            metrics.recordSerialization(0, records.stream().mapToInt(String::length).sum());
+            metrics.recordPut(Duration.ofMillis(1).toNanos());
+            return records.toString();
+        }
+
+        @Override
+        public void setMetrics(WriteMetrics metrics) {
+            this.metrics = metrics;
+        }
+    }
 }
@@ -0,0 +1,89 @@
+package io.nuvalence.kiqt.junit.setup;
+
+import io.nuvalence.kiqt.core.inputs.Writer;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MultiInputSetupTest {
+    private List<String> writes = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    public void write_ShouldWriteEachStepToEveryInputBeforeTheNext() throws IOException {
+        new MultiInputSetup()
+            .given(input("left"), Arrays.asList(0L, 500L, 1000L, 2500L).iterator(), Long::longValue)
+            .given(input("right"), Arrays.asList(100L, 1100L, 1200L).iterator(), Long::longValue)
+            .inStepsOf(Duration.ofSeconds(1))
+            .write();
+
+        Assert.assertEquals(5, writes.size());
+        Assert.assertTrue(writes.subList(0, 2).containsAll(Arrays.asList("left[0, 500]", "right[100]")));
+        Assert.assertTrue(writes.subList(2, 4).containsAll(Arrays.asList("left[1000]", "right[1100, 1200]")));
+        Assert.assertEquals("left[2500]", writes.get(4));
+    }
+
+    @Test
+    public void write_ShouldWriteInputsConcurrently() throws IOException {
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        Writer<Long, String> writer = records -> {
+            try {
+                barrier.await(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IOException("inputs were not written concurrently", e);
+            }
+            return records.toString();
+        };
+
+        new MultiInputSetup()
+            .given(new InputSetup<>(writer), Arrays.asList(0L, 1000L).iterator(), Long::longValue)
+            .given(new InputSetup<>(writer), Arrays.asList(10L, 1010L).iterator(), Long::longValue)
+            .write();
+    }
+
+    @Test(expected = IOException.class)
+    public void write_GivenFailingInput_ShouldRethrow() throws IOException {
+        Writer<Long, String> writer = records -> {
+            throw new IOException("failed");
+        };
+
+        new MultiInputSetup()
+            .given(new InputSetup<>(writer), Arrays.asList(0L).iterator(), Long::longValue)
+            .write();
+    }
+
+    @Test
+    public void write_GivenRealTime_ShouldPaceStepsWithEventTime() throws IOException {
+        long start = System.nanoTime();
+
+        new MultiInputSetup()
+            .given(input("left"), Arrays.asList(0L, 200L).iterator(), Long::longValue)
+            .inStepsOf(Duration.ofMillis(100))
+            .inRealTime()
+            .write();
+
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+        Assert.assertEquals(Arrays.asList("left[0]", "left[200]"), writes);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void inStepsOf_GivenLessThanOneMillisecond_ShouldThrow() {
+        new MultiInputSetup().inStepsOf(Duration.ofNanos(10));
+    }
+
+    private InputSetup<Long, String> input(String name) {
+        Writer<Long, String> writer = records -> {
+            writes.add(name + records);
+            return records.toString();
+        };
+        return new InputSetup<>(writer);
+    }
+}
@@ -0,0 +1,102 @@
+package io.nuvalence.kiqt.junit.soak;
+
+import io.nuvalence.kiqt.core.inputs.Writer;
+import io.nuvalence.kiqt.core.outputs.Reader;
+import io.nuvalence.kiqt.core.outputs.ReaderConfiguration;
+import io.nuvalence.kiqt.junit.setup.InputSetup;
+import io.nuvalence.kiqt.junit.setup.LoadProfile;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SoakRunnerTest {
+    private EchoStream stream = new EchoStream();
+    private SoakRunner<String, String> runner = new SoakRunner<>(new InputSetup<>(stream), stream)
+        .withCheckpointInterval(Duration.ofMillis(50))
+        .withDrainPeriod(Duration.ofMillis(20));
+
+    @Test
+    public void run_ShouldVerifyEachOutputOnceAndTakeCheckpoints() throws IOException, InterruptedException {
+        AtomicLong verified = new AtomicLong();
+        List<SoakCheckpoint> handled = new ArrayList<>();
+
+        SoakReport report = runner
+            .verifying(outputs -> verified.addAndGet(outputs.size()))
+            .withCheckpointHandler(handled::add)
+            .run(records(), LoadProfile.recordsPerSecond(2000).forRecords(300));
+
+        Assert.assertEquals(300, verified.get());
+        Assert.assertEquals(300, report.getTotalOutputsRead());
+        Assert.assertEquals(300, report.getLoadReport().getRecordsSent());
+        Assert.assertEquals(handled, report.getCheckpoints());
+        Assert.assertTrue(handled.size() > 1);
+        SoakCheckpoint last = handled.get(handled.size() - 1);
+        Assert.assertEquals(300, last.getTotalRecordsWritten());
+        Assert.assertEquals(handled.size() - 1, last.getIndex());
+        Assert.assertEquals(300, handled.stream().mapToLong(SoakCheckpoint::getRecordsWritten).sum());
+    }
+
+    @Test(expected = AssertionError.class)
+    public void run_GivenFailingVerifier_ShouldStopAndRethrow() throws IOException, InterruptedException {
+        runner.verifying(outputs -> {
+            throw new AssertionError("unexpected output");
+        }).run(records(), LoadProfile.recordsPerSecond(100).forDuration(Duration.ofMinutes(1)));
+    }
+
+    @Test(expected = IOException.class)
+    public void run_GivenFailingWriter_ShouldRethrow() throws IOException, InterruptedException {
+        Writer<String, String> writer = records -> {
+            throw new IOException("failed");
+        };
+
+        new SoakRunner<>(new InputSetup<>(writer), stream)
+            .withCheckpointInterval(Duration.ofMillis(50))
+            .run(records(), LoadProfile.recordsPerSecond(100).forDuration(Duration.ofMinutes(1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void withCheckpointInterval_GivenZero_ShouldThrow() {
+        runner.withCheckpointInterval(Duration.ZERO);
+    }
+
+    private static Iterator<String> records() {
+        return IntStream.range(0, Integer.MAX_VALUE).mapToObj(String::valueOf).iterator();
+    }
+
+    /**
+     * Reads back every record written, each once.
+     */
+    private static class EchoStream implements Writer<String, String>, Reader<String> {
+        private final Queue<String> written = new ConcurrentLinkedQueue<>();
+
+        @Override
+        public String put(List<String> records) {
+            written.addAll(records);
+            return records.toString();
+        }
+
+        @Override
+        public List<String> getRecords() {
+            List<String> records = new ArrayList<>();
+            String record;
+            while ((record = written.poll()) != null) {
+                records.add(record);
+            }
+            return records;
+        }
+
+        @Override
+        public void setConfiguration(ReaderConfiguration configuration) {
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package io.nuvalence.kiqt.junit.verification;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IncrementalAssertionTest {
+
+    @Test
+    public void containsAll_ShouldBeSatisfiedOnceEveryExpectedRecordIsSeen() {
+        IncrementalAssertion<String> assertion = IncrementalAssertion.containsAll(Arrays.asList("a", "b", "b"));
+
+        assertion.accept("b");
+        assertion.accept("c");
+        assertion.accept("a");
+
+        Assert.assertFalse(assertion.isSatisfied());
+        Assert.assertEquals("2 of 3 expected records seen", assertion.describeProgress());
+
+        assertion.accept("b");
+        assertion.accept("b");
+
+        Assert.assertTrue(assertion.isSatisfied());
+        Assert.assertFalse(assertion.isViolated());
+        Assert.assertEquals("3 of 3 expected records seen", assertion.describeProgress());
+    }
+
+    @Test
+    public void containsAll_ShouldDescribeProgressWithThousandsSeparators() {
+        IncrementalAssertion<Integer> assertion = IncrementalAssertion.containsAll(
+            IntStream.range(0, 10_000).boxed().collect(Collectors.toList())
+        );
+        IntStream.range(0, 412).forEach(assertion::accept);
+
+        Assert.assertEquals("412 of 10,000 expected records seen", assertion.describeProgress());
+    }
+
+    @Test
+    public void noneMatch_GivenMatchingRecord_ShouldBeViolated() {
+        IncrementalAssertion<Integer> assertion = IncrementalAssertion.noneMatch("negative", value -> value < 0);
+
+        assertion.accept(1);
+        Assert.assertTrue(assertion.isSatisfied());
+        Assert.assertEquals("none of 1 records seen are negative", assertion.describeProgress());
+
+        assertion.accept(-1);
+        Assert.assertTrue(assertion.isViolated());
+        Assert.assertFalse(assertion.isSatisfied());
+        Assert.assertEquals("record -1 is negative", assertion.describeProgress());
+    }
+
+    @Test
+    public void allMatch_GivenMismatchingRecord_ShouldBeViolated() {
+        IncrementalAssertion<Integer> assertion = IncrementalAssertion.allMatch("positive", value -> value > 0);
+
+        assertion.accept(1);
+        assertion.accept(2);
+        Assert.assertTrue(assertion.isSatisfied());
+        Assert.assertEquals("all of 2 records seen are positive", assertion.describeProgress());
+
+        assertion.accept(0);
+        Assert.assertTrue(assertion.isViolated());
+        Assert.assertEquals("record 0 is not positive", assertion.describeProgress());
+    }
+
+    @Test
+    public void countAtLeast_ShouldBeSatisfiedOnceCountIsReached() {
+        IncrementalAssertion<Integer> assertion = IncrementalAssertion.countAtLeast("even", value -> value % 2 == 0, 2);
+
+        assertion.accept(2);
+        assertion.accept(3);
+        Assert.assertFalse(assertion.isSatisfied());
+        Assert.assertEquals("1 of at least 2 records seen are even", assertion.describeProgress());
+
+        assertion.accept(4);
+        Assert.assertTrue(assertion.isSatisfied());
+    }
+}
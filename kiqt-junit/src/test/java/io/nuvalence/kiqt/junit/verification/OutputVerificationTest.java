@@ -1,11 +1,15 @@
 package io.nuvalence.kiqt.junit.verification;
 
+import io.nuvalence.kiqt.core.outputs.OutputCache;
 import io.nuvalence.kiqt.core.outputs.Reader;
 import io.nuvalence.kiqt.core.outputs.ReaderConfiguration;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
@@ -103,6 +107,197 @@ public class OutputVerificationTest {
         }
     }
 
+    @Test
+    public void should_GivenIncrementalAssertion_ShouldConsumeEachRecordOnce() throws IOException {
+        Queue<List<String>> batches = new LinkedList<>(Arrays.asList(
+            Collections.singletonList("a"), Collections.emptyList(), Arrays.asList("b", "c")
+        ));
+        CountingAssertion assertion = new CountingAssertion(Arrays.asList("a", "b", "c"));
+
+        new OutputVerification<>(new FakeReader(() -> batches.isEmpty() ? Collections.emptyList() : batches.poll()))
+            .within(1000L)
+            .should(assertion);
+
+        Assert.assertEquals(3, assertion.accepted);
+    }
+
+    @Test
+    public void should_GivenIncrementalAssertionOnCursorReader_ShouldReadFromFirstRecord() throws IOException {
+        OutputCache<String> cache = new OutputCache<>(new FakeReader(() -> Arrays.asList("a", "b")), 60_000L);
+        try {
+            OutputVerification<String> verification = new OutputVerification<>(cache);
+            verification.should(IncrementalAssertion.containsAll(Arrays.asList("a", "b")));
+            verification.should(IncrementalAssertion.countAtLeast("any", record -> true, 2));
+        } finally {
+            cache.cancel();
+        }
+    }
+
+    @Test
+    public void should_GivenViolatedIncrementalAssertion_ShouldFailWithoutWaitingForTimeout() throws IOException {
+        long start = System.currentTimeMillis();
+        try {
+            new OutputVerification<>(new FakeReader(() -> Collections.singletonList("unexpected")))
+                .within(5000L)
+                .should(IncrementalAssertion.noneMatch("unexpected", "unexpected"::equals));
+            Assert.fail("expected assertion error");
+        } catch (AssertionError e) {
+            Assert.assertEquals("assertion violated: record unexpected is unexpected", e.getMessage());
+        }
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+
+    @Test
+    public void should_GivenNoneMatchAndMatchingRecordAfterFirstPoll_ShouldFail() throws IOException {
+        Queue<List<String>> batches = new LinkedList<>(Arrays.asList(
+            Collections.emptyList(), Collections.singletonList("a"), Collections.singletonList("unexpected")
+        ));
+        try {
+            new OutputVerification<>(new FakeReader(() -> batches.isEmpty() ? Collections.emptyList() : batches.poll()))
+                .within(5000L)
+                .should(IncrementalAssertion.noneMatch("unexpected", "unexpected"::equals));
+            Assert.fail("expected assertion error");
+        } catch (AssertionError e) {
+            Assert.assertEquals("assertion violated: record unexpected is unexpected", e.getMessage());
+        }
+    }
+
+    @Test
+    public void should_GivenAllMatchWithoutMismatchingRecords_ShouldPassOnceTimeoutElapses() throws IOException {
+        long start = System.currentTimeMillis();
+
+        new OutputVerification<>(new FakeReader(() -> Collections.singletonList("a")))
+            .within(300L)
+            .should(IncrementalAssertion.allMatch("a", "a"::equals));
+
+        Assert.assertTrue(System.currentTimeMillis() - start >= 300);
+    }
+
+    @Test
+    public void should_GivenUnsatisfiedIncrementalAssertion_ShouldReportProgressOnTimeout() throws IOException {
+        Queue<List<String>> batches = new LinkedList<>(Collections.singletonList(Collections.singletonList("a")));
+        try {
+            new OutputVerification<>(new FakeReader(() -> batches.isEmpty() ? Collections.emptyList() : batches.poll()))
+                .within(200L)
+                .should(IncrementalAssertion.containsAll(Arrays.asList("a", "b")));
+            Assert.fail("expected timeout");
+        } catch (ConditionTimeoutException e) {
+            Assert.assertThat(e.getMessage(), Matchers.endsWith("1 of 2 expected records seen"));
+        }
+    }
+
+    @Test
+    public void should_GivenUnsatisfiedIncrementalAssertionAndCollector_ShouldAddErrorToCollector() throws Throwable {
+        FakeErrorCollector collector = new FakeErrorCollector();
+
+        new OutputVerification<>(new FakeReader(Collections::emptyList))
+            .whileContinuingOnErrors(collector)
+            .should(IncrementalAssertion.containsAll(Collections.singletonList("a")));
+
+        try {
+            collector.verify();
+            Assert.fail("expected assertion error");
+        } catch (AssertionError e) {
+            Assert.assertEquals("assertion not satisfied: 0 of 1 expected records seen", e.getMessage());
+        }
+    }
+
+    @Test
+    public void should_GivenArrivalNotifyingOutput_ShouldPassSoonAfterRecordsArrive() throws Exception {
+        Queue<List<String>> batches = new LinkedList<>(Arrays.asList(
+            Collections.emptyList(), Collections.singletonList("a")
+        ));
+        OutputCache<String> cache = new OutputCache<>(
+            new FakeReader(() -> batches.isEmpty() ? Collections.emptyList() : batches.poll()), 60_000L
+        );
+        Thread arrival = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+                cache.refresh();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        long start = System.currentTimeMillis();
+        arrival.start();
+        try {
+            new OutputVerification<>(cache)
+                .within(5000L)
+                .should("contain arrived record", Matchers.contains("a"));
+        } finally {
+            cache.cancel();
+            arrival.join();
+        }
+        Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+    }
+
+    @Test
+    public void should_GivenPolledArrivalNotifyingOutput_ShouldNotWaitForScheduledRefresh() throws Exception {
+        OutputCache<String> cache = new OutputCache<>(FakeReader.delay(100, Collections.singletonList("a")), 60_000L);
+        long start = System.currentTimeMillis();
+        try {
+            new OutputVerification<>(cache)
+                .within(5000L)
+                .should("contain arrived record", Matchers.hasItem("a"));
+        } finally {
+            cache.cancel();
+        }
+        Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+    }
+
+    @Test
+    public void should_GivenArrivalNotifyingOutputAndIncrementalAssertion_ShouldReportProgressOnTimeout()
+        throws IOException {
+        OutputCache<String> cache = new OutputCache<>(new FakeReader(() -> Collections.singletonList("a")), 60_000L);
+        try {
+            new OutputVerification<>(cache)
+                .within(100L)
+                .should(IncrementalAssertion.containsAll(Arrays.asList("a", "b")));
+            Assert.fail("expected timeout");
+        } catch (ConditionTimeoutException e) {
+            Assert.assertEquals("assertion not satisfied within 100ms: 1 of 2 expected records seen", e.getMessage());
+        } finally {
+            cache.cancel();
+        }
+    }
+
+    @Test(expected = ConditionTimeoutException.class)
+    public void should_GivenArrivalNotifyingOutputAndUnmetMatcher_ShouldThrowTimeoutException() throws IOException {
+        OutputCache<String> cache = new OutputCache<>(new FakeReader(Collections::emptyList), 60_000L);
+        try {
+            new OutputVerification<>(cache)
+                .within(100L)
+                .should("contain a record", Matchers.not(Matchers.empty()));
+        } finally {
+            cache.cancel();
+        }
+    }
+
+    private static class CountingAssertion extends IncrementalAssertion<String> {
+        private final IncrementalAssertion<String> delegate;
+        private int accepted;
+
+        CountingAssertion(List<String> expected) {
+            this.delegate = IncrementalAssertion.containsAll(expected);
+        }
+
+        @Override
+        public void accept(String record) {
+            accepted++;
+            delegate.accept(record);
+        }
+
+        @Override
+        public boolean isSatisfied() {
+            return delegate.isSatisfied();
+        }
+
+        @Override
+        public String describeProgress() {
+            return delegate.describeProgress();
+        }
+    }
+
     private static class FakeErrorCollector extends ErrorCollector {
         public void verify() throws Throwable {
             super.verify();
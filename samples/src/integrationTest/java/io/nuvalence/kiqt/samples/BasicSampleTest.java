@@ -9,6 +9,7 @@ import io.nuvalence.kiqt.samples.models.WeatherSignal;
 import java.io.IOException;
 import java.util.concurrent.TimeUnit;
 
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
@@ -37,6 +38,12 @@ public class BasicSampleTest {
         lifecycleManager.ensureRunning();
     }
 
+    @After
+    public void teardown() throws IOException {
+        // stop reading the outputs once the test is done
+        kiqt.close();
+    }
+
     @Test
     public void givenSimulatedWeatherSignals_ShouldAccuratelyComputeAvgMinAndMax() throws IOException {
         RandomSampleDataGenerator.TestCase testCase =
@@ -15,6 +15,7 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.concurrent.TimeUnit;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -40,6 +41,12 @@ public class ErrorHandlingSampleTest {
         lifecycleManager.ensureRunning();
     }
 
+    @After
+    public void teardown() throws IOException {
+        // stop reading the outputs once the test is done
+        kiqt.close();
+    }
+
     @Test
     public void givenInputThatDoesNotMatchSchema_ShouldGenerateIncludeInvalidInputInDataRow() throws IOException {
         InvalidWeatherSignal invalidInput = new InvalidWeatherSignal();
@@ -50,6 +50,7 @@ public class ExtendedQualityToolSampleTest {
                 records.forEach(System.out::println);
             }
         });
+        kiqt.close();
     }
 
     /**
@@ -1,28 +1,27 @@
 package io.nuvalence.kiqt.samples;
 
+import io.nuvalence.kiqt.core.generators.DataGenerator;
+import io.nuvalence.kiqt.core.generators.ExpectedOutputs;
 import io.nuvalence.kiqt.samples.models.ComputedTemperature;
 import io.nuvalence.kiqt.samples.models.WeatherSignal;
 
 import java.time.Instant;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
 import java.util.List;
-import java.util.Map;
-import java.util.Random;
-import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import com.google.common.collect.ImmutableList;
 import org.hamcrest.Matcher;
 import org.hamcrest.Matchers;
 
 /**
- * Generates random sample data for the sample application.
+ * Generates reproducible random sample data for the sample application.
  */
 public class RandomSampleDataGenerator {
     public static final AtomicLong POSTAL_CODE_GENERATOR = new AtomicLong(11111);
+    public static final long DEFAULT_SEED = 20190601L;
 
     /**
      * Creates a unique postal code to use in a test (we could have multiple tests running
@@ -54,7 +53,7 @@ public class RandomSampleDataGenerator {
 
     /**
      * Generates inputs and expected outputs for a combination of postal codes,
-     * event times, and a number of devices per postal code.
+     * event times, and a number of devices per postal code using the default seed.
      *
      * @param postalCodes list of postal codes to generate data for
      * @param times       list of times to generate data for
@@ -62,31 +61,48 @@ public class RandomSampleDataGenerator {
      * @return a test case defining all generated inputs and expected outputs
      */
     static TestCase generate(List<String> postalCodes, List<Long> times, int deviceCount) {
-        TestCase testCase = new TestCase();
-        Function<String, List<TestDevice>> createDevicesForPostCode = pc -> IntStream.range(0, deviceCount)
-            .mapToObj(i -> new TestDevice(pc))
-            .collect(Collectors.toList());
-        Map<String, List<TestDevice>> devicesByPostalCode = postalCodes.stream()
-            .collect(Collectors.toMap(pc -> pc, createDevicesForPostCode));
-
-        for (long time : times) {
-            devicesByPostalCode.forEach((pc, devices) -> {
-                List<WeatherSignal> inputs = devices.stream()
-                    .map(d -> d.randomSignal(time))
-                    .collect(Collectors.toList());
-                testCase.addInputs(inputs);
+        return generate(DEFAULT_SEED, postalCodes, times, deviceCount);
+    }
 
-                ComputedTemperature expected = new ComputedTemperature();
-                expected.setUtcTime(time);
-                expected.setPostalCode(pc);
-                expected.setMinimum(inputs.stream().mapToDouble(WeatherSignal::getValue).min().getAsDouble());
-                expected.setMaximum(inputs.stream().mapToDouble(WeatherSignal::getValue).max().getAsDouble());
-                expected.setAverage(inputs.stream().mapToDouble(WeatherSignal::getValue).average().getAsDouble());
-                testCase.addExpected(expected);
-            });
-        }
+    /**
+     * Generates inputs and expected outputs for a combination of postal codes,
+     * event times, and a number of devices per postal code. Expected outputs are
+     * accumulated as each input is generated, and the same seed always generates
+     * the same inputs.
+     *
+     * @param seed        seed from which every input is derived
+     * @param postalCodes list of postal codes to generate data for
+     * @param times       list of times to generate data for
+     * @param deviceCount number of devices per postal code
+     * @return a test case defining all generated inputs and expected outputs
+     */
+    static TestCase generate(long seed, List<String> postalCodes, List<Long> times, int deviceCount) {
+        int signalsPerTime = postalCodes.size() * deviceCount;
+        DataGenerator<WeatherSignal> generator = new DataGenerator<>(seed, (index, random) -> {
+            long device = index % signalsPerTime;
+            WeatherSignal ws = new WeatherSignal();
+            ws.setDeviceId(DataGenerator.uuid(seed, device).toString());
+            ws.setPostalCode(postalCodes.get((int) device / deviceCount));
+            ws.setUtcTime(times.get((int) (index / signalsPerTime)));
+            ws.setValue(40 + random.nextDouble() * 60);
+            return ws;
+        });
+        ExpectedOutputs<WeatherSignal, List<Object>, DoubleSummaryStatistics> expected = ExpectedOutputs.groupingBy(
+            ws -> Arrays.asList(ws.getPostalCode(), ws.getUtcTime()),
+            Collectors.summarizingDouble(WeatherSignal::getValue)
+        );
 
-        return testCase;
+        List<WeatherSignal> inputs = generator.list(times.size() * signalsPerTime, expected);
+        List<ComputedTemperature> expectedOutputs = expected.toList((key, statistics) -> {
+            ComputedTemperature computed = new ComputedTemperature();
+            computed.setPostalCode((String) key.get(0));
+            computed.setUtcTime((Long) key.get(1));
+            computed.setMinimum(statistics.getMin());
+            computed.setMaximum(statistics.getMax());
+            computed.setAverage(statistics.getAverage());
+            return computed;
+        });
+        return new TestCase(inputs, expectedOutputs);
     }
 
     /**
@@ -94,8 +110,13 @@ public class RandomSampleDataGenerator {
      */
     static class TestCase {
 
-        private List<WeatherSignal> inputs = new LinkedList<>();
-        private List<ComputedTemperature> expectedOutputs = new LinkedList<>();
+        private final List<WeatherSignal> inputs;
+        private final List<ComputedTemperature> expectedOutputs;
+
+        private TestCase(List<WeatherSignal> inputs, List<ComputedTemperature> expectedOutputs) {
+            this.inputs = inputs;
+            this.expectedOutputs = expectedOutputs;
+        }
 
         /**
          * Gets the inputs.
@@ -106,10 +127,6 @@ public class RandomSampleDataGenerator {
             return inputs;
         }
 
-        private void addInputs(List<WeatherSignal> additional) {
-            inputs.addAll(additional);
-        }
-
         /**
          * Gets the expected outputs.
          *
@@ -119,10 +136,6 @@ public class RandomSampleDataGenerator {
             return expectedOutputs;
         }
 
-        private void addExpected(ComputedTemperature expected) {
-            expectedOutputs.add(expected);
-        }
-
         /**
          * Gets a matcher for matching to a collection containing all expected outputs.
          *
@@ -132,29 +145,4 @@ public class RandomSampleDataGenerator {
             return Matchers.hasItems(getExpectedOutputs().toArray(new ComputedTemperature[0]));
         }
     }
-
-    private static class TestDevice {
-        private static final Random random = new Random();
-
-        private String deviceId;
-        private String postalCode;
-
-        private TestDevice(String postalCode) {
-            this(UUID.randomUUID().toString(), postalCode);
-        }
-
-        private TestDevice(String deviceId, String postalCode) {
-            this.deviceId = deviceId;
-            this.postalCode = postalCode;
-        }
-
-        private WeatherSignal randomSignal(Long timestamp) {
-            WeatherSignal ws = new WeatherSignal();
-            ws.setDeviceId(deviceId);
-            ws.setPostalCode(postalCode);
-            ws.setUtcTime(timestamp);
-            ws.setValue(40 + random.nextDouble() * 60);
-            return ws;
-        }
-    }
 }